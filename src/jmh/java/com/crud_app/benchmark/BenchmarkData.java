@@ -0,0 +1,129 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.CrudAppApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Общая подготовка бенчмарков: приложение с профилем test на нужной базе H2 и таблица items,
+// заполненная одним INSERT ... SELECT FROM SYSTEM_RANGE порциями (одна транзакция на миллион
+// строк в H2 заметно медленнее) с ANALYZE в конце. Файловые базы лежат в target/jmh-data
+// (-Djmh.data=...); ensureRows загружает заново, только если число строк не совпадает
+final class BenchmarkData {
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final int LOAD_CHUNK = 50_000;
+
+    private BenchmarkData() {
+    }
+
+    // Выражения столбцов от номера строки X; имя всегда 'Item ' || X
+    record Columns(String description, String createdAt, String updatedAt) {
+
+        // Описания повторяются через 1000 строк, createdAt = updatedAt - по секунде на строку
+        static final Columns DEFAULT = new Columns("'Description ' || MOD(X, 1000)", seconds("X"), seconds("X"));
+
+        Columns withDescription(String description) {
+            return new Columns(description, createdAt, updatedAt);
+        }
+    }
+
+    // START + expression секунд
+    static String seconds(String expression) {
+        return "DATEADD('SECOND', " + expression + ", TIMESTAMP '2024-01-01 00:00:00')";
+    }
+
+    // База, сохраняемая между запусками
+    static String file(String name) {
+        return file(dataDir(name));
+    }
+
+    static String file(Path path) {
+        return "jdbc:h2:file:" + path + ";DB_CLOSE_ON_EXIT=FALSE";
+    }
+
+    // Новая файловая база для прогонов, которые её меняют
+    static String freshFile(String name) {
+        return file(freshDir(name));
+    }
+
+    static Path freshDir(String name) {
+        return dataDir(name + "-" + System.nanoTime());
+    }
+
+    private static Path dataDir(String name) {
+        return Path.of(System.getProperty("jmh.data", "target/jmh-data"), name).toAbsolutePath();
+    }
+
+    static String memory(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+
+    static ConfigurableApplicationContext start(String url, String... args) {
+        return start(WebApplicationType.NONE, List.of("test"), url, args);
+    }
+
+    // С Tomcat на случайном порту (см. port)
+    static ConfigurableApplicationContext startServer(String url, String... args) {
+        List<String> withPort = new ArrayList<>(List.of("--server.port=0"));
+        Collections.addAll(withPort, args);
+        return start(WebApplicationType.SERVLET, List.of("test"), url, withPort.toArray(String[]::new));
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType web, List<String> profiles, String url, String... args) {
+        List<String> all = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        Collections.addAll(all, args);
+        return new SpringApplicationBuilder(CrudAppApplication.class)
+                .web(web)
+                .profiles(profiles.toArray(String[]::new))
+                .run(all.toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    // true - таблица загружена заново (поисковый индекс тогда нужно перестроить)
+    static boolean ensureRows(ConfigurableApplicationContext context, int rows, Columns columns) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+        if (existing != null && existing == rows) {
+            return false;
+        }
+        load(jdbcTemplate, rows, columns);
+        return true;
+    }
+
+    static void load(ConfigurableApplicationContext context, int rows) {
+        load(context.getBean(JdbcTemplate.class), rows, Columns.DEFAULT);
+    }
+
+    static void load(JdbcTemplate jdbcTemplate, int rows, Columns columns) {
+        jdbcTemplate.execute("TRUNCATE TABLE items");
+        String insert = "INSERT INTO items (id, name, description, created_at, updated_at) " +
+                "SELECT RANDOM_UUID(), 'Item ' || X, " + columns.description() + ", " +
+                columns.createdAt() + ", " + columns.updatedAt() + " FROM SYSTEM_RANGE(?, ?)";
+        for (int from = 1; from <= rows; from += LOAD_CHUNK) {
+            jdbcTemplate.update(insert, from, Math.min(from + LOAD_CHUNK - 1, rows));
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    static double percentile(List<Long> sortedNanos, double quantile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        return sortedNanos.get((int) Math.min(sortedNanos.size() - 1, Math.ceil(quantile * sortedNanos.size()) - 1)) / 1e6;
+    }
+}
@@ -0,0 +1,107 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.BulkResult;
+import com.crud_app.dto.ItemRequest;
+import com.crud_app.model.Item;
+import com.crud_app.service.ItemBulkService;
+import com.crud_app.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Поштучный saveItem против пакетного API на вставке и удалении 20 000 строк.
+// Одна операция - все ROWS строк, таблица очищается перед каждой итерацией.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=BulkInsertBenchmark
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 20_000;
+
+    private static final List<ItemRequest> REQUESTS = IntStream.range(0, ROWS)
+            .mapToObj(i -> new ItemRequest(null, "Bulk " + i, "Description " + i))
+            .toList();
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        ConfigurableApplicationContext context;
+        ItemService itemService;
+        ItemBulkService bulkService;
+        JdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.memory("bulk"), "--app.search.index.enabled=false");
+            itemService = context.getBean(ItemService.class);
+            bulkService = context.getBean(ItemBulkService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void truncate() {
+            jdbcTemplate.execute("TRUNCATE TABLE items");
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    // Для удаления: строки создаются до итерации и в замер не входят
+    @State(Scope.Benchmark)
+    public static class Created {
+
+        List<UUID> ids;
+
+        @Setup(Level.Iteration)
+        public void create(Data data) {
+            ids = data.bulkService.createItems(REQUESTS).getIds();
+        }
+    }
+
+    @Benchmark
+    public int saveItemOneByOne(Data data) {
+        for (int i = 0; i < ROWS; i++) {
+            data.itemService.saveItem(Item.builder().name("Single " + i).description("Description " + i).build());
+        }
+        return ROWS;
+    }
+
+    @Benchmark
+    public BulkResult bulkCreate(Data data) {
+        return check(data.bulkService.createItems(REQUESTS));
+    }
+
+    @Benchmark
+    public BulkResult bulkDelete(Data data, Created created) {
+        return check(data.bulkService.deleteItems(created.ids));
+    }
+
+    private static BulkResult check(BulkResult result) {
+        if (result.getProcessed() != ROWS) {
+            throw new IllegalStateException("Обработано " + result.getProcessed() + " строк из " + ROWS);
+        }
+        return result;
+    }
+}
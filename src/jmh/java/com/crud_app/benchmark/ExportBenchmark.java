@@ -0,0 +1,70 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.service.ItemExportService;
+import com.crud_app.service.ItemFileFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Потоковый экспорт всей таблицы на 100 000 и 1 000 000 строк, байты выбрасываются.
+// Выделенную на строку память показывает профилировщик: с -prof gc gc.alloc.rate.norm
+// не должен расти вместе с таблицей (H2 в памяти лежит в той же куче, поэтому живую кучу
+// здесь сравнивать бессмысленно).
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=ExportBenchmark -Djmh.params="-prof gc"
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ExportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"100000", "1000000"})
+        public int rows;
+
+        @Param
+        public ItemFileFormat format;
+
+        ConfigurableApplicationContext context;
+        ItemExportService exportService;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.memory("export"), "--app.search.index.enabled=false");
+            BenchmarkData.load(context, rows);
+            exportService = context.getBean(ItemExportService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long export(Data data) throws IOException {
+        long exported = data.exportService.export(data.format, ItemFilter.NONE, OutputStream.nullOutputStream());
+        if (exported != data.rows) {
+            throw new IllegalStateException("Выгружено " + exported + " строк из " + data.rows);
+        }
+        return exported;
+    }
+}
@@ -0,0 +1,105 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сочетания фильтра списка (ItemRepository.findRows): ключевое слово, диапазон дат по createdAt/updatedAt
+// и сортировка. Каждое сочетание замеряется с индексами (поле DESC, id DESC) и после их удаления -
+// тогда H2 для ORDER BY ... DESC читает всю таблицу и сортирует её.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=FilterQueryBenchmark [-Djmh.params="-p rows=100000"]
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class FilterQueryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final List<String> DESC_INDEXES = List.of(
+            "idx_items_name_desc", "idx_items_description_desc", "idx_items_created_at_desc", "idx_items_updated_at_desc");
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"100000"})
+        public int rows;
+
+        @Param({"true", "false"})
+        public boolean descIndexes;
+
+        @Param({"list-createdAt", "list-name", "createdAt-7-days", "updatedAt-from-middle", "keyword", "keyword-createdAt-7-days"})
+        public String query;
+
+        ConfigurableApplicationContext context;
+        ItemRepository repository;
+        ItemFilter filter;
+        Pageable pageable;
+
+        @Setup(Level.Trial)
+        public void start() {
+            // Без OPTIMIZE_REUSE_RESULTS H2 не отдаёт повторно результат того же запроса с теми же параметрами
+            context = BenchmarkData.start(BenchmarkData.memory("filters") + ";OPTIMIZE_REUSE_RESULTS=FALSE",
+                    "--app.search.index.enabled=false");
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            // Даты создания - по минуте на строку, изменена каждая третья
+            BenchmarkData.load(jdbcTemplate, rows, new BenchmarkData.Columns("'Description ' || MOD(X, 1000)",
+                    BenchmarkData.seconds("X * 60"),
+                    "CASEWHEN(MOD(X, 3) = 0, " + BenchmarkData.seconds("X * 120") + ", NULL)"));
+            if (!descIndexes) {
+                DESC_INDEXES.forEach(index -> jdbcTemplate.execute("DROP INDEX " + index));
+            }
+            repository = context.getBean(ItemRepository.class);
+
+            LocalDate start = BenchmarkData.START.toLocalDate();
+            LocalDate middle = start.plusDays(rows / 60 / 24 / 2);
+            filter = switch (query) {
+                case "createdAt-7-days" -> new ItemFilter(null, ItemFilter.CREATED_AT, middle, middle.plusDays(6));
+                case "updatedAt-from-middle" -> new ItemFilter(null, ItemFilter.UPDATED_AT, middle, null);
+                case "keyword" -> ItemFilter.keyword("description 42");
+                case "keyword-createdAt-7-days" -> new ItemFilter("description 4", ItemFilter.CREATED_AT, middle, middle.plusDays(6));
+                default -> ItemFilter.NONE;
+            };
+            Sort sort = switch (query) {
+                case "list-name" -> Sort.by("name").descending();
+                case "updatedAt-from-middle" -> Sort.by("updatedAt").descending();
+                case "keyword-createdAt-7-days" -> Sort.by("name").ascending();
+                default -> Sort.by("createdAt").descending();
+            };
+            pageable = PageRequest.of(0, PAGE_SIZE, sort);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Slice<ItemRow> findRows(Data data) {
+        return data.repository.findRows(data.filter, data.pageable);
+    }
+}
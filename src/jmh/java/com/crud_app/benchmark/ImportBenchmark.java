@@ -0,0 +1,106 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ImportReport;
+import com.crud_app.service.ItemFileFormat;
+import com.crud_app.service.ItemImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Импорт 200 000 строк из сгенерированного на лету потока (файл в память не собирается);
+// каждая сотая строка с пустым названием отклоняется. Одна операция - весь файл.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=ImportBenchmark
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class ImportBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param
+        public ItemFileFormat format;
+
+        ConfigurableApplicationContext context;
+        ItemImportService importService;
+        JdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.memory("import"), "--app.search.index.enabled=false");
+            importService = context.getBean(ItemImportService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void truncate() {
+            jdbcTemplate.execute("TRUNCATE TABLE items");
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public ImportReport importItems(Data data) throws Exception {
+        ImportReport report = data.importService.importItems(data.format, new GeneratedInput(data.format, ROWS));
+        if (report.getRowsWritten() != ROWS - ROWS / 100) {
+            throw new IllegalStateException("Записано " + report.getRowsWritten() + " строк из " + (ROWS - ROWS / 100));
+        }
+        return report;
+    }
+
+    private static class GeneratedInput extends InputStream {
+        private final ItemFileFormat format;
+        private final int rows;
+        private int next;
+        private byte[] current;
+        private int position;
+
+        GeneratedInput(ItemFileFormat format, int rows) {
+            this.format = format;
+            this.rows = rows;
+            this.current = format == ItemFileFormat.CSV
+                    ? "name,description\n".getBytes(StandardCharsets.UTF_8) : new byte[0];
+        }
+
+        @Override
+        public int read() {
+            while (position == current.length) {
+                if (next == rows) {
+                    return -1;
+                }
+                String name = next % 100 == 0 ? "" : "Item " + next;
+                String line = format == ItemFileFormat.CSV
+                        ? name + ",Description " + next + "\n"
+                        : "{\"name\":\"" + name + "\",\"description\":\"Description " + next + "\"}\n";
+                current = line.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                next++;
+            }
+            return current[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.service.ItemSearchIndex;
+import com.crud_app.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Горячие пути ItemService на таблице из 10 000 / 1 000 000 / 10 000 000 строк.
+// Кэши записей и страниц выключены, чтобы замерять запросы и маппинг сущностей.
+// Данные лежат в файловой H2 в target/jmh-data и загружаются заново, только если
+// число строк не совпадает с параметром rows (BenchmarkData).
+//
+// mvnw.cmd -Pjmh test-compile exec:exec                                 - все размеры
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.params="-p rows=10000"    - один размер
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=".*getItemById"   - один метод
+// Результаты: target/jmh-result.json (-Djmh.result=...), сравниваются между релизами
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ItemServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int SAMPLE_IDS = 1000;
+    private static final int DAYS = 365;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final String SAVED_NAME = "JMH save";
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"10000", "1000000", "10000000"})
+        public int rows;
+
+        ConfigurableApplicationContext context;
+        ItemService itemService;
+        JdbcTemplate jdbcTemplate;
+        UUID[] sampleIds;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.file("items-" + rows),
+                    "--spring.jpa.hibernate.ddl-auto=update",
+                    "--app.cache.items.max-size=0",
+                    "--app.cache.pages.max-size=0");
+            itemService = context.getBean(ItemService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            // Даты создания равномерно на год вперёд от START, изменения - в пределах суток после
+            long step = DAYS * 86_400L / rows;
+            BenchmarkData.Columns columns = new BenchmarkData.Columns("'Description ' || MOD(X, 1000)",
+                    BenchmarkData.seconds("X * " + step), BenchmarkData.seconds("X * " + step + " + MOD(X, 86400)"));
+            if (BenchmarkData.ensureRows(context, rows, columns)) {
+                context.getBean(ItemSearchIndex.class).rebuild();
+            }
+
+            sampleIds = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY RAND() LIMIT ?",
+                    UUID.class, SAMPLE_IDS).toArray(UUID[]::new);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            // Убираем строки saveItem, чтобы сохранённая база подошла следующему запуску
+            jdbcTemplate.update("DELETE FROM items WHERE name = ?", SAVED_NAME);
+            context.close();
+        }
+
+        UUID randomId() {
+            return sampleIds[ThreadLocalRandom.current().nextInt(sampleIds.length)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Listing {
+
+        @Param({"createdAt", "name"})
+        public String sort;
+
+        // Глубина страницы относительно размера таблицы
+        @Param({"first", "middle", "last"})
+        public String depth;
+
+        int page;
+
+        @Setup(Level.Trial)
+        public void setUp(Data data) {
+            int lastPage = (data.rows - 1) / PAGE_SIZE;
+            page = switch (depth) {
+                case "middle" -> lastPage / 2;
+                case "last" -> lastPage;
+                default -> 0;
+            };
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Search {
+
+        // Селективность: все строки / ~1% / единицы / ничего
+        @Param({"item", "description 42", "item 4242", "absent"})
+        public String keyword;
+
+        @Param({"first", "tenth"})
+        public String depth;
+
+        int page;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            page = depth.equals("tenth") ? 9 : 0;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CreatedAfter {
+
+        // Доля года, после которой ищем: вся таблица / половина / последние дни
+        @Param({"0.0", "0.5", "0.99"})
+        public double fraction;
+
+        ItemFilter filter;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            filter = new ItemFilter(null, ItemFilter.CREATED_AT, START.plusDays((long) (DAYS * fraction)), null);
+        }
+    }
+
+    @Benchmark
+    public Page<ItemRow> getAllItemsPaginated(Data data, Listing listing) {
+        return data.itemService.findItems(ItemFilter.NONE, listing.page, PAGE_SIZE, listing.sort, "desc");
+    }
+
+    @Benchmark
+    public Page<ItemRow> searchItems(Data data, Search search) {
+        return data.itemService.findItems(ItemFilter.keyword(search.keyword), search.page, PAGE_SIZE, null, "desc");
+    }
+
+    @Benchmark
+    public Page<ItemRow> findByCreatedAtAfter(Data data, CreatedAfter createdAfter) {
+        return data.itemService.findItems(createdAfter.filter, 0, PAGE_SIZE, "createdAt", "desc");
+    }
+
+    @Benchmark
+    public Optional<Item> getItemById(Data data) {
+        return data.itemService.getItemById(data.randomId());
+    }
+
+    @Benchmark
+    public Item saveItem(Data data) {
+        return data.itemService.saveItem(Item.builder()
+                .name(SAVED_NAME)
+                .description("Description " + ThreadLocalRandom.current().nextInt(1000))
+                .build());
+    }
+}
@@ -0,0 +1,95 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemCursor;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.KeysetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// OFFSET- против keyset-пагинации на первой и на 100 000-й странице.
+// Кэши выключены, чтобы замерять запросы к БД; таблица в target/jmh-data/keyset.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=KeysetPaginationBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class KeysetPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int DEEP_PAGE = 100_000;
+    private static final int ROWS = (DEEP_PAGE + 1) * PAGE_SIZE;
+    private static final String DIR = "desc";
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"createdAt", "name"})
+        public String sort;
+
+        @Param({"first", "deep"})
+        public String depth;
+
+        ConfigurableApplicationContext context;
+        ItemService itemService;
+        int page;
+        String cursor;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.file("keyset"),
+                    "--spring.jpa.hibernate.ddl-auto=update",
+                    "--app.cache.items.max-size=0",
+                    "--app.cache.pages.max-size=0",
+                    "--app.cache.fragments.max-size=0",
+                    "--app.search.index.enabled=false");
+            BenchmarkData.ensureRows(context, ROWS, BenchmarkData.Columns.DEFAULT);
+            itemService = context.getBean(ItemService.class);
+
+            if (depth.equals("deep")) {
+                page = DEEP_PAGE;
+                // Курсор последней записи на странице DEEP_PAGE - 1
+                List<ItemRow> previous = context.getBean(ItemRepository.class).findRows(ItemFilter.NONE,
+                        PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE, Sort.by(Sort.Order.desc(sort), Sort.Order.desc("id"))))
+                        .getContent();
+                cursor = ItemCursor.of(previous.get(PAGE_SIZE - 1), sort, DIR).encode();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Page<ItemRow> offset(Data data) {
+        return data.itemService.findItems(ItemFilter.NONE, data.page, PAGE_SIZE, data.sort, DIR);
+    }
+
+    @Benchmark
+    public KeysetPage<ItemRow> keyset(Data data) {
+        return data.itemService.getItemsKeyset(data.cursor, null, PAGE_SIZE, data.sort, DIR);
+    }
+}
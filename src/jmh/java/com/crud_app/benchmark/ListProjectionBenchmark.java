@@ -0,0 +1,87 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Выборка страницы списка: управляемые сущности Item (прежний путь) против строк ItemRow
+// (SELECT new ...) на keyset-страницах, offset-страницы - строками findRows.
+// Память на запрос - с -prof gc (gc.alloc.rate.norm: H2 в памяти выполняет запрос в том же потоке).
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=ListProjectionBenchmark -Djmh.params="-prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class ListProjectionBenchmark {
+
+    private static final int PAGES = 20;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"100000"})
+        public int rows;
+
+        @Param({"50", "100", "200", "500"})
+        public int size;
+
+        ConfigurableApplicationContext context;
+        ItemRepository repository;
+        int page;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.memory("projection"), "--app.search.index.enabled=false");
+            BenchmarkData.load(context, rows);
+            repository = context.getBean(ItemRepository.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        // Порядок по индексу (name, id): иначе время и память съедает сортировка в H2, а не маппинг
+        PageRequest nextPage() {
+            page = (page + 1) % PAGES;
+            return PageRequest.of(page, size, Sort.by("name").ascending());
+        }
+    }
+
+    @Benchmark
+    public Slice<ItemRow> offsetRows(Data data) {
+        return data.repository.findRows(ItemFilter.NONE, data.nextPage());
+    }
+
+    @Benchmark
+    public List<Item> keysetEntities(Data data) {
+        return data.repository.seek("name", true, null, null, data.size);
+    }
+
+    @Benchmark
+    public List<ItemRow> keysetRows(Data data) {
+        return data.repository.seekRows("name", true, null, null, data.size);
+    }
+}
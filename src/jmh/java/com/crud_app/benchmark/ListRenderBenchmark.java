@@ -0,0 +1,94 @@
+package com.crud_app.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// GET /items на большой таблице (200 000 строк, 20 000 страниц по 10): без кэша фрагментов
+// (выборка + рендеринг всей страницы) и с ним. Кэши ItemCache выключены, чтобы разница была
+// только в рендеринге. Средний размер ответа печатается при старте.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=ListRenderBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class ListRenderBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int[] PAGES = {0, 1, 2, 100, 9_999};
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"200000"})
+        public int rows;
+
+        @Param({"false", "true"})
+        public boolean fragmentCache;
+
+        ConfigurableApplicationContext context;
+        HttpClient http;
+        URI[] pages;
+        int next;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            context = BenchmarkData.startServer(BenchmarkData.memory("render"),
+                    "--spring.thymeleaf.cache=true",
+                    "--app.cache.items.max-size=0",
+                    "--app.cache.pages.max-size=0",
+                    "--app.cache.fragments.max-size=" + (fragmentCache ? 1000 : 0),
+                    "--app.search.index.enabled=false");
+            BenchmarkData.load(context, rows);
+            http = HttpClient.newHttpClient();
+            int port = BenchmarkData.port(context);
+            pages = new URI[PAGES.length];
+            long bytes = 0;
+            for (int i = 0; i < PAGES.length; i++) {
+                pages[i] = URI.create("http://localhost:" + port + "/items?page=" + PAGES[i] + "&size=" + PAGE_SIZE);
+                bytes += get(this, pages[i]).length;
+            }
+            System.out.printf("%nкэш фрагментов %s: %,d байт на ответ%n", fragmentCache, bytes / PAGES.length);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            http.close();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] listPage(Data data) throws Exception {
+        data.next = (data.next + 1) % data.pages.length;
+        return get(data, data.pages[data.next]);
+    }
+
+    private static byte[] get(Data data, URI uri) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = data.http.send(HttpRequest.newBuilder(uri).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + ": " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,134 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// ItemRepository на файловой базе H2 через JPA против хранилища вне кучи (профиль offheap)
+// на одних и тех же данных: чтение по id, страницы списка (OFFSET и keyset) и запись по одной
+// правке в транзакции. Данные вставляются через saveAll порциями по 1000, как в приложении.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=OffHeapRepositoryBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class OffHeapRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int CHUNK = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"200000"})
+        public int rows;
+
+        @Param({"jpa", "offheap"})
+        public String store;
+
+        ConfigurableApplicationContext context;
+        ItemRepository repository;
+        TransactionTemplate transactionTemplate;
+        List<UUID> ids;
+        Random random;
+        int page;
+        List<ItemRow> seek;
+        int edits;
+
+        @Setup(Level.Trial)
+        public void start() {
+            Path dir = BenchmarkData.freshDir("offheap");
+            context = BenchmarkData.start(WebApplicationType.NONE,
+                    store.equals("jpa") ? List.of("test") : List.of("test", "offheap"),
+                    BenchmarkData.file(dir.resolve("h2")),
+                    "--app.offheap.dir=" + dir.resolve("store"),
+                    "--app.search.index.enabled=false",
+                    "--app.db.bulkhead.queue-timeout=60s");
+            repository = context.getBean(ItemRepository.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+
+            ids = new ArrayList<>(rows);
+            for (int from = 0; from < rows; from += CHUNK) {
+                int chunk = from;
+                transactionTemplate.executeWithoutResult(status -> repository.saveAll(IntStream.range(chunk, Math.min(chunk + CHUNK, rows))
+                                .mapToObj(i -> Item.builder().name("Item " + i).description("Description " + i).build())
+                                .toList())
+                        .forEach(item -> ids.add(item.getId())));
+            }
+            random = new Random(42);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        UUID randomId() {
+            return ids.get(random.nextInt(ids.size()));
+        }
+    }
+
+    @Benchmark
+    public Item findById(Data data) {
+        return data.repository.findById(data.randomId()).orElseThrow();
+    }
+
+    @Benchmark
+    public Slice<ItemRow> findRows(Data data) {
+        data.page = (data.page + 1) % 50;
+        return data.repository.findRows(ItemFilter.NONE, PageRequest.of(data.page, PAGE_SIZE));
+    }
+
+    // Проход по name страницами по 20, с начала - после последней
+    @Benchmark
+    public List<ItemRow> seekRows(Data data) {
+        List<ItemRow> page = data.seek;
+        if (page == null || page.size() < PAGE_SIZE) {
+            page = data.repository.seekRows("name", true, null, null, PAGE_SIZE);
+        } else {
+            ItemRow last = page.get(page.size() - 1);
+            page = data.repository.seekRows("name", true, last.name(), last.id(), PAGE_SIZE);
+        }
+        data.seek = page;
+        return page;
+    }
+
+    @Benchmark
+    public void findAndSave(Data data) {
+        UUID id = data.randomId();
+        String name = "Edit " + data.edits++;
+        data.transactionTemplate.executeWithoutResult(status -> {
+            Item item = data.repository.findById(id).orElseThrow();
+            item.setName(name);
+            data.repository.save(item);
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemVersionConflictException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Правка записи на файловой базе H2 с чтением формы: прежний путь (saveItem -> merge: SELECT +
+// UPDATE всех столбцов) против patchItem (один UPDATE ... FINAL TABLE). После прогона печатается
+// число JDBC-запросов на правку по статистике Hibernate. contended - 16 потоков правят одну запись
+// по прочитанной версии; конфликты считаются правками (проверка, что правки не теряются, -
+// ItemPatchConcurrencyTest).
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=PatchBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class PatchBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"merge", "patch"})
+        public String mode;
+
+        ConfigurableApplicationContext context;
+        ItemService itemService;
+        ItemRepository repository;
+        Statistics statistics;
+        List<UUID> ids;
+        final AtomicLong edits = new AtomicLong();
+        final AtomicInteger conflicts = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.freshFile("patch"),
+                    "--spring.jpa.properties.hibernate.generate_statistics=true",
+                    "--app.search.index.enabled=false",
+                    "--app.db.bulkhead.queue-timeout=60s");
+            itemService = context.getBean(ItemService.class);
+            repository = context.getBean(ItemRepository.class);
+            statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            ids = repository.saveAll(IntStream.range(0, ITEMS)
+                            .mapToObj(i -> Item.builder().name("Item " + i).description("Description " + i).build())
+                            .toList())
+                    .stream().map(Item::getId).toList();
+            statistics.clear();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            // Вместе с чтением формы (findById)
+            System.out.printf("%n%s: %,.2f запроса на правку, конфликтов %,d из %,d%n", mode,
+                    statistics.getPrepareStatementCount() / (double) Math.max(1, edits.get()), conflicts.get(), edits.get());
+            context.close();
+        }
+
+        void edit(UUID id) {
+            Item current = repository.findById(id).orElseThrow();
+            String name = "Edit " + edits.incrementAndGet();
+            try {
+                if (mode.equals("merge")) {
+                    // Как форма до PATCH: отсоединённая сущность целиком, save -> merge
+                    itemService.saveItem(Item.builder()
+                            .id(current.getId())
+                            .name(name)
+                            .description(current.getDescription())
+                            .createdAt(current.getCreatedAt())
+                            .version(current.getVersion())
+                            .build());
+                } else {
+                    itemService.patchItem(current.getId(), ItemPatch.of(name, current.getDescription(), current.getVersion()));
+                }
+            } catch (ItemVersionConflictException | ObjectOptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+            }
+        }
+    }
+
+    @Benchmark
+    public void edit(Data data) {
+        data.edit(data.ids.get((int) (data.edits.get() % ITEMS)));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void contended(Data data) {
+        data.edit(data.ids.get(0));
+    }
+}
@@ -0,0 +1,206 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.config.ItemSeeder;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.PurgeReport;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemPurgeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+// Удаление на файловой базе H2:
+// deleteOne - одна запись: прежний deleteById (SELECT + DELETE) против DELETE ... WHERE id = ?;
+// purge - половина таблицы одним DELETE против ItemPurgeService порциями, пока читатели
+// запрашивают первую страницу списка (5 мс между запросами); задержки чтений печатаются
+// после каждой итерации.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=PurgeBenchmark
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class PurgeBenchmark {
+
+    private static final int DELETES = 10_000;
+    private static final LocalDate CUTOFF = LocalDate.of(2022, 7, 1);
+    private static final long THINK_TIME_NANOS = 5_000_000;
+
+    private static ConfigurableApplicationContext start(String name) {
+        return BenchmarkData.start(BenchmarkData.freshFile("purge-" + name),
+                "--app.search.index.enabled=false",
+                "--app.db.bulkhead.queue-timeout=60s");
+    }
+
+    @State(Scope.Benchmark)
+    public static class Single {
+
+        @Param({"deleteById", "deleteItemById"})
+        public String mode;
+
+        ConfigurableApplicationContext context;
+        ItemRepository repository;
+        TransactionTemplate transactionTemplate;
+        final Deque<UUID> ids = new ArrayDeque<>();
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = PurgeBenchmark.start(mode);
+            repository = context.getBean(ItemRepository.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void insert() {
+            repository.saveAll(IntStream.range(0, DELETES)
+                            .mapToObj(i -> Item.builder().name("Item " + i).build())
+                            .toList())
+                    .forEach(item -> ids.add(item.getId()));
+        }
+
+        @TearDown(Level.Iteration)
+        public void check() {
+            if (repository.count() != 0) {
+                throw new IllegalStateException("Осталось " + repository.count() + " записей");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, batchSize = DELETES)
+    @Measurement(iterations = 5, batchSize = DELETES)
+    public void deleteOne(Single data) {
+        UUID id = data.ids.poll();
+        data.transactionTemplate.executeWithoutResult(status -> {
+            if (data.mode.equals("deleteById")) {
+                data.repository.deleteById(id);
+            } else {
+                data.repository.deleteItemById(id);
+            }
+        });
+    }
+
+    @State(Scope.Benchmark)
+    public static class Purge {
+
+        @Param({"500000"})
+        public long rows;
+
+        @Param({"4"})
+        public int readers;
+
+        @Param({"one-shot", "chunked"})
+        public String mode;
+
+        ConfigurableApplicationContext context;
+        JdbcTemplate jdbcTemplate;
+        ItemRepository repository;
+        ItemPurgeService purgeService;
+        long expected;
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        final AtomicBoolean running = new AtomicBoolean();
+        final List<Thread> threads = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = PurgeBenchmark.start(mode);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            repository = context.getBean(ItemRepository.class);
+            purgeService = context.getBean(ItemPurgeService.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void seedAndStartReaders() {
+            jdbcTemplate.execute("TRUNCATE TABLE items");
+            context.getBean(ItemSeeder.class).seed(rows);
+            expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE created_at < ?",
+                    Long.class, CUTOFF.atStartOfDay());
+
+            latencies.clear();
+            running.set(true);
+            for (int r = 0; r < readers; r++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    PageRequest page = PageRequest.of(0, 20, Sort.by("createdAt").ascending());
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        repository.findRows(ItemFilter.NONE, page);
+                        latencies.add(System.nanoTime() - start);
+                        LockSupport.parkNanos(THINK_TIME_NANOS);
+                    }
+                }));
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void stopReaders() throws InterruptedException {
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            threads.clear();
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%n%-8s чтения: %,d, p50 %,.2f мс, p99 %,.2f мс, max %,.1f мс%n", mode, sorted.size(),
+                    BenchmarkData.percentile(sorted, 0.5), BenchmarkData.percentile(sorted, 0.99),
+                    BenchmarkData.percentile(sorted, 1));
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public long purge(Purge data) throws InterruptedException {
+        long deleted;
+        if (data.mode.equals("one-shot")) {
+            deleted = data.jdbcTemplate.update("DELETE FROM items WHERE created_at < ?", CUTOFF.atStartOfDay());
+        } else {
+            UUID id = data.purgeService.startPurge(CUTOFF, null).getId();
+            PurgeReport report;
+            do {
+                Thread.sleep(50);
+                report = data.purgeService.getPurge(id).orElseThrow();
+            } while (report.getStatus() == PurgeReport.Status.QUEUED || report.getStatus() == PurgeReport.Status.RUNNING);
+            deleted = report.getRowsDeleted();
+        }
+        if (deleted != data.expected) {
+            throw new IllegalStateException("Удалено " + deleted + " строк из " + data.expected);
+        }
+        return deleted;
+    }
+}
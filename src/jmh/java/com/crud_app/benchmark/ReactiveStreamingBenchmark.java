@@ -0,0 +1,200 @@
+package com.crud_app.benchmark;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Медленные клиенты читают большие страницы с блокирующего /items (JPA + Thymeleaf)
+// и с реактивного /reactive/items (R2DBC, NDJSON). Одна операция - все клиенты по 3 запроса.
+// Во время итерации раз в 5 мс снимаются занятые соединения Hikari и R2DBC, занятые потоки
+// Tomcat и число живых потоков; максимумы и задержки печатаются после итерации.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=ReactiveStreamingBenchmark [-Djmh.params="-p clients=500"]
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class ReactiveStreamingBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int REQUESTS = 3;
+    // Клиент читает по 4 КБ и ждёт 2 мс - примерно 2 МБ/с
+    private static final int READ_CHUNK = 4096;
+    private static final long READ_PAUSE_MILLIS = 2;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"/items", "/reactive/items"})
+        public String path;
+
+        @Param({"200"})
+        public int clients;
+
+        @Param({"1000"})
+        public int pageSize;
+
+        ConfigurableApplicationContext context;
+        MeterRegistry registry;
+        int port;
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        Peaks peaks;
+        Thread sampler;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.startServer(BenchmarkData.memory("streaming"),
+                    "--server.tomcat.mbeanregistry.enabled=true",
+                    "--app.cache.items.max-size=0",
+                    "--app.cache.pages.max-size=0",
+                    "--app.search.index.enabled=false",
+                    "--spring.thymeleaf.cache=true",
+                    "--app.db.bulkhead.queue-timeout=60s",
+                    "--app.db.bulkhead.max-queued=10000",
+                    "--app.reactive.pool.max-acquire-time=60s");
+            BenchmarkData.load(context.getBean(JdbcTemplate.class), ROWS,
+                    BenchmarkData.Columns.DEFAULT.withDescription("'Description ' || X || ' ' || REPEAT('x', 100)"));
+            registry = context.getBean(MeterRegistry.class);
+            port = BenchmarkData.port(context);
+        }
+
+        @Setup(Level.Iteration)
+        public void startSampler() {
+            latencies.clear();
+            peaks = new Peaks(registry);
+            sampler = Thread.ofPlatform().daemon().start(peaks);
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() throws InterruptedException {
+            peaks.stop.set(true);
+            sampler.join();
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%n%-16s %,5d клиентов: p50 %,8.1f мс, p99 %,8.1f мс, " +
+                            "соединений Hikari %2d, R2DBC %2d, потоков Tomcat %3d, живых потоков %4d%n",
+                    path, clients, BenchmarkData.percentile(sorted, 0.5), BenchmarkData.percentile(sorted, 0.99),
+                    peaks.hikari, peaks.r2dbc, peaks.tomcatBusy, peaks.liveThreads);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long readPages(Data data) throws InterruptedException {
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger bytes = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(data.clients);
+        int pages = ROWS / data.pageSize;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(executor).build()) {
+            for (int c = 0; c < data.clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    try {
+                        byte[] buffer = new byte[READ_CHUNK];
+                        for (int r = 0; r < REQUESTS; r++) {
+                            int page = (client * REQUESTS + r) % pages;
+                            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + data.port + data.path
+                                            + "?page=" + page + "&size=" + data.pageSize + "&sort=name&dir=asc"))
+                                    .timeout(Duration.ofMinutes(5))
+                                    .build();
+                            long requestStart = System.nanoTime();
+                            HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                            try (InputStream body = response.body()) {
+                                int read;
+                                while ((read = body.read(buffer)) > 0) {
+                                    bytes.addAndGet(read);
+                                    Thread.sleep(READ_PAUSE_MILLIS);
+                                }
+                            }
+                            data.latencies.add(System.nanoTime() - requestStart);
+                            if (response.statusCode() != 200) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        if (failed.get() > 0) {
+            throw new IllegalStateException("Ошибок: " + failed.get());
+        }
+        return bytes.get();
+    }
+
+    // Максимумы занятых ресурсов за итерацию
+    private static class Peaks implements Runnable {
+
+        private final MeterRegistry registry;
+        private final AtomicBoolean stop = new AtomicBoolean();
+        private volatile int hikari;
+        private volatile int r2dbc;
+        private volatile int tomcatBusy;
+        private volatile int liveThreads;
+
+        Peaks(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void run() {
+            while (!stop.get()) {
+                hikari = Math.max(hikari, gauge("hikaricp.connections.active"));
+                r2dbc = Math.max(r2dbc, gauge("r2dbc.pool.acquired"));
+                tomcatBusy = Math.max(tomcatBusy, gauge("tomcat.threads.busy"));
+                liveThreads = Math.max(liveThreads, ManagementFactory.getThreadMXBean().getThreadCount());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private int gauge(String name) {
+            Gauge gauge = registry.find(name).gauge();
+            return gauge == null ? 0 : (int) gauge.value();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+// Триграммный индекс против LIKE '%kw%' на 1 000 000 записей: селективный запрос, средний
+// и широкий (совпадает почти со всеми строками). Таблица в target/jmh-data/search; совпадение
+// числа найденных строк с подстрокой проверяет ItemSearchIndexTest.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=SearchIndexBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SearchIndexBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"item 123456", "description 42", "item 9"})
+        public String keyword;
+
+        ConfigurableApplicationContext context;
+        ItemSearchIndex searchIndex;
+        ItemRepository itemRepository;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.file("search"),
+                    "--spring.jpa.hibernate.ddl-auto=update");
+            searchIndex = context.getBean(ItemSearchIndex.class);
+            itemRepository = context.getBean(ItemRepository.class);
+            if (BenchmarkData.ensureRows(context, ROWS, BenchmarkData.Columns.DEFAULT)) {
+                searchIndex.rebuild();
+            }
+            System.out.printf("%n['%s', %,d строк, совпадений: %,d]%n",
+                    keyword, ROWS, searchIndex.search(keyword, 0, 10).getTotal());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public ItemSearchIndex.Hits index(Data data) {
+        return data.searchIndex.search(data.keyword, 0, 10);
+    }
+
+    @Benchmark
+    public Page<Item> like(Data data) {
+        return data.itemRepository.searchByKeyword(data.keyword, PageRequest.of(0, 10));
+    }
+}
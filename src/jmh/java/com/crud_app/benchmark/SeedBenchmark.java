@@ -0,0 +1,82 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.config.ItemSeeder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// Генерация нагрузочных данных в файловую базу H2 (как у приложения, со всеми индексами).
+// Одна операция - seed(rows) в пустую таблицу.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=SeedBenchmark [-Djmh.params="-p rows=10000000 -p threads=4"]
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class SeedBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"1000000"})
+        public long rows;
+
+        // 0 - по числу ядер
+        @Param({"0"})
+        public int threads;
+
+        @Param({"5000"})
+        public int batch;
+
+        ConfigurableApplicationContext context;
+        ItemSeeder seeder;
+        JdbcTemplate jdbcTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.freshFile("seed"),
+                    "--app.search.index.enabled=false",
+                    "--app.seed.threads=" + threads,
+                    "--app.seed.batch-size=" + batch);
+            seeder = context.getBean(ItemSeeder.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void truncate() {
+            jdbcTemplate.execute("TRUNCATE TABLE items");
+        }
+
+        @TearDown(Level.Iteration)
+        public void check() {
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+            if (count == null || count != rows) {
+                throw new IllegalStateException("Записано " + count + " строк из " + rows);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long seed(Data data) {
+        return data.seeder.seed(data.rows);
+    }
+}
@@ -0,0 +1,104 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import com.crud_app.repository.ItemStatsRepository;
+import com.crud_app.service.ItemStatsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Гистограмма по дням, неделям и часам: счётчики item_stats против подсчёта по items
+// (GROUP BY DATE_TRUNC по индексу created_at) на нескольких размерах таблицы.
+// Время счётчиков от числа строк не зависит, подсчёт растёт вместе с ними.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=StatsBenchmark [-Djmh.params="-p rows=1000000"]
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class StatsBenchmark {
+
+    private static final LocalDateTime START = BenchmarkData.START;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"100000", "500000"})
+        public int rows;
+
+        @Param({"day-year", "week-year", "hour-30-days"})
+        public String range;
+
+        ConfigurableApplicationContext context;
+        ItemStatsService statsService;
+        JdbcTemplate jdbcTemplate;
+        Granularity granularity;
+        LocalDateTime to;
+        String scan;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.memory("stats") + ";OPTIMIZE_REUSE_RESULTS=FALSE",
+                    "--app.search.index.enabled=false");
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            statsService = context.getBean(ItemStatsService.class);
+
+            // Строки равномерно за год, каждая пятая изменена через сутки после создания
+            String createdAt = "X * " + 365L * 24 * 3600 / rows;
+            BenchmarkData.load(jdbcTemplate, rows, new BenchmarkData.Columns("NULL",
+                    BenchmarkData.seconds(createdAt),
+                    BenchmarkData.seconds(createdAt + " + CASEWHEN(MOD(X, 5) = 0, 86400, 0)")));
+            jdbcTemplate.update("DELETE FROM item_stats");
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            ItemStatsRepository statsRepository = context.getBean(ItemStatsRepository.class);
+            for (LocalDateTime week = START; week.isBefore(START.plusWeeks(54)); week = week.plusWeeks(1)) {
+                LocalDateTime from = week;
+                transactionTemplate.executeWithoutResult(status -> statsRepository.rebuild(from, from.plusWeeks(1)));
+            }
+
+            granularity = switch (range) {
+                case "week-year" -> Granularity.WEEK;
+                case "hour-30-days" -> Granularity.HOUR;
+                default -> Granularity.DAY;
+            };
+            to = granularity == Granularity.HOUR ? START.plusDays(30) : START.plusYears(1);
+            String unit = granularity.getSqlUnit();
+            scan = "SELECT COUNT(*) FROM (SELECT DATE_TRUNC('" + unit + "', created_at), COUNT(*) " +
+                    "FROM items WHERE created_at >= ? AND created_at < ? GROUP BY DATE_TRUNC('" + unit + "', created_at))";
+            if (statsService.histogram(granularity, START, to).getCreated() == 0) {
+                throw new IllegalStateException("Счётчики item_stats пусты");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long counters(Data data) {
+        return data.statsService.histogram(data.granularity, START, data.to).getCreated();
+    }
+
+    @Benchmark
+    public Long scan(Data data) {
+        return data.jdbcTemplate.queryForObject(data.scan, Long.class, START, data.to);
+    }
+}
@@ -0,0 +1,144 @@
+package com.crud_app.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Обработка запросов на платформенных и на виртуальных потоках при 1 000 - 10 000
+// одновременных клиентов (каждый клиент - REQUESTS запросов подряд, у каждого запроса в полёте
+// своё соединение). Одна операция - все клиенты. Кэши выключены, каждый запрос идёт в БД
+// через DbBulkhead; 503 от него - ожидаемый сброс нагрузки, их число и задержки печатаются
+// после итерации, остальные ответы и обрывы - ошибка.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=VirtualThreadsBenchmark [-Djmh.params="-p clients=1000,10000"]
+// 10 000 клиентов требуют ulimit -n больше 20 000 (сокеты клиента и сервера в одном процессе)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class VirtualThreadsBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int REQUESTS = 5;
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"false", "true"})
+        public boolean virtual;
+
+        @Param({"1000", "2500", "5000", "10000"})
+        public int clients;
+
+        ConfigurableApplicationContext context;
+        int port;
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger rejected = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.startServer(BenchmarkData.memory("threads"),
+                    "--spring.threads.virtual.enabled=" + virtual,
+                    "--server.tomcat.max-connections=20000",
+                    "--server.tomcat.accept-count=10000",
+                    "--app.cache.items.max-size=0",
+                    "--app.cache.pages.max-size=0",
+                    "--app.search.index.enabled=false",
+                    "--spring.thymeleaf.cache=true",
+                    "--app.db.bulkhead.queue-timeout=30s",
+                    "--app.db.bulkhead.max-queued=20000");
+            BenchmarkData.load(context, ROWS);
+            port = BenchmarkData.port(context);
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            latencies.clear();
+            rejected.set(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%n%-14s %,6d клиентов: p50 %,7.1f мс, p99 %,8.1f мс, отказов 503 %d%n",
+                    virtual ? "виртуальные" : "платформенные", clients,
+                    BenchmarkData.percentile(sorted, 0.5), BenchmarkData.percentile(sorted, 0.99), rejected.get());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int serveClients(Data data) throws InterruptedException {
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(data.clients);
+
+        // Общий клиент держит отдельное соединение на каждый запрос в полёте
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .executor(executor)
+                     .connectTimeout(Duration.ofSeconds(60))
+                     .build()) {
+            for (int c = 0; c < data.clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    try {
+                        for (int r = 0; r < REQUESTS; r++) {
+                            int page = (client * REQUESTS + r) % 100;
+                            HttpRequest request = HttpRequest.newBuilder(
+                                            URI.create("http://localhost:" + data.port + "/items?page=" + page + "&size=10"))
+                                    .timeout(Duration.ofSeconds(120))
+                                    .build();
+                            long requestStart = System.nanoTime();
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            data.latencies.add(System.nanoTime() - requestStart);
+                            if (response.statusCode() == 503) {
+                                data.rejected.incrementAndGet();
+                            } else if (response.statusCode() != 200) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        if (failed.get() > 0) {
+            throw new IllegalStateException("Ошибок: " + failed.get());
+        }
+        return data.clients * REQUESTS;
+    }
+}
@@ -0,0 +1,95 @@
+package com.crud_app.benchmark;
+
+import com.crud_app.model.Item;
+import com.crud_app.service.ItemService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Создание записей через ItemService.saveItem из 64 потоков на файловой базе H2:
+// транзакция на запись против групповой записи (sync - ждём коммита группы, async - нет).
+// Для async результат - скорость вызовов; после итерации ждём, пока очередь допишется,
+// и печатаем время до последнего коммита и размеры групп.
+// mvnw.cmd -Pjmh test-compile exec:exec -Djmh.include=WriteBehindBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class WriteBehindBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Data {
+
+        @Param({"off", "sync", "async"})
+        public String mode;
+
+        ConfigurableApplicationContext context;
+        ItemService itemService;
+        JdbcTemplate jdbcTemplate;
+        final AtomicLong writes = new AtomicLong();
+        long iterationStart;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkData.start(BenchmarkData.freshFile("write-behind-" + mode),
+                    "--app.search.index.enabled=false",
+                    "--app.write.group.enabled=" + !mode.equals("off"),
+                    "--app.write.group.durability=" + (mode.equals("async") ? "async" : "sync"),
+                    "--app.write.group.offer-timeout=60s",
+                    "--app.db.bulkhead.queue-timeout=60s",
+                    "--app.db.bulkhead.max-queued=100000");
+            itemService = context.getBean(ItemService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void mark() {
+            iterationStart = System.nanoTime();
+        }
+
+        // async: ждём, пока очередь допишется, чтобы следующая итерация не платила за эту
+        @TearDown(Level.Iteration)
+        public void drain() throws InterruptedException {
+            while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class) < writes.get()) {
+                Thread.sleep(5);
+            }
+            if (mode.equals("async")) {
+                System.out.printf("%nдо последнего коммита: %,.0f мс%n", (System.nanoTime() - iterationStart) / 1e6);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            DistributionSummary groups = context.getBean(MeterRegistry.class).find("items.write.group.size").summary();
+            System.out.printf("%n%-5s групп %,d, средняя группа %,.1f%n", mode,
+                    groups == null ? 0 : groups.count(), groups == null ? 0 : groups.mean());
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Item saveItem(Data data) {
+        long n = data.writes.incrementAndGet();
+        return data.itemService.saveItem(Item.builder().name("Item " + n).description("Benchmark").build());
+    }
+}
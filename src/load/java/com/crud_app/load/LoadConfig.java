@@ -0,0 +1,106 @@
+package com.crud_app.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Параметры прогона из аргументов вида key=value (mvnw.cmd -Pload ... -Dload.args="key=value ...").
+// Все значения попадают в отчёт, чтобы прогоны можно было сравнивать
+record LoadConfig(String url, long rows, Duration duration, Duration warmup, int concurrency,
+                  String mode, double rate, double writeRatio, Map<String, Integer> readMix,
+                  Map<String, Integer> writeMix, int pageSize, String reportDir, String baseline,
+                  String label) {
+
+    static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("url", ""),
+            Map.entry("rows", "100000"),
+            Map.entry("duration", "60s"),
+            Map.entry("warmup", "10s"),
+            Map.entry("concurrency", "32"),
+            Map.entry("mode", "closed"),
+            Map.entry("rate", "200"),
+            Map.entry("write-ratio", "0.1"),
+            Map.entry("read-mix", "list:50,deep:15,search:25,date:10"),
+            Map.entry("write-mix", "create:50,edit:30,delete:20"),
+            Map.entry("page-size", "10"),
+            Map.entry("report-dir", "target/load-reports"),
+            Map.entry("baseline", ""),
+            Map.entry("label", "load"));
+
+    static LoadConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Неизвестный параметр: " + arg + ", допустимые: " + DEFAULTS.keySet());
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LoadConfig config = new LoadConfig(
+                values.get("url").replaceAll("/+$", ""),
+                Long.parseLong(values.get("rows")),
+                duration(values.get("duration")),
+                duration(values.get("warmup")),
+                Integer.parseInt(values.get("concurrency")),
+                values.get("mode"),
+                Double.parseDouble(values.get("rate")),
+                Double.parseDouble(values.get("write-ratio")),
+                mix(values.get("read-mix")),
+                mix(values.get("write-mix")),
+                Integer.parseInt(values.get("page-size")),
+                values.get("report-dir"),
+                values.get("baseline"),
+                values.get("label"));
+
+        if (!config.mode.equals("closed") && !config.mode.equals("open")) {
+            throw new IllegalArgumentException("mode: closed или open");
+        }
+        if (config.writeRatio < 0 || config.writeRatio > 1) {
+            throw new IllegalArgumentException("write-ratio: от 0 до 1");
+        }
+        if (config.concurrency <= 0 || config.rate <= 0) {
+            throw new IllegalArgumentException("concurrency и rate должны быть больше 0");
+        }
+        return config;
+    }
+
+    LoadConfig withUrl(String url) {
+        return new LoadConfig(url, rows, duration, warmup, concurrency, mode, rate, writeRatio, readMix, writeMix,
+                pageSize, reportDir, baseline, label);
+    }
+
+    boolean openLoop() {
+        return mode.equals("open");
+    }
+
+    // 60s, 5m, 500ms, PT1M
+    private static Duration duration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Некорректная длительность: " + value);
+        };
+    }
+
+    // list:50,deep:15 -> веса операций
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Ожидается операция:вес, получено: " + part);
+            }
+            weights.put(entry[0].trim(), Integer.parseInt(entry[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,184 @@
+package com.crud_app.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// ЗАДЕРЖКИ ПО ЭНДПОИНТАМ в HdrHistogram (микросекунды, 3 значащие цифры, до 10 минут) и ошибки.
+// Итог пишется в <report-dir>/<label>-<время>.json (сводка + параметры прогона) и .hlog
+// (полные гистограммы для HistogramLogAnalyzer / сравнения распределений)
+class LoadReport {
+
+    static final List<String> ENDPOINTS = List.of("list", "deep", "search", "date", "create", "edit-form", "update", "delete");
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errorReasons = new ConcurrentHashMap<>();
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private volatile long elapsedNanos;
+
+    LoadReport() {
+        for (String endpoint : ENDPOINTS) {
+            Histogram histogram = new ConcurrentHistogram(1, HIGHEST_MICROS, 3);
+            histogram.setTag(endpoint);
+            histograms.put(endpoint, histogram);
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    void record(String endpoint, long latencyNanos) {
+        histograms.get(endpoint).recordValue(Math.min(HIGHEST_MICROS, Math.max(1, latencyNanos / 1000)));
+    }
+
+    void error(String endpoint, String reason) {
+        errors.get(endpoint).increment();
+        errorReasons.computeIfAbsent(endpoint + ": " + reason, key -> new LongAdder()).increment();
+    }
+
+    // Сколько запросов завершено (для прогресса во время прогона; гистограммы при этом не сливаются)
+    long requests() {
+        long total = 0;
+        for (String endpoint : ENDPOINTS) {
+            total += histograms.get(endpoint).getTotalCount() + errors.get(endpoint).sum();
+        }
+        return total;
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        for (Histogram histogram : histograms.values()) {
+            histogram.setStartTimeStamp(startMillis);
+            histogram.setEndTimeStamp(startMillis + elapsedNanos / 1_000_000);
+        }
+    }
+
+    // Сводка: по эндпоинту и по всем вместе; только после finish()
+    Map<String, Map<String, Object>> summary() {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        Histogram all = new Histogram(1, HIGHEST_MICROS, 3);
+        long allErrors = 0;
+        for (String endpoint : ENDPOINTS) {
+            Histogram histogram = histograms.get(endpoint);
+            long failed = errors.get(endpoint).sum();
+            if (histogram.getTotalCount() + failed == 0) {
+                continue;
+            }
+            all.add(histogram);
+            allErrors += failed;
+            summary.put(endpoint, stats(histogram, failed, seconds));
+        }
+        summary.put("all", stats(all, allErrors, seconds));
+        return summary;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-10s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        summary().forEach((endpoint, stats) -> out.printf("%-10s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, stats.get("requests"), stats.get("throughput"), (double) stats.get("errorRate") * 100,
+                stats.get("p50"), stats.get("p90"), stats.get("p99"), stats.get("p99.9"), stats.get("max")));
+        if (!errorReasons.isEmpty()) {
+            out.println("Ошибки:");
+            errorReasons.forEach((reason, count) -> out.printf("  %-40s %d%n", reason, count.sum()));
+        }
+    }
+
+    // Возвращает путь к JSON-отчёту
+    Path write(LoadConfig config, Map<String, Object> environment) throws IOException {
+        Path dir = Path.of(config.reportDir());
+        Files.createDirectories(dir);
+        String name = config.label() + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.label());
+        report.put("startedAt", startMillis);
+        report.put("durationSeconds", elapsedNanos / 1e9);
+        report.put("config", config);
+        report.put("environment", environment);
+        report.put("endpoints", summary());
+        Map<String, Long> reasons = new LinkedHashMap<>();
+        errorReasons.forEach((reason, count) -> reasons.put(reason, count.sum()));
+        report.put("errors", reasons);
+        Path json = dir.resolve(name + ".json");
+        mapper().writeValue(json.toFile(), report);
+
+        try (PrintStream log = new PrintStream(Files.newOutputStream(dir.resolve(name + ".hlog")))) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startMillis);
+            writer.outputLegend();
+            for (Histogram histogram : histograms.values()) {
+                if (histogram.getTotalCount() > 0) {
+                    writer.outputIntervalHistogram(histogram);
+                }
+            }
+        }
+        return json;
+    }
+
+    // Пропускная способность и p99 относительно прошлого отчёта
+    void compare(Path baseline, PrintStream out) throws IOException {
+        JsonNode previous = mapper().readTree(baseline.toFile()).path("endpoints");
+        out.println("Сравнение с " + baseline + ":");
+        out.printf("%-10s %12s %12s %12s %12s%n", "endpoint", "req/s было", "req/s стало", "p99 было", "p99 стало");
+        summary().forEach((endpoint, stats) -> {
+            JsonNode before = previous.path(endpoint);
+            if (before.isMissingNode()) {
+                return;
+            }
+            out.printf("%-10s %12.1f %12.1f %12.2f %12.2f  (%+.0f%% req/s, %+.0f%% p99)%n", endpoint,
+                    before.path("throughput").asDouble(), stats.get("throughput"),
+                    before.path("p99").asDouble(), stats.get("p99"),
+                    change(before.path("throughput").asDouble(), (double) stats.get("throughput")),
+                    change(before.path("p99").asDouble(), (double) stats.get("p99")));
+        });
+    }
+
+    private static Map<String, Object> stats(Histogram histogram, long failed, double seconds) {
+        long requests = histogram.getTotalCount() + failed;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests);
+        stats.put("throughput", histogram.getTotalCount() / seconds);
+        stats.put("errors", failed);
+        stats.put("errorRate", requests == 0 ? 0.0 : (double) failed / requests);
+        for (double percentile : PERCENTILES) {
+            stats.put("p" + (percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile)),
+                    histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        stats.put("max", histogram.getMaxValue() / 1000.0);
+        stats.put("mean", histogram.getMean() / 1000.0);
+        return stats;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+}
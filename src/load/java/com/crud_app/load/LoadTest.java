@@ -0,0 +1,164 @@
+package com.crud_app.load;
+
+import com.crud_app.CrudAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// НАГРУЗОЧНЫЙ ПРОГОН всего стека (HTTP -> ItemController -> сервис -> H2) смесью чтений и записей.
+// Закрытая модель (mode=closed): concurrency клиентов, каждый шлёт следующий запрос после ответа.
+// Открытая (mode=open): rate запросов в секунду по расписанию независимо от ответов, не больше
+// concurrency одновременно; задержка считается от запланированного момента, поэтому очередь
+// при перегрузке видна в перцентилях (без coordinated omission).
+// Без url приложение поднимается в этом же JVM на файловой базе target/load-data, дополненной
+// до rows строк через app.seed.rows; база переиспользуется между прогонами.
+// Запуск: mvnw.cmd -Pload test-compile exec:exec -Dload.args="duration=60s concurrency=64 write-ratio=0.2"
+public final class LoadTest {
+
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(10);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        Map<String, Object> environment = new LinkedHashMap<>();
+        ConfigurableApplicationContext context = null;
+        if (config.url().isEmpty()) {
+            context = start(config);
+            config = config.withUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            environment.put("server", "in-process");
+            environment.put("rows", context.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM items", Long.class));
+        } else {
+            environment.put("server", config.url());
+        }
+        environment.put("java", System.getProperty("java.version"));
+        environment.put("cpus", Runtime.getRuntime().availableProcessors());
+        environment.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        environment.put("commit", gitCommit());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .followRedirects(HttpClient.Redirect.NEVER)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(executor)
+                     .build()) {
+            Workload workload = new Workload(config, http);
+            workload.prime(new LoadReport());
+
+            System.out.printf("Прогон %s: %s, %s, прогрев %s, %s%n", config.label(), config.url(),
+                    config.openLoop() ? config.rate() + " запросов/с, не больше " + config.concurrency() + " одновременно"
+                            : config.concurrency() + " клиентов",
+                    config.warmup(), config.duration());
+            LoadReport report = run(config, workload);
+
+            report.print(System.out);
+            Path json = report.write(config, environment);
+            System.out.println("Отчёт: " + json);
+            if (!config.baseline().isEmpty()) {
+                report.compare(Path.of(config.baseline()), System.out);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static LoadReport run(LoadConfig config, Workload workload) throws InterruptedException {
+        // Во время прогрева замеры идут в отдельный отчёт, который потом выбрасывается
+        AtomicReference<LoadReport> current = new AtomicReference<>(new LoadReport());
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        SplittableRandom random = new SplittableRandom();
+
+        Thread monitor = Thread.ofPlatform().daemon().start(() -> {
+            LockSupport.parkNanos(Math.max(0, measureFrom - System.nanoTime()));
+            current.set(new LoadReport());
+            while (System.nanoTime() < end) {
+                LockSupport.parkNanos(Math.min(PROGRESS_INTERVAL.toNanos(), Math.max(0, end - System.nanoTime())));
+                System.out.printf("  %3d с: %s запросов%n", (System.nanoTime() - measureFrom) / 1_000_000_000,
+                        current.get().requests());
+            }
+        });
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.openLoop()) {
+                Semaphore inFlight = new Semaphore(config.concurrency());
+                long period = (long) (1e9 / config.rate());
+                for (long i = 0; ; i++) {
+                    long scheduled = start + i * period;
+                    if (scheduled >= end) {
+                        break;
+                    }
+                    LockSupport.parkNanos(scheduled - System.nanoTime());
+                    String operation = workload.next(random);
+                    SplittableRandom taskRandom = random.split();
+                    clients.submit(() -> {
+                        inFlight.acquireUninterruptibly();
+                        try {
+                            workload.run(operation, scheduled, taskRandom, current.get());
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } else {
+                for (int c = 0; c < config.concurrency(); c++) {
+                    SplittableRandom clientRandom = random.split();
+                    clients.submit(() -> {
+                        while (System.nanoTime() < end) {
+                            workload.run(workload.next(clientRandom), System.nanoTime(), clientRandom, current.get());
+                        }
+                    });
+                }
+            }
+        }
+        monitor.join();
+        LoadReport report = current.get();
+        report.finish();
+        return report;
+    }
+
+    private static ConfigurableApplicationContext start(LoadConfig config) {
+        Path database = Path.of("target", "load-data", "items-" + config.rows()).toAbsolutePath();
+        return new SpringApplicationBuilder(CrudAppApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:file:" + database + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.thymeleaf.cache=true",
+                        "--spring.h2.console.enabled=false",
+                        "--app.seed.rows=" + config.rows(),
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.crud_app.config.ItemSeeder=INFO");
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line = reader.readLine();
+                return process.waitFor() == 0 ? line : "unknown";
+            }
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.crud_app.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// СМЕСЬ ОПЕРАЦИЙ над ItemController по HTTP. Чтение: первые страницы, глубокие страницы,
+// поиск по ключевому слову, фильтр по дате. Запись: создание, редактирование (форма + POST),
+// удаление. id для записи собираются из ссылок "/items/edit/{id}" на страницах списка
+class Workload {
+
+    static final Set<String> READS = Set.of("list", "deep", "search", "date");
+    static final Set<String> WRITES = Set.of("create", "edit", "delete");
+
+    private static final Pattern EDIT_LINK = Pattern.compile("/items/edit/([0-9a-f-]{36})");
+    private static final Pattern VERSION_FIELD = Pattern.compile("name=\"version\" value=\"(\\d+)\"");
+    private static final String[] KEYWORDS = {
+            "продукты", "отчёт", "спортзал", "код", "Финансы", "вопрос", "Срочная задача", "маме", "за"
+    };
+    private static final int MAX_KNOWN_IDS = 10_000;
+    private static final LocalDate DATE_FROM = LocalDate.of(2020, 1, 1);
+    private static final int DATE_DAYS = 5 * 365;
+
+    private final LoadConfig config;
+    private final HttpClient http;
+    private final WeightedChoice reads;
+    private final WeightedChoice writes;
+    private final ConcurrentLinkedDeque<UUID> knownIds = new ConcurrentLinkedDeque<>();
+    private final Set<UUID> knownIdSet = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger created = new AtomicInteger();
+
+    Workload(LoadConfig config, HttpClient http) {
+        this.config = config;
+        this.http = http;
+        this.reads = new WeightedChoice(config.readMix(), READS);
+        this.writes = new WeightedChoice(config.writeMix(), WRITES);
+    }
+
+    String next(SplittableRandom random) {
+        return random.nextDouble() < config.writeRatio() ? writes.next(random) : reads.next(random);
+    }
+
+    // startNanos - момент, когда операция должна была начаться: в открытой модели
+    // ожидание своей очереди входит в задержку
+    void run(String operation, long startNanos, SplittableRandom random, LoadReport report) {
+        switch (operation) {
+            case "list" -> list("list", random.nextInt(5), null, null, startNanos, report);
+            case "deep" -> list("deep", random.nextLong(Math.max(1, config.rows() / config.pageSize())),
+                    null, null, startNanos, report);
+            case "search" -> list("search", 0, KEYWORDS[random.nextInt(KEYWORDS.length)], null, startNanos, report);
+            case "date" -> list("date", 0, null, DATE_FROM.plusDays(random.nextInt(DATE_DAYS)).toString(),
+                    startNanos, report);
+            case "create" -> create(startNanos, report);
+            case "edit" -> edit(startNanos, random, report);
+            case "delete" -> delete(startNanos, report);
+            default -> throw new IllegalStateException(operation);
+        }
+    }
+
+    // Первые id до начала прогона, чтобы запись не начиналась с пустого списка
+    void prime(LoadReport report) {
+        list("list", 0, null, null, System.nanoTime(), report);
+    }
+
+    private void list(String endpoint, long page, String keyword, String dateFrom, long startNanos, LoadReport report) {
+        StringBuilder query = new StringBuilder("/items?page=").append(page).append("&size=").append(config.pageSize());
+        if (keyword != null) {
+            query.append("&keyword=").append(URLEncoder.encode(keyword, StandardCharsets.UTF_8));
+        }
+        if (dateFrom != null) {
+            query.append("&dateFrom=").append(dateFrom);
+        }
+        HttpResponse<String> response = send(endpoint, get(query.toString()), HttpResponse.BodyHandlers.ofString(),
+                startNanos, report);
+        if (response != null && (endpoint.equals("list") || endpoint.equals("deep"))) {
+            harvest(response.body());
+        }
+    }
+
+    private void create(long startNanos, LoadReport report) {
+        int n = created.incrementAndGet();
+        send("create", post("/items", "name=" + encode("Нагрузка #" + n) + "&description=" + encode("Создано нагрузочным тестом")),
+                HttpResponse.BodyHandlers.discarding(), startNanos, report);
+    }
+
+    private void edit(long startNanos, SplittableRandom random, LoadReport report) {
+        UUID id = knownIds.pollFirst();
+        if (id == null) {
+            create(startNanos, report);
+            return;
+        }
+        knownIds.offerLast(id);
+        HttpResponse<String> form = send("edit-form", get("/items/edit/" + id), HttpResponse.BodyHandlers.ofString(),
+                startNanos, report);
+        if (form == null) {
+            return;
+        }
+        // Версия из формы: параллельная правка той же записи вернёт 409
+        Matcher version = VERSION_FIELD.matcher(form.body());
+        send("update", post("/items/update/" + id, "id=" + id + "&version=" + (version.find() ? version.group(1) : "0")
+                        + "&name=" + encode("Изменено " + random.nextInt(1_000_000))
+                        + "&description=" + encode("Изменено нагрузочным тестом")),
+                HttpResponse.BodyHandlers.discarding(), System.nanoTime(), report);
+    }
+
+    private void delete(long startNanos, LoadReport report) {
+        UUID id = knownIds.pollFirst();
+        if (id == null) {
+            create(startNanos, report);
+            return;
+        }
+        knownIdSet.remove(id);
+        send("delete", get("/items/delete/" + id), HttpResponse.BodyHandlers.discarding(), startNanos, report);
+    }
+
+    // Ответ или null при ошибке
+    private <T> HttpResponse<T> send(String endpoint, HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                     long startNanos, LoadReport report) {
+        try {
+            HttpResponse<T> response = http.send(request, handler);
+            long latency = System.nanoTime() - startNanos;
+            // Редирект после POST/удаления - нормальный ответ, за ним не идём
+            if (response.statusCode() >= 400) {
+                report.error(endpoint, "HTTP " + response.statusCode());
+                return null;
+            }
+            report.record(endpoint, latency);
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            report.error(endpoint, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private void harvest(String body) {
+        Matcher matcher = EDIT_LINK.matcher(body);
+        while (matcher.find() && knownIdSet.size() < MAX_KNOWN_IDS) {
+            UUID id = UUID.fromString(matcher.group(1));
+            if (knownIdSet.add(id)) {
+                knownIds.offerFirst(id);
+            }
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(config.url() + path))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(config.url() + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // Выбор операции по весам
+    private static class WeightedChoice {
+
+        private final String[] operations;
+        private final int[] cumulative;
+
+        WeightedChoice(Map<String, Integer> weights, Set<String> allowed) {
+            operations = new String[weights.size()];
+            cumulative = new int[weights.size()];
+            int total = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                if (!allowed.contains(entry.getKey())) {
+                    throw new IllegalArgumentException("Неизвестная операция " + entry.getKey() + ", допустимые: " + allowed);
+                }
+                total += entry.getValue();
+                operations[i] = entry.getKey();
+                cumulative[i++] = total;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("Сумма весов должна быть больше 0: " + weights);
+            }
+        }
+
+        String next(SplittableRandom random) {
+            int value = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (value < cumulative[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.crud_app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
 // ГЛАВНАЯ ТОЧКА ВХОДА
-@SpringBootApplication
+// R2DBC настраивается вручную в ReactiveDatabaseConfig: автоконфигурация создала бы
+// бин ConnectionFactory и отключила бы DataSource, на котором работает JPA
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class CrudAppApplication {
     public static void main(String[] args) {
         SpringApplication.run(CrudAppApplication.class, args);
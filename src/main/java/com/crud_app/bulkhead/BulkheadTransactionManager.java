@@ -0,0 +1,47 @@
+package com.crud_app.bulkhead;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.function.Supplier;
+
+// Слот DbBulkhead занимается до того, как транзакция возьмёт соединение из пула, и отдаётся
+// после того, как она его вернула. Так ждут слота, а не соединения, и @Transactional сервисов,
+// TransactionTemplate и транзакции самих репозиториев ограничены одинаково
+class BulkheadTransactionManager extends JpaTransactionManager {
+
+    private final Supplier<DbBulkhead> bulkhead;
+
+    BulkheadTransactionManager(Supplier<DbBulkhead> bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        DbBulkhead instance = bulkhead.get();
+        if (instance == null) {
+            super.doBegin(transaction, definition);
+            return;
+        }
+        instance.enter();
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            // Транзакция не началась - doCleanupAfterCompletion для неё вызван не будет
+            instance.exit();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            DbBulkhead instance = bulkhead.get();
+            if (instance != null) {
+                instance.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.crud_app.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ОГРАНИЧИТЕЛЬ ОБРАЩЕНИЙ К БД: не больше max-concurrent транзакций и вызовов репозитория одновременно
+// (по размеру пула соединений), остальные ждут в честной (FIFO) очереди не дольше queue-timeout.
+// При виртуальных потоках запросов становится сколько угодно, и без ограничителя они
+// выстраивались бы в очередь за соединениями внутри Hikari, где ожидание не видно и не ограничено.
+// Потоковая выгрузка держит слот, пока клиент читает ответ, поэтому таких обращений одновременно
+// не больше max-streaming (enterStreaming) - медленные клиенты не займут все слоты
+@Component
+public class DbBulkhead {
+
+    private final Semaphore permits;
+    private final Semaphore streamingPermits;
+    private final int maxConcurrent;
+    private final int maxStreaming;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final AtomicInteger queued = new AtomicInteger();
+    // Вложенный вызов из потока, который уже держит слот, не занимает второй
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final Timer waitTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedStreaming;
+
+    public DbBulkhead(@Value("${app.db.bulkhead.max-concurrent:10}") int maxConcurrent,
+                      @Value("${app.db.bulkhead.max-queued:1000}") int maxQueued,
+                      @Value("${app.db.bulkhead.queue-timeout:2s}") Duration queueTimeout,
+                      @Value("${app.db.bulkhead.max-streaming:2}") int maxStreaming,
+                      ObjectProvider<MeterRegistry> registryProvider) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxStreaming = maxStreaming;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.permits = new Semaphore(Math.max(maxConcurrent, 1), true);
+        this.streamingPermits = new Semaphore(Math.max(maxStreaming, 0));
+
+        MeterRegistry registry = registryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("db.bulkhead.active", this, DbBulkhead::getActive)
+                .description("Repository calls holding a bulkhead slot")
+                .register(registry);
+        Gauge.builder("db.bulkhead.queued", queued, AtomicInteger::get)
+                .description("Repository calls waiting for a bulkhead slot")
+                .register(registry);
+        waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent waiting for a bulkhead slot")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        rejectedQueueFull = Counter.builder("db.bulkhead.rejected").tag("reason", "queue_full").register(registry);
+        rejectedTimeout = Counter.builder("db.bulkhead.rejected").tag("reason", "timeout").register(registry);
+        rejectedStreaming = Counter.builder("db.bulkhead.rejected").tag("reason", "streaming_full").register(registry);
+        Gauge.builder("db.bulkhead.streaming", this, DbBulkhead::getStreaming)
+                .description("Streaming responses holding a bulkhead slot")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return maxConcurrent > 0;
+    }
+
+    public int getActive() {
+        return isEnabled() ? maxConcurrent - permits.availablePermits() : 0;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getStreaming() {
+        return isEnabled() ? Math.max(maxStreaming, 0) - streamingPermits.availablePermits() : 0;
+    }
+
+    public <T> T call(BulkheadCall<T> call) throws Throwable {
+        enter();
+        try {
+            return call.run();
+        } finally {
+            exit();
+        }
+    }
+
+    // Занимает слот или входит в уже занятый этим потоком; на каждый enter() - ровно один exit()
+    // в том же потоке. Нужен там, где начало и конец обращения - разные вызовы (начало и конец транзакции)
+    public void enter() {
+        int[] held = depth.get();
+        if (isEnabled() && held[0] == 0) {
+            acquire();
+        }
+        held[0]++;
+    }
+
+    public void exit() {
+        int[] held = depth.get();
+        held[0]--;
+        if (isEnabled() && held[0] == 0) {
+            permits.release();
+        }
+    }
+
+    // Как enter(), но сначала место среди max-streaming выгрузок. Мест нет - сразу отказ: ждать,
+    // пока докачается чужая выгрузка, бессмысленно. Закрывается exitStreaming() в том же потоке
+    public void enterStreaming() {
+        if (!isEnabled()) {
+            enter();
+            return;
+        }
+        if (!streamingPermits.tryAcquire()) {
+            rejectedStreaming.increment();
+            throw new BulkheadFullException("Все " + maxStreaming + " слота выгрузки заняты");
+        }
+        try {
+            enter();
+        } catch (RuntimeException e) {
+            streamingPermits.release();
+            throw e;
+        }
+    }
+
+    public void exitStreaming() {
+        exit();
+        if (isEnabled()) {
+            streamingPermits.release();
+        }
+    }
+
+    private void acquire() {
+        // Быстрый путь без учёта в очереди
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new BulkheadFullException("Очередь к БД заполнена: " + maxQueued + " ожидающих");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejectedTimeout.increment();
+                throw new BulkheadFullException("Нет свободного слота к БД за "
+                        + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos) + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException("Ожидание слота к БД прервано");
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BulkheadCall<T> {
+        T run() throws Throwable;
+    }
+}
@@ -0,0 +1,65 @@
+package com.crud_app.bulkhead;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.function.Supplier;
+
+// Слот DbBulkhead берётся раньше соединения: при начале каждой транзакции и перед вызовом
+// репозитория вне транзакции (фрагменты на JdbcTemplate). Вложенные вызовы второго слота не берут
+@Configuration(proxyBeanMethods = false)
+public class DbBulkheadConfig {
+
+    // Заменяет JpaTransactionManager из автоконфигурации (тот создаётся, только если своего нет)
+    @Bean
+    JpaTransactionManager transactionManager(ObjectProvider<DbBulkhead> bulkhead,
+                                             ObjectProvider<TransactionManagerCustomizers> customizers) {
+        BulkheadTransactionManager transactionManager =
+                new BulkheadTransactionManager(SingletonSupplier.of(bulkhead::getIfAvailable));
+        customizers.ifAvailable(instance -> instance.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    static BeanPostProcessor repositoryBulkhead(ObjectProvider<DbBulkhead> bulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    // Ограничитель берётся при первом вызове: репозитории создаются раньше него
+                    Supplier<DbBulkhead> instance = SingletonSupplier.of(bulkhead::getIfAvailable);
+                    MethodInterceptor interceptor = invocation -> instance.get() != null
+                            ? instance.get().call(invocation::proceed)
+                            : invocation.proceed();
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    beforeTransaction(proxyFactory), interceptor)));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Совет встаёт перед TransactionInterceptor репозитория, иначе слот ждали бы с уже взятым соединением
+    static int beforeTransaction(ProxyFactory proxyFactory) {
+        Advisor[] advisors = proxyFactory.getAdvisors();
+        for (int i = 0; i < advisors.length; i++) {
+            Advice advice = advisors[i].getAdvice();
+            if (advice instanceof TransactionInterceptor) {
+                return i;
+            }
+        }
+        return advisors.length;
+    }
+}
@@ -0,0 +1,118 @@
+package com.crud_app.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// LRU-кэш с ограничением по размеру и времени жизни записи.
+// maxSize <= 0 - кэш выключен, get() просто вызывает загрузчик
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Растёт при каждой инвалидации: значение, загруженное во время записи, в кэш не попадает
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        return get(key, loader, () -> true);
+    }
+
+    // cacheable проверяется после загрузки: false - значение отдаётся, но в кэш не попадает
+    public V get(K key, Supplier<V> loader, BooleanSupplier cacheable) {
+        if (maxSize <= 0) {
+            return loader.get();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.get();
+
+        synchronized (this) {
+            if (generation == loadGeneration && cacheable.getAsBoolean()) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    // Значение без учёта в статистике и без изменения порядка LRU
+    public synchronized Optional<V> peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.isExpired() ? Optional.empty() : Optional.ofNullable(entry.value);
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (entries.remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        generation++;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, invalidations, entries.size(), maxSize);
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
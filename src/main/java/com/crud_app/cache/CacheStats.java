@@ -0,0 +1,21 @@
+package com.crud_app.cache;
+
+import lombok.Value;
+
+@Value
+public class CacheStats {
+
+    long hits;
+    long misses;
+    // Вытеснение по размеру и по TTL
+    long evictions;
+    // Удаление при записи
+    long invalidations;
+    int size;
+    int maxSize;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,130 @@
+package com.crud_app.cache;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.replica.ReplicaContext;
+import com.crud_app.service.ItemChangedEvent;
+import com.crud_app.service.ItemCountChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// READ-THROUGH КЭШ ItemService: записи по id и первые страницы списков.
+// После записи удаляются только затронутые ключи (см. onItemChanged). Прочитанное с отстающей
+// реплики не кэшируется, а запрос, которому нужна своя запись (read-your-writes), идёт мимо кэша:
+// сброс кэша после записи на другом экземпляре мог прийти раньше, чем реплика её догнала
+@Component
+public class ItemCache {
+
+    private final BoundedCache<UUID, Optional<Item>> items;
+    private final BoundedCache<PageKey, Page<ItemRow>> pages;
+    private final int maxCachedPage;
+
+    public ItemCache(@Value("${app.cache.items.max-size:10000}") int itemsMaxSize,
+                     @Value("${app.cache.items.ttl:5m}") Duration itemsTtl,
+                     @Value("${app.cache.pages.max-size:1000}") int pagesMaxSize,
+                     @Value("${app.cache.pages.ttl:1m}") Duration pagesTtl,
+                     @Value("${app.cache.pages.max-page:5}") int maxCachedPage) {
+        this.items = new BoundedCache<>(itemsMaxSize, itemsTtl.toMillis());
+        this.pages = new BoundedCache<>(pagesMaxSize, pagesTtl.toMillis());
+        this.maxCachedPage = maxCachedPage;
+    }
+
+    // Item изменяем, а вызывающие его меняют (привязка формы, setId(null) при повторе групповой
+    // записи): в кэше - копия, отвязанная от сущности загрузчика, и наружу каждый раз новая копия
+    public Optional<Item> getItem(UUID id, Supplier<Optional<Item>> loader) {
+        if (ReplicaContext.readsOwnWrites()) {
+            return loader.get();
+        }
+        long laggingReads = ReplicaContext.laggingReads();
+        return items.get(id, () -> loader.get().map(ItemCache::copy), () -> fromCurrent(laggingReads))
+                .map(ItemCache::copy);
+    }
+
+    // Глубокие страницы не кэшируются: они запрашиваются редко и только вытесняли бы первые
+    public Page<ItemRow> getPage(PageKey key, Supplier<Page<ItemRow>> loader) {
+        if (key.page() >= maxCachedPage || ReplicaContext.readsOwnWrites()) {
+            return loader.get();
+        }
+        long laggingReads = ReplicaContext.laggingReads();
+        return pages.get(key, loader, () -> fromCurrent(laggingReads));
+    }
+
+    // Загрузчик не читал с отстающей реплики
+    private static boolean fromCurrent(long laggingReadsBefore) {
+        return ReplicaContext.laggingReads() == laggingReadsBefore;
+    }
+
+    public CacheStats itemStats() {
+        return items.stats();
+    }
+
+    public CacheStats pageStats() {
+        return pages.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        UUID id = event.getId();
+        Item known = event.getItem() != null
+                ? event.getItem()
+                : items.peek(id).flatMap(item -> item).orElse(null);
+        items.invalidate(id);
+
+        switch (event.getType()) {
+            // Новая запись сдвигает все страницы и меняет итог в списках, которым она подходит
+            case CREATED -> pages.invalidateIf((key, page) -> key.matches(known));
+            // createdAt не меняется: страницы по createdAt без поиска и без диапазона по updatedAt
+            // затронуты, только если содержат запись
+            case UPDATED -> pages.invalidateIf((key, page) -> contains(page, id)
+                    || key.filter().hasKeyword()
+                    || key.filter().hasDateRange() && ItemFilter.UPDATED_AT.equals(key.filter().dateField())
+                    || !ItemFilter.CREATED_AT.equals(key.sort()));
+            // Без данных удалённой записи неизвестно, каким спискам она принадлежала
+            case DELETED -> pages.invalidateIf((key, page) -> contains(page, id)
+                    || known == null
+                    || key.matches(known));
+        }
+    }
+
+    // Число записей в странице - из ItemCountService: после его пересчёта страницы фильтра перестраиваются
+    @EventListener
+    public void onCountChanged(ItemCountChangedEvent event) {
+        pages.invalidateIf((key, page) -> event.affects(key.filter()));
+    }
+
+    private static Item copy(Item item) {
+        return item.toBuilder().build();
+    }
+
+    private static boolean contains(Page<ItemRow> page, UUID id) {
+        return page.getContent().stream().anyMatch(row -> id.equals(row.id()));
+    }
+
+    // Ключ страницы: (page, size, sort, dir, filter); sort == null - порядок по релевантности поиска
+    public record PageKey(int page, int size, String sort, String dir, ItemFilter filter) {
+
+        public static PageKey of(ItemFilter filter, int page, int size, String sort, String dir) {
+            return new PageKey(page, size, sort, sort != null ? dir.toLowerCase(Locale.ROOT) : null,
+                    filter.normalized());
+        }
+
+        public static PageKey list(int page, int size, String sort, String dir) {
+            return of(ItemFilter.NONE, page, size, sort, dir);
+        }
+
+        // Может ли запись попасть в список с этим фильтром
+        boolean matches(Item item) {
+            return item == null || filter.matches(item);
+        }
+    }
+}
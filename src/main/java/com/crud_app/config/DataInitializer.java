@@ -3,6 +3,7 @@ package com.crud_app.config;
 import com.crud_app.model.Item;
 import com.crud_app.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,11 +17,20 @@ public class DataInitializer {
 
     @Bean
     @Profile("!test")
-    public CommandLineRunner initDatabase(ItemRepository repository) {
+    public CommandLineRunner initDatabase(ItemRepository repository, ItemSeeder seeder,
+                                          @Value("${app.seed.rows:0}") long seedRows) {
         return args -> {
             long count = repository.count();
             System.out.println("📊 Найдено записей в базе: " + count);
 
+            // Режим нагрузочных данных: дополняем таблицу до app.seed.rows строк
+            if (seedRows > 0) {
+                if (count < seedRows) {
+                    seeder.seed(seedRows - count);
+                }
+                return;
+            }
+
             if (count == 0) {
                 System.out.println("🔄 Создаём тестовые данные...");
 
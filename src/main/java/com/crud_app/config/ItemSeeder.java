@@ -0,0 +1,281 @@
+package com.crud_app.config;
+
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemFields;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// ГЕНЕРАТОР БОЛЬШИХ ОБЪЁМОВ для нагрузочных тестов: строки собираются в памяти и пишутся
+// JDBC-батчами мимо Hibernate, порция - отдельная транзакция, порции разбирают несколько потоков.
+// Длины name/description берутся из заданных распределений, created_at - равномерно
+// в интервале [from, to), у доли updated-ratio строк updated_at позже created_at.
+// id упорядочены по номеру строки (раскладка UUIDv7), чтобы вставка шла в конец первичного
+// ключа; вторичные индексы из @Table(indexes) на время загрузки удаляются и строятся заново
+// одним проходом - случайные вставки в B-дерево MVStore на миллионах строк в разы медленнее
+@Slf4j
+@Component
+public class ItemSeeder {
+
+    private static final String INSERT =
+            "INSERT INTO items (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String[] WORDS = {
+            "Купить", "продукты", "Позвонить", "маме", "Заплатить", "за", "квартиру", "Сходить", "в",
+            "спортзал", "Прочитать", "книгу", "Написать", "код", "Подготовить", "отчёт", "Убраться",
+            "комнате", "Починить", "компьютер", "Записаться", "к", "врачу", "подарок", "Выучить",
+            "английский", "Важное", "дело", "на", "неделе", "Не", "забыть", "сделать", "Срочная",
+            "задача", "Для", "саморазвития", "Рабочий", "вопрос", "Личные", "дела", "Семейные",
+            "вопросы", "Образование", "Здоровье", "Финансы"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int threads;
+    private final LengthDistribution nameLength;
+    private final LengthDistribution descriptionLength;
+    private final long fromSecond;
+    private final long toSecond;
+    private final double updatedRatio;
+    private final long progressInterval;
+    private final boolean rebuildIndexes;
+    // Текст, из которого вырезаются name и description нужной длины
+    private final String text;
+
+    public ItemSeeder(JdbcTemplate jdbcTemplate,
+                      TransactionTemplate transactionTemplate,
+                      @Value("${app.seed.batch-size:5000}") int batchSize,
+                      @Value("${app.seed.threads:0}") int threads,
+                      @Value("${app.seed.name-length:uniform:5-50}") String nameLength,
+                      @Value("${app.seed.description-length:normal:0-255}") String descriptionLength,
+                      @Value("${app.seed.from:2020-01-01}") LocalDate from,
+                      @Value("${app.seed.to:2025-01-01}") LocalDate to,
+                      @Value("${app.seed.updated-ratio:0.3}") double updatedRatio,
+                      @Value("${app.seed.progress-interval:1000000}") long progressInterval,
+                      @Value("${app.seed.rebuild-indexes:true}") boolean rebuildIndexes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.nameLength = LengthDistribution.parse(nameLength);
+        this.descriptionLength = LengthDistribution.parse(descriptionLength);
+        this.fromSecond = from.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.toSecond = to.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.updatedRatio = updatedRatio;
+        this.progressInterval = progressInterval;
+        this.rebuildIndexes = rebuildIndexes;
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("app.seed.batch-size должен быть больше 0");
+        }
+        if (this.nameLength.min() < 1 || this.nameLength.max() > ItemFields.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("app.seed.name-length: длина name от 1 до " + ItemFields.MAX_NAME_LENGTH);
+        }
+        if (this.descriptionLength.max() > ItemFields.MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("app.seed.description-length: длина description до " + ItemFields.MAX_DESCRIPTION_LENGTH);
+        }
+        if (toSecond <= fromSecond) {
+            throw new IllegalArgumentException("app.seed.to должен быть позже app.seed.from");
+        }
+        this.text = buildText();
+    }
+
+    // Добавляет rows строк и возвращает время в миллисекундах
+    public long seed(long rows) {
+        log.info("Генерация {} записей: {} потоков, порции по {}, name {}, description {}",
+                rows, threads, batchSize, nameLength, descriptionLength);
+        long start = System.nanoTime();
+        long idEpoch = System.currentTimeMillis();
+        AtomicLong claimed = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+        AtomicInteger workerThreads = new AtomicInteger();
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "item-seeder-" + workerThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (rebuildIndexes) {
+            forEachIndex(index -> jdbcTemplate.execute("DROP INDEX IF EXISTS " + index.name()));
+        }
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(workers.submit(() -> {
+                    SplittableRandom random = new SplittableRandom();
+                    long from;
+                    while ((from = claimed.getAndAdd(batchSize)) < rows) {
+                        int size = (int) Math.min(batchSize, rows - from);
+                        long first = from;
+                        transactionTemplate.executeWithoutResult(status -> insert(idEpoch, first, size, random));
+                        long total = written.addAndGet(size);
+                        if (total / progressInterval != (total - size) / progressInterval) {
+                            log.info("Генерация: записано {} из {} строк, {} строк/с",
+                                    total, rows, rowsPerSecond(total, start));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Генерация прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка генерации: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            workers.shutdownNow();
+            if (rebuildIndexes) {
+                long indexStart = System.nanoTime();
+                forEachIndex(index -> jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index.name()
+                        + " ON items (" + index.columnList() + ")"));
+                log.info("Индексы построены за {} мс", (System.nanoTime() - indexStart) / 1_000_000);
+            }
+        }
+
+        // Свежая статистика для планировщика H2 после массовой вставки
+        jdbcTemplate.execute("ANALYZE");
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Генерация завершена: {} строк за {} мс, {} строк/с", written.get(), millis, rowsPerSecond(written.get(), start));
+        return millis;
+    }
+
+    private void insert(long idEpoch, long first, int size, SplittableRandom random) {
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long created = random.nextLong(fromSecond, toSecond);
+                long updated = random.nextDouble() < updatedRatio
+                        ? random.nextLong(created, toSecond) + 1
+                        : created;
+                ps.setObject(1, orderedId(idEpoch, first + i, random));
+                ps.setString(2, text(nameLength.sample(random), random));
+                int description = descriptionLength.sample(random);
+                ps.setString(3, description == 0 ? null : text(description, random));
+                ps.setObject(4, LocalDateTime.ofEpochSecond(created, 0, ZoneOffset.UTC));
+                ps.setObject(5, LocalDateTime.ofEpochSecond(updated, 0, ZoneOffset.UTC));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+
+    // 48 бит "времени" и 12 бит счётчика растут с номером строки: 4096 строк на миллисекунду от idEpoch
+    static UUID orderedId(long idEpoch, long row, SplittableRandom random) {
+        long millis = idEpoch + (row >>> 12);
+        return new UUID(millis << 16 | 0x7000L | row & 0xFFFL,
+                random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L);
+    }
+
+    private static void forEachIndex(Consumer<Index> action) {
+        for (Index index : Item.class.getAnnotation(Table.class).indexes()) {
+            action.accept(index);
+        }
+    }
+
+    // Кусок текста длиной ровно length, без пробела по краям; запас в конце - на сдвиг до слова
+    private String text(int length, SplittableRandom random) {
+        int offset = random.nextInt(text.length() - length - 64);
+        while (text.charAt(offset) == ' ' || text.charAt(offset + length - 1) == ' ') {
+            offset++;
+        }
+        return text.substring(offset, offset + length);
+    }
+
+    private static String buildText() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(8192);
+        while (builder.length() < 8192) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return builder.toString();
+    }
+
+    private static long rowsPerSecond(long rows, long startNanos) {
+        long nanos = Math.max(1, System.nanoTime() - startNanos);
+        return rows * 1_000_000_000L / nanos;
+    }
+
+    // Распределение длины: "uniform:min-max", "normal:min-max" (среднее посередине,
+    // 3 сигмы до краёв), "short:min-max" (большинство строк короткие) или "fixed:n"
+    public record LengthDistribution(String shape, int min, int max) {
+
+        public static LengthDistribution parse(String value) {
+            String[] parts = value.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Ожидается форма:мин-макс, получено: " + value);
+            }
+            String shape = parts[0].trim();
+            String[] bounds = parts[1].trim().split("-", 2);
+            int min;
+            int max;
+            try {
+                min = Integer.parseInt(bounds[0].trim());
+                max = bounds.length == 2 ? Integer.parseInt(bounds[1].trim()) : min;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректные границы длины: " + value, e);
+            }
+            if (!List.of("uniform", "normal", "short", "fixed").contains(shape)) {
+                throw new IllegalArgumentException("Неизвестное распределение: " + shape);
+            }
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("Некорректные границы длины: " + value);
+            }
+            return new LengthDistribution(shape, min, max);
+        }
+
+        public int sample(SplittableRandom random) {
+            int span = max - min;
+            if (span == 0) {
+                return min;
+            }
+            return switch (shape) {
+                case "normal" -> {
+                    // Box-Muller
+                    double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble()))
+                            * Math.cos(2 * Math.PI * random.nextDouble());
+                    yield (int) Math.round(Math.max(min, Math.min(max, min + span / 2.0 + gaussian * span / 6.0)));
+                }
+                case "short" -> {
+                    double u = random.nextDouble();
+                    yield min + (int) (u * u * u * (span + 1));
+                }
+                case "fixed" -> min;
+                default -> random.nextInt(min, max + 1);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return shape + ":" + min + "-" + max;
+        }
+    }
+}
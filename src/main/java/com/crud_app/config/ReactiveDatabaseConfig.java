@@ -0,0 +1,65 @@
+package com.crud_app.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+// R2DBC-ДОСТУП К ТОЙ ЖЕ H2, ЧТО И У JPA (для /reactive/items).
+// URL берётся из spring.datasource.url: встроенная H2 внутри одного процесса
+// открывает по нему ту же базу. Пул не регистрируется бином ConnectionFactory -
+// иначе автоконфигурация Spring Boot отключила бы DataSource и JPA
+@Configuration(proxyBeanMethods = false)
+public class ReactiveDatabaseConfig implements DisposableBean {
+
+    private static final String JDBC_PREFIX = "jdbc:h2:";
+
+    private final ConnectionPool pool;
+
+    public ReactiveDatabaseConfig(@Value("${spring.datasource.url}") String jdbcUrl,
+                                  @Value("${spring.datasource.username:sa}") String username,
+                                  @Value("${spring.datasource.password:}") String password,
+                                  @Value("${app.reactive.pool.max-size:10}") int maxSize,
+                                  @Value("${app.reactive.pool.max-acquire-time:2s}") Duration maxAcquireTime) {
+        if (!jdbcUrl.startsWith(JDBC_PREFIX)) {
+            throw new IllegalStateException("Реактивный доступ поддерживает только H2: " + jdbcUrl);
+        }
+        H2ConnectionConfiguration configuration = H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring(JDBC_PREFIX.length()))
+                .username(username)
+                .password(password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration))
+                .name("reactive")
+                .initialSize(1)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    DatabaseClient reactiveDatabaseClient() {
+        return DatabaseClient.create(pool);
+    }
+
+    // r2dbc.pool.acquired / allocated / idle / pending{name="reactive"}
+    @Bean
+    MeterBinder reactivePoolMetrics() {
+        return new ConnectionPoolMetrics(pool, "reactive", Tags.empty());
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,176 @@
+package com.crud_app.controller;
+
+import com.crud_app.dto.BulkResult;
+import com.crud_app.dto.ImportReport;
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemRequest;
+import com.crud_app.dto.ItemStats;
+import com.crud_app.dto.PurgeReport;
+import com.crud_app.dto.StatsRebuildReport;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import com.crud_app.service.ItemBulkService;
+import com.crud_app.service.ItemFileFormat;
+import com.crud_app.service.ItemImportService;
+import com.crud_app.service.ItemPurgeService;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemStatsService;
+import com.crud_app.service.ItemVersionConflictException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// JSON API для пакетных операций; страницы Thymeleaf остаются в ItemController
+@RestController
+@RequestMapping("/api/items")
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final ItemService itemService;
+    private final ItemBulkService bulkService;
+    private final ItemImportService importService;
+    private final ItemPurgeService purgeService;
+    private final ItemStatsService statsService;
+
+    // ЧАСТИЧНОЕ ОБНОВЛЕНИЕ: только переданные поля одним UPDATE; version - ожидаемая версия (409, если другая)
+    // curl -X PATCH localhost:8080/api/items/<id> -H 'Content-Type: application/json' -d '{"name":"Новое","version":3}'
+    @PatchMapping("/{id}")
+    public ResponseEntity<Item> patchItem(@PathVariable UUID id, @RequestBody ItemPatch patch) {
+        return ResponseEntity.of(itemService.patchItem(id, patch));
+    }
+
+    @PostMapping("/bulk")
+    public BulkResult createItems(@RequestBody List<ItemRequest> items) {
+        return bulkService.createItems(items);
+    }
+
+    @PutMapping("/bulk")
+    public BulkResult updateItems(@RequestBody List<ItemRequest> items) {
+        return bulkService.updateItems(items);
+    }
+
+    @DeleteMapping("/bulk")
+    public BulkResult deleteItems(@RequestBody List<UUID> ids) {
+        return bulkService.deleteItems(ids);
+    }
+
+    // ИМПОРТ ФАЙЛА: тело запроса - сам файл (Content-Type: text/csv или application/x-ndjson)
+    // curl -X POST 'http://localhost:8080/api/items/import?format=csv' -H 'Content-Type: text/csv' --data-binary @items.csv
+    @PostMapping("/import")
+    public ImportReport importItems(@RequestParam(defaultValue = "csv") String format,
+                                    InputStream body) throws IOException {
+        return importService.importItems(ItemFileFormat.of(format), body);
+    }
+
+    // Прогресс текущих и итоги последних импортов
+    @GetMapping("/import")
+    public List<ImportReport> getImports() {
+        return importService.getImports();
+    }
+
+    @GetMapping("/import/{id}")
+    public ResponseEntity<ImportReport> getImport(@PathVariable UUID id) {
+        return ResponseEntity.of(importService.getImport(id));
+    }
+
+    // ОЧИСТКА ПО УСЛОВИЮ: 202 сразу, удаление идёт в фоне порциями; прогресс - по Location
+    // curl -X POST 'http://localhost:8080/api/items/purge?createdBefore=2024-01-01'
+    @PostMapping("/purge")
+    public ResponseEntity<PurgeReport> startPurge(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdBefore,
+            @RequestParam(required = false) String keyword) {
+        PurgeReport report = purgeService.startPurge(createdBefore, keyword);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/purge/" + report.getId()))
+                .body(report);
+    }
+
+    @GetMapping("/purge")
+    public List<PurgeReport> getPurges() {
+        return purgeService.getPurges();
+    }
+
+    @GetMapping("/purge/{id}")
+    public ResponseEntity<PurgeReport> getPurge(@PathVariable UUID id) {
+        return ResponseEntity.of(purgeService.getPurge(id));
+    }
+
+    @DeleteMapping("/purge/{id}")
+    public ResponseEntity<PurgeReport> cancelPurge(@PathVariable UUID id) {
+        return ResponseEntity.of(purgeService.cancelPurge(id));
+    }
+
+    // ГИСТОГРАММА: созданные, изменённые и удалённые записи по часам, дням или неделям за [from, to]
+    // по дням включительно; без from - последние сутки, 30 дней или 12 недель до to (по умолчанию сегодня)
+    // curl 'http://localhost:8080/api/items/stats?granularity=day&from=2024-01-01&to=2024-01-31'
+    @GetMapping("/stats")
+    public ItemStats getStats(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Granularity unit = Granularity.of(granularity);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : switch (unit) {
+            case HOUR -> end;
+            case DAY -> end.minusDays(29);
+            case WEEK -> end.minusWeeks(11);
+        };
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Дата \"с\" позже даты \"по\": " + start + " > " + end);
+        }
+        return statsService.histogram(unit, start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+    }
+
+    // ПЕРЕСЧЁТ СТАТИСТИКИ по таблице items: 202 сразу, пересчёт идёт в фоне по неделям
+    // curl -X POST 'http://localhost:8080/api/items/stats/rebuild?from=2024-01-01'
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<StatsRebuildReport> startStatsRebuild(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StatsRebuildReport report = statsService.startRebuild(from, to);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/stats/rebuild/" + report.getId()))
+                .body(report);
+    }
+
+    @GetMapping("/stats/rebuild")
+    public List<StatsRebuildReport> getStatsRebuilds() {
+        return statsService.getRebuilds();
+    }
+
+    @GetMapping("/stats/rebuild/{id}")
+    public ResponseEntity<StatsRebuildReport> getStatsRebuild(@PathVariable UUID id) {
+        return ResponseEntity.of(statsService.getRebuild(id));
+    }
+
+    @ExceptionHandler(ItemVersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(ItemVersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage(), "currentVersion", e.getCurrentVersion()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.crud_app.controller;
+
+import com.crud_app.dto.ItemFeedEvent;
+import com.crud_app.service.ItemChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/items/changes")
+@RequiredArgsConstructor
+public class ItemChangesController {
+
+    private final ItemChangeFeed feed;
+
+    @Value("${app.feed.heartbeat:15s}")
+    private Duration heartbeat;
+
+    // ЛЕНТА ИЗМЕНЕНИЙ (SSE) вместо перечитывания страниц по таймеру. EventSource после обрыва
+    // переподключается сам и присылает Last-Event-ID - лента продолжается с пропущенных событий.
+    // Пустой комментарий раз в heartbeat держит соединение через прокси
+    // GET http://localhost:8080/items/changes (Last-Event-ID: 3f9a1c2e-42 или ?lastEventId=3f9a1c2e-42)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ItemFeedEvent>> changes(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+
+        String resumeAfter = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        return feed.subscribe(resumeAfter).publish(events -> Flux.merge(
+                events.map(ItemChangesController::toSse),
+                Flux.interval(heartbeat)
+                        .map(tick -> ServerSentEvent.<ItemFeedEvent>builder().comment("").build())
+                        .takeUntilOther(events.then())));
+    }
+
+    // Данные - всё событие: EventSource не отдаёт событие без data, а у reset строки нет
+    private static ServerSentEvent<ItemFeedEvent> toSse(ItemFeedEvent event) {
+        return ServerSentEvent.builder(event)
+                .id(event.eventId())
+                .event(event.type())
+                .build();
+    }
+}
@@ -1,16 +1,32 @@
 package com.crud_app.controller;
 
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemRow;
 import com.crud_app.model.Item;
+import com.crud_app.service.CountedPage;
 import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemVersionConflictException;
+import com.crud_app.service.ItemVersionService;
+import com.crud_app.service.KeysetPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Controller
@@ -19,51 +35,122 @@ import java.util.UUID;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemVersionService versionService;
+    private final ItemListFragments listFragments;
+
+    @Value("${app.pager.window:3}")
+    private int pagerWindow;
 
     // ГЛАВНАЯ СТРАНИЦА
-    // GET http://localhost:8080/items?page=0&size=10&sort=name&dir=asc&keyword=&dateFrom=
+    // GET http://localhost:8080/items?page=0&size=10&sort=name&dir=asc&keyword=&dateField=createdAt&dateFrom=&dateTo=
+    // GET http://localhost:8080/items?mode=keyset&size=10&sort=name&dir=asc&after=<курсор>
     @GetMapping
     public String showAllItems(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "desc") String dir,
             @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String dateField,
             @RequestParam(required = false) String dateFrom,
-            Model model) {
+            @RequestParam(required = false) String dateTo,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            Model model,
+            ServletWebRequest webRequest) {
 
-        List<String> validSortFields = Arrays.asList("name", "description", "createdAt", "updatedAt");
-        if (!validSortFields.contains(sort)) {
-            sort = "createdAt";
+        // Неверная дата или диапазон - 400 и список без фильтра с сообщением над формой,
+        // введённые значения остаются в форме. Такой ответ не кэшируем по ETag
+        ItemFilter filter;
+        String filterError = null;
+        try {
+            filter = ItemFilter.parse(keyword, dateField, dateFrom, dateTo);
+        } catch (IllegalArgumentException e) {
+            filter = ItemFilter.NONE;
+            filterError = e.getMessage();
         }
-
-        if (!dir.equalsIgnoreCase("asc") && !dir.equalsIgnoreCase("desc")) {
-            dir = "desc";
+        if (filterError == null && notModified(webRequest)) {
+            return null;
         }
 
-        Page<Item> itemsPage;
+        // Поиск без явной сортировки - по релевантности (sortField == null)
+        List<String> validSortFields = Arrays.asList("name", "description", "createdAt", "updatedAt");
+        String sortField = validSortFields.contains(sort) ? sort : filter.hasKeyword() ? null : "createdAt";
+        String sortDir = dir.equalsIgnoreCase("asc") || dir.equalsIgnoreCase("desc") ? dir : "desc";
 
-        if (keyword != null && !keyword.trim().isEmpty()) {
-            itemsPage = itemService.searchItems(keyword.trim(), page, size);
-        } else if (dateFrom != null && !dateFrom.trim().isEmpty()) {
-            itemsPage = itemService.findByCreatedAtAfter(dateFrom.trim(), page, size);
-        } else {
-            itemsPage = itemService.getAllItemsPaginated(page, size, sort, dir);
-        }
+        // Курсорный режим - только для списка без фильтров
+        boolean keysetMode = (mode.equalsIgnoreCase("keyset") || after != null || before != null)
+                && filter.isEmpty();
+
+        ItemListFragments.Key key = new ItemListFragments.Key(keysetMode ? "keyset" : "page",
+                keysetMode ? 0 : page, size, sortField, sortDir, filter, after, before);
+        ItemListFragments.Rendered rendered = listFragments.get(key, webRequest, () -> keysetMode
+                ? keysetAttributes(after, before, size, sortField, sortDir, filter)
+                : pageAttributes(page, size, sortField, sortDir, filter));
 
-        model.addAttribute("itemsPage", itemsPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("pageSize", size);
-        model.addAttribute("sortField", sort);
-        model.addAttribute("sortDir", dir);
-        model.addAttribute("keyword", keyword);
-        model.addAttribute("dateFrom", dateFrom);
-        model.addAttribute("totalPages", itemsPage.getTotalPages());
-        model.addAttribute("totalItems", itemsPage.getTotalElements());
+        model.addAllAttributes(rendered.attributes());
+        model.addAttribute("rowsHtml", rendered.rows());
+        model.addAttribute("pagerHtml", rendered.pager());
+        if (filterError != null) {
+            webRequest.getResponse().setStatus(HttpStatus.BAD_REQUEST.value());
+            model.addAttribute("error", filterError);
+            model.addAttribute("keyword", keyword);
+            model.addAttribute("dateField", dateField);
+            model.addAttribute("dateFrom", dateFrom);
+            model.addAttribute("dateTo", dateTo);
+        }
 
         return "items/list";
     }
 
+    private Map<String, Object> keysetAttributes(String after, String before, int size, String sort, String dir,
+                                                 ItemFilter filter) {
+        KeysetPage<ItemRow> keysetPage = itemService.getItemsKeyset(after, before, size, sort, dir);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("itemsPage", keysetPage);
+        attributes.put("mode", "keyset");
+        attributes.put("pageSize", size);
+        attributes.put("sortField", sort);
+        attributes.put("sortDir", dir);
+        putFilter(attributes, filter);
+        return attributes;
+    }
+
+    private Map<String, Object> pageAttributes(int page, int size, String sort, String dir, ItemFilter filter) {
+        Page<ItemRow> itemsPage = itemService.findItems(filter, page, size, sort, dir);
+
+        // Окно пагинации: первая и последняя страницы плюс текущая ± pagerWindow
+        int totalPages = itemsPage.getTotalPages();
+        int windowCenter = Math.max(0, Math.min(page, totalPages - 1));
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("itemsPage", itemsPage);
+        attributes.put("mode", "page");
+        attributes.put("currentPage", page);
+        attributes.put("pageSize", size);
+        attributes.put("sortField", sort);
+        attributes.put("sortDir", dir);
+        putFilter(attributes, filter);
+        attributes.put("totalPages", totalPages);
+        attributes.put("totalItems", itemsPage.getTotalElements());
+        attributes.put("totalItemsLabel", itemsPage instanceof CountedPage<?> counted
+                ? counted.getTotalLabel()
+                : String.valueOf(itemsPage.getTotalElements()));
+        attributes.put("pagerStart", Math.max(0, windowCenter - pagerWindow));
+        attributes.put("pagerEnd", Math.max(0, Math.min(totalPages - 1, windowCenter + pagerWindow)));
+        return attributes;
+    }
+
+    // Значения фильтра для формы и ссылок: пустые условия - null, чтобы не попадать в URL
+    private static void putFilter(Map<String, Object> attributes, ItemFilter filter) {
+        attributes.put("keyword", filter.keyword());
+        attributes.put("dateField", filter.hasDateRange() ? filter.dateField() : null);
+        attributes.put("dateFrom", filter.dateFrom() != null ? filter.dateFrom().toString() : null);
+        attributes.put("dateTo", filter.dateTo() != null ? filter.dateTo().toString() : null);
+    }
+
     @GetMapping("/new")
     public String showCreateForm(Model model) {
         model.addAttribute("item", new Item());
@@ -78,7 +165,11 @@ public class ItemController {
 
     @GetMapping("/edit/{id}")
     public String showEditForm(@PathVariable UUID id, Model model,
-                               RedirectAttributes redirectAttributes) {
+                               RedirectAttributes redirectAttributes,
+                               ServletWebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         return itemService.getItemById(id)
                 .map(item -> {
                     model.addAttribute("item", item);
@@ -91,9 +182,47 @@ public class ItemController {
                 });
     }
 
+    // Форма редактирования: одним UPDATE только name и description с проверкой версии.
+    // Если запись успели изменить - форма с актуальными данными и 409,
+    // неверные значения полей - та же форма с введёнными данными и 400
+    @PostMapping("/update/{id}")
+    public String updateItem(@PathVariable UUID id, @ModelAttribute Item item, Model model,
+                             RedirectAttributes redirectAttributes,
+                             ServletWebRequest webRequest) {
+        try {
+            if (itemService.patchItem(id, ItemPatch.of(item.getName(), item.getDescription(), item.getVersion())).isEmpty()) {
+                redirectAttributes.addFlashAttribute("error", "Запись с ID " + id + " не найдена");
+            }
+            return "redirect:/items";
+        } catch (ItemVersionConflictException e) {
+            webRequest.getResponse().setStatus(HttpStatus.CONFLICT.value());
+            model.addAttribute("error", "Запись уже изменили, ниже - актуальные данные");
+            model.addAttribute("item", itemService.getItemById(id).orElse(item));
+            return "items/form";
+        } catch (IllegalArgumentException e) {
+            webRequest.getResponse().setStatus(HttpStatus.BAD_REQUEST.value());
+            model.addAttribute("error", e.getMessage());
+            item.setId(id);
+            model.addAttribute("item", item);
+            return "items/form";
+        }
+    }
+
     @GetMapping("/delete/{id}")
     public String deleteItem(@PathVariable UUID id) {
         itemService.deleteItem(id);
         return "redirect:/items";
     }
-}
\ No newline at end of file
+
+    // УСЛОВНЫЙ GET: ETag и Last-Modified - версия таблицы, без запросов к БД.
+    // Если у клиента та же версия - 304 без выборки и без рендеринга шаблона.
+    // Страницу с flash-сообщением после редиректа не кэшируем
+    private boolean notModified(ServletWebRequest webRequest) {
+        if (!CollectionUtils.isEmpty(RequestContextUtils.getInputFlashMap(webRequest.getRequest()))) {
+            return false;
+        }
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        ItemVersionService.Stamp stamp = versionService.current();
+        return webRequest.checkNotModified(stamp.getEtag(), stamp.getLastModified());
+    }
+}
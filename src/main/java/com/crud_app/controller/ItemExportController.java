@@ -0,0 +1,63 @@
+package com.crud_app.controller;
+
+import com.crud_app.bulkhead.DbBulkhead;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.service.ItemExportService;
+import com.crud_app.service.ItemFileFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/items/export")
+@RequiredArgsConstructor
+public class ItemExportController {
+
+    private final ItemExportService exportService;
+    private final DbBulkhead bulkhead;
+
+    // ЭКСПОРТ
+    // GET http://localhost:8080/items/export?format=csv&keyword=&dateField=createdAt&dateFrom=&dateTo=
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String dateField,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo) {
+
+        ItemFileFormat exportFormat = ItemFileFormat.of(format);
+        // Фильтр разбирается до начала ответа, чтобы ошибка пришла как 400, а не как оборванный файл
+        ItemFilter filter = ItemFilter.parse(keyword, dateField, dateFrom, dateTo);
+
+        // Транзакция выгрузки живёт, пока клиент читает ответ, - слот берётся из полосы выгрузок
+        StreamingResponseBody body = out -> {
+            bulkhead.enterStreaming();
+            try {
+                exportService.export(exportFormat, filter, out);
+            } finally {
+                bulkhead.exitStreaming();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"items." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.crud_app.controller;
+
+import com.crud_app.cache.BoundedCache;
+import com.crud_app.cache.CacheStats;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.replica.ReplicaContext;
+import com.crud_app.service.ItemChangedEvent;
+import com.crud_app.service.ItemCountChangedEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// КЭШ ОТРИСОВАННЫХ ФРАГМЕНТОВ СПИСКА: строки таблицы и пагинация из items/list-fragments.html
+// вместе с атрибутами модели, по которым они построены. При попадании страница собирается
+// без обращения к ItemService и без рендеринга строк; любая запись очищает кэш целиком,
+// фоновый пересчёт числа записей - фрагменты своего фильтра. Как и ItemCache, не кэширует
+// построенное по чтению с отстающей реплики и не используется для запросов с read-your-writes
+@Component
+public class ItemListFragments {
+
+    private static final String TEMPLATE = "items/list-fragments";
+
+    private final ITemplateEngine templateEngine;
+    private final BoundedCache<Key, Rendered> cache;
+
+    public ItemListFragments(ITemplateEngine templateEngine,
+                             @Value("${app.cache.fragments.max-size:1000}") int maxSize,
+                             @Value("${app.cache.fragments.ttl:1m}") Duration ttl) {
+        this.templateEngine = templateEngine;
+        this.cache = new BoundedCache<>(maxSize, ttl.toMillis());
+    }
+
+    public Rendered get(Key key, ServletWebRequest webRequest, Supplier<Map<String, Object>> attributes) {
+        if (ReplicaContext.readsOwnWrites()) {
+            return render(attributes.get(), webRequest);
+        }
+        long laggingReads = ReplicaContext.laggingReads();
+        return cache.get(key, () -> render(attributes.get(), webRequest),
+                () -> ReplicaContext.laggingReads() == laggingReads);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        cache.clear();
+    }
+
+    @EventListener
+    public void onCountChanged(ItemCountChangedEvent event) {
+        cache.invalidateIf((key, rendered) -> event.affects(key.filter()));
+    }
+
+    private Rendered render(Map<String, Object> attributes, ServletWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getRequest();
+        // Ссылки из кэша видят все клиенты: jsessionid в них дописывать нельзя
+        HttpServletResponse response = new HttpServletResponseWrapper(webRequest.getResponse()) {
+            @Override
+            public String encodeURL(String url) {
+                return url;
+            }
+        };
+        WebContext context = new WebContext(
+                JakartaServletWebApplication.buildApplication(request.getServletContext())
+                        .buildExchange(request, response),
+                request.getLocale(), attributes);
+        return new Rendered(Collections.unmodifiableMap(attributes),
+                templateEngine.process(TEMPLATE, Set.of("rows"), context),
+                templateEngine.process(TEMPLATE, Set.of("pager"), context));
+    }
+
+    // Ключ: параметры запроса после нормализации sort/dir, фильтра и выбора режима
+    public record Key(String mode, int page, int size, String sort, String dir,
+                      ItemFilter filter, String after, String before) {
+    }
+
+    public record Rendered(Map<String, Object> attributes, String rows, String pager) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.crud_app.controller;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ReactiveItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/reactive/items")
+@RequiredArgsConstructor
+public class ReactiveItemController {
+
+    private static final List<String> SORT_FIELDS = List.of("name", "description", "createdAt", "updatedAt");
+
+    private final ReactiveItemRepository repository;
+
+    // РЕАКТИВНЫЙ СПИСОК: NDJSON, по записи на строку, без кэшей и подсчёта страниц.
+    // Запрос не занимает поток Tomcat на время передачи: следующая запись читается
+    // из Flux, только когда предыдущая записана в сокет
+    // GET http://localhost:8080/reactive/items?page=0&size=10&sort=name&dir=asc&keyword=&dateFrom=
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Item> items(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(defaultValue = "desc") String dir,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String dateFrom) {
+
+        Pageable pageable = PageRequest.of(page, size);
+
+        if (keyword != null && !keyword.isBlank()) {
+            return repository.searchByKeyword(keyword.trim(), pageable);
+        }
+        LocalDateTime createdAfter = ItemFilter.parse(null, null, dateFrom, null).from();
+        if (createdAfter != null) {
+            return repository.findByCreatedAtAfter(createdAfter, pageable);
+        }
+        String sortField = SORT_FIELDS.contains(sort) ? sort : "createdAt";
+        Sort.Direction direction = dir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return repository.findAll(PageRequest.of(page, size, Sort.by(direction, sortField)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
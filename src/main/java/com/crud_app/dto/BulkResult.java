@@ -0,0 +1,33 @@
+package com.crud_app.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+// Итог пакетной операции: сколько строк обработано и время каждой транзакции-порции
+@Getter
+@RequiredArgsConstructor
+public class BulkResult {
+
+    private final String operation;
+    private final int requested;
+    private final int processed;
+    private final List<UUID> ids;
+    private final List<UUID> notFound;
+    private final List<ChunkTiming> chunks;
+    private final long totalMillis;
+
+    public long getRowsPerSecond() {
+        return totalMillis == 0 ? processed * 1000L : processed * 1000L / totalMillis;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ChunkTiming {
+        private final int index;
+        private final int size;
+        private final long millis;
+    }
+}
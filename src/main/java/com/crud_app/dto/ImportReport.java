@@ -0,0 +1,43 @@
+package com.crud_app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Состояние импорта: во время загрузки - промежуточный прогресс, после - итог
+@Getter
+@Builder
+public class ImportReport {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final UUID id;
+    private final String format;
+    private final Status status;
+    private final LocalDateTime startedAt;
+    private final long linesRead;
+    private final long rowsAccepted;
+    private final long rowsWritten;
+    private final long rowsRejected;
+    private final long batches;
+    private final List<RejectedRow> rejected;
+    private final long elapsedMillis;
+    private final String error;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsWritten * 1000L : rowsWritten * 1000L / elapsedMillis;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class RejectedRow {
+        private final long line;
+        private final String reason;
+    }
+}
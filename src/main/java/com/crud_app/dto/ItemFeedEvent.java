@@ -0,0 +1,21 @@
+package com.crud_app.dto;
+
+import java.util.UUID;
+
+// СОБЫТИЕ ЛЕНТЫ ИЗМЕНЕНИЙ (/items/changes): номер растёт на каждое изменение экземпляра
+// и начинается заново при каждом запуске, поэтому имеет смысл только вместе с epoch - меткой
+// запуска. type - created, updated, deleted или reset: пропущенных событий в буфере уже нет,
+// список нужно перечитать целиком. item - строка списка после изменения, у deleted и reset - null
+public record ItemFeedEvent(String epoch, long seq, String type, UUID id, ItemRow item) {
+
+    public static final String RESET = "reset";
+
+    public static ItemFeedEvent reset(String epoch, long seq) {
+        return new ItemFeedEvent(epoch, seq, RESET, null, null);
+    }
+
+    // id события SSE и Last-Event-ID: epoch-seq
+    public String eventId() {
+        return epoch + "-" + seq;
+    }
+}
@@ -0,0 +1,100 @@
+package com.crud_app.dto;
+
+import com.crud_app.model.Item;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Set;
+
+// ФИЛЬТР СПИСКА: ключевое слово (подстрока в названии или описании) и диапазон дат
+// по createdAt или updatedAt, границы по дням включительно. Заданные условия объединяются
+// через AND; пустой фильтр - весь список. Неверные значения - IllegalArgumentException
+public record ItemFilter(String keyword, String dateField, LocalDate dateFrom, LocalDate dateTo) {
+
+    public static final String CREATED_AT = "createdAt";
+    public static final String UPDATED_AT = "updatedAt";
+    private static final Set<String> DATE_FIELDS = Set.of(CREATED_AT, UPDATED_AT);
+
+    public static final ItemFilter NONE = new ItemFilter(null, CREATED_AT, null, null);
+
+    public ItemFilter {
+        keyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        dateField = dateField == null || dateField.isBlank() ? CREATED_AT : dateField;
+        if (!DATE_FIELDS.contains(dateField)) {
+            throw new IllegalArgumentException("Неизвестное поле даты: " + dateField);
+        }
+        if (dateFrom != null && dateTo != null && dateFrom.isAfter(dateTo)) {
+            throw new IllegalArgumentException("Дата \"с\" позже даты \"по\": " + dateFrom + " > " + dateTo);
+        }
+    }
+
+    public static ItemFilter keyword(String keyword) {
+        return new ItemFilter(keyword, CREATED_AT, null, null);
+    }
+
+    // Параметры запроса как есть: пустые строки - условие не задано
+    public static ItemFilter parse(String keyword, String dateField, String dateFrom, String dateTo) {
+        return new ItemFilter(keyword, dateField, parseDate(dateFrom), parseDate(dateTo));
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверная дата: " + value);
+        }
+    }
+
+    public boolean hasKeyword() {
+        return keyword != null;
+    }
+
+    public boolean hasDateRange() {
+        return dateFrom != null || dateTo != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasKeyword() && !hasDateRange();
+    }
+
+    // Начало диапазона включительно, конец - исключая (начало следующего дня)
+    public LocalDateTime from() {
+        return dateFrom != null ? dateFrom.atStartOfDay() : null;
+    }
+
+    public LocalDateTime until() {
+        return dateTo != null ? dateTo.plusDays(1).atStartOfDay() : null;
+    }
+
+    // Ключ кэша: LIKE не различает регистр, поэтому и ключ от него не зависит
+    public ItemFilter normalized() {
+        return keyword == null ? this : new ItemFilter(keyword.toLowerCase(Locale.ROOT), dateField, dateFrom, dateTo);
+    }
+
+    // То же условие, что в запросе, - для записи в памяти (инвалидация кэша страниц)
+    public boolean matches(Item item) {
+        if (keyword != null) {
+            String lower = keyword.toLowerCase(Locale.ROOT);
+            if (!containsIgnoreCase(item.getName(), lower) && !containsIgnoreCase(item.getDescription(), lower)) {
+                return false;
+            }
+        }
+        if (hasDateRange()) {
+            LocalDateTime value = UPDATED_AT.equals(dateField) ? item.getUpdatedAt() : item.getCreatedAt();
+            if (value == null) {
+                return false;
+            }
+            return (dateFrom == null || !value.isBefore(from())) && (dateTo == null || value.isBefore(until()));
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String text, String lowerKeyword) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(lowerKeyword);
+    }
+}
@@ -0,0 +1,40 @@
+package com.crud_app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Частичное обновление записи: меняются только переданные поля.
+// "description": null очищает описание, отсутствие поля оставляет его как есть;
+// version - ожидаемая версия записи, без неё обновление безусловное
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPatch {
+
+    private String name;
+    private String description;
+    private boolean descriptionSet;
+    private Long version;
+
+    public static ItemPatch of(String name, String description, Long version) {
+        return new ItemPatch(name, description, true, version);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionSet = true;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isEmpty() {
+        return name == null && !descriptionSet;
+    }
+}
@@ -0,0 +1,20 @@
+package com.crud_app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+// Запись в JSON API: id нужен только для обновления
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequest {
+
+    private UUID id;
+    private String name;
+    private String description;
+}
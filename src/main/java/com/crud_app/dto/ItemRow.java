@@ -0,0 +1,9 @@
+package com.crud_app.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// СТРОКА СПИСКА: только то, что показывает таблица. Собирается конструктором прямо в запросе
+// (SELECT new ...), поэтому не попадает в контекст персистентности и не хранит снимок для dirty checking
+public record ItemRow(UUID id, String name, String description, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,22 @@
+package com.crud_app.dto;
+
+import com.crud_app.model.ItemStatsBucket;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Гистограмма за [from, to): по столбцу на каждый интервал, пустые - с нулями
+@Getter
+@Builder
+public class ItemStats {
+
+    private final ItemStatsBucket.Granularity granularity;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<ItemStatsPoint> buckets;
+    private final long created;
+    private final long updated;
+    private final long deleted;
+}
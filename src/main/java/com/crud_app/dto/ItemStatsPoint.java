@@ -0,0 +1,11 @@
+package com.crud_app.dto;
+
+import java.time.LocalDateTime;
+
+// Столбец гистограммы: начало интервала и суммы счётчиков по всем его строкам
+public record ItemStatsPoint(LocalDateTime start, long created, long updated, long deleted) {
+
+    public static ItemStatsPoint empty(LocalDateTime start) {
+        return new ItemStatsPoint(start, 0, 0, 0);
+    }
+}
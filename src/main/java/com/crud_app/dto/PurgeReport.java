@@ -0,0 +1,33 @@
+package com.crud_app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Состояние фоновой очистки: условие, прогресс и скорость, после завершения - итог
+@Getter
+@Builder
+public class PurgeReport {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final UUID id;
+    private final Status status;
+    private final LocalDate createdBefore;
+    private final String keyword;
+    private final LocalDateTime startedAt;
+    private final long rowsDeleted;
+    private final long chunks;
+    private final long maxChunkMillis;
+    private final long elapsedMillis;
+    private final String error;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsDeleted * 1000L : rowsDeleted * 1000L / elapsedMillis;
+    }
+}
@@ -0,0 +1,29 @@
+package com.crud_app.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Состояние пересчёта статистики: диапазон (с понедельника по неделям), прогресс, итог
+@Getter
+@Builder
+public class StatsRebuildReport {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final UUID id;
+    private final Status status;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final LocalDateTime startedAt;
+    private final long weeks;
+    private final long weeksDone;
+    private final long rowsCounted;
+    private final long elapsedMillis;
+    private final String error;
+}
@@ -0,0 +1,82 @@
+package com.crud_app.metrics;
+
+import com.crud_app.cache.CacheStats;
+import com.crud_app.cache.ItemCache;
+import com.crud_app.controller.ItemListFragments;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.function.Function;
+
+// МЕТРИКИ (/actuator/prometheus). Автоконфигурация Spring Boot уже даёт:
+// http.server.requests - задержки обработчиков контроллеров (uri = шаблон пути),
+// spring.data.repository.invocations - время каждого метода репозитория,
+// hibernate.* - статистика Hibernate, hikaricp.connections.* - пул соединений.
+// Здесь добавляется то, чего в автоконфигурации нет
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    // Строки, возвращённые методами репозиториев
+    @Bean
+    static BeanPostProcessor repositoryRowsMetrics(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(new RepositoryRowsInterceptor(
+                                    registry, information.getRepositoryInterface(), information.getDomainType()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Время и число строк по каждому HQL-запросу, в том числе по count-запросам,
+    // которые Spring Data строит сама для методов, возвращающих Page
+    @Bean
+    MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class),
+                "entityManagerFactory", Tags.empty());
+    }
+
+    // Кэш второго уровня Hibernate не используется, его роль играет ItemCache
+    @Bean
+    MeterBinder itemCacheMetrics(ItemCache itemCache, ItemListFragments listFragments) {
+        return registry -> {
+            bindCache(registry, "items", itemCache, ItemCache::itemStats);
+            bindCache(registry, "pages", itemCache, ItemCache::pageStats);
+            bindCache(registry, "fragments", listFragments, ItemListFragments::stats);
+        };
+    }
+
+    // Счётчики держат источник по слабой ссылке, поэтому передаётся сам бин кэша
+    private static <T> void bindCache(MeterRegistry registry, String name, T source, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("items.cache.requests", source, cache -> stats.apply(cache).getHits())
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("items.cache.requests", source, cache -> stats.apply(cache).getMisses())
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("items.cache.evictions", source, cache -> stats.apply(cache).getEvictions())
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("items.cache.invalidations", source, cache -> stats.apply(cache).getInvalidations())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("items.cache.size", source, cache -> stats.apply(cache).getSize())
+                .tag("cache", name)
+                .register(registry);
+    }
+}
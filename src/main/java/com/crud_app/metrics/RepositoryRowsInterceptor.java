@@ -0,0 +1,75 @@
+package com.crud_app.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Сколько строк вернул каждый метод репозитория (время замеряет spring.data.repository.invocations).
+// Count-запросы, потоки и void-методы строк не возвращают и не учитываются
+class RepositoryRowsInterceptor implements MethodInterceptor {
+
+    static final String METRIC = "spring.data.repository.rows";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final Class<?> repositoryInterface;
+    private final Class<?> domainType;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    RepositoryRowsInterceptor(ObjectProvider<MeterRegistry> registry, Class<?> repositoryInterface,
+                              Class<?> domainType) {
+        this.registry = registry;
+        this.repositoryInterface = repositoryInterface;
+        this.domainType = domainType;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        long rows = rows(result);
+        if (rows >= 0) {
+            DistributionSummary summary = summary(invocation.getMethod());
+            if (summary != null) {
+                summary.record(rows);
+            }
+        }
+        return result;
+    }
+
+    private long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (domainType.isInstance(result)) {
+            return 1;
+        }
+        return -1;
+    }
+
+    private DistributionSummary summary(Method method) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return null;
+        }
+        return summaries.computeIfAbsent(method, key -> DistributionSummary.builder(METRIC)
+                .description("Rows returned by a repository method")
+                .baseUnit("rows")
+                .tag("repository", repositoryInterface.getSimpleName())
+                .tag("method", key.getName())
+                .register(meterRegistry));
+    }
+}
@@ -2,6 +2,7 @@ package com.crud_app.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,22 +11,32 @@ import java.util.Objects;
 import java.util.UUID;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "idx_items_name_id", columnList = "name, id"),
+        @Index(name = "idx_items_description_id", columnList = "description, id"),
+        @Index(name = "idx_items_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_items_updated_at_id", columnList = "updated_at, id"),
+        // H2 не читает индекс в обратном порядке: для ORDER BY ... DESC нужны отдельные индексы
+        @Index(name = "idx_items_name_desc", columnList = "name DESC, id DESC"),
+        @Index(name = "idx_items_description_desc", columnList = "description DESC, id DESC"),
+        @Index(name = "idx_items_created_at_desc", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_items_updated_at_desc", columnList = "updated_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Item {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false, length = 50)
+    @Column(nullable = false, length = ItemFields.MAX_NAME_LENGTH)
     private String name;
 
-    @Column(length = 255)
+    @Column(length = ItemFields.MAX_DESCRIPTION_LENGTH)
     private String description;
 
     @CreationTimestamp
@@ -35,6 +46,13 @@ public class Item {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // ОПТИМИСТИЧНАЯ БЛОКИРОВКА: растёт на каждое изменение; DEFAULT 0 - для строк, вставленных
+    // в обход JPA, и для существующих таблиц при ddl-auto=update
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public String getFormattedCreatedAt() {
         return createdAt != null ?
                 createdAt.toLocalDate() + " | " + createdAt.toLocalTime() : "";
@@ -70,6 +88,7 @@ public class Item {
                 ", description='" + description + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
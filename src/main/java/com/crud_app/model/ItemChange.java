@@ -0,0 +1,39 @@
+package com.crud_app.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// ЖУРНАЛ ИЗМЕНЕНИЙ: строка на каждое создание, изменение и удаление записи, в той же
+// транзакции. seq растёт с каждой строкой - по нему экземпляры дочитывают журнал
+// и сбрасывают свои кэши. origin - экземпляр, сделавший изменение
+@Entity
+@Table(name = "item_changes", indexes = {
+        @Index(name = "idx_item_changes_changed_at", columnList = "changed_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "item_id", nullable = false)
+    private UUID itemId;
+
+    // CREATED, UPDATED, DELETED
+    @Column(nullable = false, length = 8)
+    private String type;
+
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
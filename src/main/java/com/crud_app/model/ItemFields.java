@@ -0,0 +1,42 @@
+package com.crud_app.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ОГРАНИЧЕНИЯ ПОЛЕЙ Item - те же, что у столбцов таблицы items. Проверка поля возвращает
+// текст ошибки или null; общие для формы, пакетного API, импорта и загрузки тестовых данных
+public final class ItemFields {
+
+    public static final int MAX_NAME_LENGTH = 50;
+    public static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private ItemFields() {
+    }
+
+    public static String nameError(String name) {
+        if (name == null || name.isBlank()) {
+            return "name: обязательно";
+        }
+        return name.length() > MAX_NAME_LENGTH ? "name: больше " + MAX_NAME_LENGTH + " символов" : null;
+    }
+
+    public static String descriptionError(String description) {
+        return description != null && description.length() > MAX_DESCRIPTION_LENGTH
+                ? "description: больше " + MAX_DESCRIPTION_LENGTH + " символов"
+                : null;
+    }
+
+    // Обе проверки для новой или целиком заменяемой записи
+    public static List<String> errors(String name, String description) {
+        List<String> errors = new ArrayList<>(2);
+        addIfPresent(errors, nameError(name));
+        addIfPresent(errors, descriptionError(description));
+        return errors;
+    }
+
+    public static void addIfPresent(List<String> errors, String error) {
+        if (error != null) {
+            errors.add(error);
+        }
+    }
+}
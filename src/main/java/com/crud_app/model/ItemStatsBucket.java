@@ -0,0 +1,92 @@
+package com.crud_app.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+// СЧЁТЧИКИ ПО ИНТЕРВАЛАМ: сколько записей создано, изменено и удалено за час, день и неделю.
+// Одному интервалу соответствует несколько строк (slot): параллельные транзакции прибавляют
+// к разным строкам и не ждут блокировку одной; в ответ они складываются GROUP BY
+@Entity
+@Table(name = "item_stats", indexes = {
+        @Index(name = "idx_item_stats_bucket", columnList = "granularity, bucket_start")
+})
+@IdClass(ItemStatsBucket.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemStatsBucket {
+
+    public enum Granularity {
+        HOUR("HOUR"), DAY("DAY"), WEEK("ISO_WEEK");
+
+        // Единица DATE_TRUNC в H2: ISO_WEEK - неделя с понедельника, как в truncate
+        private final String sqlUnit;
+
+        Granularity(String sqlUnit) {
+            this.sqlUnit = sqlUnit;
+        }
+
+        public String getSqlUnit() {
+            return sqlUnit;
+        }
+
+        public static Granularity of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестный интервал: " + value + " (hour, day, week)");
+            }
+        }
+
+        public LocalDateTime truncate(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            };
+        }
+
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return switch (this) {
+                case HOUR -> bucketStart.plusHours(1);
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+            };
+        }
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Id
+    private int slot;
+
+    private long created;
+
+    private long updated;
+
+    private long deleted;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private LocalDateTime bucketStart;
+        private int slot;
+    }
+}
@@ -0,0 +1,119 @@
+package com.crud_app.offheap;
+
+import com.crud_app.model.Item;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+// ФОРМАТ ЗАПИСИ ЖУРНАЛА. PUT: id (16 байт) | version (8) | createdAt (8) | updatedAt (8) |
+// name (длина 2 байта + UTF-8) | description (то же, длина 0xFFFF - NULL). DELETE: только id.
+// Время - микросекунды от эпохи в UTC (точность TIMESTAMP в H2), Long.MIN_VALUE - NULL
+final class ItemCodec {
+
+    static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_TEXT = 0xFFFF;
+    // Дальше микросекунды не помещаются в long: такие даты бывают только в границах фильтров
+    private static final long MAX_SECONDS = Long.MAX_VALUE / 1_000_000 - 1;
+
+    private ItemCodec() {
+    }
+
+    static ByteBuffer put(Item item) {
+        byte[] name = bytes(item.getName());
+        byte[] description = bytes(item.getDescription());
+        ByteBuffer buffer = ByteBuffer.allocate(44 + (name == null ? 0 : name.length)
+                + (description == null ? 0 : description.length));
+        buffer.putLong(item.getId().getMostSignificantBits())
+                .putLong(item.getId().getLeastSignificantBits())
+                .putLong(item.getVersion())
+                .putLong(micros(item.getCreatedAt()))
+                .putLong(micros(item.getUpdatedAt()));
+        putText(buffer, name);
+        putText(buffer, description);
+        return buffer.flip();
+    }
+
+    static ByteBuffer delete(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .flip();
+    }
+
+    // Читает абсолютными смещениями: позицию буфера не меняет
+    static Item decode(ByteBuffer payload) {
+        int position = payload.position();
+        int nameLength = payload.getShort(position + 40) & 0xFFFF;
+        int descriptionAt = position + 42 + (nameLength == NULL_TEXT ? 0 : nameLength);
+        return Item.builder()
+                .id(new UUID(payload.getLong(position), payload.getLong(position + 8)))
+                .version(payload.getLong(position + 16))
+                .createdAt(time(payload.getLong(position + 24)))
+                .updatedAt(time(payload.getLong(position + 32)))
+                .name(text(payload, position + 40))
+                .description(text(payload, descriptionAt))
+                .build();
+    }
+
+    static long msb(ByteBuffer payload) {
+        return payload.getLong(payload.position());
+    }
+
+    static long lsb(ByteBuffer payload) {
+        return payload.getLong(payload.position() + 8);
+    }
+
+    static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (seconds > MAX_SECONDS) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds < -MAX_SECONDS) {
+            return NULL_TIME + 1;
+        }
+        return seconds * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime time(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static byte[] bytes(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_TEXT) {
+            throw new IllegalArgumentException("Строка длиннее " + (NULL_TEXT - 1) + " байт");
+        }
+        return bytes;
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_TEXT);
+        } else {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static String text(ByteBuffer payload, int at) {
+        int length = payload.getShort(at) & 0xFFFF;
+        if (length == NULL_TEXT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,238 @@
+package com.crud_app.offheap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32C;
+
+// ЖУРНАЛ ЗАПИСЕЙ в одном файле, отображённом в память сегментами по segmentSize.
+// Файл начинается с заголовка (сигнатура, поколение, признак готовности), дальше записи:
+// длина (4 байта) | CRC32C типа и данных (4) | тип (1) | данные. Запись не пересекает
+// границу сегмента: хвост сегмента закрывается записью PAD.
+// Порядок записи: сначала тип, данные и CRC, длина - последней; нулевая длина - конец журнала.
+// При открытии журнал читается до первой нулевой длины или несовпавшей CRC (оборванная
+// запись после сбоя), остаток сегмента обнуляется, и следующая запись ляжет на её место
+final class ItemLog implements AutoCloseable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final byte PAD = 3;
+
+    static final int RECORD_HEADER = 9;
+    private static final int FILE_HEADER = 16;
+    private static final int MAGIC = 0x4954_4d53;
+    private static final int BUILDING = 0;
+    private static final int COMPLETE = 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private long end = FILE_HEADER;
+
+    private ItemLog(Path path, int segmentSize) throws IOException {
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.lock = channel.tryLock();
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Файл хранилища занят другим процессом: " + path);
+        }
+    }
+
+    // Новый журнал поколения generation; готов к чтению после complete()
+    static ItemLog create(Path path, int segmentSize, long generation) {
+        try {
+            ItemLog log = new ItemLog(path, segmentSize);
+            MappedByteBuffer first = log.segment(0);
+            first.putInt(0, MAGIC);
+            first.putInt(4, BUILDING);
+            first.putLong(8, generation);
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Существующий журнал; null - файл не дописан до конца (сбой во время сжатия)
+    static ItemLog open(Path path, int segmentSize, RecordVisitor visitor) {
+        try {
+            ItemLog log = new ItemLog(path, segmentSize);
+            long size = log.channel.size();
+            for (long start = 0; start < size; start += segmentSize) {
+                log.segment((int) (start / segmentSize));
+            }
+            MappedByteBuffer first = log.segment(0);
+            if (first.getInt(0) != MAGIC || first.getInt(4) != COMPLETE) {
+                log.close();
+                return null;
+            }
+            log.recover(visitor);
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long generation() {
+        return segments.get(0).getLong(8);
+    }
+
+    void complete() {
+        force();
+        MappedByteBuffer first = segments.get(0);
+        first.putInt(4, COMPLETE);
+        first.force(0, FILE_HEADER);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long end() {
+        return end;
+    }
+
+    // Дописывает запись; возвращает её смещение. Вызывать под блокировкой записи хранилища
+    long append(byte type, ByteBuffer payload, boolean sync) {
+        int length = payload.remaining();
+        if (RECORD_HEADER + length > segmentSize - FILE_HEADER) {
+            throw new IllegalArgumentException("Запись длиннее сегмента: " + length + " байт");
+        }
+        int inSegment = (int) (end % segmentSize);
+        if (inSegment + RECORD_HEADER + length > segmentSize) {
+            int rest = segmentSize - inSegment;
+            if (rest > RECORD_HEADER) {
+                write(PAD, ByteBuffer.allocate(rest - RECORD_HEADER), false);
+            } else {
+                end += rest;
+            }
+        }
+        return write(type, payload, sync);
+    }
+
+    // Копия записи другого журнала как есть - для сжатия
+    long copy(ItemLog source, long offset) {
+        return append(source.type(offset), source.payload(offset), false);
+    }
+
+    byte type(long offset) {
+        return segmentAt(offset).get(inSegment(offset) + 8);
+    }
+
+    // Данные записи: срез сегмента без копирования
+    ByteBuffer payload(long offset) {
+        MappedByteBuffer segment = segmentAt(offset);
+        int position = inSegment(offset);
+        return segment.slice(position + RECORD_HEADER, segment.getInt(position));
+    }
+
+    int recordSize(long offset) {
+        return RECORD_HEADER + segmentAt(offset).getInt(inSegment(offset));
+    }
+
+    void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    // Отображения сегментов освобождает сборщик мусора: явно закрыть MappedByteBuffer нельзя
+    @Override
+    public void close() {
+        try {
+            if (lock.isValid()) {
+                lock.release();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long write(byte type, ByteBuffer payload, boolean sync) {
+        long offset = end;
+        int length = payload.remaining();
+        MappedByteBuffer segment = segmentAt(offset);
+        int position = inSegment(offset);
+        segment.put(position + 8, type);
+        segment.put(position + RECORD_HEADER, payload, payload.position(), length);
+        segment.putInt(position + 4, crc(segment, position, length));
+        segment.putInt(position, length);
+        if (sync) {
+            segment.force(position, RECORD_HEADER + length);
+        }
+        end = offset + RECORD_HEADER + length;
+        return offset;
+    }
+
+    private void recover(RecordVisitor visitor) {
+        long offset = FILE_HEADER;
+        long size = (long) segments.size() * segmentSize;
+        while (offset < size) {
+            int position = inSegment(offset);
+            if (segmentSize - position <= RECORD_HEADER) {
+                offset += segmentSize - position;
+                continue;
+            }
+            MappedByteBuffer segment = segmentAt(offset);
+            int length = segment.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER + length > segmentSize
+                    || segment.getInt(position + 4) != crc(segment, position, length)) {
+                break;
+            }
+            byte type = segment.get(position + 8);
+            if (type != PAD) {
+                visitor.visit(offset, type, segment.slice(position + RECORD_HEADER, length));
+            }
+            offset += RECORD_HEADER + length;
+        }
+        end = offset;
+        // Всё после последней целой записи - нули: без sync страницы сбрасываются на диск в любом
+        // порядке, и за оборванной записью могут лежать целые - их не должно быть видно после следующей
+        for (long position = offset; position < size; position++) {
+            if (segmentAt(position).get(inSegment(position)) != 0) {
+                segmentAt(position).put(inSegment(position), (byte) 0);
+            }
+        }
+    }
+
+    private static int crc(MappedByteBuffer segment, int position, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.get(position + 8));
+        crc.update(segment.slice(position + RECORD_HEADER, length));
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer segmentAt(long offset) {
+        return segment((int) (offset / segmentSize));
+    }
+
+    private int inSegment(long offset) {
+        return (int) (offset % segmentSize);
+    }
+
+    // Сегмент отображается при первом обращении; файл растёт вместе с отображением
+    private MappedByteBuffer segment(int index) {
+        while (segments.size() <= index) {
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return segments.get(index);
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(long offset, byte type, ByteBuffer payload);
+    }
+}
@@ -0,0 +1,31 @@
+package com.crud_app.offheap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+// ХРАНИЛИЩЕ ВНЕ КУЧИ (профиль offheap): ItemRepository поверх файлов в app.offheap.dir вместо
+// таблицы items. Репозиторий JPA остаётся в контексте, но все сервисы получают этот (@Primary)
+@Configuration(proxyBeanMethods = false)
+@Profile("offheap")
+public class OffHeapConfig {
+
+    @Bean(destroyMethod = "close")
+    OffHeapItemStore offHeapItemStore(@Value("${app.offheap.dir:./data/offheap}") Path dir,
+                                      @Value("${app.offheap.segment-size:64MB}") DataSize segmentSize,
+                                      @Value("${app.offheap.sync:false}") boolean sync,
+                                      @Value("${app.offheap.compact-ratio:0.5}") double compactRatio) {
+        return new OffHeapItemStore(dir, Math.toIntExact(segmentSize.toBytes()), sync, compactRatio);
+    }
+
+    @Bean
+    @Primary
+    OffHeapItemRepository offHeapItemRepository(OffHeapItemStore store) {
+        return new OffHeapItemRepository(store);
+    }
+}
@@ -0,0 +1,150 @@
+package com.crud_app.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// ПЕРВИЧНЫЙ ИНДЕКС UUID -> смещение записи в журнале: открытая адресация с линейным
+// пробированием в direct ByteBuffer, вне кучи. Ячейка - 24 байта (старшие и младшие 64 бита
+// id, смещение + 1); 0 - пустая ячейка, -1 - удалённая. Не потокобезопасен: изменения -
+// под блокировкой записи хранилища, чтения - под блокировкой чтения
+final class OffHeapHashIndex {
+
+    private static final int SLOT = 24;
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+    private static final double MAX_LOAD = 0.7;
+    // Один ByteBuffer - не больше 2 ГБ
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int used;
+
+    OffHeapHashIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return slot < 0 ? -1 : value(slot) - 1;
+    }
+
+    // Возвращает прежнее смещение или -1
+    long put(UUID id, long offset) {
+        return put(id.getMostSignificantBits(), id.getLeastSignificantBits(), offset);
+    }
+
+    long put(long msb, long lsb, long offset) {
+        int existing = find(msb, lsb);
+        if (existing >= 0) {
+            long previous = value(existing) - 1;
+            slots.putLong(existing * SLOT + 16, offset + 1);
+            return previous;
+        }
+        if (used + 1 > capacity * MAX_LOAD) {
+            // Много удалённых ячеек - перестройка той же ёмкости, иначе вдвое больше
+            rehash(size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+        }
+        int slot = index(msb, lsb);
+        while (true) {
+            long value = value(slot);
+            if (value == EMPTY || value == REMOVED) {
+                if (value == EMPTY) {
+                    used++;
+                }
+                slots.putLong(slot * SLOT, msb);
+                slots.putLong(slot * SLOT + 8, lsb);
+                slots.putLong(slot * SLOT + 16, offset + 1);
+                size++;
+                return -1;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    long remove(UUID id) {
+        int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return -1;
+        }
+        long previous = value(slot) - 1;
+        slots.putLong(slot * SLOT + 16, REMOVED);
+        size--;
+        return previous;
+    }
+
+    void forEach(EntryVisitor visitor) {
+        for (int slot = 0; slot < capacity; slot++) {
+            long value = value(slot);
+            if (value != EMPTY && value != REMOVED) {
+                visitor.visit(slots.getLong(slot * SLOT), slots.getLong(slot * SLOT + 8), value - 1);
+            }
+        }
+    }
+
+    private int find(long msb, long lsb) {
+        int slot = index(msb, lsb);
+        while (true) {
+            long value = value(slot);
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != REMOVED && slots.getLong(slot * SLOT) == msb && slots.getLong(slot * SLOT + 8) == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    private long value(int slot) {
+        return slots.getLong(slot * SLOT + 16);
+    }
+
+    private int index(long msb, long lsb) {
+        long hash = msb ^ lsb;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & (capacity - 1);
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Первичный индекс заполнен: больше " + (int) (MAX_CAPACITY * MAX_LOAD) + " записей");
+        }
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long value = old.getLong(slot * SLOT + 16);
+            if (value != EMPTY && value != REMOVED) {
+                put(old.getLong(slot * SLOT), old.getLong(slot * SLOT + 8), value - 1);
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        slots = ByteBuffer.allocateDirect(newCapacity * SLOT);
+        capacity = newCapacity;
+        size = 0;
+        used = 0;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < MAX_CAPACITY && capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long msb, long lsb, long offset);
+    }
+}
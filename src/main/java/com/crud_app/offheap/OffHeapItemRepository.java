@@ -0,0 +1,534 @@
+package com.crud_app.offheap;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemFields;
+import com.crud_app.offheap.OffHeapItemStore.Key;
+import com.crud_app.offheap.OffHeapItemStore.Order;
+import com.crud_app.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// ItemRepository ПОВЕРХ OffHeapItemStore (профиль offheap). Семантика - как у JPA над H2:
+// createdAt и updatedAt ставятся при вставке, updatedAt и version + 1 - при изменении полей,
+// чужая версия - ObjectOptimisticLockingFailureException, нарушение ограничений столбцов -
+// DataIntegrityViolationException, порядок NULL и id - как в H2.
+// Изоляции нет: запись видна другим потокам сразу, ещё до коммита. Откат транзакции
+// отменяет её изменения (см. UndoLog) - групповая запись, массовые операции и импорт
+// повторяют или пропускают откатившуюся порцию так же, как над H2
+@Slf4j
+public class OffHeapItemRepository implements ItemRepository {
+
+    private static final Set<String> SORT_FIELDS = Set.of("name", "description", "createdAt", "updatedAt");
+
+    private final OffHeapItemStore store;
+
+    public OffHeapItemRepository(OffHeapItemStore store) {
+        this.store = store;
+    }
+
+    // ============ Запись ============
+
+    // Новая запись (id == null или id ещё нет) получает id, даты и версию в переданном объекте,
+    // как после persist; изменение возвращает новый объект, как merge
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Item> S save(S entity) {
+        validate(entity);
+        if (entity.getId() == null) {
+            entity.setId(UUID.randomUUID());
+        }
+        LocalDateTime now = now();
+        Item[] before = new Item[1];
+        Item saved = store.upsert(entity.getId(), current -> {
+            before[0] = current == null ? null : copy(current);
+            if (current == null) {
+                entity.setCreatedAt(now);
+                entity.setUpdatedAt(now);
+                entity.setVersion(0);
+                return entity;
+            }
+            if (current.getVersion() != entity.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, entity.getId());
+            }
+            if (Objects.equals(current.getName(), entity.getName())
+                    && Objects.equals(current.getDescription(), entity.getDescription())) {
+                return current;
+            }
+            current.setName(entity.getName());
+            current.setDescription(entity.getDescription());
+            current.setUpdatedAt(now);
+            current.setVersion(current.getVersion() + 1);
+            return current;
+        });
+        written(entity.getId(), before[0], saved);
+        return (S) saved;
+    }
+
+    @Override
+    public <S extends Item> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public <S extends Item> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    // Запись видна сразу после save: сбрасывать нечего. На диск - по app.offheap.sync
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public Optional<Item> patch(UUID id, String name, boolean setDescription, String description,
+                                Long expectedVersion, LocalDateTime updatedAt) {
+        Item[] before = new Item[1];
+        Item patched = store.upsert(id, current -> {
+            if (current == null || expectedVersion != null && current.getVersion() != expectedVersion) {
+                return null;
+            }
+            before[0] = copy(current);
+            if (name != null) {
+                current.setName(name);
+            }
+            if (setDescription) {
+                current.setDescription(description);
+            }
+            current.setUpdatedAt(updatedAt.truncatedTo(ChronoUnit.MICROS));
+            current.setVersion(current.getVersion() + 1);
+            validate(current);
+            return current;
+        });
+        if (patched != null) {
+            written(id, before[0], patched);
+        }
+        return Optional.ofNullable(patched);
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        remove(List.of(id));
+    }
+
+    @Override
+    public int deleteItemById(UUID id) {
+        return remove(List.of(id));
+    }
+
+    @Override
+    public int deleteAllByIds(Collection<UUID> ids) {
+        return remove(ids);
+    }
+
+    @Override
+    public void delete(Item entity) {
+        remove(List.of(entity.getId()));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends UUID> ids) {
+        List<UUID> list = new ArrayList<>();
+        ids.forEach(list::add);
+        remove(list);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Item> entities) {
+        List<UUID> ids = new ArrayList<>();
+        entities.forEach(entity -> ids.add(entity.getId()));
+        remove(ids);
+    }
+
+    @Override
+    public void deleteAll() {
+        remove(ids(null));
+    }
+
+    // Прежние состояния нужны только для отката: вне транзакции записи не читаются
+    private int remove(Collection<UUID> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return store.delete(ids);
+        }
+        List<Item> before = store.getAll(ids);
+        int deleted = store.delete(ids);
+        before.forEach(item -> written(item.getId(), item, null));
+        return deleted;
+    }
+
+    // ============ Откат ============
+
+    // Изменение внутри транзакции запоминается в её UndoLog: прежнее состояние записи (до первого
+    // изменения в транзакции) и последнее записанное
+    private void written(UUID id, Item before, Item after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UndoLog undoLog = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof UndoLog candidate && candidate.owner() == this) {
+                undoLog = candidate;
+                break;
+            }
+        }
+        if (undoLog == null) {
+            undoLog = new UndoLog();
+            TransactionSynchronizationManager.registerSynchronization(undoLog);
+        }
+        undoLog.record(id, before, after);
+    }
+
+    // Журнал отката одной транзакции: синхронизации Spring приостанавливаются вместе с ней,
+    // так что вложенная REQUIRES_NEW ведёт свой журнал. При откате каждой записи возвращается
+    // прежнее состояние - если после транзакции её никто не изменил, иначе видно чужое изменение
+    private class UndoLog implements TransactionSynchronization {
+
+        private final Map<UUID, Change> changes = new LinkedHashMap<>();
+
+        OffHeapItemRepository owner() {
+            return OffHeapItemRepository.this;
+        }
+
+        void record(UUID id, Item before, Item after) {
+            changes.merge(id, new Change(before, after), (first, next) -> new Change(first.before(), next.after()));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_ROLLED_BACK) {
+                return;
+            }
+            changes.forEach((id, change) -> {
+                if (change.before() == null) {
+                    if (sameVersion(store.get(id).orElse(null), change.after())) {
+                        store.delete(id);
+                    }
+                } else {
+                    store.upsert(id, current -> sameVersion(current, change.after()) ? change.before() : null);
+                }
+            });
+            log.debug("Откат транзакции: восстановлено записей - {}", changes.size());
+        }
+    }
+
+    // null - записи нет
+    private record Change(Item before, Item after) {
+    }
+
+    private static boolean sameVersion(Item current, Item written) {
+        return current == null ? written == null : written != null && current.getVersion() == written.getVersion();
+    }
+
+    // ============ Чтение по id ============
+
+    @Override
+    public Optional<Item> findById(UUID id) {
+        return store.get(id);
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return store.get(id).isPresent();
+    }
+
+    @Override
+    public List<Item> findAllById(Iterable<UUID> ids) {
+        List<UUID> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return store.getAll(list);
+    }
+
+    @Override
+    public List<ItemRow> findRowsByIdIn(Collection<UUID> ids) {
+        return store.getAll(ids).stream().map(OffHeapItemRepository::row).toList();
+    }
+
+    @Override
+    public List<UUID> findExistingIds(Collection<UUID> ids) {
+        return store.getAll(ids).stream().map(Item::getId).toList();
+    }
+
+    @Override
+    public Optional<Long> findVersionById(UUID id) {
+        return store.get(id).map(Item::getVersion);
+    }
+
+    // ============ Списки и страницы ============
+
+    @Override
+    public List<Item> findAll() {
+        return find(null, Sort.unsorted(), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Item> findAll(Sort sort) {
+        return find(null, sort, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Page<Item> findAll(Pageable pageable) {
+        return page(null, pageable);
+    }
+
+    @Override
+    public Page<Item> findByCreatedAtAfter(LocalDateTime dateFrom, Pageable pageable) {
+        return page(createdAfter(dateFrom), pageable);
+    }
+
+    @Override
+    public Page<Item> findByNameContainingIgnoreCase(String name, Pageable pageable) {
+        return page(item -> contains(item.getName(), name), pageable);
+    }
+
+    @Override
+    public Page<Item> searchByKeyword(String keyword, Pageable pageable) {
+        return page(keyword(keyword), pageable);
+    }
+
+    @Override
+    public Page<Item> findByCreatedAtGreaterThanEqual(LocalDateTime date, Pageable pageable) {
+        return page(item -> !item.getCreatedAt().isBefore(date), pageable);
+    }
+
+    // Как ItemRepositoryImpl.findRows: первое разрешённое поле сортировки и id в том же
+    // направлении, по умолчанию createdAt по убыванию. Диапазон дат по полю сортировки
+    // читается из индекса только в своих границах
+    @Override
+    public Slice<ItemRow> findRows(ItemFilter filter, Pageable pageable) {
+        Sort.Order sortOrder = pageable.getSort().stream()
+                .filter(o -> SORT_FIELDS.contains(o.getProperty()))
+                .findFirst()
+                .orElse(Sort.Order.desc("createdAt"));
+        Order order = Order.of(sortOrder.getProperty());
+        boolean ascending = sortOrder.isAscending();
+
+        Key from = null;
+        Key until = null;
+        if (filter.hasDateRange() && order.field.equals(filter.dateField())) {
+            // (v - 1 мкс, наибольший id) - последний ключ перед всеми ключами со значением v
+            Key lower = filter.dateFrom() == null ? null
+                    : new Key(ItemCodec.micros(filter.from()) - 1, null, Key.MAX_ID, Key.MAX_ID);
+            Key upper = filter.dateTo() == null ? null
+                    : new Key(ItemCodec.micros(filter.until()) - 1, null, Key.MAX_ID, Key.MAX_ID);
+            from = ascending ? lower : next(upper);
+            until = ascending ? next(upper) : lower;
+        }
+        Predicate<Item> where = filter.isEmpty() ? null : filter::matches;
+        List<Item> items = store.scan(order, ascending, from, until, where,
+                pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = items.size() > pageable.getPageSize();
+        List<ItemRow> rows = (hasNext ? items.subList(0, pageable.getPageSize()) : items).stream()
+                .map(OffHeapItemRepository::row)
+                .toList();
+        return new SliceImpl<>(rows, pageable, hasNext);
+    }
+
+    @Override
+    public long countRows(ItemFilter filter) {
+        return store.count(filter.isEmpty() ? null : filter::matches);
+    }
+
+    @Override
+    public List<Item> seek(String sortField, boolean ascending, Object sortValue, UUID lastId, int limit) {
+        Order order = Order.of(sortField);
+        Key after = lastId == null ? null : Key.of(order, sortValue, lastId);
+        return store.scan(order, ascending, after, null, null, 0, limit);
+    }
+
+    @Override
+    public List<ItemRow> seekRows(String sortField, boolean ascending, Object sortValue, UUID lastId, int limit) {
+        return seek(sortField, ascending, sortValue, lastId, limit).stream()
+                .map(OffHeapItemRepository::row)
+                .toList();
+    }
+
+    // Только по дате - по индексу createdAt с начала и до createdBefore; с keyword - по id после afterId
+    @Override
+    public List<UUID> findIdsToPurge(LocalDateTime createdBefore, String keyword, UUID afterId, int limit) {
+        List<Item> items;
+        if (keyword == null) {
+            Key until = createdBefore == null ? null
+                    : new Key(ItemCodec.micros(createdBefore), null, 0, 0);
+            items = store.scan(Order.CREATED_AT, true, null, until, null, 0, limit);
+        } else {
+            Predicate<Item> where = keyword(keyword);
+            if (createdBefore != null) {
+                where = where.and(item -> item.getCreatedAt().isBefore(createdBefore));
+            }
+            Key after = afterId == null ? null : Key.of(Order.ID, null, afterId);
+            items = store.scan(Order.ID, true, after, null, where, 0, limit);
+        }
+        return items.stream().map(Item::getId).toList();
+    }
+
+    // ============ Подсчёт и крайние значения ============
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public LocalDateTime findMaxUpdatedAt() {
+        return store.first(Order.UPDATED_AT, false).map(Item::getUpdatedAt).orElse(null);
+    }
+
+    @Override
+    public LocalDateTime findMinCreatedAt() {
+        return store.first(Order.CREATED_AT, true).map(Item::getCreatedAt).orElse(null);
+    }
+
+    // ============ Потоковое чтение ============
+
+    // Порциями по FETCH_SIZE по индексу (createdAt, id) по убыванию: каждая порция - от ключа
+    // последней записи предыдущей, так что поток не держит блокировку хранилища между порциями
+    @Override
+    public Stream<Item> stream(ItemFilter filter) {
+        return batches(filter.isEmpty() ? null : filter::matches);
+    }
+
+    private Stream<Item> batches(Predicate<Item> where) {
+        Iterator<Item> iterator = new Iterator<>() {
+            private List<Item> batch = store.scan(Order.CREATED_AT, false, null, null, where, 0, ItemRepository.FETCH_SIZE);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index < batch.size()) {
+                    return true;
+                }
+                if (batch.size() < ItemRepository.FETCH_SIZE) {
+                    return false;
+                }
+                Key after = Key.of(Order.CREATED_AT, batch.get(batch.size() - 1));
+                batch = store.scan(Order.CREATED_AT, false, after, null, where, 0, ItemRepository.FETCH_SIZE);
+                index = 0;
+                return !batch.isEmpty();
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.get(index++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // ============ Вспомогательное ============
+
+    private Page<Item> page(Predicate<Item> where, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            List<Item> items = find(where, pageable.getSort(), 0, Integer.MAX_VALUE);
+            return PageableExecutionUtils.getPage(items, pageable, items::size);
+        }
+        List<Item> items = find(where, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(items, pageable, () -> store.count(where));
+    }
+
+    // Одно поле сортировки (и, может быть, id) - чтение по порядку с пропуском offset;
+    // несколько полей - все подходящие записи сортируются в памяти. Без сортировки -
+    // createdAt по убыванию: порядок стабилен между страницами
+    private List<Item> find(Predicate<Item> where, Sort sort, long offset, int limit) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return store.scan(Order.CREATED_AT, false, null, null, where, offset, limit);
+        }
+        Sort.Order first = orders.get(0);
+        if (orders.size() == 1 || orders.size() == 2 && orders.get(1).getProperty().equals("id")
+                && orders.get(1).getDirection() == first.getDirection()) {
+            return store.scan(Order.of(first.getProperty()), first.isAscending(), null, null, where, offset, limit);
+        }
+        Comparator<Item> comparator = null;
+        for (Sort.Order sortOrder : orders) {
+            Comparator<Item> next = Order.of(sortOrder.getProperty()).itemOrder();
+            next = sortOrder.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return store.filter(where).stream()
+                .sorted(comparator)
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    private List<UUID> ids(Predicate<Item> where) {
+        return store.filter(where).stream().map(Item::getId).toList();
+    }
+
+    // Ключ сразу после key в порядке возрастания: граница "до" включительно становится строгой
+    private static Key next(Key key) {
+        return key == null ? null : new Key(key.time() + 1, null, 0, 0);
+    }
+
+    private static Predicate<Item> createdAfter(LocalDateTime dateFrom) {
+        return item -> item.getCreatedAt().isAfter(dateFrom);
+    }
+
+    // Как LOWER(поле) LIKE LOWER('%keyword%') по названию или описанию
+    private static Predicate<Item> keyword(String keyword) {
+        return item -> contains(item.getName(), keyword) || contains(item.getDescription(), keyword);
+    }
+
+    private static boolean contains(String text, String keyword) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(keyword.toLowerCase(Locale.ROOT));
+    }
+
+    // Ограничения столбцов items: name NOT NULL до 50 символов, description до 255
+    private static void validate(Item item) {
+        if (item.getName() == null || item.getName().length() > ItemFields.MAX_NAME_LENGTH) {
+            throw new DataIntegrityViolationException("items.name: NOT NULL, не длиннее " + ItemFields.MAX_NAME_LENGTH);
+        }
+        if (item.getDescription() != null && item.getDescription().length() > ItemFields.MAX_DESCRIPTION_LENGTH) {
+            throw new DataIntegrityViolationException("items.description: не длиннее " + ItemFields.MAX_DESCRIPTION_LENGTH);
+        }
+    }
+
+    private static Item copy(Item item) {
+        return item.toBuilder().build();
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static ItemRow row(Item item) {
+        return new ItemRow(item.getId(), item.getName(), item.getDescription(), item.getCreatedAt(), item.getUpdatedAt());
+    }
+}
@@ -0,0 +1,555 @@
+package com.crud_app.offheap;
+
+import com.crud_app.model.Item;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// ХРАНИЛИЩЕ ЗАПИСЕЙ ВНЕ КУЧИ: сами записи - в журнале ItemLog (файл, отображённый в память),
+// первичный индекс id -> смещение - OffHeapHashIndex в direct-памяти. Вторичные индексы
+// (createdAt, id), (updatedAt, id) и (name, id) - TreeSet ключей в куче, без копий записей:
+// строка читается из журнала по смещению при каждом обращении.
+// Запись: новая версия дописывается в конец журнала под блокировкой writer, затем индексы
+// переключаются на неё под блокировкой записи indexLock; чтения берут блокировку чтения
+// и видят запись либо целиком старой, либо целиком новой. Место старых версий и удалённых
+// записей считается в deadBytes; когда его больше compactRatio, журнал переписывается
+// в новое поколение (только живые записи) в фоне - чтения при этом не останавливаются
+@Slf4j
+public class OffHeapItemStore implements AutoCloseable {
+
+    private static final Pattern FILE_NAME = Pattern.compile("items-(\\d{6})\\.log");
+    // Сжимать журнал меньше этого незачем
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final Path dir;
+    private final int segmentSize;
+    private final boolean sync;
+    private final double compactRatio;
+
+    private final ReentrantLock writer = new ReentrantLock();
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final Map<Order, NavigableSet<Key>> secondary = new EnumMap<>(Order.class);
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    // Меняются при сжатии: под writer и блокировкой записи indexLock
+    private ItemLog journal;
+    private OffHeapHashIndex primary;
+    // Только под writer
+    private long deadBytes;
+
+    public OffHeapItemStore(Path dir, int segmentSize, boolean sync, double compactRatio) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.compactRatio = compactRatio;
+        for (Order order : Order.INDEXED) {
+            secondary.put(order, new TreeSet<>(order.keyOrder));
+        }
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        open();
+    }
+
+    // Последнее целое поколение журнала; недописанные (сбой во время сжатия) и старые удаляются
+    private void open() {
+        try {
+            Files.createDirectories(dir);
+            TreeMap<Long, Path> files = new TreeMap<>(Comparator.reverseOrder());
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir, "items-*.log")) {
+                for (Path path : paths) {
+                    Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                    if (matcher.matches()) {
+                        files.put(Long.parseLong(matcher.group(1)), path);
+                    }
+                }
+            }
+            for (Path path : files.values()) {
+                if (journal == null) {
+                    OffHeapHashIndex index = new OffHeapHashIndex(1024);
+                    journal = ItemLog.open(path, segmentSize, (offset, type, payload) -> {
+                        if (type == ItemLog.PUT) {
+                            index.put(ItemCodec.msb(payload), ItemCodec.lsb(payload), offset);
+                        } else if (type == ItemLog.DELETE) {
+                            index.remove(new UUID(ItemCodec.msb(payload), ItemCodec.lsb(payload)));
+                        }
+                    });
+                    if (journal != null) {
+                        primary = index;
+                        continue;
+                    }
+                }
+                deleteQuietly(path);
+            }
+            if (journal == null) {
+                journal = ItemLog.create(dir.resolve(fileName(1)), segmentSize, 1);
+                journal.complete();
+                primary = new OffHeapHashIndex(1024);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Вторичные индексы и место старых версий - по живым записям
+        long[] live = {0};
+        primary.forEach((msb, lsb, offset) -> {
+            live[0] += journal.recordSize(offset);
+            indexSecondary(ItemCodec.decode(journal.payload(offset)));
+        });
+        deadBytes = journal.end() - live[0];
+        log.info("Хранилище вне кучи: {} записей, журнал {} ({} КБ, из них {} КБ - старые версии)",
+                primary.size(), journal.path().getFileName(), journal.end() / 1024, deadBytes / 1024);
+    }
+
+    public int size() {
+        indexLock.readLock().lock();
+        try {
+            return primary.size();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    public Optional<Item> get(UUID id) {
+        indexLock.readLock().lock();
+        try {
+            return Optional.ofNullable(read(id));
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    // Записи в порядке ids, отсутствующие пропускаются
+    public List<Item> getAll(Collection<UUID> ids) {
+        indexLock.readLock().lock();
+        try {
+            List<Item> items = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                Item item = read(id);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            return items;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    // ИЗМЕНЕНИЕ ОДНОЙ ЗАПИСИ: change получает копию текущей (null - записи нет) и возвращает новую.
+    // null - ничего не писать; запись без изменений в журнал не попадает. Исключение из change
+    // отменяет изменение. Возвращает записанную (или оставшуюся) запись
+    public Item upsert(UUID id, UnaryOperator<Item> change) {
+        writer.lock();
+        try {
+            long previous = primary.get(id);
+            Item current = previous < 0 ? null : ItemCodec.decode(journal.payload(previous));
+            Item next = change.apply(current == null ? null : copy(current));
+            if (next == null) {
+                return null;
+            }
+            if (!id.equals(next.getId())) {
+                throw new IllegalArgumentException("Изменение не должно менять id: " + id + " -> " + next.getId());
+            }
+            if (current != null && sameState(current, next)) {
+                return current;
+            }
+            long offset = journal.append(ItemLog.PUT, ItemCodec.put(next), sync);
+            indexLock.writeLock().lock();
+            try {
+                primary.put(id, offset);
+                if (current != null) {
+                    unindexSecondary(current);
+                }
+                indexSecondary(next);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            if (previous >= 0) {
+                deadBytes += journal.recordSize(previous);
+            }
+            compactIfDue();
+            return next;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    public boolean delete(UUID id) {
+        return delete(List.of(id)) > 0;
+    }
+
+    public int delete(Collection<UUID> ids) {
+        writer.lock();
+        try {
+            int deleted = 0;
+            for (UUID id : ids) {
+                long previous = primary.get(id);
+                if (previous < 0) {
+                    continue;
+                }
+                Item current = ItemCodec.decode(journal.payload(previous));
+                long offset = journal.append(ItemLog.DELETE, ItemCodec.delete(id), sync);
+                indexLock.writeLock().lock();
+                try {
+                    primary.remove(id);
+                    unindexSecondary(current);
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+                deadBytes += journal.recordSize(previous) + journal.recordSize(offset);
+                deleted++;
+            }
+            compactIfDue();
+            return deleted;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    // ЧТЕНИЕ ПО ПОРЯДКУ: записи по (поле, id) в направлении ascending строго после after
+    // и строго до until (null - без границы), подходящие под where (null - все), пропуская skip.
+    // Порядки без вторичного индекса (description, id) собираются на время запроса
+    List<Item> scan(Order order, boolean ascending, Key after, Key until, Predicate<Item> where, long skip, int limit) {
+        indexLock.readLock().lock();
+        try {
+            NavigableSet<Key> keys = secondary.get(order);
+            if (keys == null) {
+                keys = new TreeSet<>(order.keyOrder);
+                NavigableSet<Key> collected = keys;
+                primary.forEach((msb, lsb, offset) -> collected.add(Key.of(order, ItemCodec.decode(journal.payload(offset)))));
+            }
+            if (!ascending) {
+                keys = keys.descendingSet();
+            }
+            if (after != null) {
+                keys = keys.tailSet(after, false);
+            }
+            if (until != null) {
+                keys = keys.headSet(until, false);
+            }
+            List<Item> items = new ArrayList<>(Math.min(limit, 1024));
+            long skipped = 0;
+            for (Key key : keys) {
+                if (items.size() >= limit) {
+                    break;
+                }
+                // Без условия пропускаемые записи из журнала не читаются
+                if (where == null && skipped < skip) {
+                    skipped++;
+                    continue;
+                }
+                Item item = read(key.id());
+                if (item == null || where != null && !where.test(item)) {
+                    continue;
+                }
+                if (skipped < skip) {
+                    skipped++;
+                    continue;
+                }
+                items.add(item);
+            }
+            return items;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    // Все записи под условием, без порядка: для подсчёта и сортировки по нескольким полям
+    List<Item> filter(Predicate<Item> where) {
+        indexLock.readLock().lock();
+        try {
+            List<Item> items = new ArrayList<>();
+            primary.forEach((msb, lsb, offset) -> {
+                Item item = ItemCodec.decode(journal.payload(offset));
+                if (where == null || where.test(item)) {
+                    items.add(item);
+                }
+            });
+            return items;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    long count(Predicate<Item> where) {
+        if (where == null) {
+            return size();
+        }
+        indexLock.readLock().lock();
+        try {
+            long[] count = {0};
+            primary.forEach((msb, lsb, offset) -> {
+                if (where.test(ItemCodec.decode(journal.payload(offset)))) {
+                    count[0]++;
+                }
+            });
+            return count[0];
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    // Крайняя запись порядка, включая NULL (при ASC они первые)
+    Optional<Item> first(Order order, boolean ascending) {
+        return scan(order, ascending, null, null, null, 0, 1).stream().findFirst();
+    }
+
+    // Сброс отображённых страниц на диск: при sync=false записи переживают падение процесса,
+    // но не системы - до этого вызова
+    public void force() {
+        writer.lock();
+        try {
+            journal.force();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    long deadBytes() {
+        writer.lock();
+        try {
+            return deadBytes;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    Path logPath() {
+        writer.lock();
+        try {
+            return journal.path();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private void compactIfDue() {
+        long end = journal.end();
+        if (end >= MIN_COMPACT_BYTES && deadBytes > end * compactRatio && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (RuntimeException e) {
+                    log.warn("Хранилище вне кучи: не удалось сжать журнал: {}", e.getMessage());
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // СЖАТИЕ: живые записи копируются в журнал следующего поколения, признак готовности
+    // ставится последним, после сброса на диск. Сбой до него - при открытии берётся старый журнал,
+    // после - новый. Писатели ждут окончания, читатели - только переключения индекса
+    void compact() {
+        writer.lock();
+        try {
+            ItemLog old = journal;
+            long generation = old.generation() + 1;
+            Path path = dir.resolve(fileName(generation));
+            Files.deleteIfExists(path);
+            ItemLog compacted = ItemLog.create(path, segmentSize, generation);
+            OffHeapHashIndex index = new OffHeapHashIndex(primary.size());
+            try {
+                primary.forEach((msb, lsb, offset) -> index.put(msb, lsb, compacted.copy(old, offset)));
+                compacted.complete();
+            } catch (RuntimeException e) {
+                compacted.close();
+                deleteQuietly(path);
+                throw e;
+            }
+            indexLock.writeLock().lock();
+            try {
+                journal = compacted;
+                primary = index;
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            long reclaimed = old.end() - compacted.end();
+            deadBytes = 0;
+            old.close();
+            deleteQuietly(old.path());
+            log.info("Хранилище вне кучи: журнал сжат до {} ({} КБ, освобождено {} КБ)",
+                    path.getFileName(), compacted.end() / 1024, reclaimed / 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.lock();
+        try {
+            journal.force();
+            journal.close();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private Item read(UUID id) {
+        long offset = primary.get(id);
+        return offset < 0 ? null : ItemCodec.decode(journal.payload(offset));
+    }
+
+    private void indexSecondary(Item item) {
+        secondary.forEach((order, keys) -> keys.add(Key.of(order, item)));
+    }
+
+    private void unindexSecondary(Item item) {
+        secondary.forEach((order, keys) -> keys.remove(Key.of(order, item)));
+    }
+
+    private static boolean sameState(Item a, Item b) {
+        return a.getVersion() == b.getVersion()
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                && Objects.equals(a.getUpdatedAt(), b.getUpdatedAt());
+    }
+
+    private static Item copy(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .createdAt(item.getCreatedAt())
+                .updatedAt(item.getUpdatedAt())
+                .version(item.getVersion())
+                .build();
+    }
+
+    private static String fileName(long generation) {
+        return String.format("items-%06d.log", generation);
+    }
+
+    // На Windows отображённый файл не удалить до сборки мусора - тогда удалится при следующем запуске
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Хранилище вне кучи: не удалось удалить {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Порядки чтения: поле записи и сравнение ключей (поле, id). NULL меньше любого значения -
+    // первым при ASC и последним при DESC, как в H2; id сравниваются без знака, тоже как в H2
+    enum Order {
+        CREATED_AT("createdAt", true),
+        UPDATED_AT("updatedAt", true),
+        NAME("name", false),
+        DESCRIPTION("description", false),
+        ID("id", false);
+
+        static final List<Order> INDEXED = List.of(CREATED_AT, UPDATED_AT, NAME);
+
+        final String field;
+        final boolean time;
+        final Comparator<Key> keyOrder;
+
+        Order(String field, boolean time) {
+            this.field = field;
+            this.time = time;
+            this.keyOrder = time
+                    ? Comparator.comparingLong(Key::time).thenComparing(Key.BY_ID)
+                    : Comparator.comparing(Key::text, Comparator.nullsFirst(Comparator.<String>naturalOrder())).thenComparing(Key.BY_ID);
+        }
+
+        static Order of(String field) {
+            for (Order order : values()) {
+                if (order.field.equals(field)) {
+                    return order;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестное поле сортировки: " + field);
+        }
+
+        // Значение поля записи: LocalDateTime для дат, String для текста, UUID для id
+        Object value(Item item) {
+            return switch (this) {
+                case CREATED_AT -> item.getCreatedAt();
+                case UPDATED_AT -> item.getUpdatedAt();
+                case NAME -> item.getName();
+                case DESCRIPTION -> item.getDescription();
+                case ID -> item.getId();
+            };
+        }
+
+        // Сравнение записей в том же порядке, что и ключей
+        Comparator<Item> itemOrder() {
+            return (a, b) -> keyOrder.compare(Key.of(this, a), Key.of(this, b));
+        }
+    }
+
+    // КЛЮЧ ВТОРИЧНОГО ИНДЕКСА: значение поля (время в микросекундах или текст) и id
+    record Key(long time, String text, long msb, long lsb) {
+
+        // Наибольший id без знака: ключ (v, MAX_ID) стоит сразу перед всеми ключами больше v
+        static final long MAX_ID = -1L;
+
+        static final Comparator<Key> BY_ID = (a, b) -> {
+            int msb = Long.compareUnsigned(a.msb, b.msb);
+            return msb != 0 ? msb : Long.compareUnsigned(a.lsb, b.lsb);
+        };
+
+        static Key of(Order order, Item item) {
+            return of(order, order.value(item), item.getId());
+        }
+
+        static Key of(Order order, Object value, UUID id) {
+            return of(order, value, id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+
+        static Key of(Order order, Object value, long msb, long lsb) {
+            if (order == Order.ID) {
+                return new Key(0, null, msb, lsb);
+            }
+            return order.time
+                    ? new Key(ItemCodec.micros((LocalDateTime) value), null, msb, lsb)
+                    : new Key(0, (String) value, msb, lsb);
+        }
+
+        UUID id() {
+            return new UUID(msb, lsb);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.crud_app.replica;
+
+import com.crud_app.service.CommitPosition;
+import com.crud_app.service.ItemChangedEvent;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.time.Duration;
+
+// READ-YOUR-WRITES: после собственной записи клиент получает cookie с позицией основной базы
+// на момент коммита и ещё stickyFor читает только с реплик, которые до неё дошли (остальные
+// чтения - с основной). В том же запросе позиция действует сразу, через ReplicaContext.
+// Позиция отмечается только в потоке HTTP-запроса: события записей фоновых потоков (групповая
+// запись, очистка, импорт) её не трогают, а групповая запись передаёт позицию вызывающему (written).
+// Cookie ставится в postHandle - до редиректа формы; JSON-ответ к этому моменту уже отправлен,
+// поэтому API-клиентам позиция в cookie не приходит
+public class ReadYourWrites implements HandlerInterceptor, CommitPosition {
+
+    static final String COOKIE = "replica-position";
+    private static final String WRITTEN = ReadYourWrites.class.getName() + ".position";
+
+    private final ReplicaSet replicaSet;
+    private final Duration stickyFor;
+
+    public ReadYourWrites(ReplicaSet replicaSet, Duration stickyFor) {
+        this.replicaSet = replicaSet;
+        this.stickyFor = stickyFor;
+    }
+
+    // После ReplicationStandIn: позиция этого изменения уже выдана
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        written(replicaSet.position());
+    }
+
+    @Override
+    public long current() {
+        return replicaSet.position();
+    }
+
+    // Вне запроса ReplicaContext никто не очистит, а cookie некому отдать
+    @Override
+    public void written(long position) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        ReplicaContext.requirePosition(position);
+        if (!(attributes.getAttribute(WRITTEN, RequestAttributes.SCOPE_REQUEST) instanceof Long previous)
+                || previous < position) {
+            attributes.setAttribute(WRITTEN, position, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        ReplicaContext.requirePosition(Long.parseLong(cookie.getValue()));
+                    } catch (NumberFormatException ignored) {
+                        // Чужое значение - как будто cookie нет
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (request.getAttribute(WRITTEN) instanceof Long position && !response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, position.toString());
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) stickyFor.toSeconds());
+            response.addCookie(cookie);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaContext.clear();
+    }
+}
@@ -0,0 +1,59 @@
+package com.crud_app.replica;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Реплика для чтения: пул соединений и насколько она отстаёт от основной базы.
+// Отставание - время с коммита самого старого ещё не применённого изменения; позиция -
+// номер последнего применённого изменения (для read-your-writes). Обновляет их то,
+// что ведёт репликацию, - здесь ReplicationStandIn
+public class Replica {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final DataSource dataSource;
+
+    private volatile boolean ready = true;
+    private volatile long appliedPosition;
+    // Время коммита (System.nanoTime) самого старого неприменённого изменения, 0 - реплика догнала
+    private volatile LongSupplier pendingSince = () -> 0;
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    public long getAppliedPosition() {
+        return appliedPosition;
+    }
+
+    public void applied(long position) {
+        appliedPosition = Math.max(appliedPosition, position);
+    }
+
+    public void trackLag(LongSupplier pendingSince) {
+        this.pendingSince = pendingSince;
+    }
+
+    public Duration getLag() {
+        long since = pendingSince.getAsLong();
+        return since == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - since);
+    }
+
+    // Можно ли читать отсюда: готова, отстаёт не больше maxLag и уже видит requiredPosition
+    public boolean canServe(Duration maxLag, long requiredPosition) {
+        return ready && appliedPosition >= requiredPosition && getLag().compareTo(maxLag) <= 0;
+    }
+}
@@ -0,0 +1,45 @@
+package com.crud_app.replica;
+
+// Позиция, которую должна видеть реплика, чтобы читать с неё в текущем потоке (read-your-writes).
+// Выставляется из cookie запроса и после собственной записи; 0 - подходит любая реплика.
+// Счётчик чтений с ещё не догнавших реплик - для кэшей: загруженное с такой реплики может
+// быть старше уже сброшенного кэша, и кэш не должен хранить его дольше её отставания
+public final class ReplicaContext {
+
+    private static final ThreadLocal<Long> REQUIRED_POSITION = new ThreadLocal<>();
+    private static final ThreadLocal<Long> LAGGING_READS = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    public static void requirePosition(long position) {
+        if (position > requiredPosition()) {
+            REQUIRED_POSITION.set(position);
+        }
+    }
+
+    public static long requiredPosition() {
+        Long position = REQUIRED_POSITION.get();
+        return position != null ? position : 0;
+    }
+
+    // Кэш, заполненный для всех, может не видеть собственную запись клиента с другого экземпляра
+    public static boolean readsOwnWrites() {
+        return requiredPosition() > 0;
+    }
+
+    // Сравнивается до и после загрузки: изменился - читали с отстающей реплики
+    public static long laggingReads() {
+        Long reads = LAGGING_READS.get();
+        return reads != null ? reads : 0;
+    }
+
+    public static void laggingRead() {
+        LAGGING_READS.set(laggingReads() + 1);
+    }
+
+    public static void clear() {
+        REQUIRED_POSITION.remove();
+        LAGGING_READS.remove();
+    }
+}
@@ -0,0 +1,87 @@
+package com.crud_app.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// РЕПЛИКИ ДЛЯ ЧТЕНИЯ (app.replica.enabled=true): основной пул из spring.datasource.*,
+// по пулу на каждый адрес app.replica.urls (те же имя и пароль) и маршрутизирующий
+// источник поверх них - его получают JPA, JdbcTemplate и все остальные
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry registry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaSet replicaSet(DataSourceProperties properties, MeterRegistry registry,
+                          @Value("${app.replica.urls}") List<String> urls,
+                          @Value("${app.replica.pool-size:10}") int poolSize) {
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicas.add(new Replica(name, dataSource));
+        }
+        return new ReplicaSet(replicas);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaSet replicaSet,
+                          @Value("${app.replica.max-lag:1s}") Duration maxLag, MeterRegistry registry) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicaSet, maxLag, registry));
+    }
+
+    // Без заменителя реплики должна заполнять внешняя репликация
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.replica.stand-in.enabled", havingValue = "true", matchIfMissing = true)
+    ReplicationStandIn replicationStandIn(ReplicaSet replicaSet, @Qualifier("primaryDataSource") DataSource primary,
+                                          @Value("${app.replica.stand-in.delay:100ms}") Duration delay) {
+        return new ReplicationStandIn(replicaSet, primary, delay);
+    }
+
+    @Bean
+    ReadYourWrites readYourWrites(ReplicaSet replicaSet, @Value("${app.replica.sticky-for:10s}") Duration stickyFor) {
+        return new ReadYourWrites(replicaSet, stickyFor);
+    }
+
+    @Bean
+    WebMvcConfigurer readYourWritesInterceptor(ReadYourWrites readYourWrites) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(readYourWrites);
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.crud_app.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// МАРШРУТИЗАЦИЯ ЧТЕНИЙ: транзакции только для чтения (@Transactional(readOnly = true), методы
+// чтения SimpleJpaRepository) идут на реплики по кругу, всё остальное - на основную базу.
+// Реплика пропускается, если отстаёт больше maxLag или ещё не видит позицию собственной записи
+// клиента (ReplicaContext); не подошла ни одна - чтение уходит на основную. Чтение с реплики,
+// которая ещё не догнала основную, отмечается в ReplicaContext - его результат не кэшируется.
+// Ключ вычисляется при получении соединения, поэтому источник оборачивается в
+// LazyConnectionDataSourceProxy: иначе соединение берётся раньше, чем транзакция помечена readOnly
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Counter> reads = new HashMap<>();
+    private final Counter fallbackLag;
+    private final Counter fallbackPosition;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicaSet, Duration maxLag, MeterRegistry registry) {
+        this.replicas = replicaSet.getReplicas();
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        reads.put(PRIMARY, Counter.builder("db.routing.reads").tag("target", PRIMARY)
+                .description("Read-only transactions by target database")
+                .register(registry));
+        for (Replica replica : this.replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+            reads.put(replica.getName(), Counter.builder("db.routing.reads").tag("target", replica.getName())
+                    .description("Read-only transactions by target database")
+                    .register(registry));
+            TimeGauge.builder("db.replica.lag", replica, TimeUnit.MILLISECONDS, r -> r.getLag().toMillis())
+                    .tag("replica", replica.getName())
+                    .description("Time since the oldest change not yet applied on the replica")
+                    .register(registry);
+        }
+        fallbackLag = Counter.builder("db.routing.fallbacks").tag("reason", "lag").register(registry);
+        fallbackPosition = Counter.builder("db.routing.fallbacks").tag("reason", "read_your_writes").register(registry);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        long required = ReplicaContext.requiredPosition();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        boolean behindOwnWrite = false;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.canServe(maxLag, required)) {
+                reads.get(replica.getName()).increment();
+                if (!replica.getLag().isZero()) {
+                    ReplicaContext.laggingRead();
+                }
+                return replica.getName();
+            }
+            behindOwnWrite |= replica.canServe(maxLag, 0);
+        }
+        (behindOwnWrite ? fallbackPosition : fallbackLag).increment();
+        reads.get(PRIMARY).increment();
+        return PRIMARY;
+    }
+}
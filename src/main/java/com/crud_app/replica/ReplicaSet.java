@@ -0,0 +1,47 @@
+package com.crud_app.replica;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Реплики и позиция основной базы - номер последнего закоммиченного изменения.
+// С настоящей репликацией позицией был бы LSN основной базы, здесь её ведёт ReplicationStandIn
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    private final List<Replica> replicas;
+    private final AtomicLong position = new AtomicLong();
+
+    public ReplicaSet(List<Replica> replicas) {
+        if (replicas.isEmpty()) {
+            throw new IllegalStateException("Не задано ни одной реплики: app.replica.urls");
+        }
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long position() {
+        return position.get();
+    }
+
+    public long advance() {
+        return position.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Не удалось закрыть пул реплики {}: {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
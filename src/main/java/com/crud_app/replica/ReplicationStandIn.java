@@ -0,0 +1,220 @@
+package com.crud_app.replica;
+
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import com.crud_app.service.ItemChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+// ЗАМЕНИТЕЛЬ РЕПЛИКАЦИИ для локального запуска и тестов: реплики - отдельные базы H2.
+// При старте каждая получает полную копию основной (SCRIPT / DROP ALL OBJECTS + выполнение),
+// затем после каждого коммита изменение записи встаёт в очередь каждой реплики и через delay
+// применяется копированием строки: текущая строка items из основной базы (или DELETE, если её
+// там уже нет) и строки item_stats затронутых интервалов. Копирование строк повторяемо,
+// поэтому изменения, попавшие и в полную копию, и в очередь, не портят реплику.
+// Изменения в обход событий (ItemSeeder, пересчёт статистики) попадают на реплики только
+// с полной копией при следующем старте
+@Slf4j
+public class ReplicationStandIn implements AutoCloseable {
+
+    private static final int BATCH = 500;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final String SELECT_ITEM =
+            "SELECT id, name, description, created_at, updated_at, version FROM items WHERE id = ?";
+    private static final String MERGE_ITEM =
+            "MERGE INTO items (id, name, description, created_at, updated_at, version) KEY (id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_STATS =
+            "SELECT slot, created, updated, deleted FROM item_stats WHERE granularity = ? AND bucket_start = ?";
+
+    private final ReplicaSet replicaSet;
+    private final JdbcTemplate primary;
+    private final Duration delay;
+    private final Map<Replica, Deque<Change>> queues = new LinkedHashMap<>();
+    private final Thread applier;
+    private volatile boolean running = true;
+
+    public ReplicationStandIn(ReplicaSet replicaSet, DataSource primary, Duration delay) {
+        this.replicaSet = replicaSet;
+        this.primary = new JdbcTemplate(primary);
+        this.delay = delay;
+        for (Replica replica : replicaSet.getReplicas()) {
+            Deque<Change> queue = new ConcurrentLinkedDeque<>();
+            queues.put(replica, queue);
+            // До полной копии реплика пуста: читать с неё нельзя
+            replica.setReady(false);
+            replica.trackLag(() -> {
+                Change head = queue.peekFirst();
+                return head == null ? 0 : head.committedAt();
+            });
+        }
+        applier = new Thread(this::run, "replication-stand-in");
+        applier.setDaemon(true);
+    }
+
+    // После CommandLineRunner'ов: демо-данные и ItemSeeder пишут в обход событий
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!applier.isAlive()) {
+            applier.start();
+        }
+    }
+
+    // Номер позиции и место в очередях - под одной блокировкой: очередь упорядочена по позиции,
+    // и применённая позиция реплики означает, что применено всё до неё
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime statsTime = event.getType() == ItemChangedEvent.Type.CREATED && event.getItem().getCreatedAt() != null
+                ? event.getItem().getCreatedAt()
+                : now;
+        Change change = new Change(replicaSet.advance(), System.nanoTime(), event.getId(), statsTime);
+        queues.values().forEach(queue -> queue.addLast(change));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        applier.interrupt();
+    }
+
+    private void run() {
+        queues.keySet().forEach(this::copy);
+        while (running) {
+            boolean idle = true;
+            for (Map.Entry<Replica, Deque<Change>> entry : queues.entrySet()) {
+                if (!entry.getKey().isReady()) {
+                    // Без полной копии применять нечего: реплика не используется до перезапуска
+                    entry.getValue().clear();
+                    continue;
+                }
+                List<Change> batch = due(entry.getValue());
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                idle = false;
+                try {
+                    apply(entry.getKey(), batch);
+                    batch.forEach(change -> entry.getValue().pollFirst());
+                    entry.getKey().applied(batch.get(batch.size() - 1).position());
+                } catch (RuntimeException e) {
+                    // Порция остаётся в очереди: отставание растёт, чтения уходят на основную
+                    log.warn("Реплика {}: не удалось применить {} изменений: {}",
+                            entry.getKey().getName(), batch.size(), e.getMessage());
+                    sleep(TimeUnit.MILLISECONDS.toNanos(100));
+                }
+            }
+            if (idle) {
+                sleep(IDLE_NANOS);
+            }
+        }
+    }
+
+    private void copy(Replica replica) {
+        long start = System.currentTimeMillis();
+        long position = replicaSet.position();
+        JdbcTemplate target = new JdbcTemplate(replica.getDataSource());
+        try {
+            target.execute("DROP ALL OBJECTS");
+            primary.query("SCRIPT", row -> {
+                target.execute(row.getString(1));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Реплика {}: полная копия не удалась, чтения остаются на основной базе: {}",
+                    replica.getName(), e.getMessage());
+            return;
+        }
+        replica.applied(position);
+        replica.setReady(true);
+        log.info("Реплика {}: полная копия за {} мс", replica.getName(), System.currentTimeMillis() - start);
+    }
+
+    // Изменения, которым уже исполнилось delay, - от начала очереди
+    private List<Change> due(Deque<Change> queue) {
+        long now = System.nanoTime();
+        List<Change> batch = new ArrayList<>();
+        Iterator<Change> iterator = queue.iterator();
+        while (iterator.hasNext() && batch.size() < BATCH) {
+            Change change = iterator.next();
+            if (now - change.committedAt() < delay.toNanos()) {
+                break;
+            }
+            batch.add(change);
+        }
+        return batch;
+    }
+
+    private void apply(Replica replica, List<Change> batch) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        Set<Map.Entry<Granularity, LocalDateTime>> buckets = new LinkedHashSet<>();
+        for (Change change : batch) {
+            ids.add(change.id());
+            for (Granularity granularity : Granularity.values()) {
+                buckets.add(Map.entry(granularity, granularity.truncate(change.statsTime())));
+            }
+        }
+
+        JdbcTemplate target = new JdbcTemplate(replica.getDataSource());
+        new TransactionTemplate(new DataSourceTransactionManager(replica.getDataSource())).executeWithoutResult(status -> {
+            for (UUID id : ids) {
+                List<Object[]> rows = primary.query(SELECT_ITEM, (row, i) -> new Object[]{
+                        row.getObject(1), row.getString(2), row.getString(3),
+                        row.getTimestamp(4), row.getTimestamp(5), row.getLong(6)}, id);
+                if (rows.isEmpty()) {
+                    target.update("DELETE FROM items WHERE id = ?", id);
+                } else {
+                    target.update(MERGE_ITEM, rows.get(0));
+                }
+            }
+            for (Map.Entry<Granularity, LocalDateTime> bucket : buckets) {
+                String granularity = bucket.getKey().name();
+                Timestamp bucketStart = Timestamp.valueOf(bucket.getValue());
+                List<Object[]> rows = primary.query(SELECT_STATS, (row, i) -> new Object[]{
+                        granularity, bucketStart, row.getInt(1), row.getLong(2), row.getLong(3), row.getLong(4)},
+                        granularity, bucketStart);
+                target.update("DELETE FROM item_stats WHERE granularity = ? AND bucket_start = ?", granularity, bucketStart);
+                if (!rows.isEmpty()) {
+                    target.batchUpdate("INSERT INTO item_stats (granularity, bucket_start, slot, created, updated, deleted) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)", rows);
+                }
+            }
+        });
+    }
+
+    private void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record Change(long position, long committedAt, UUID id, LocalDateTime statsTime) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.ItemChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ItemChangeRepository extends JpaRepository<ItemChange, Long>, ItemChangeRepositoryCustom {
+
+    @Query("SELECT MAX(c.seq) FROM ItemChange c")
+    Long findMaxSeq();
+}
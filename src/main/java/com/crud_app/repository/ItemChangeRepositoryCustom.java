@@ -0,0 +1,25 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.ItemChange;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemChangeRepositoryCustom {
+
+    // Дописывает изменения одним батчем в текущей транзакции, если она есть.
+    // seq и changed_at назначает база: номер - identity, время - по часам базы, общим для экземпляров
+    void append(Collection<ItemChange> changes);
+
+    // Следующие limit строк после seq по возрастанию - диапазон по первичному ключу
+    List<ItemChange> readAfter(long seq, int limit);
+
+    // Строки с номерами из seqs, которые уже появились
+    List<ItemChange> readSeqs(Collection<Long> seqs);
+
+    // Время по часам базы - для отставания относительно changed_at
+    LocalDateTime now();
+
+    int deleteOlderThan(LocalDateTime before);
+}
@@ -0,0 +1,62 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.ItemChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Через JdbcTemplate: журнал только дописывается и читается по seq, сущности и контекст
+// персистентности ему не нужны, а батч вставки не зависит от настроек Hibernate
+@RequiredArgsConstructor
+class ItemChangeRepositoryImpl implements ItemChangeRepositoryCustom {
+
+    private static final String COLUMNS = "SELECT seq, item_id, type, origin, changed_at FROM item_changes ";
+
+    private static final RowMapper<ItemChange> MAPPER = (row, i) -> ItemChange.builder()
+            .seq(row.getLong(1))
+            .itemId(row.getObject(2, UUID.class))
+            .type(row.getString(3))
+            .origin(row.getString(4))
+            .changedAt(row.getTimestamp(5).toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void append(Collection<ItemChange> changes) {
+        jdbcTemplate.batchUpdate("INSERT INTO item_changes (item_id, type, origin, changed_at) VALUES (?, ?, ?, LOCALTIMESTAMP)",
+                changes.stream()
+                        .map(change -> new Object[]{change.getItemId(), change.getType(), change.getOrigin()})
+                        .toList());
+    }
+
+    @Override
+    public List<ItemChange> readAfter(long seq, int limit) {
+        return jdbcTemplate.query(COLUMNS + "WHERE seq > ? ORDER BY seq LIMIT ?", MAPPER, seq, limit);
+    }
+
+    @Override
+    public List<ItemChange> readSeqs(Collection<Long> seqs) {
+        if (seqs.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = seqs.stream().map(seq -> "?").collect(Collectors.joining(", "));
+        return jdbcTemplate.query(COLUMNS + "WHERE seq IN (" + placeholders + ") ORDER BY seq", MAPPER, seqs.toArray());
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+    }
+
+    @Override
+    public int deleteOlderThan(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM item_changes WHERE changed_at < ?", before);
+    }
+}
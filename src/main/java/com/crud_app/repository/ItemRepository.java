@@ -1,18 +1,33 @@
 package com.crud_app.repository;
 
+import com.crud_app.dto.ItemRow;
 import com.crud_app.model.Item;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+// Не JpaRepository: сервисам нужны CRUD, страницы и flush, а Query by Example, getReferenceById
+// и пакетные deleteAllInBatch пришлось бы реализовывать и хранилищу вне кучи (OffHeapItemRepository).
+// flush и saveAndFlush выполняет SimpleJpaRepository, как и остальные методы базовых интерфейсов
 @Repository
-public interface ItemRepository extends JpaRepository<Item, UUID> {
+public interface ItemRepository extends ListCrudRepository<Item, UUID>, ListPagingAndSortingRepository<Item, UUID>,
+        ItemRepositoryCustom {
+
+    void flush();
+
+    <S extends Item> S saveAndFlush(S entity);
 
     Page<Item> findByCreatedAtAfter(LocalDateTime dateFrom, Pageable pageable);
 
@@ -24,6 +39,42 @@ public interface ItemRepository extends JpaRepository<Item, UUID> {
     Page<Item> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
     Page<Item> findByCreatedAtGreaterThanEqual(LocalDateTime date, Pageable pageable);
+
+    // ПРОЕКЦИИ ДЛЯ СПИСКА: строки ItemRow вместо управляемых сущностей (страница по фильтру - findRows).
+    // Транзакция только для чтения: Hibernate не делает flush и не проверяет изменения
+    String ROW = "SELECT new com.crud_app.dto.ItemRow(i.id, i.name, i.description, i.createdAt, i.updatedAt) FROM Item i";
+
+    @Transactional(readOnly = true)
+    @Query(ROW + " WHERE i.id IN :ids")
+    List<ItemRow> findRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Начальное значение Last-Modified для ItemVersionService
+    @Query("SELECT MAX(i.updatedAt) FROM Item i")
+    LocalDateTime findMaxUpdatedAt();
+
+    // Начало пересчёта статистики по умолчанию (ItemStatsService)
+    @Query("SELECT MIN(i.createdAt) FROM Item i")
+    LocalDateTime findMinCreatedAt();
+
+    // Порция курсора для потокового чтения (ItemRepositoryCustom.stream)
+    int FETCH_SIZE = 500;
+
+    // ПАКЕТНОЕ УДАЛЕНИЕ: один DELETE ... WHERE id IN (...) вместо SELECT + DELETE на каждую запись
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM Item i WHERE i.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<UUID> ids);
+
+    // Текущая версия записи - чтобы отличить конфликт версий от отсутствующей записи
+    @Query("SELECT i.version FROM Item i WHERE i.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    // УДАЛЕНИЕ ОДНОЙ ЗАПИСИ: один DELETE ... WHERE id = ? без загрузки сущности; возвращает 0, если записи нет
+    @Modifying
+    @Query("DELETE FROM Item i WHERE i.id = :id")
+    int deleteItemById(@Param("id") UUID id);
 }
 
 
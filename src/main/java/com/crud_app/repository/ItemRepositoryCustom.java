@@ -0,0 +1,52 @@
+package com.crud_app.repository;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface ItemRepositoryCustom {
+
+    // KEYSET-ПАГИНАЦИЯ по (sortField, id): строки строго после (sortValue, lastId)
+    // в заданном направлении, без OFFSET и без count(*). lastId == null - первая страница
+    List<Item> seek(String sortField, boolean ascending, Object sortValue, UUID lastId, int limit);
+
+    // То же для списка: строки ItemRow в транзакции только для чтения
+    @Transactional(readOnly = true)
+    List<ItemRow> seekRows(String sortField, boolean ascending, Object sortValue, UUID lastId, int limit);
+
+    // СПИСОК ПО ФИЛЬТРУ: ключевое слово, диапазон дат и сортировка одним запросом с параметрами.
+    // Текст запроса зависит только от набора заданных условий и сортировки, поэтому план
+    // разбирается один раз на такой набор. Сортировка по (поле, id) в одном направлении -
+    // по индексам idx_items_*_id и idx_items_*_desc; без сортировки - createdAt по убыванию
+    @Transactional(readOnly = true)
+    Slice<ItemRow> findRows(ItemFilter filter, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    long countRows(ItemFilter filter);
+
+    // ПОТОКОВОЕ ЧТЕНИЕ ДЛЯ ЭКСПОРТА: те же условия, что у findRows, createdAt по убыванию.
+    // Строки читаются курсором порциями по FETCH_SIZE, сущности только для чтения (без снимков
+    // для dirty checking). Вызывать внутри транзакции и закрывать Stream после использования
+    Stream<Item> stream(ItemFilter filter);
+
+    // ПОРЦИЯ ДЛЯ ОЧИСТКИ: id до limit записей, созданных раньше createdBefore и/или содержащих keyword.
+    // Только по дате - по индексу (created_at, id) с начала: удалённые строки из индекса уже ушли.
+    // С keyword - по id после afterId, чтобы не просматривать заново строки, не подошедшие по дате
+    List<UUID> findIdsToPurge(LocalDateTime createdBefore, String keyword, UUID afterId, int limit);
+
+    // ЧАСТИЧНОЕ ОБНОВЛЕНИЕ одним запросом: UPDATE только переданных полей (name == null - не менять,
+    // description - если setDescription), updated_at и version + 1; при expectedVersion - только если
+    // версия совпала. Возвращает строку после обновления или пусто, если записи нет или версия другая
+    Optional<Item> patch(UUID id, String name, boolean setDescription, String description,
+                         Long expectedVersion, LocalDateTime updatedAt);
+}
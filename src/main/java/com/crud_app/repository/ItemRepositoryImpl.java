@@ -0,0 +1,270 @@
+package com.crud_app.repository;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    // H2 считает NULL наименьшим значением (NULLS FIRST при ASC, NULLS LAST при DESC),
+    // поэтому для этих полей условие перехода отдельно учитывает строки с NULL
+    private static final Set<String> NULLABLE_FIELDS = Set.of("description", "updatedAt");
+
+    // Поля, по которым разрешена сортировка списка: для каждого есть индексы (поле, id) ASC и DESC
+    private static final Set<String> SORT_FIELDS = Set.of("name", "description", "createdAt", "updatedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ItemRow> findRows(ItemFilter filter, Pageable pageable) {
+        StringBuilder jpql = new StringBuilder(ItemRepository.ROW);
+        appendWhere(jpql, filter);
+        appendOrderBy(jpql, pageable.getSort());
+
+        TypedQuery<ItemRow> query = entityManager.createQuery(jpql.toString(), ItemRow.class);
+        bind(query, filter);
+        // Лишняя строка - признак следующей страницы, без count(*)
+        List<ItemRow> rows = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public long countRows(ItemFilter filter) {
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(i) FROM Item i");
+        appendWhere(jpql, filter);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        bind(query, filter);
+        return query.getSingleResult();
+    }
+
+    @Override
+    public Stream<Item> stream(ItemFilter filter) {
+        StringBuilder jpql = new StringBuilder("SELECT i FROM Item i");
+        appendWhere(jpql, filter);
+        jpql.append(" ORDER BY i.createdAt DESC, i.id DESC");
+
+        TypedQuery<Item> query = entityManager.createQuery(jpql.toString(), Item.class)
+                .setHint(HINT_FETCH_SIZE, ItemRepository.FETCH_SIZE)
+                .setHint(HINT_READ_ONLY, true);
+        bind(query, filter);
+        return query.getResultStream();
+    }
+
+    // Условия только с параметрами: значения фильтра в текст запроса не попадают
+    private static void appendWhere(StringBuilder jpql, ItemFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.hasKeyword()) {
+            conditions.add("(LOWER(i.name) LIKE :pattern OR LOWER(i.description) LIKE :pattern)");
+        }
+        if (filter.dateFrom() != null) {
+            conditions.add("i." + filter.dateField() + " >= :dateFrom");
+        }
+        if (filter.dateTo() != null) {
+            conditions.add("i." + filter.dateField() + " < :dateTo");
+        }
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+
+    private static void bind(TypedQuery<?> query, ItemFilter filter) {
+        if (filter.hasKeyword()) {
+            query.setParameter("pattern", "%" + filter.keyword().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (filter.dateFrom() != null) {
+            query.setParameter("dateFrom", filter.from());
+        }
+        if (filter.dateTo() != null) {
+            query.setParameter("dateTo", filter.until());
+        }
+    }
+
+    // Первое разрешённое поле сортировки и id в том же направлении - порядок, который индекс
+    // отдаёт без сортировки в H2. Неизвестные поля отбрасываются: имя поля идёт в текст запроса
+    private static void appendOrderBy(StringBuilder jpql, Sort sort) {
+        Sort.Order order = sort.stream()
+                .filter(o -> SORT_FIELDS.contains(o.getProperty()))
+                .findFirst()
+                .orElse(Sort.Order.desc("createdAt"));
+        String direction = order.isAscending() ? " ASC" : " DESC";
+        jpql.append(" ORDER BY i.").append(order.getProperty()).append(direction)
+                .append(", i.id").append(direction);
+    }
+
+    @Override
+    public List<Item> seek(String sortField, boolean ascending, Object sortValue, UUID lastId, int limit) {
+        CriteriaQuery<Item> query = entityManager.getCriteriaBuilder().createQuery(Item.class);
+        return seek(query, query.from(Item.class), sortField, ascending, sortValue, lastId, limit);
+    }
+
+    @Override
+    public List<ItemRow> seekRows(String sortField, boolean ascending, Object sortValue, UUID lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemRow> query = cb.createQuery(ItemRow.class);
+        Root<Item> item = query.from(Item.class);
+        query.select(cb.construct(ItemRow.class, item.get("id"), item.get("name"), item.get("description"),
+                item.get("createdAt"), item.get("updatedAt")));
+        return seek(query, item, sortField, ascending, sortValue, lastId, limit);
+    }
+
+    private <T> List<T> seek(CriteriaQuery<T> query, Root<Item> item, String sortField, boolean ascending,
+                             Object sortValue, UUID lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Expression<Comparable> field = item.get(sortField);
+        Expression<UUID> id = item.get("id");
+
+        if (lastId != null) {
+            query.where(ascending
+                    ? after(cb, field, id, (Comparable) sortValue, lastId)
+                    : before(cb, field, id, (Comparable) sortValue, lastId, NULLABLE_FIELDS.contains(sortField)));
+        }
+        query.orderBy(ascending
+                ? List.of(cb.asc(field), cb.asc(id))
+                : List.of(cb.desc(field), cb.desc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<UUID> findIdsToPurge(LocalDateTime createdBefore, String keyword, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<Item> item = query.from(Item.class);
+        Expression<UUID> id = item.get("id");
+        query.select(id);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (createdBefore != null) {
+            predicates.add(cb.lessThan(item.get("createdAt"), createdBefore));
+        }
+        if (keyword != null) {
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(item.get("name")), pattern),
+                    cb.like(cb.lower(item.get("description")), pattern)));
+            if (afterId != null) {
+                predicates.add(cb.greaterThan(id, afterId));
+            }
+            query.orderBy(cb.asc(id));
+        } else {
+            query.orderBy(cb.asc(item.get("createdAt")), cb.asc(id));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // H2 FINAL TABLE отдаёт строки в том виде, в каком их оставил UPDATE, - без отдельного SELECT.
+    // Результат собирается вручную и в контекст персистентности не попадает: уже загруженная
+    // в этой транзакции сущность иначе вернулась бы вместо обновлённой строки
+    @Override
+    public Optional<Item> patch(UUID id, String name, boolean setDescription, String description,
+                                Long expectedVersion, LocalDateTime updatedAt) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, description, created_at, updated_at, version " +
+                "FROM FINAL TABLE (UPDATE items SET ");
+        if (name != null) {
+            sql.append("name = :name, ");
+        }
+        if (setDescription) {
+            sql.append("description = :description, ");
+        }
+        sql.append("updated_at = :updatedAt, version = version + 1 WHERE id = :id");
+        if (expectedVersion != null) {
+            sql.append(" AND version = :version");
+        }
+        sql.append(")");
+
+        NativeQuery<?> query = entityManager.createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("name", String.class)
+                .addScalar("description", String.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", id);
+        if (name != null) {
+            query.setParameter("name", name);
+        }
+        if (setDescription) {
+            query.setParameter("description", description);
+        }
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query.getResultList().stream()
+                .map(Object[].class::cast)
+                .map(row -> Item.builder()
+                        .id((UUID) row[0])
+                        .name((String) row[1])
+                        .description((String) row[2])
+                        .createdAt((LocalDateTime) row[3])
+                        .updatedAt((LocalDateTime) row[4])
+                        .version((Long) row[5])
+                        .build())
+                .findFirst();
+    }
+
+    // ASC: field >= v AND (field > v OR id > lastId) - первое условие даёт H2 диапазон по индексу
+    @SuppressWarnings("unchecked")
+    private Predicate after(CriteriaBuilder cb, Expression<Comparable> field, Expression<UUID> id,
+                            Comparable value, UUID lastId) {
+        if (value == null) {
+            return cb.or(
+                    cb.and(cb.isNull(field), cb.greaterThan(id, lastId)),
+                    cb.isNotNull(field));
+        }
+        return cb.and(
+                cb.greaterThanOrEqualTo(field, value),
+                cb.or(cb.greaterThan(field, value), cb.greaterThan(id, lastId)));
+    }
+
+    // DESC: field <= v AND (field < v OR id < lastId), затем строки с NULL (они идут последними)
+    @SuppressWarnings("unchecked")
+    private Predicate before(CriteriaBuilder cb, Expression<Comparable> field, Expression<UUID> id,
+                             Comparable value, UUID lastId, boolean nullable) {
+        if (value == null) {
+            return cb.and(cb.isNull(field), cb.lessThan(id, lastId));
+        }
+        Predicate predicate = cb.and(
+                cb.lessThanOrEqualTo(field, value),
+                cb.or(cb.lessThan(field, value), cb.lessThan(id, lastId)));
+        return nullable ? cb.or(predicate, cb.isNull(field)) : predicate;
+    }
+}
@@ -0,0 +1,23 @@
+package com.crud_app.repository;
+
+import com.crud_app.dto.ItemStatsPoint;
+import com.crud_app.model.ItemStatsBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemStatsRepository extends JpaRepository<ItemStatsBucket, ItemStatsBucket.Key>, ItemStatsRepositoryCustom {
+
+    // ГИСТОГРАММА: диапазон по индексу (granularity, bucket_start), по строке на интервал
+    // со счётчиками, сложенными по slot. Интервалы без изменений в ответ не попадают
+    @Query("SELECT new com.crud_app.dto.ItemStatsPoint(b.bucketStart, SUM(b.created), SUM(b.updated), SUM(b.deleted)) " +
+            "FROM ItemStatsBucket b WHERE b.granularity = :granularity " +
+            "AND b.bucketStart >= :from AND b.bucketStart < :to " +
+            "GROUP BY b.bucketStart ORDER BY b.bucketStart")
+    List<ItemStatsPoint> histogram(@Param("granularity") ItemStatsBucket.Granularity granularity,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+}
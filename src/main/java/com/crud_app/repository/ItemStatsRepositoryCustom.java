@@ -0,0 +1,19 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.ItemStatsBucket;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ItemStatsRepositoryCustom {
+
+    // Прибавляет приращения к строкам (granularity, bucket_start, slot); отсутствующие строки создаёт.
+    // Выполняется в текущей транзакции, если она есть
+    void increment(Collection<ItemStatsBucket> deltas);
+
+    // ПЕРЕСЧЁТ окна [from, to) по таблице items: created - по created_at, updated - по updated_at
+    // строк, изменённых после создания. deleted не трогается - удалённых строк в items уже нет.
+    // from и to должны быть началом недели, иначе недельные счётчики на краях окна разойдутся.
+    // Возвращает число созданных в окне записей
+    long rebuild(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,66 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.ItemStatsBucket;
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Через JdbcTemplate, а не JPA: MERGE прибавляет к счётчику в базе без чтения строки
+// и без версии, поэтому параллельные записи не теряют приращения друг друга
+@RequiredArgsConstructor
+class ItemStatsRepositoryImpl implements ItemStatsRepositoryCustom {
+
+    private static final String INCREMENT = "MERGE INTO item_stats s USING (VALUES (CAST(? AS VARCHAR(8)), " +
+            "CAST(? AS TIMESTAMP), CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+            "AS d(granularity, bucket_start, slot, created, updated, deleted) " +
+            "ON s.granularity = d.granularity AND s.bucket_start = d.bucket_start AND s.slot = d.slot " +
+            "WHEN MATCHED THEN UPDATE SET created = s.created + d.created, updated = s.updated + d.updated, " +
+            "deleted = s.deleted + d.deleted " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, slot, created, updated, deleted) " +
+            "VALUES (d.granularity, d.bucket_start, d.slot, d.created, d.updated, d.deleted)";
+
+    // Подсчёт окна по индексу на колонке времени; итог - в строку slot 0
+    private static final String REBUILD = "MERGE INTO item_stats s USING (" +
+            "SELECT DATE_TRUNC('%1$s', %2$s) AS bucket_start, COUNT(*) AS cnt FROM items " +
+            "WHERE %2$s >= ? AND %2$s < ? %3$s GROUP BY DATE_TRUNC('%1$s', %2$s)) AS d " +
+            "ON s.granularity = ? AND s.bucket_start = d.bucket_start AND s.slot = 0 " +
+            "WHEN MATCHED THEN UPDATE SET %4$s = s.%4$s + d.cnt " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, slot, created, updated, deleted) " +
+            "VALUES (?, d.bucket_start, 0, %5$s, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void increment(Collection<ItemStatsBucket> deltas) {
+        for (ItemStatsBucket delta : deltas) {
+            Object[] args = {delta.getGranularity().name(), delta.getBucketStart(), delta.getSlot(),
+                    delta.getCreated(), delta.getUpdated(), delta.getDeleted()};
+            try {
+                jdbcTemplate.update(INCREMENT, args);
+            } catch (DuplicateKeyException e) {
+                // Строку интервала одновременно вставила другая транзакция - теперь она есть, прибавляем к ней
+                jdbcTemplate.update(INCREMENT, args);
+            }
+        }
+    }
+
+    @Override
+    public long rebuild(LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.update("UPDATE item_stats SET created = 0, updated = 0 WHERE bucket_start >= ? AND bucket_start < ?",
+                from, to);
+        for (Granularity granularity : Granularity.values()) {
+            String unit = granularity.getSqlUnit();
+            jdbcTemplate.update(String.format(REBUILD, unit, "created_at", "", "created", "d.cnt, 0"),
+                    from, to, granularity.name(), granularity.name());
+            jdbcTemplate.update(String.format(REBUILD, unit, "updated_at", "AND updated_at <> created_at", "updated", "0, d.cnt"),
+                    from, to, granularity.name(), granularity.name());
+        }
+        Long created = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE created_at >= ? AND created_at < ?", Long.class, from, to);
+        return created != null ? created : 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.Item;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+// РЕАКТИВНЫЙ АНАЛОГ ItemRepository (R2DBC): список страницей, поиск по ключевому слову,
+// фильтр по дате создания. Страница читается окнами по window-size строк: окно выбирается
+// целиком и соединение сразу возвращается в пул, строки отдаются по запросу подписчика,
+// следующее окно читается, когда подписчику отдано текущее.
+// Медленный клиент держит не соединение, а не больше двух окон в памяти
+@Repository
+public class ReactiveItemRepository {
+
+    private static final String SELECT = "SELECT id, name, description, created_at, updated_at, version FROM items";
+    private static final String KEYWORD_FILTER =
+            " WHERE LOWER(name) LIKE :keyword OR LOWER(description) LIKE :keyword";
+    private static final String CREATED_AFTER_FILTER = " WHERE created_at > :dateFrom";
+    private static final String DEFAULT_ORDER = " ORDER BY created_at DESC, id DESC";
+
+    private static final Map<String, String> COLUMNS = Map.of(
+            "name", "name",
+            "description", "description",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private final DatabaseClient client;
+    private final int windowSize;
+
+    public ReactiveItemRepository(DatabaseClient reactiveDatabaseClient,
+                                  @Value("${app.reactive.window-size:500}") int windowSize) {
+        this.client = reactiveDatabaseClient;
+        this.windowSize = windowSize;
+    }
+
+    public Flux<Item> findAll(Pageable pageable) {
+        return page(SELECT + orderBy(pageable.getSort()), UnaryOperator.identity(), pageable);
+    }
+
+    public Flux<Item> searchByKeyword(String keyword, Pageable pageable) {
+        String pattern = "%" + keyword.toLowerCase() + "%";
+        return page(SELECT + KEYWORD_FILTER + DEFAULT_ORDER, spec -> spec.bind("keyword", pattern), pageable);
+    }
+
+    public Flux<Item> findByCreatedAtAfter(LocalDateTime dateFrom, Pageable pageable) {
+        return page(SELECT + CREATED_AFTER_FILTER + DEFAULT_ORDER, spec -> spec.bind("dateFrom", dateFrom), pageable);
+    }
+
+    private Flux<Item> page(String sql, UnaryOperator<DatabaseClient.GenericExecuteSpec> binder, Pageable pageable) {
+        return window(sql + " LIMIT :limit OFFSET :offset", binder, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private Flux<Item> window(String sql, UnaryOperator<DatabaseClient.GenericExecuteSpec> binder,
+                              long offset, int remaining) {
+        int limit = Math.min(remaining, windowSize);
+        return binder.apply(client.sql(sql))
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveItemRepository::toItem)
+                .all()
+                .collectList()
+                .flatMapMany(rows -> {
+                    Flux<Item> current = Flux.fromIterable(rows);
+                    if (rows.size() < limit || remaining == limit) {
+                        return current;
+                    }
+                    return current.concatWith(Flux.defer(() -> window(sql, binder, offset + limit, remaining - limit)));
+                });
+    }
+
+    // Сортировка только по известным полям; id - для стабильного порядка при равных значениях
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return DEFAULT_ORDER;
+        }
+        String columns = sort.stream()
+                .map(order -> {
+                    String column = COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new IllegalArgumentException("Неизвестное поле сортировки: " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " ASC" : " DESC");
+                })
+                .collect(Collectors.joining(", "));
+        String idDirection = sort.iterator().next().isAscending() ? " ASC" : " DESC";
+        return " ORDER BY " + columns + ", id" + idDirection;
+    }
+
+    private static Item toItem(Readable row) {
+        return Item.builder()
+                .id(row.get("id", UUID.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
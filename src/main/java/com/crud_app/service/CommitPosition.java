@@ -0,0 +1,11 @@
+package com.crud_app.service;
+
+// Позиция основной базы после коммита - для read-your-writes с репликами (ReadYourWrites).
+// ItemWriteBehind снимает её на потоке-писателе сразу после коммита группы, а отмечает
+// на потоке вызывающего, которому принадлежат запрос, ReplicaContext и cookie
+public interface CommitPosition {
+
+    long current();
+
+    void written(long position);
+}
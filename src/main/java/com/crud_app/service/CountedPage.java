@@ -0,0 +1,49 @@
+package com.crud_app.service;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+// Страница из Slice-запроса и числа записей из ItemCountService (без count(*) в запросе страницы)
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean approximateTotal;
+    private final boolean totalKnown;
+
+    // Устаревшее значение из кэша не должно прятать страницы, которые Slice видит.
+    // Пока число неизвестно, страниц столько, сколько видно по Slice: до текущей и следующая
+    public CountedPage(Slice<T> slice, ItemCountService.Count count) {
+        this(slice.getContent(), slice.getPageable(),
+                Math.max(count.getValue(), seen(slice)), count.isApproximate(), count.isKnown());
+    }
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean approximateTotal) {
+        this(content, pageable, total, approximateTotal, true);
+    }
+
+    private CountedPage(List<T> content, Pageable pageable, long total, boolean approximateTotal, boolean totalKnown) {
+        super(content, pageable, total);
+        this.approximateTotal = approximateTotal;
+        this.totalKnown = totalKnown;
+    }
+
+    private static long seen(Slice<?> slice) {
+        long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        return offset + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+    }
+
+    public boolean isApproximateTotal() {
+        return approximateTotal;
+    }
+
+    public boolean isTotalKnown() {
+        return totalKnown;
+    }
+
+    // null - общего числа нет, показывать нечего
+    public String getTotalLabel() {
+        return totalKnown ? ItemCountService.format(getTotalElements(), approximateTotal) : null;
+    }
+}
@@ -0,0 +1,206 @@
+package com.crud_app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Построчный разбор CSV/NDJSON из потока: в памяти только текущая запись
+abstract class ImportRecordReader {
+
+    // Защита от незакрытой кавычки или файла без переводов строк
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    record Row(long line, String name, String description, String error) {
+
+        static Row rejected(long line, String error) {
+            return new Row(line, null, null, error);
+        }
+    }
+
+    protected final BufferedReader reader;
+    protected long line;
+
+    ImportRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    static ImportRecordReader of(ItemFileFormat format, Reader reader) {
+        return format == ItemFileFormat.CSV ? new Csv(reader) : new Ndjson(reader);
+    }
+
+    // Следующая запись или null в конце файла
+    abstract Row next() throws IOException;
+
+    long linesRead() {
+        return line;
+    }
+
+    // CSV по RFC 4180 с заголовком; нужны столбцы name и (необязательно) description,
+    // остальные (например id и даты из экспорта) пропускаются
+    static class Csv extends ImportRecordReader {
+
+        private int nameColumn = -1;
+        private int descriptionColumn = -1;
+        private int pending = -1;
+
+        Csv(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (nameColumn < 0) {
+                readHeader();
+            }
+            while (true) {
+                long startLine = line + 1;
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                    continue;
+                }
+                if (fields.size() <= nameColumn) {
+                    return Row.rejected(startLine, "не хватает столбцов: " + fields.size());
+                }
+                String description = descriptionColumn >= 0 && descriptionColumn < fields.size()
+                        ? emptyToNull(fields.get(descriptionColumn)) : null;
+                return new Row(startLine, fields.get(nameColumn), description, null);
+            }
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Пустой файл");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                if (column.equals("name")) {
+                    nameColumn = i;
+                } else if (column.equals("description")) {
+                    descriptionColumn = i;
+                }
+            }
+            if (nameColumn < 0) {
+                throw new IllegalArgumentException("В заголовке CSV нет столбца name");
+            }
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            boolean any = false;
+            int length = 0;
+
+            while (true) {
+                int c = read();
+                if (c < 0) {
+                    if (!any) {
+                        return null;
+                    }
+                    if (inQuotes) {
+                        throw new IllegalArgumentException("Строка " + line + ": незакрытая кавычка в конце файла");
+                    }
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                }
+                any = true;
+                if (++length > MAX_RECORD_CHARS) {
+                    throw new IllegalArgumentException("Строка " + (line + 1) + ": запись длиннее "
+                            + MAX_RECORD_CHARS + " символов");
+                }
+
+                if (inQuotes) {
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            pending = following;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -1) {
+                int c = pending;
+                pending = -1;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // Один JSON-объект на строку: {"name": "...", "description": "..."}
+    static class Ndjson extends ImportRecordReader {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        Ndjson(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (text.length() > MAX_RECORD_CHARS) {
+                    return Row.rejected(line, "запись длиннее " + MAX_RECORD_CHARS + " символов");
+                }
+                try {
+                    JsonNode node = MAPPER.readTree(text);
+                    if (!node.isObject()) {
+                        return Row.rejected(line, "ожидался JSON-объект");
+                    }
+                    return new Row(line, text(node, "name"), text(node, "description"), null);
+                } catch (JsonProcessingException e) {
+                    return Row.rejected(line, "некорректный JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.BulkResult;
+import com.crud_app.dto.ItemRequest;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemFields;
+import com.crud_app.repository.ItemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// ПАКЕТНЫЕ ОПЕРАЦИИ: список режется на порции, каждая порция - отдельная транзакция.
+// INSERT/UPDATE уходят JDBC-батчами (hibernate.jdbc.batch_size), DELETE - одним запросом на порцию
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBulkService {
+
+    private final ItemRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.bulk.max-items:100000}")
+    private int maxItems;
+
+    public BulkResult createItems(List<ItemRequest> requests) {
+        validate(requests, false);
+        return runInChunks("create", requests, chunk -> {
+            List<Item> items = chunk.stream()
+                    .map(request -> Item.builder()
+                            .name(request.getName())
+                            .description(request.getDescription())
+                            .build())
+                    .toList();
+            // Через репозиторий, а не EntityManager: так же работает и хранилище вне кучи
+            List<UUID> ids = new ArrayList<>(chunk.size());
+            for (Item item : repository.saveAll(items)) {
+                ids.add(item.getId());
+                // Слушатели с @TransactionalEventListener получат событие после коммита порции
+                eventPublisher.publishEvent(ItemChangedEvent.saved(item, true));
+            }
+            return new ChunkOutcome(ids, List.of());
+        });
+    }
+
+    public BulkResult updateItems(List<ItemRequest> requests) {
+        validate(requests, true);
+        return runInChunks("update", requests, chunk -> {
+            Map<UUID, Item> existing = repository.findAllById(chunk.stream().map(ItemRequest::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, item -> item));
+
+            List<UUID> ids = new ArrayList<>(chunk.size());
+            List<UUID> notFound = new ArrayList<>();
+            List<Item> updated = new ArrayList<>(chunk.size());
+            for (ItemRequest request : chunk) {
+                Item item = existing.get(request.getId());
+                if (item == null) {
+                    notFound.add(request.getId());
+                    continue;
+                }
+                item.setName(request.getName());
+                item.setDescription(request.getDescription());
+                ids.add(item.getId());
+                updated.add(item);
+            }
+            // flush до публикации событий, чтобы в них попал новый updatedAt
+            List<Item> saved = repository.saveAll(updated);
+            repository.flush();
+            saved.forEach(item -> eventPublisher.publishEvent(ItemChangedEvent.saved(item, false)));
+            return new ChunkOutcome(ids, notFound);
+        });
+    }
+
+    public BulkResult deleteItems(List<UUID> requestedIds) {
+        if (requestedIds == null || requestedIds.isEmpty()) {
+            throw new IllegalArgumentException("Список id пуст");
+        }
+        checkSize(requestedIds.size());
+        return runInChunks("delete", requestedIds, chunk -> {
+            List<UUID> ids = repository.findExistingIds(chunk);
+            if (!ids.isEmpty()) {
+                repository.deleteAllByIds(ids);
+            }
+            Set<UUID> deleted = new HashSet<>(ids);
+            ids.forEach(id -> eventPublisher.publishEvent(ItemChangedEvent.deleted(id)));
+            return new ChunkOutcome(ids, chunk.stream().filter(id -> !deleted.contains(id)).toList());
+        });
+    }
+
+    private <T> BulkResult runInChunks(String operation, List<T> requests, Function<List<T>, ChunkOutcome> work) {
+        List<UUID> ids = new ArrayList<>(requests.size());
+        List<UUID> notFound = new ArrayList<>();
+        List<BulkResult.ChunkTiming> timings = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int from = 0, index = 0; from < requests.size(); from += chunkSize, index++) {
+            List<T> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            long chunkStart = System.nanoTime();
+
+            ChunkOutcome outcome = inTransaction(() -> {
+                ChunkOutcome result = work.apply(chunk);
+                entityManager.flush();
+                entityManager.clear();
+                return result;
+            });
+
+            ids.addAll(outcome.ids());
+            notFound.addAll(outcome.notFound());
+            timings.add(new BulkResult.ChunkTiming(index, chunk.size(), millisSince(chunkStart)));
+        }
+
+        BulkResult result = new BulkResult(operation, requests.size(), ids.size(), ids, notFound,
+                timings, millisSince(start));
+        log.debug("Пакетная операция {}: {} строк за {} мс ({} строк/с)",
+                operation, result.getProcessed(), result.getTotalMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    private ChunkOutcome inTransaction(Supplier<ChunkOutcome> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private void validate(List<ItemRequest> requests, boolean requireId) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Список записей пуст");
+        }
+        checkSize(requests.size());
+
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ItemRequest request = requests.get(i);
+            if (requireId && request.getId() == null) {
+                errors.add("[" + i + "] id: обязателен");
+            }
+            for (String error : ItemFields.errors(request.getName(), request.getDescription())) {
+                errors.add("[" + i + "] " + error);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+    }
+
+    private void checkSize(int size) {
+        if (size > maxItems) {
+            throw new IllegalArgumentException("Не больше " + maxItems + " записей за запрос");
+        }
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private record ChunkOutcome(List<UUID> ids, List<UUID> notFound) {
+    }
+}
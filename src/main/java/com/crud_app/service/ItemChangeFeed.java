@@ -0,0 +1,146 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFeedEvent;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// ЛЕНТА ИЗМЕНЕНИЙ для подписчиков SSE: события после коммита получают номер и ложатся
+// в кольцевой буфер на buffer-size последних событий. Подписчик хранит только свой номер
+// и по сигналу дочитывает буфер после него - столько, сколько успевает отправить;
+// собственных потоков и очередей у подписчиков нет. Сигнал рассылает один поток ленты,
+// поэтому писатель после коммита только кладёт событие в буфер и не пишет в сокеты клиентов.
+// Номера начинаются с 1 при каждом запуске, поэтому в id события есть epoch - метка запуска.
+// Подписчик, отставший больше чем на буфер или с id другого запуска (экземпляра), получает reset
+@Service
+public class ItemChangeFeed {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ItemFeedEvent[] ring;
+    private long lastSeq;
+
+    private final Sinks.Many<Long> signals = Sinks.many().multicast().directBestEffort();
+    private final AtomicBoolean signalPending = new AtomicBoolean();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter resets;
+
+    public ItemChangeFeed(@Value("${app.feed.buffer-size:1024}") int bufferSize,
+                          ObjectProvider<MeterRegistry> registryProvider) {
+        this.ring = new ItemFeedEvent[Math.max(bufferSize, 1)];
+
+        MeterRegistry registry = registryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("items.feed.subscribers", signals, Sinks.Many::currentSubscriberCount)
+                .description("Open /items/changes streams")
+                .register(registry);
+        resets = Counter.builder("items.feed.resets")
+                .description("Subscribers that fell behind the buffer and were told to reload")
+                .register(registry);
+    }
+
+    // Изменения других экземпляров (из журнала) тоже: клиенты этого экземпляра их не видели
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        synchronized (this) {
+            long seq = ++lastSeq;
+            ring[index(seq)] = new ItemFeedEvent(epoch, seq, event.getType().name().toLowerCase(Locale.ROOT),
+                    event.getId(), row(event.getItem()));
+        }
+        // Один сигнал на пачку: пока поток ленты его не разослал, следующие события ждут вместе с ним
+        if (signalPending.compareAndSet(false, true)) {
+            fanOut.execute(this::signal);
+        }
+    }
+
+    // События после lastEventId, затем новые по мере появления; без lastEventId - только новые
+    public Flux<ItemFeedEvent> subscribe(String lastEventId) {
+        return Flux.defer(() -> {
+            long[] cursor = {lastEventId != null ? resumeSeq(lastEventId) : lastSeq()};
+            // Сначала подписка на сигналы, потом первое чтение: событие между ними не теряется.
+            // onBackpressureLatest: пока клиент занят, копится один сигнал, а не по сигналу на событие
+            return Flux.merge(signals.asFlux().onBackpressureLatest(), Flux.just(0L))
+                    .concatMapIterable(signal -> read(cursor), 1);
+        });
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    // Номер из id этого запуска; чужой или неразборчивый id - -1, на нём read() отдаст reset
+    private long resumeSeq(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+        signals.tryEmitComplete();
+    }
+
+    private void signal() {
+        // Сброс до рассылки: событие, пришедшее во время неё, запланирует следующий сигнал
+        signalPending.set(false);
+        signals.tryEmitNext(lastSeq());
+    }
+
+    private synchronized List<ItemFeedEvent> read(long[] cursor) {
+        if (cursor[0] == lastSeq) {
+            return List.of();
+        }
+        long oldest = Math.max(1, lastSeq - ring.length + 1);
+        if (cursor[0] < oldest - 1 || cursor[0] > lastSeq) {
+            cursor[0] = lastSeq;
+            resets.increment();
+            return List.of(ItemFeedEvent.reset(epoch, lastSeq));
+        }
+        List<ItemFeedEvent> events = new ArrayList<>((int) (lastSeq - cursor[0]));
+        for (long seq = cursor[0] + 1; seq <= lastSeq; seq++) {
+            events.add(ring[index(seq)]);
+        }
+        cursor[0] = lastSeq;
+        return events;
+    }
+
+    private int index(long seq) {
+        return (int) (seq % ring.length);
+    }
+
+    private static ItemRow row(Item item) {
+        return item == null ? null
+                : new ItemRow(item.getId(), item.getName(), item.getDescription(), item.getCreatedAt(), item.getUpdatedAt());
+    }
+}
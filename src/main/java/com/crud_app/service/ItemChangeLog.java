@@ -0,0 +1,278 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemChange;
+import com.crud_app.repository.ItemChangeRepository;
+import com.crud_app.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// ЖУРНАЛ ИЗМЕНЕНИЙ для нескольких экземпляров над одной базой, без брокера.
+// Запись: синхронный слушатель копит изменения транзакции и дописывает их в item_changes
+// одним батчем перед её коммитом - откат записи откатывает и строки журнала.
+// Чтение: поток каждого экземпляра раз в poll-interval дочитывает журнал после последнего seq
+// (диапазон по первичному ключу), пропускает свои строки, перечитывает затронутые записи
+// и публикует по ним ItemChangedEvent с remote = true - локальные кэши, счётчик, версия
+// и поисковый индекс обновляются теми же слушателями, что и после своей записи.
+// Номера identity выдаются при вставке, а видны строки после коммита, поэтому меньший номер
+// может появиться позже большего: пропущенные номера перечитываются до gap-timeout
+// (после отката номер так и остаётся пустым).
+// Одиночному экземпляру журнал не нужен: включается app.changelog.enabled (профиль multi-instance)
+@Slf4j
+@Service
+public class ItemChangeLog {
+
+    private static final Object PENDING_KEY = new Object();
+    // Пропуск длиннее - след отката большой порции, а не ждущие коммита транзакции
+    private static final int MAX_GAP = 1000;
+
+    private final ItemChangeRepository changeRepository;
+    private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final String instanceId;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration retention;
+
+    private final Timer lag;
+    private final Counter applied;
+
+    // Состояние читателя - только под блокировкой poll()
+    private long cursor = -1;
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long purgedAt;
+    private volatile long polledAt = System.nanoTime();
+
+    private Thread tailer;
+    private volatile boolean running;
+
+    public ItemChangeLog(ItemChangeRepository changeRepository,
+                         ItemRepository itemRepository,
+                         ApplicationEventPublisher eventPublisher,
+                         TransactionTemplate transactionTemplate,
+                         ObjectProvider<MeterRegistry> registryProvider,
+                         @Value("${app.changelog.enabled:false}") boolean enabled,
+                         @Value("${app.changelog.instance-id:}") String instanceId,
+                         @Value("${app.changelog.poll-interval:200ms}") Duration pollInterval,
+                         @Value("${app.changelog.batch-size:1000}") int batchSize,
+                         @Value("${app.changelog.gap-timeout:10s}") Duration gapTimeout,
+                         @Value("${app.changelog.retention:1h}") Duration retention) {
+        this.changeRepository = changeRepository;
+        this.itemRepository = itemRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.instanceId = instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+
+        MeterRegistry registry = registryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        lag = Timer.builder("items.changelog.lag")
+                .description("Time from a change on another instance to its caches being refreshed here")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        applied = Counter.builder("items.changelog.applied")
+                .description("Change-log entries of other instances applied to local caches")
+                .register(registry);
+        TimeGauge.builder("items.changelog.poll.age", this, TimeUnit.NANOSECONDS,
+                        changeLog -> changeLog.running ? System.nanoTime() - changeLog.polledAt : 0)
+                .description("Time since the last successful read of the change log")
+                .register(registry);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled || event.isRemote()) {
+            return;
+        }
+        ItemChange change = ItemChange.builder()
+                .itemId(event.getId())
+                .type(event.getType().name())
+                .origin(instanceId)
+                .build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            pending().add(change);
+        } else {
+            changeRepository.append(List.of(change));
+        }
+    }
+
+    // Изменения текущей транзакции: пишутся перед коммитом. Ошибка записи журнала
+    // откатывает и саму запись - иначе другие экземпляры о ней не узнают
+    private List<ItemChange> pending() {
+        @SuppressWarnings("unchecked")
+        List<ItemChange> changes = (List<ItemChange>) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (changes == null) {
+            List<ItemChange> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    changeRepository.append(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+
+    // Читать с текущего конца журнала: до старта кэши пусты, сбрасывать нечего
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || tailer != null) {
+            return;
+        }
+        Long last = changeRepository.findMaxSeq();
+        cursor = last != null ? last : 0;
+        polledAt = System.nanoTime();
+        purgedAt = polledAt;
+        running = true;
+        tailer = new Thread(this::run, "item-changelog-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+        log.info("Журнал изменений: экземпляр {}, чтение после seq {}", instanceId, cursor);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int read;
+            try {
+                read = poll();
+            } catch (RuntimeException e) {
+                log.warn("Журнал изменений: не удалось прочитать: {}", e.getMessage());
+                read = 0;
+            }
+            // Полная порция - журнал ещё не дочитан, следующая сразу
+            if (read < batchSize) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pollInterval.toNanos());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    // Одна порция журнала; возвращает число прочитанных строк
+    synchronized int poll() {
+        if (cursor < 0) {
+            return 0;
+        }
+        List<ItemChange> changes = new ArrayList<>(changeRepository.readAfter(cursor, batchSize));
+        changes.addAll(changeRepository.readSeqs(gaps.keySet()));
+        changes.sort(Comparator.comparing(ItemChange::getSeq));
+
+        long now = System.nanoTime();
+        Map<UUID, ItemChange> remote = new LinkedHashMap<>();
+        for (ItemChange change : changes) {
+            long seq = change.getSeq();
+            if (seq > cursor) {
+                for (long missing = Math.max(cursor + 1, seq - MAX_GAP); missing < seq; missing++) {
+                    gaps.put(missing, now + gapTimeout.toNanos());
+                }
+                cursor = seq;
+            } else {
+                gaps.remove(seq);
+            }
+            if (!instanceId.equals(change.getOrigin())) {
+                // Первое изменение записи в порции: по нему видно, была ли запись до порции
+                remote.putIfAbsent(change.getItemId(), change);
+            }
+        }
+        gaps.values().removeIf(deadline -> deadline < now);
+
+        if (!remote.isEmpty()) {
+            apply(remote);
+            LocalDateTime dbNow = changeRepository.now();
+            for (ItemChange change : changes) {
+                if (!instanceId.equals(change.getOrigin())) {
+                    lag.record(Duration.between(change.getChangedAt(), dbNow).abs());
+                    applied.increment();
+                }
+            }
+        }
+        purgeIfDue(now);
+        polledAt = System.nanoTime();
+        return changes.size();
+    }
+
+    // Записи перечитываются с основной базы (транзакция не только для чтения) в текущем
+    // состоянии: несколько изменений одной записи в порции - одно событие. Записи уже нет -
+    // событие удаления, в том числе если она создана и удалена между двумя чтениями
+    private void apply(Map<UUID, ItemChange> remote) {
+        List<Item> items = transactionTemplate.execute(status -> itemRepository.findAllById(remote.keySet()));
+        Map<UUID, Item> current = items == null ? Map.of() : items.stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        remote.forEach((id, first) -> {
+            Item item = current.get(id);
+            ItemChangedEvent event = item == null
+                    ? ItemChangedEvent.deleted(id)
+                    : ItemChangedEvent.saved(item, ItemChangedEvent.Type.CREATED.name().equals(first.getType()));
+            eventPublisher.publishEvent(event.withRemote(true));
+        });
+    }
+
+    // Старые строки удаляет каждый экземпляр; повторное удаление ничего не стоит
+    private void purgeIfDue(long now) {
+        if (now - purgedAt < TimeUnit.MINUTES.toNanos(1)) {
+            return;
+        }
+        purgedAt = now;
+        int deleted = changeRepository.deleteOlderThan(changeRepository.now().minus(retention));
+        if (deleted > 0) {
+            log.debug("Журнал изменений: удалено {} строк старше {}", deleted, retention);
+        }
+    }
+}
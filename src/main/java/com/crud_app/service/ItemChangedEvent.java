@@ -0,0 +1,30 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import lombok.Value;
+import lombok.With;
+
+import java.util.UUID;
+
+// Событие изменения записи; публикуется ItemService после save/delete.
+// remote - изменение другого экземпляра, прочитанное из журнала (ItemChangeLog): по нему
+// только сбрасываются и обновляются локальные кэши, записывающие слушатели его пропускают
+@Value
+public class ItemChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    Type type;
+    UUID id;
+    Item item;
+    @With
+    boolean remote;
+
+    public static ItemChangedEvent saved(Item item, boolean created) {
+        return new ItemChangedEvent(created ? Type.CREATED : Type.UPDATED, item.getId(), item, false);
+    }
+
+    public static ItemChangedEvent deleted(UUID id) {
+        return new ItemChangedEvent(Type.DELETED, id, null, false);
+    }
+}
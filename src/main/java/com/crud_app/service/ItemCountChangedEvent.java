@@ -0,0 +1,13 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFilter;
+
+// Фоновый пересчёт изменил число записей по фильтру (пустой фильтр - общий счётчик).
+// Итог уже отрисован в закэшированных страницах и закрыт ETag - их надо перестроить
+public record ItemCountChangedEvent(ItemFilter filter) {
+
+    // Показывает ли список с этим фильтром пересчитанное число
+    public boolean affects(ItemFilter listFilter) {
+        return filter.isEmpty() ? listFilter.isEmpty() : filter.equals(listFilter.normalized());
+    }
+}
@@ -0,0 +1,304 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.replica.ReplicaContext;
+import com.crud_app.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// ПОДСЧЁТ ЗАПИСЕЙ для пагинации без count(*) в запросе страницы:
+// общее число - счётчик, который ведётся по событиям записи и сверяется с БД в фоне;
+// число по фильтру - кэш, который после записи поправляется на ±1 или пересчитывается в фоне,
+// а до конца пересчёта отдаёт прежнее значение. Пока в таблице не меньше approximate-threshold
+// записей, новый фильтр по ключевому слову сразу получает оценку по триграммному индексу,
+// остальные фильтры - страницу без общего числа, а точное число считается в фоне. Число от
+// approximate-threshold и больше помечается приблизительным: оно живёт approximate-ttl и записями
+// не поправляется. Пересчёт, изменивший число, публикует ItemCountChangedEvent.
+// На потоке запроса count(*) бывает только по небольшой таблице и при первом обращении
+// к общему счётчику после старта. Число, посчитанное на отстающей реплике, хранится как
+// устаревшее и пересчитывается при следующем обращении
+@Slf4j
+@Service
+public class ItemCountService {
+
+    private static final Object TOTAL = new Object();
+
+    private final ItemRepository repository;
+    private final ItemSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<Total> total = new AtomicReference<>(Total.UNKNOWN);
+    private final Map<ItemFilter, CachedCount> filterCounts = new ConcurrentHashMap<>();
+    // Растёт при каждой записи: подсчёт, во время которого была запись, сразу считается устаревшим
+    private final AtomicLong writes = new AtomicLong();
+    // Ключи (фильтр или TOTAL), пересчёт которых уже в очереди
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final Executor refresher;
+
+    @Value("${app.count.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${app.count.approximate-threshold:100000}")
+    private long approximateThreshold;
+
+    @Value("${app.count.approximate-ttl:10m}")
+    private Duration approximateTtl;
+
+    // Сверка счётчика с БД: изменения в обход приложения (SQL в консоли H2) событий не публикуют
+    @Value("${app.count.reconcile-interval:5m}")
+    private Duration reconcileInterval;
+
+    @Value("${app.count.max-filters:1000}")
+    private int maxFilters;
+
+    @Autowired
+    public ItemCountService(ItemRepository repository, ItemSearchIndex searchIndex,
+                            ApplicationEventPublisher eventPublisher) {
+        this(repository, searchIndex, eventPublisher, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-count-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    // Пересчёты в фоне - на refresher (в тестах - очередь, которую тест выполняет сам)
+    ItemCountService(ItemRepository repository, ItemSearchIndex searchIndex,
+                     ApplicationEventPublisher eventPublisher, Executor refresher) {
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.refresher = refresher;
+    }
+
+    public long totalCount() {
+        Total current = total.get();
+        if (current.value < 0) {
+            long laggingReads = ReplicaContext.laggingReads();
+            long value = repository.count();
+            // Если во время подсчёта была запись, счётчик останется неизвестным до следующего обращения
+            long syncedAt = ReplicaContext.laggingReads() == laggingReads ? System.currentTimeMillis() : 0;
+            total.compareAndSet(current, new Total(value, syncedAt));
+            return value;
+        }
+        if (System.currentTimeMillis() - current.syncedAt > reconcileInterval.toMillis()) {
+            refresh(TOTAL, this::reconcileTotal);
+        }
+        return current.value;
+    }
+
+    // Без условий - общий счётчик, иначе count(*) тем же фильтром, что и страница
+    public Count count(ItemFilter filter) {
+        if (filter.isEmpty()) {
+            return new Count(totalCount(), false);
+        }
+        ItemFilter key = filter.normalized();
+        CachedCount cached = filterCounts.get(key);
+        if (cached == null) {
+            Count estimate = estimate(filter);
+            if (estimate == null) {
+                return load(key, filter).count;
+            }
+            cached = new CachedCount(estimate, 0);
+            store(key, cached);
+        }
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            refresh(key, () -> load(key, filter));
+        }
+        return cached.count;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        // Изменение полей число записей не меняет: фильтр, которому запись перестала или начала
+        // подходить, догонит пересчёт по ttl
+        if (event.getType() == ItemChangedEvent.Type.UPDATED) {
+            return;
+        }
+        writes.incrementAndGet();
+        total.updateAndGet(current -> current.after(event));
+        filterCounts.replaceAll((filter, cached) -> cached.after(filter, event));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refresher instanceof ExecutorService worker) {
+            worker.shutdownNow();
+        }
+    }
+
+    // Оценка только для большой таблицы: на небольшой точный подсчёт дёшев, а оценка сбивала бы
+    // пагинацию. null - оценки нет, считать сразу; Count.UNKNOWN - страница без общего числа
+    private Count estimate(ItemFilter filter) {
+        if (totalCount() < approximateThreshold) {
+            return null;
+        }
+        if (filter.hasKeyword() && !filter.hasDateRange()
+                && searchIndex.isReady() && searchIndex.supports(filter.keyword())) {
+            return new Count(searchIndex.search(filter.keyword(), 0, 0).getTotal(), true);
+        }
+        // Доли строк под диапазон дат или короткое слово не знаем: общий счётчик как оценка
+        // завышал бы число страниц во много раз
+        return Count.UNKNOWN;
+    }
+
+    private CachedCount load(ItemFilter key, ItemFilter filter) {
+        long started = writes.get();
+        long laggingReads = ReplicaContext.laggingReads();
+        long value = repository.countRows(filter);
+        boolean approximate = value >= approximateThreshold;
+        Duration lifetime = approximate ? approximateTtl : ttl;
+        // Запись во время подсчёта могла попасть в value, а могла и нет - тогда пересчитать ещё раз
+        boolean current = writes.get() == started && ReplicaContext.laggingReads() == laggingReads;
+        long expiresAt = current ? System.currentTimeMillis() + lifetime.toMillis() : 0;
+        CachedCount loaded = new CachedCount(new Count(value, approximate), expiresAt);
+        CachedCount previous = filterCounts.get(key);
+        store(key, loaded);
+        if (previous != null && !previous.count.sameAs(loaded.count)) {
+            eventPublisher.publishEvent(new ItemCountChangedEvent(key));
+        }
+        return loaded;
+    }
+
+    private void store(ItemFilter key, CachedCount cached) {
+        if (filterCounts.size() >= maxFilters && !filterCounts.containsKey(key)) {
+            // Вытесняется значение, устаревшее раньше остальных
+            filterCounts.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                    .ifPresent(oldest -> filterCounts.remove(oldest.getKey(), oldest.getValue()));
+        }
+        filterCounts.put(key, cached);
+    }
+
+    // Сверка не затирает приращения от записей, пришедших во время count(*): если счётчик
+    // за это время изменился или подсчёт шёл на отстающей реплике, значение отбрасывается
+    // и сверка повторится при следующем обращении
+    private void reconcileTotal() {
+        Total before = total.get();
+        long laggingReads = ReplicaContext.laggingReads();
+        long value = repository.count();
+        if (ReplicaContext.laggingReads() != laggingReads) {
+            log.debug("Сверка счётчика записей отложена: реплика отстаёт");
+        } else if (!total.compareAndSet(before, new Total(value, System.currentTimeMillis()))) {
+            log.debug("Сверка счётчика записей отложена: во время подсчёта были изменения");
+        } else if (value != before.value) {
+            eventPublisher.publishEvent(new ItemCountChangedEvent(ItemFilter.NONE));
+        }
+    }
+
+    private void refresh(Object key, Runnable task) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось пересчитать число записей: {}", e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    // "~1.2M", "~350K" для приблизительных значений, иначе число как есть
+    public static String format(long value, boolean approximate) {
+        if (!approximate) {
+            return String.valueOf(value);
+        }
+        if (value >= 1_000_000) {
+            return String.format(Locale.ROOT, "~%.1fM", value / 1_000_000.0);
+        }
+        if (value >= 1_000) {
+            return String.format(Locale.ROOT, "~%dK", value / 1_000);
+        }
+        return "~" + value;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Count {
+        // Число ещё считается: страница показывается без общего числа
+        public static final Count UNKNOWN = new Count(-1, true);
+
+        private final long value;
+        private final boolean approximate;
+
+        public boolean isKnown() {
+            return value >= 0;
+        }
+
+        boolean sameAs(Count other) {
+            return value == other.value && approximate == other.approximate;
+        }
+    }
+
+    // Каждое изменение - новый объект: сверка по compareAndSet видит любую запись между чтением и подсчётом
+    @RequiredArgsConstructor
+    private static class Total {
+        static final Total UNKNOWN = new Total(-1, 0);
+
+        private final long value;
+        private final long syncedAt;
+
+        Total after(ItemChangedEvent event) {
+            if (value < 0) {
+                return new Total(-1, 0);
+            }
+            if (event.isRemote()) {
+                // Из журнала не видно, учтена ли уже запись: прежнее значение до фоновой сверки
+                return new Total(value, 0);
+            }
+            return switch (event.getType()) {
+                case CREATED -> new Total(value + 1, syncedAt);
+                case DELETED -> new Total(Math.max(0, value - 1), syncedAt);
+                default -> new Total(value, syncedAt);
+            };
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class CachedCount {
+        private final Count count;
+        private final long expiresAt;
+
+        // Новая запись, подходящая под фильтр, - +1 к точному значению. Об удалённой записи
+        // не известно, подходила ли она: значение остаётся, но пересчитывается в фоне
+        CachedCount after(ItemFilter filter, ItemChangedEvent event) {
+            if (count.isApproximate()) {
+                return this;
+            }
+            if (!event.isRemote() && event.getType() == ItemChangedEvent.Type.CREATED && event.getItem() != null) {
+                return filter.matches(event.getItem())
+                        ? new CachedCount(new Count(count.getValue() + 1, false), expiresAt)
+                        : this;
+            }
+            return new CachedCount(count, 0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemRow;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+// Непрозрачный курсор keyset-пагинации: поле и направление сортировки,
+// значение поля и id последней показанной записи
+@Value
+public class ItemCursor {
+
+    private static final String SEPARATOR = "\n";
+    private static final String NULL_VALUE = "N";
+    private static final String PRESENT_VALUE = "V";
+
+    String sortField;
+    String direction;
+    Object sortValue;
+    UUID id;
+
+    public static ItemCursor of(ItemRow row, String sortField, String direction) {
+        Object value = switch (sortField) {
+            case "name" -> row.name();
+            case "description" -> row.description();
+            case "updatedAt" -> row.updatedAt();
+            default -> row.createdAt();
+        };
+        return new ItemCursor(sortField, direction, value, row.id());
+    }
+
+    public boolean matches(String sortField, String direction) {
+        return this.sortField.equals(sortField) && this.direction.equalsIgnoreCase(direction);
+    }
+
+    public String encode() {
+        String value = sortValue == null ? NULL_VALUE : PRESENT_VALUE + sortValue;
+        String raw = String.join(SEPARATOR, sortField, direction, id.toString(), value);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Повреждённый или чужой токен не ошибка - просто начинаем с первой страницы
+    public static Optional<ItemCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            String field = parts[0];
+            String value = parts[3];
+
+            Object sortValue = null;
+            if (value.startsWith(PRESENT_VALUE)) {
+                String text = value.substring(PRESENT_VALUE.length());
+                sortValue = field.equals("createdAt") || field.equals("updatedAt")
+                        ? LocalDateTime.parse(text)
+                        : text;
+            }
+            return Optional.of(new ItemCursor(field, parts[1], sortValue, UUID.fromString(parts[2])));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// ПОТОКОВЫЙ ЭКСПОРТ: строки идут из курсора БД прямо в ответ, в памяти не больше одной порции
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemExportService {
+
+    private static final int CLEAR_INTERVAL = ItemRepository.FETCH_SIZE;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ItemRepository repository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Тот же фильтр, что у списка (ItemRepository.findRows), порядок - новые сначала
+    @Transactional(readOnly = true)
+    public long export(ItemFileFormat format, ItemFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        try (Stream<Item> items = repository.stream(filter)) {
+            JsonGenerator json = null;
+            if (format == ItemFileFormat.CSV) {
+                writer.write("id,name,description,createdAt,updatedAt\n");
+            } else {
+                json = JSON_FACTORY.createGenerator(writer);
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.setRootValueSeparator(new SerializedString("\n"));
+            }
+
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                if (json != null) {
+                    writeJson(json, item);
+                } else {
+                    writeCsv(writer, item);
+                }
+
+                // Отпускаем прочитанные сущности и отдаём клиенту накопленное
+                if (++rows % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    if (json != null) {
+                        json.flush();
+                    }
+                    writer.flush();
+                }
+            }
+
+            if (json != null) {
+                json.flush();
+                if (rows > 0) {
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+        log.debug("Экспорт {}: {} строк", format, rows);
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, Item item) throws IOException {
+        writer.write(String.valueOf(item.getId()));
+        writer.write(',');
+        writer.write(csvField(item.getName()));
+        writer.write(',');
+        writer.write(csvField(item.getDescription()));
+        writer.write(',');
+        writer.write(item.getCreatedAt() != null ? item.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(item.getUpdatedAt() != null ? item.getUpdatedAt().toString() : "");
+        writer.write('\n');
+    }
+
+    // RFC 4180: поле в кавычках, если в нём есть разделитель, кавычка или перевод строки
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeJson(JsonGenerator json, Item item) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", String.valueOf(item.getId()));
+        json.writeStringField("name", item.getName());
+        json.writeStringField("description", item.getDescription());
+        json.writeStringField("createdAt", item.getCreatedAt() != null ? item.getCreatedAt().toString() : null);
+        json.writeStringField("updatedAt", item.getUpdatedAt() != null ? item.getUpdatedAt().toString() : null);
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,28 @@
+package com.crud_app.service;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+// Форматы файлов для экспорта и импорта записей
+@Getter
+public enum ItemFileFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ItemFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public static ItemFileFormat of(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Неизвестный формат файла: " + value);
+        }
+    }
+}
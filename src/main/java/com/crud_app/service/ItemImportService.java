@@ -0,0 +1,259 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ImportReport;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemFields;
+import com.crud_app.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ПОТОКОВЫЙ ИМПОРТ: поток запроса разбирает файл и складывает порции в ограниченную
+// очередь, отдельный поток пишет их в БД транзакциями. Когда запись отстаёт, очередь
+// заполняется и разбор (а с ним и чтение тела запроса) ждёт
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportService {
+
+    // Маркер конца файла в очереди
+    private static final List<Item> END_OF_INPUT = new ArrayList<>(0);
+
+    private final ItemRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger writerThreads = new AtomicInteger();
+    private final ExecutorService writers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "item-import-writer-" + writerThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${app.import.max-rejected-report:1000}")
+    private int maxRejectedReport;
+
+    @Value("${app.import.progress-interval:100000}")
+    private long progressInterval;
+
+    @Value("${app.import.history:20}")
+    private int history;
+
+    public ImportReport importItems(ItemFileFormat format, InputStream body) throws IOException {
+        ImportJob job = register(format);
+        BlockingQueue<List<Item>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> writer = writers.submit(() -> {
+            writeBatches(queue, job);
+            return null;
+        });
+
+        try {
+            ImportRecordReader reader = ImportRecordReader.of(format,
+                    new InputStreamReader(body, StandardCharsets.UTF_8));
+            List<Item> batch = new ArrayList<>(batchSize);
+            ImportRecordReader.Row row;
+            while ((row = reader.next()) != null) {
+                job.linesRead.set(reader.linesRead());
+                String error = row.error() != null
+                        ? row.error()
+                        : String.join("; ", ItemFields.errors(row.name(), row.description()));
+                if (!error.isEmpty()) {
+                    job.reject(row.line(), error, maxRejectedReport);
+                    continue;
+                }
+
+                batch.add(Item.builder().name(row.name()).description(row.description()).build());
+                job.rowsAccepted.incrementAndGet();
+                if (batch.size() == batchSize) {
+                    enqueue(queue, batch, writer);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            job.linesRead.set(reader.linesRead());
+            if (!batch.isEmpty()) {
+                enqueue(queue, batch, writer);
+            }
+            enqueue(queue, END_OF_INPUT, writer);
+            writer.get();
+            job.finish(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, writer, e);
+            throw new IllegalStateException("Импорт прерван", e);
+        } catch (ExecutionException e) {
+            fail(job, writer, e.getCause());
+            throw new IllegalStateException("Ошибка записи в БД: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException | RuntimeException e) {
+            fail(job, writer, e);
+            throw e;
+        }
+
+        ImportReport report = job.report();
+        log.info("Импорт {} завершён: {} строк записано, {} отклонено, {} строк/с",
+                job.id, report.getRowsWritten(), report.getRowsRejected(), report.getRowsPerSecond());
+        return report;
+    }
+
+    public List<ImportReport> getImports() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((ImportJob job) -> job.startedAt).reversed())
+                .map(ImportJob::report)
+                .toList();
+    }
+
+    public Optional<ImportReport> getImport(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(ImportJob::report);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    // Ждём места в очереди, пока писатель жив; если он упал - его ошибка всплывёт из get()
+    private void enqueue(BlockingQueue<List<Item>> queue, List<Item> batch, Future<?> writer)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new IllegalStateException("Поток записи импорта остановился");
+            }
+        }
+    }
+
+    private void writeBatches(BlockingQueue<List<Item>> queue, ImportJob job) throws InterruptedException {
+        while (true) {
+            List<Item> batch = queue.take();
+            if (batch == END_OF_INPUT) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAll(batch);
+                batch.forEach(item -> eventPublisher.publishEvent(ItemChangedEvent.saved(item, true)));
+            });
+
+            job.batches.incrementAndGet();
+            long written = job.rowsWritten.addAndGet(batch.size());
+            if (written / progressInterval != (written - batch.size()) / progressInterval) {
+                log.info("Импорт {}: записано {} строк, {} строк/с", job.id, written, job.report().getRowsPerSecond());
+            }
+        }
+    }
+
+    private void fail(ImportJob job, Future<?> writer, Throwable error) {
+        writer.cancel(true);
+        job.finish(error);
+        log.warn("Импорт {} остановлен на строке {}: {}", job.id, job.linesRead.get(), error.getMessage());
+    }
+
+    // Храним последние history импортов, чтобы их прогресс и итог можно было запросить
+    private ImportJob register(ItemFileFormat format) {
+        ImportJob job = new ImportJob(UUID.randomUUID(), format);
+        jobs.put(job.id, job);
+        jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing((ImportJob finished) -> finished.startedAt).reversed())
+                .skip(history)
+                .forEach(finished -> jobs.remove(finished.id));
+        return job;
+    }
+
+    private static class ImportJob {
+        private final UUID id;
+        private final ItemFileFormat format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong linesRead = new AtomicLong();
+        private final AtomicLong rowsAccepted = new AtomicLong();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final List<ImportReport.RejectedRow> rejected = new ArrayList<>();
+        private volatile ImportReport.Status status = ImportReport.Status.RUNNING;
+        private volatile String error;
+        private volatile long finishedNanos;
+
+        ImportJob(UUID id, ItemFileFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void reject(long line, String reason, int maxReported) {
+            rowsRejected.incrementAndGet();
+            synchronized (rejected) {
+                if (rejected.size() < maxReported) {
+                    rejected.add(new ImportReport.RejectedRow(line, reason));
+                }
+            }
+        }
+
+        void finish(Throwable failure) {
+            finishedNanos = System.nanoTime();
+            if (failure != null) {
+                error = failure.getMessage();
+                status = ImportReport.Status.FAILED;
+            } else {
+                status = ImportReport.Status.COMPLETED;
+            }
+        }
+
+        boolean isFinished() {
+            return status != ImportReport.Status.RUNNING;
+        }
+
+        ImportReport report() {
+            long end = isFinished() ? finishedNanos : System.nanoTime();
+            List<ImportReport.RejectedRow> rejectedCopy;
+            synchronized (rejected) {
+                rejectedCopy = List.copyOf(rejected);
+            }
+            return ImportReport.builder()
+                    .id(id)
+                    .format(format.getExtension())
+                    .status(status)
+                    .startedAt(startedAt)
+                    .linesRead(linesRead.get())
+                    .rowsAccepted(rowsAccepted.get())
+                    .rowsWritten(rowsWritten.get())
+                    .rowsRejected(rowsRejected.get())
+                    .batches(batches.get())
+                    .rejected(rejectedCopy)
+                    .elapsedMillis((end - startedNanos) / 1_000_000)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.PurgeReport;
+import com.crud_app.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ФОНОВАЯ ОЧИСТКА ПО УСЛОВИЮ: записи удаляются порциями по chunk-size, каждая порция -
+// SELECT id ... LIMIT n и DELETE ... WHERE id IN (...) в своей короткой транзакции.
+// Между порциями - пауза, чтобы чтения списка и другие записи не ждали блокировок.
+// Очистки выполняются по одной в отдельном потоке; прогресс и скорость - в PurgeReport
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemPurgeService {
+
+    private final ItemRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<UUID, PurgeJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.purge.pause:10ms}")
+    private Duration pause;
+
+    @Value("${app.purge.progress-interval:100000}")
+    private long progressInterval;
+
+    @Value("${app.purge.history:20}")
+    private int history;
+
+    public PurgeReport startPurge(LocalDate createdBefore, String keyword) {
+        String trimmed = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        if (createdBefore == null && trimmed == null) {
+            throw new IllegalArgumentException("Укажите createdBefore и/или keyword");
+        }
+        PurgeJob job = register(createdBefore, trimmed);
+        worker.submit(() -> run(job));
+        log.info("Очистка {} поставлена в очередь: createdBefore={}, keyword={}", job.id, createdBefore, trimmed);
+        return job.report();
+    }
+
+    public List<PurgeReport> getPurges() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((PurgeJob job) -> job.queuedAt).reversed())
+                .map(PurgeJob::report)
+                .toList();
+    }
+
+    public Optional<PurgeReport> getPurge(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(PurgeJob::report);
+    }
+
+    // Остановка после текущей порции; уже удалённое не возвращается
+    public Optional<PurgeReport> cancelPurge(UUID id) {
+        PurgeJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        return Optional.of(job.report());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        worker.shutdownNow();
+    }
+
+    private void run(PurgeJob job) {
+        job.start();
+        LocalDateTime before = job.createdBefore != null ? job.createdBefore.atStartOfDay() : null;
+        UUID afterId = null;
+        try {
+            while (!job.cancelled) {
+                long chunkStart = System.nanoTime();
+                UUID cursor = afterId;
+                List<UUID> ids = transactionTemplate.execute(status -> {
+                    List<UUID> chunk = repository.findIdsToPurge(before, job.keyword, cursor, chunkSize);
+                    if (!chunk.isEmpty()) {
+                        repository.deleteAllByIds(chunk);
+                        chunk.forEach(id -> eventPublisher.publishEvent(ItemChangedEvent.deleted(id)));
+                    }
+                    return chunk;
+                });
+                if (ids.isEmpty()) {
+                    break;
+                }
+                job.chunkDone(ids.size(), (System.nanoTime() - chunkStart) / 1_000_000);
+                afterId = ids.get(ids.size() - 1);
+
+                long deleted = job.rowsDeleted.get();
+                if (deleted / progressInterval != (deleted - ids.size()) / progressInterval) {
+                    log.info("Очистка {}: удалено {} строк, {} строк/с", job.id, deleted, job.report().getRowsPerSecond());
+                }
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                if (!pause.isZero()) {
+                    Thread.sleep(pause.toMillis());
+                }
+            }
+            job.finish(job.cancelled ? PurgeReport.Status.CANCELLED : PurgeReport.Status.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(PurgeReport.Status.CANCELLED, null);
+        } catch (RuntimeException e) {
+            job.finish(PurgeReport.Status.FAILED, e.getMessage());
+            log.warn("Очистка {} остановлена после {} строк: {}", job.id, job.rowsDeleted.get(), e.getMessage());
+            return;
+        }
+        PurgeReport report = job.report();
+        log.info("Очистка {} {}: удалено {} строк за {} порций, {} строк/с, самая долгая порция {} мс",
+                job.id, report.getStatus(), report.getRowsDeleted(), report.getChunks(),
+                report.getRowsPerSecond(), report.getMaxChunkMillis());
+    }
+
+    // Храним последние history очисток, чтобы их прогресс и итог можно было запросить
+    private PurgeJob register(LocalDate createdBefore, String keyword) {
+        PurgeJob job = new PurgeJob(UUID.randomUUID(), createdBefore, keyword);
+        jobs.put(job.id, job);
+        jobs.values().stream()
+                .filter(PurgeJob::isFinished)
+                .sorted(Comparator.comparing((PurgeJob finished) -> finished.queuedAt).reversed())
+                .skip(history)
+                .forEach(finished -> jobs.remove(finished.id));
+        return job;
+    }
+
+    private static class PurgeJob {
+        private final UUID id;
+        private final LocalDate createdBefore;
+        private final String keyword;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private final AtomicLong rowsDeleted = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final AtomicLong maxChunkMillis = new AtomicLong();
+        private volatile PurgeReport.Status status = PurgeReport.Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile boolean cancelled;
+        private volatile String error;
+
+        PurgeJob(UUID id, LocalDate createdBefore, String keyword) {
+            this.id = id;
+            this.createdBefore = createdBefore;
+            this.keyword = keyword;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            startedNanos = System.nanoTime();
+            status = PurgeReport.Status.RUNNING;
+        }
+
+        void chunkDone(int rows, long millis) {
+            rowsDeleted.addAndGet(rows);
+            chunks.incrementAndGet();
+            maxChunkMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        void finish(PurgeReport.Status finalStatus, String failure) {
+            finishedNanos = System.nanoTime();
+            error = failure;
+            status = finalStatus;
+        }
+
+        boolean isFinished() {
+            return status != PurgeReport.Status.QUEUED && status != PurgeReport.Status.RUNNING;
+        }
+
+        PurgeReport report() {
+            long elapsed = startedAt == null ? 0 : (isFinished() ? finishedNanos : System.nanoTime()) - startedNanos;
+            return PurgeReport.builder()
+                    .id(id)
+                    .status(status)
+                    .createdBefore(createdBefore)
+                    .keyword(keyword)
+                    .startedAt(startedAt)
+                    .rowsDeleted(rowsDeleted.get())
+                    .chunks(chunks.get())
+                    .maxChunkMillis(maxChunkMillis.get())
+                    .elapsedMillis(elapsed / 1_000_000)
+                    .error(error)
+                    .build();
+        }
+    }
+}
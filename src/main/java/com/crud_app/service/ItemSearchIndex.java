@@ -0,0 +1,330 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// ТРИГРАММНЫЙ ИНДЕКС по name и description: подстрока ищется пересечением
+// списков документов для каждой триграммы запроса с последующей проверкой и ранжированием.
+// Запросы короче трёх символов индекс не обслуживает - для них остаётся поиск в БД
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    public static final int GRAM_LENGTH = 3;
+    private static final int BUILD_BATCH = 1000;
+    private static final int COMPACT_THRESHOLD = 10_000;
+    private static final int INTERSECT_LISTS = 3;
+
+    private static final Comparator<Hit> RANKING = Comparator
+            .comparingInt(Hit::score).reversed()
+            .thenComparing(Hit::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Hit::id);
+
+    private final ItemRepository repository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings index = new Postings();
+    // События, пришедшие во время rebuild(): применяются к новому индексу перед подменой
+    private List<ItemChangedEvent> pending;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    // Новый индекс строится без блокировки: поиск до подмены обслуживает прежний
+    // (или БД, пока индекса ещё нет). Под записью - только перенос изменений за время
+    // построения и подмена ссылки
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        withWriteLock(() -> pending = new ArrayList<>());
+        try {
+            Postings built = new Postings();
+            List<Item> batch = repository.seek("createdAt", true, null, null, BUILD_BATCH);
+            while (!batch.isEmpty()) {
+                batch.forEach(built::add);
+                Item last = batch.get(batch.size() - 1);
+                batch = repository.seek("createdAt", true, last.getCreatedAt(), last.getId(), BUILD_BATCH);
+            }
+
+            withWriteLock(() -> {
+                pending.forEach(built::apply);
+                built.compactIfSparse();
+                index = built;
+                ready = true;
+            });
+            log.info("Поисковый индекс построен: {} записей, {} триграмм за {} мс",
+                    built.documentIds.size(), built.postings.size(), System.currentTimeMillis() - start);
+        } finally {
+            withWriteLock(() -> pending = null);
+        }
+    }
+
+    // После коммита транзакции (или сразу, если её нет), чтобы не индексировать откатившиеся изменения.
+    // Раньше кэшей страниц, чтобы перечитанная после инвалидации страница уже видела изменение
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        withWriteLock(() -> {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (ready) {
+                index.apply(event);
+                index.compactIfSparse();
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean supports(String keyword) {
+        return keyword != null && keyword.length() >= GRAM_LENGTH;
+    }
+
+    // Страница результатов по релевантности: id записей и общее число совпадений
+    public Hits search(String keyword, int offset, int limit) {
+        String query = normalize(keyword);
+
+        lock.readLock().lock();
+        try {
+            Set<String> queryGrams = grams(query);
+            if (queryGrams.isEmpty()) {
+                return new Hits(List.of(), 0);
+            }
+            List<IntList> lists = new ArrayList<>();
+            for (String gram : queryGrams) {
+                IntList list = index.postings.get(gram);
+                if (list == null) {
+                    return new Hits(List.of(), 0);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+
+            IntList smallest = lists.get(0);
+            PriorityQueue<Hit> top = new PriorityQueue<>(RANKING.reversed());
+            long total = 0;
+
+            for (int i = 0; i < smallest.size(); i++) {
+                int documentId = smallest.get(i);
+                Document document = index.documents.get(documentId);
+                if (document == null || !containsInAll(lists, documentId)) {
+                    continue;
+                }
+                int score = document.score(query);
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                top.add(new Hit(document.id, score, document.createdAt));
+                if (top.size() > offset + limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<UUID> ids = ranked.stream()
+                    .skip(offset)
+                    .map(Hit::id)
+                    .toList();
+            return new Hits(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Достаточно нескольких самых коротких списков: итоговое совпадение всё равно
+    // проверяется по тексту в Document.score()
+    private static boolean containsInAll(List<IntList> lists, int documentId) {
+        for (int i = 1; i < Math.min(lists.size(), INTERSECT_LISTS); i++) {
+            if (!lists.get(i).contains(documentId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text != null) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hits {
+        private final List<UUID> ids;
+        private final long total;
+    }
+
+    private record Hit(UUID id, int score, LocalDateTime createdAt) {
+    }
+
+    private record Document(UUID id, String name, String description, LocalDateTime createdAt) {
+
+        // Совпадение в названии весит больше, чем в описании;
+        // точное совпадение > начало строки > начало слова > любая подстрока
+        int score(String query) {
+            return fieldScore(name, query) * 10 + fieldScore(description, query);
+        }
+
+        private static int fieldScore(String text, String query) {
+            if (text == null) {
+                return 0;
+            }
+            int position = text.indexOf(query);
+            if (position < 0) {
+                return 0;
+            }
+            if (text.length() == query.length()) {
+                return 8;
+            }
+            if (position == 0) {
+                return 4;
+            }
+            while (position > 0) {
+                if (!Character.isLetterOrDigit(text.charAt(position - 1))) {
+                    return 2;
+                }
+                position = text.indexOf(query, position + 1);
+            }
+            return 1;
+        }
+    }
+
+    // Списки документов по триграммам. Номер документа - позиция в documents,
+    // поэтому списки растут по возрастанию номеров
+    private static class Postings {
+        private final Map<String, IntList> postings = new HashMap<>();
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<UUID, Integer> documentIds = new HashMap<>();
+        private int removed;
+
+        void apply(ItemChangedEvent event) {
+            remove(event.getId());
+            if (event.getType() != ItemChangedEvent.Type.DELETED) {
+                add(event.getItem());
+            }
+        }
+
+        void add(Item item) {
+            int documentId = documents.size();
+            Document document = new Document(item.getId(),
+                    normalize(item.getName()), normalize(item.getDescription()), item.getCreatedAt());
+            documents.add(document);
+            documentIds.put(item.getId(), documentId);
+
+            Set<String> grams = grams(document.name);
+            grams.addAll(grams(document.description));
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, key -> new IntList()).add(documentId);
+            }
+        }
+
+        // Удалённый документ только помечается; списки чистятся при compactIfSparse()
+        void remove(UUID id) {
+            Integer documentId = documentIds.remove(id);
+            if (documentId != null) {
+                documents.set(documentId, null);
+                removed++;
+            }
+        }
+
+        void compactIfSparse() {
+            if (removed <= COMPACT_THRESHOLD || removed <= documents.size() / 2) {
+                return;
+            }
+            List<Document> live = documents.stream().filter(document -> document != null).toList();
+            postings.clear();
+            documents.clear();
+            documentIds.clear();
+            removed = 0;
+            for (Document document : live) {
+                Item item = new Item();
+                item.setId(document.id);
+                item.setName(document.name);
+                item.setDescription(document.description);
+                item.setCreatedAt(document.createdAt);
+                add(item);
+            }
+        }
+    }
+
+    // Отсортированный по возрастанию список номеров документов
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
@@ -1,66 +1,184 @@
 package com.crud_app.service;
 
+import com.crud_app.cache.ItemCache;
+import com.crud_app.cache.ItemCache.PageKey;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemRow;
 import com.crud_app.model.Item;
+import com.crud_app.model.ItemFields;
 import com.crud_app.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemService {
 
     private final ItemRepository repository;
+    private final ItemSearchIndex searchIndex;
+    private final ItemCountService countService;
+    private final ItemCache itemCache;
+    private final ItemWriteBehind writeBehind;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     public List<Item> getAllItems() {
         return repository.findAll();
     }
 
-    public Page<Item> getAllItemsPaginated(int page, int size, String sortBy, String direction) {
-        Sort sort = direction.equalsIgnoreCase("desc")
-                ? Sort.by(sortBy).descending()
-                : Sort.by(sortBy).ascending();
+    // СТРАНИЦЫ СПИСКА - строки ItemRow, а не сущности: таблице нужны только пять полей,
+    // а управляемые Item с версией и записью в контексте персистентности ей ни к чему.
+    // Ключевое слово, диапазон дат и сортировка - один запрос ItemRepository.findRows.
+    // sortBy == null - по релевантности: только ключевое слово, пока триграммный индекс готов
+    public Page<ItemRow> findItems(ItemFilter filter, int page, int size, String sortBy, String direction) {
+        return itemCache.getPage(PageKey.of(filter, page, size, sortBy, direction),
+                () -> loadItemsPage(filter, page, size, sortBy, direction));
+    }
+
+    private Page<ItemRow> loadItemsPage(ItemFilter filter, int page, int size, String sortBy, String direction) {
+        if (sortBy == null && filter.hasKeyword() && !filter.hasDateRange()
+                && searchIndex.isReady() && searchIndex.supports(filter.keyword())) {
+            ItemSearchIndex.Hits hits = searchIndex.search(filter.keyword(), page * size, size);
+            return new CountedPage<>(findAllInOrder(hits.getIds()), PageRequest.of(page, size), hits.getTotal(), false);
+        }
 
+        Sort sort = sortBy == null
+                ? Sort.unsorted()
+                : direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return repository.findAll(pageable);
+        return new CountedPage<>(repository.findRows(filter, pageable), countService.count(filter));
     }
 
-    public Page<Item> searchItems(String keyword, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return repository.searchByKeyword(keyword, pageable);
+    // KEYSET-ПАГИНАЦИЯ: переход по курсору after/before вместо OFFSET, без count(*)
+    public KeysetPage<ItemRow> getItemsKeyset(String after, String before, int size,
+                                              String sortBy, String direction) {
+        boolean ascending = direction.equalsIgnoreCase("asc");
+        String dir = ascending ? "asc" : "desc";
+
+        ItemCursor beforeCursor = ItemCursor.decode(before)
+                .filter(cursor -> cursor.matches(sortBy, dir))
+                .orElse(null);
+        if (beforeCursor != null) {
+            // Идём в обратном направлении от курсора и разворачиваем результат
+            List<ItemRow> rows = new ArrayList<>(repository.seekRows(sortBy, !ascending,
+                    beforeCursor.getSortValue(), beforeCursor.getId(), size + 1));
+            boolean hasPrevious = rows.size() > size;
+            if (hasPrevious) {
+                rows = rows.subList(0, size);
+            }
+            Collections.reverse(rows);
+            return toKeysetPage(rows, size, sortBy, dir, hasPrevious, true);
+        }
+
+        ItemCursor afterCursor = ItemCursor.decode(after)
+                .filter(cursor -> cursor.matches(sortBy, dir))
+                .orElse(null);
+        List<ItemRow> rows = afterCursor != null
+                ? repository.seekRows(sortBy, ascending, afterCursor.getSortValue(), afterCursor.getId(), size + 1)
+                : repository.seekRows(sortBy, ascending, null, null, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        return toKeysetPage(rows, size, sortBy, dir, afterCursor != null, hasNext);
     }
 
-    public Optional<Item> getItemById(UUID id) {
-        return repository.findById(id);
+    private KeysetPage<ItemRow> toKeysetPage(List<ItemRow> rows, int size, String sortBy, String dir,
+                                             boolean hasPrevious, boolean hasNext) {
+        String prevCursor = hasPrevious && !rows.isEmpty()
+                ? ItemCursor.of(rows.get(0), sortBy, dir).encode() : null;
+        String nextCursor = hasNext && !rows.isEmpty()
+                ? ItemCursor.of(rows.get(rows.size() - 1), sortBy, dir).encode() : null;
+        return new KeysetPage<>(rows, size, nextCursor, prevCursor);
     }
 
-    public Item saveItem(Item item) {
-        return repository.save(item);
+    private List<ItemRow> findAllInOrder(List<UUID> ids) {
+        Map<UUID, ItemRow> byId = repository.findRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemRow::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
-    public void deleteItem(UUID id) {
-        repository.deleteById(id);
+    public Optional<Item> getItemById(UUID id) {
+        return itemCache.getItem(id, () -> repository.findById(id));
     }
 
-    public Page<Item> findByCreatedAtAfter(String dateFrom, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    // При включённой групповой записи - через очередь ItemWriteBehind: транзакцию открывает
+    // она, и вызов не держит слот БД, пока ждёт свою группу.
+    // Запись и событие - в одной транзакции: счётчики ItemStatsService коммитятся вместе с ней
+    public Item saveItem(Item item) {
+        if (writeBehind.isEnabled()) {
+            return writeBehind.save(item);
+        }
+        boolean created = item.getId() == null;
+        return transactionTemplate.execute(status -> {
+            Item saved = repository.save(item);
+            eventPublisher.publishEvent(ItemChangedEvent.saved(saved, created));
+            return saved;
+        });
+    }
 
-        try {
-            LocalDate date = LocalDate.parse(dateFrom);
-            LocalDateTime startOfDay = date.atStartOfDay();
+    // ЧАСТИЧНОЕ ОБНОВЛЕНИЕ: один UPDATE переданных полей с проверкой версии вместо SELECT + merge
+    // всей сущности. Пусто - записи нет; версия не совпала - ItemVersionConflictException
+    public Optional<Item> patchItem(UUID id, ItemPatch patch) {
+        validate(patch);
+        return transactionTemplate.execute(status -> {
+            Optional<Item> updated = repository.patch(id, patch.getName(), patch.isDescriptionSet(),
+                    patch.getDescription(), patch.getVersion(), LocalDateTime.now());
+            if (updated.isEmpty()) {
+                if (patch.getVersion() != null) {
+                    repository.findVersionById(id).ifPresent(current -> {
+                        throw new ItemVersionConflictException(id, patch.getVersion(), current);
+                    });
+                }
+                return Optional.empty();
+            }
+            eventPublisher.publishEvent(ItemChangedEvent.saved(updated.get(), false));
+            return updated;
+        });
+    }
 
-            return repository.findByCreatedAtAfter(startOfDay, pageable);
-        } catch (Exception e) {
-            return repository.findAll(pageable);
+    private static void validate(ItemPatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Нет полей для изменения: name, description");
         }
+        // Отсутствующее name не меняется, поэтому и не проверяется
+        List<String> errors = new ArrayList<>(2);
+        if (patch.getName() != null) {
+            ItemFields.addIfPresent(errors, ItemFields.nameError(patch.getName()));
+        }
+        ItemFields.addIfPresent(errors, ItemFields.descriptionError(patch.getDescription()));
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+    }
+
+    // Один DELETE без SELECT; событие - только если запись действительно была
+    public void deleteItem(UUID id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (repository.deleteItemById(id) > 0) {
+                eventPublisher.publishEvent(ItemChangedEvent.deleted(id));
+            }
+        });
     }
-}
\ No newline at end of file
+}
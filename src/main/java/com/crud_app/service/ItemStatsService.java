@@ -0,0 +1,332 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemStats;
+import com.crud_app.dto.ItemStatsPoint;
+import com.crud_app.dto.StatsRebuildReport;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemStatsBucket;
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.repository.ItemStatsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// СТАТИСТИКА ПО ИНТЕРВАЛАМ: счётчики созданных, изменённых и удалённых записей за час, день
+// и неделю в таблице item_stats. Слушатель вызывается синхронно, в транзакции записи: приращения
+// копятся до её коммита и прибавляются одним MERGE на интервал (порция bulk - те же три строки),
+// откат записи откатывает и их. Гистограмма читает только строки интервалов - O(интервалов),
+// а не O(записей). Пересчёт по таблице items - фоновой задачей, по неделе за транзакцию
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemStatsService {
+
+    private static final Object PENDING_KEY = new Object();
+
+    private final ItemStatsRepository statsRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, RebuildJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-stats-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.stats.enabled:true}")
+    private boolean enabled;
+
+    // Строк на интервал: поток пишет в строку threadId % stripes
+    @Value("${app.stats.stripes:8}")
+    private int stripes;
+
+    @Value("${app.stats.max-buckets:5000}")
+    private int maxBuckets;
+
+    @Value("${app.stats.history:20}")
+    private int history;
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        // Изменение другого экземпляра он сам и посчитал
+        if (!enabled || event.isRemote()) {
+            return;
+        }
+        Item item = event.getItem();
+        LocalDateTime time = event.getType() == ItemChangedEvent.Type.CREATED && item.getCreatedAt() != null
+                ? item.getCreatedAt()
+                : LocalDateTime.now();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            pending().add(event.getType(), time);
+        } else {
+            Deltas deltas = new Deltas(slot());
+            deltas.add(event.getType(), time);
+            transactionTemplate.executeWithoutResult(status -> write(deltas.buckets()));
+        }
+    }
+
+    // Приращения текущей транзакции: создаются при первом событии, пишутся перед коммитом
+    private Deltas pending() {
+        Deltas deltas = (Deltas) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (deltas == null) {
+            Deltas created = new Deltas(slot());
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(created.buckets());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    // Сбой счётчиков не должен отменять саму запись: статистику поправит пересчёт
+    private void write(Collection<ItemStatsBucket> buckets) {
+        try {
+            statsRepository.increment(buckets);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось обновить статистику ({} строк): {}", buckets.size(), e.getMessage());
+        }
+    }
+
+    private int slot() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+
+    // ГИСТОГРАММА за [from, to): начало выравнивается на начало интервала, пустые интервалы - нулями
+    public ItemStats histogram(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.truncate(from);
+        if (!start.isBefore(to)) {
+            throw new IllegalArgumentException("Пустой диапазон: " + from + " - " + to);
+        }
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = granularity.next(bucket)) {
+            if (starts.size() == maxBuckets) {
+                throw new IllegalArgumentException("Слишком много интервалов: больше " + maxBuckets
+                        + ", сузьте диапазон или укрупните интервал");
+            }
+            starts.add(bucket);
+        }
+
+        Map<LocalDateTime, ItemStatsPoint> stored = statsRepository.histogram(granularity, start, to).stream()
+                .collect(Collectors.toMap(ItemStatsPoint::start, Function.identity()));
+        List<ItemStatsPoint> buckets = starts.stream()
+                .map(bucket -> stored.getOrDefault(bucket, ItemStatsPoint.empty(bucket)))
+                .toList();
+        return ItemStats.builder()
+                .granularity(granularity)
+                .from(start)
+                .to(to)
+                .buckets(buckets)
+                .created(buckets.stream().mapToLong(ItemStatsPoint::created).sum())
+                .updated(buckets.stream().mapToLong(ItemStatsPoint::updated).sum())
+                .deleted(buckets.stream().mapToLong(ItemStatsPoint::deleted).sum())
+                .build();
+    }
+
+    // Первый запуск на существующей базе: таблица статистики пуста, а записи есть
+    // (демо-данные и ItemSeeder пишут в обход ItemService)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (enabled && statsRepository.count() == 0 && itemRepository.count() > 0) {
+            log.info("Таблица статистики пуста - запускаем пересчёт");
+            startRebuild(null, null);
+        }
+    }
+
+    // ПЕРЕСЧЁТ за [from, to] по дням включительно; без границ - от первой записи до сегодня.
+    // Восстанавливаются created и последнее изменение каждой записи; удаления и более ранние
+    // изменения в items не хранятся, поэтому deleted остаётся как был
+    public StatsRebuildReport startRebuild(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from;
+        if (start == null) {
+            LocalDateTime first = itemRepository.findMinCreatedAt();
+            start = first != null ? first.toLocalDate() : end;
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Дата \"с\" позже даты \"по\": " + start + " > " + end);
+        }
+        RebuildJob job = register(start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                end.plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY)));
+        worker.submit(() -> run(job));
+        log.info("Пересчёт статистики {} поставлен в очередь: {} - {}", job.id, job.from, job.to);
+        return job.report();
+    }
+
+    public List<StatsRebuildReport> getRebuilds() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((RebuildJob job) -> job.queuedAt).reversed())
+                .map(RebuildJob::report)
+                .toList();
+    }
+
+    public Optional<StatsRebuildReport> getRebuild(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(RebuildJob::report);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(RebuildJob job) {
+        job.start();
+        try {
+            for (LocalDate week = job.from; week.isBefore(job.to) && !Thread.currentThread().isInterrupted();
+                 week = week.plusWeeks(1)) {
+                LocalDateTime weekStart = week.atStartOfDay();
+                Long rows = transactionTemplate.execute(status ->
+                        statsRepository.rebuild(weekStart, weekStart.plusWeeks(1)));
+                job.weekDone(rows != null ? rows : 0);
+            }
+            job.finish(StatsRebuildReport.Status.COMPLETED, null);
+        } catch (RuntimeException e) {
+            job.finish(StatsRebuildReport.Status.FAILED, e.getMessage());
+            log.warn("Пересчёт статистики {} остановлен после {} недель: {}", job.id, job.weeksDone.get(), e.getMessage());
+            return;
+        }
+        StatsRebuildReport report = job.report();
+        log.info("Пересчёт статистики {}: {} недель, {} записей за {} мс",
+                job.id, report.getWeeksDone(), report.getRowsCounted(), report.getElapsedMillis());
+    }
+
+    private RebuildJob register(LocalDate from, LocalDate to) {
+        RebuildJob job = new RebuildJob(UUID.randomUUID(), from, to);
+        jobs.put(job.id, job);
+        jobs.values().stream()
+                .filter(RebuildJob::isFinished)
+                .sorted(Comparator.comparing((RebuildJob finished) -> finished.queuedAt).reversed())
+                .skip(history)
+                .forEach(finished -> jobs.remove(finished.id));
+        return job;
+    }
+
+    // Приращения одной транзакции по ключу строки (интервал, slot)
+    private static class Deltas {
+        private final int slot;
+        private final Map<ItemStatsBucket.Key, ItemStatsBucket> buckets = new HashMap<>();
+
+        Deltas(int slot) {
+            this.slot = slot;
+        }
+
+        void add(ItemChangedEvent.Type type, LocalDateTime time) {
+            for (Granularity granularity : Granularity.values()) {
+                ItemStatsBucket bucket = buckets.computeIfAbsent(
+                        new ItemStatsBucket.Key(granularity, granularity.truncate(time), slot),
+                        key -> ItemStatsBucket.builder()
+                                .granularity(key.getGranularity())
+                                .bucketStart(key.getBucketStart())
+                                .slot(key.getSlot())
+                                .build());
+                switch (type) {
+                    case CREATED -> bucket.setCreated(bucket.getCreated() + 1);
+                    case UPDATED -> bucket.setUpdated(bucket.getUpdated() + 1);
+                    case DELETED -> bucket.setDeleted(bucket.getDeleted() + 1);
+                }
+            }
+        }
+
+        Collection<ItemStatsBucket> buckets() {
+            return buckets.values();
+        }
+    }
+
+    private static class RebuildJob {
+        private final UUID id;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final long weeks;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private final AtomicLong weeksDone = new AtomicLong();
+        private final AtomicLong rowsCounted = new AtomicLong();
+        private volatile StatsRebuildReport.Status status = StatsRebuildReport.Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile String error;
+
+        RebuildJob(UUID id, LocalDate from, LocalDate to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.weeks = ChronoUnit.WEEKS.between(from, to);
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            startedNanos = System.nanoTime();
+            status = StatsRebuildReport.Status.RUNNING;
+        }
+
+        void weekDone(long rows) {
+            weeksDone.incrementAndGet();
+            rowsCounted.addAndGet(rows);
+        }
+
+        void finish(StatsRebuildReport.Status finalStatus, String failure) {
+            finishedNanos = System.nanoTime();
+            error = failure;
+            status = finalStatus;
+        }
+
+        boolean isFinished() {
+            return status != StatsRebuildReport.Status.QUEUED && status != StatsRebuildReport.Status.RUNNING;
+        }
+
+        StatsRebuildReport report() {
+            long elapsed = startedAt == null ? 0 : (isFinished() ? finishedNanos : System.nanoTime()) - startedNanos;
+            return StatsRebuildReport.builder()
+                    .id(id)
+                    .status(status)
+                    .from(from)
+                    .to(to.minusDays(1))
+                    .startedAt(startedAt)
+                    .weeks(weeks)
+                    .weeksDone(weeksDone.get())
+                    .rowsCounted(rowsCounted.get())
+                    .elapsedMillis(elapsed / 1_000_000)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.crud_app.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+// Запись изменили после того, как клиент её прочитал: ожидаемая версия не совпала с текущей
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ItemVersionConflictException extends RuntimeException {
+
+    private final UUID id;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    public ItemVersionConflictException(UUID id, long expectedVersion, long currentVersion) {
+        super("Запись " + id + " изменена: ожидалась версия " + expectedVersion + ", текущая " + currentVersion);
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+}
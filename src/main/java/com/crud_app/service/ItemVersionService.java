@@ -0,0 +1,70 @@
+package com.crud_app.service;
+
+import com.crud_app.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+// ВЕРСИЯ ТАБЛИЦЫ для условных GET (ETag / Last-Modified): номер, который растёт на каждое
+// событие записи, и время последнего изменения. Из БД читается один раз - MAX(updated_at)
+// при первом обращении, дальше версия ведётся в памяти.
+// Префикс ETag - время запуска, чтобы после перезапуска старые ETag клиентов не совпали
+@Service
+@RequiredArgsConstructor
+public class ItemVersionService {
+
+    private final ItemRepository repository;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReference<Stamp> stamp = new AtomicReference<>();
+
+    public Stamp current() {
+        Stamp current = stamp.get();
+        if (current == null) {
+            LocalDateTime maxUpdatedAt = repository.findMaxUpdatedAt();
+            long lastModified = maxUpdatedAt != null
+                    ? maxUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : System.currentTimeMillis();
+            stamp.compareAndSet(null, stamp(0, lastModified));
+            current = stamp.get();
+        }
+        return current;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        bump();
+    }
+
+    // Фоновый пересчёт меняет число записей на странице без записи в таблицу
+    @EventListener
+    public void onCountChanged(ItemCountChangedEvent event) {
+        bump();
+    }
+
+    private void bump() {
+        long now = System.currentTimeMillis();
+        stamp.updateAndGet(previous -> previous == null
+                ? stamp(1, now)
+                : stamp(previous.getVersion() + 1, Math.max(previous.getLastModified(), now)));
+    }
+
+    private Stamp stamp(long version, long lastModified) {
+        return new Stamp(version, lastModified, "\"" + epoch + "-" + version + "\"");
+    }
+
+    @Value
+    public static class Stamp {
+        long version;
+        long lastModified;
+        String etag;
+    }
+}
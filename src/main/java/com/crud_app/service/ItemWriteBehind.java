@@ -0,0 +1,279 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// ГРУППОВАЯ ЗАПИСЬ: saveItem кладёт запись в ограниченную очередь, единственный поток-писатель
+// собирает группу (до max-size записей или пока не истечёт max-wait от первой) и сохраняет её
+// одной транзакцией с JDBC-батчем - один коммит на группу вместо коммита на запрос.
+// durability=sync: вызывающий ждёт коммита своей группы и получает сохранённую запись
+// (и позицию коммита для read-your-writes, см. CommitPosition);
+// async: возвращается сразу после постановки в очередь, ошибка записи только логируется.
+// Если группа не сохранилась, записи повторяются по одной, чтобы ошибка одной не роняла остальные
+@Slf4j
+@Service
+public class ItemWriteBehind {
+
+    public enum Durability { SYNC, ASYNC }
+
+    private final ItemRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CommitPosition commitPosition;
+
+    private final boolean enabled;
+    private final Durability durability;
+    private final int maxGroupSize;
+    private final long maxWaitNanos;
+    private final long offerTimeoutNanos;
+    private final BlockingQueue<PendingWrite> queue;
+
+    private final DistributionSummary groupSizes;
+    private final Timer commitTimer;
+    private final Timer writeLatency;
+    private final Counter failed;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ItemWriteBehind(ItemRepository repository,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${app.write.group.enabled:false}") boolean enabled,
+                           @Value("${app.write.group.durability:sync}") String durability,
+                           @Value("${app.write.group.max-size:100}") int maxGroupSize,
+                           @Value("${app.write.group.max-wait:2ms}") Duration maxWait,
+                           @Value("${app.write.group.queue-capacity:10000}") int queueCapacity,
+                           @Value("${app.write.group.offer-timeout:1s}") Duration offerTimeout,
+                           ObjectProvider<MeterRegistry> registryProvider,
+                           ObjectProvider<CommitPosition> commitPositionProvider) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.commitPosition = commitPositionProvider.getIfAvailable();
+        this.enabled = enabled;
+        this.durability = Durability.valueOf(durability.trim().toUpperCase(Locale.ROOT));
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        MeterRegistry registry = registryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("items.write.queue", queue, BlockingQueue::size)
+                .description("Writes waiting for the group-commit writer")
+                .register(registry);
+        groupSizes = DistributionSummary.builder("items.write.group.size")
+                .description("Writes committed in one transaction")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        commitTimer = Timer.builder("items.write.group.commit")
+                .description("Time to save and commit one group")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        writeLatency = Timer.builder("items.write.latency")
+                .description("Time from enqueue to commit of a single write")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        failed = Counter.builder("items.write.failed").register(registry);
+        rejected = Counter.builder("items.write.rejected").register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("item-write-behind").daemon().start(this::runWriter);
+        log.info("Групповая запись включена: {}, группа до {} записей, окно {} мкс",
+                durability, maxGroupSize, TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+    }
+
+    // Остаток очереди дописывается до остановки
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public Item save(Item item) {
+        PendingWrite write = new PendingWrite(item, item.getId() == null);
+        try {
+            if (!queue.offer(write, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new WriteQueueFullException("Очередь записи заполнена: " + queue.size() + " записей");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteQueueFullException("Ожидание места в очереди записи прервано");
+        }
+
+        if (durability == Durability.ASYNC) {
+            return item;
+        }
+        Committed committed;
+        try {
+            committed = write.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание записи прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        if (commitPosition != null) {
+            commitPosition.written(committed.position());
+        }
+        return committed.item();
+    }
+
+    private void runWriter() {
+        List<PendingWrite> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxGroupSize) {
+                    if (queue.drainTo(group, maxGroupSize - group.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                flush(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Записи группы уже завершены в flush; поток-писатель не должен умирать
+                log.error("Ошибка потока групповой записи", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> group) {
+        long start = System.nanoTime();
+        try {
+            List<Item> saved = transactionTemplate.execute(status -> saveAll(group));
+            long position = position();
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            groupSizes.record(group.size());
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).complete(saved.get(i), position);
+            }
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).fail(e);
+                return;
+            }
+            log.warn("Группа из {} записей не сохранилась ({}), повтор по одной", group.size(), e.getMessage());
+            for (PendingWrite write : group) {
+                // persist в откатившейся транзакции уже выдал id - новая запись снова без id
+                if (write.created) {
+                    write.item.setId(null);
+                }
+                try {
+                    Item saved = transactionTemplate.execute(status -> saveAll(List.of(write)).get(0));
+                    write.complete(saved, position());
+                    groupSizes.record(1);
+                } catch (RuntimeException single) {
+                    write.fail(single);
+                }
+            }
+        }
+    }
+
+    // Слушатели коммита уже отработали: позиция не меньше позиции любой записи группы
+    private long position() {
+        return commitPosition != null ? commitPosition.current() : 0;
+    }
+
+    // Все слушатели событий работают на потоке-писателе: @EventListener (ItemStatsService, ItemChangeLog) -
+    // сразу, внутри транзакции группы, @TransactionalEventListener - после её коммита, но до того, как
+    // вызывающие получат результат, поэтому кэши к этому моменту уже сброшены. Побочные эффекты запроса
+    // (ReplicaContext и cookie read-your-writes) выполняет save на потоке вызывающего
+    private List<Item> saveAll(List<PendingWrite> group) {
+        List<Item> saved = new ArrayList<>(group.size());
+        for (PendingWrite write : group) {
+            Item item = repository.save(write.item);
+            saved.add(item);
+            eventPublisher.publishEvent(ItemChangedEvent.saved(item, write.created));
+        }
+        return saved;
+    }
+
+    private class PendingWrite {
+        private final Item item;
+        private final boolean created;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Committed> result = new CompletableFuture<>();
+
+        PendingWrite(Item item, boolean created) {
+            this.item = item;
+            this.created = created;
+        }
+
+        void complete(Item saved, long position) {
+            writeLatency.record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+            result.complete(new Committed(saved, position));
+        }
+
+        void fail(RuntimeException error) {
+            failed.increment();
+            if (durability == Durability.ASYNC) {
+                log.error("Асинхронная запись {} не сохранена: {}", item.getName(), error.getMessage());
+            }
+            result.completeExceptionally(error);
+        }
+    }
+
+    private record Committed(Item item, long position) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.crud_app.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+// Страница keyset-пагинации: без общего количества записей, только курсоры соседних страниц
+@Getter
+@RequiredArgsConstructor
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return prevCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
@@ -1,7 +1,10 @@
 package com.crud_app;
 
+import com.crud_app.dto.ItemPatch;
 import com.crud_app.model.Item;
 import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemVersionConflictException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -21,6 +24,9 @@ class CrudAppApplicationTests {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private ItemService itemService;
+
     @Test
     void contextLoads() {
         // Проверка, что контекст Spring загружается успешно
@@ -129,4 +135,19 @@ class CrudAppApplicationTests {
             System.out.println("Warning: Found both items. Check time precision settings.");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConcurrentPatchesWithSameVersionDetectLostUpdate() {
+        Item saved = itemRepository.save(Item.builder().name("Original").build());
+
+        Item first = itemService.patchItem(saved.getId(), ItemPatch.of("First", null, saved.getVersion())).orElseThrow();
+        assertThrows(ItemVersionConflictException.class,
+                () -> itemService.patchItem(saved.getId(), ItemPatch.of("Second", null, saved.getVersion())));
+
+        Item stored = itemRepository.findById(saved.getId()).orElseThrow();
+        assertEquals("First", stored.getName());
+        assertEquals(first.getVersion(), stored.getVersion());
+        assertEquals(saved.getVersion() + 1, stored.getVersion());
+        assertNotNull(stored.getUpdatedAt());
+    }
+}
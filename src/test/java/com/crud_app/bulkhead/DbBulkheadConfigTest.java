@@ -0,0 +1,86 @@
+package com.crud_app.bulkhead;
+
+import com.crud_app.repository.ItemRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.db.bulkhead.max-concurrent=1",
+        "app.db.bulkhead.queue-timeout=5s",
+        "app.changelog.enabled=false"
+})
+@ActiveProfiles("test")
+class DbBulkheadConfigTest {
+
+    @Autowired
+    private DbBulkhead bulkhead;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Test
+    void transaction_ShouldHoldSlot_AndRepositoryCallsInsideShouldNotTakeAnother() {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(1, bulkhead.getActive());
+            itemRepository.count();
+            assertEquals(1, bulkhead.getActive());
+        });
+
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    void repositoryCall_ShouldWaitForSlot_WithoutHoldingConnection() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.count();
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> waiting = executor.submit(() -> itemRepository.count());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bulkhead.getQueued() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(1, bulkhead.getQueued());
+            assertEquals(1, dataSource.getHikariPoolMXBean().getActiveConnections());
+
+            release.countDown();
+            holder.join();
+            assertTrue(waiting.get(5, TimeUnit.SECONDS) >= 0);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertEquals(0, bulkhead.getActive());
+    }
+}
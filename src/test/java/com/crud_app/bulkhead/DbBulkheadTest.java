@@ -0,0 +1,208 @@
+package com.crud_app.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbBulkheadTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void call_ShouldLimitConcurrentCalls() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(2, 100, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    return bulkhead.call(() -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(20);
+                        running.decrementAndGet();
+                        return null;
+                    });
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(12, registry.get("db.bulkhead.wait").timer().count());
+    }
+
+    @Test
+    void call_ShouldRejectAfterQueueTimeout() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(1, 100, Duration.ofMillis(50));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdSlot(bulkhead, holding, release);
+
+        assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "late"));
+
+        release.countDown();
+        holder.join();
+        assertEquals(1, registry.get("db.bulkhead.rejected").tag("reason", "timeout").counter().count());
+        assertEquals(0, bulkhead.getQueued());
+        assertEquals("free", bulkhead.call(() -> "free"));
+    }
+
+    @Test
+    void call_ShouldRejectImmediately_WhenQueueIsFull() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(1, 0, Duration.ofSeconds(5));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = holdSlot(bulkhead, holding, release);
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "queued"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        release.countDown();
+        holder.join();
+        assertEquals(1, registry.get("db.bulkhead.rejected").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void call_ShouldNotTakeSecondSlot_ForNestedCall() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(1, 0, Duration.ofMillis(10));
+
+        String result = bulkhead.call(() -> bulkhead.call(() -> "nested"));
+
+        assertEquals("nested", result);
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    void call_ShouldPassThrough_WhenDisabled() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(0, 0, Duration.ZERO);
+
+        assertFalse(bulkhead.isEnabled());
+        assertEquals("direct", bulkhead.call(() -> "direct"));
+    }
+
+    @Test
+    void call_ShouldReleaseSlot_WhenCallFails() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(1, 0, Duration.ofMillis(10));
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException("db error");
+        }));
+
+        assertEquals(0, bulkhead.getActive());
+        assertEquals("ok", bulkhead.call(() -> "ok"));
+    }
+
+    @Test
+    void enterAndExit_ShouldHoldOneSlot_UntilOutermostExit() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(1, 0, Duration.ofMillis(10));
+
+        bulkhead.enter();
+        bulkhead.enter();
+        assertEquals(1, bulkhead.getActive());
+        assertEquals("nested", bulkhead.call(() -> "nested"));
+
+        bulkhead.exit();
+        assertEquals(1, bulkhead.getActive());
+        bulkhead.exit();
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    void enterStreaming_ShouldRejectImmediately_WhenStreamingSlotsAreTaken() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(3, 100, Duration.ofSeconds(5), 1);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread streamer = new Thread(() -> {
+            bulkhead.enterStreaming();
+            try {
+                holding.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                bulkhead.exitStreaming();
+            }
+        });
+        streamer.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, bulkhead::enterStreaming);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        // Обычным вызовам остаются свободные слоты
+        assertEquals("free", bulkhead.call(() -> "free"));
+        assertEquals(1, bulkhead.getStreaming());
+        assertEquals(1, bulkhead.getActive());
+
+        release.countDown();
+        streamer.join();
+        assertEquals(0, bulkhead.getStreaming());
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(1, registry.get("db.bulkhead.rejected").tag("reason", "streaming_full").counter().count());
+    }
+
+    @Test
+    void enterStreaming_ShouldCoverNestedTransaction_WithOneSlot() throws Throwable {
+        DbBulkhead bulkhead = bulkhead(1, 0, Duration.ofMillis(10), 1);
+
+        bulkhead.enterStreaming();
+        assertEquals("nested", bulkhead.call(() -> "nested"));
+        assertEquals(1, bulkhead.getActive());
+        bulkhead.exitStreaming();
+
+        assertEquals(0, bulkhead.getActive());
+        assertEquals(0, bulkhead.getStreaming());
+    }
+
+    private Thread holdSlot(DbBulkhead bulkhead, CountDownLatch holding, CountDownLatch release)
+            throws InterruptedException {
+        Thread holder = new Thread(() -> {
+            try {
+                bulkhead.call(() -> {
+                    holding.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        return holder;
+    }
+
+    private DbBulkhead bulkhead(int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        return bulkhead(maxConcurrent, maxQueued, queueTimeout, 2);
+    }
+
+    private DbBulkhead bulkhead(int maxConcurrent, int maxQueued, Duration queueTimeout, int maxStreaming) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("registry", registry));
+        return new DbBulkhead(maxConcurrent, maxQueued, queueTimeout, maxStreaming,
+                beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+}
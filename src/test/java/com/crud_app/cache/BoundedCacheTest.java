@@ -0,0 +1,89 @@
+package com.crud_app.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void testReadThroughCountsHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", () -> "A" + loads.incrementAndGet());
+        String cached = cache.get("a", () -> "A" + loads.incrementAndGet());
+
+        assertEquals("A1", cached);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(0.5, cache.stats().getHitRate());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedOverMaxSize() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 60_000);
+
+        cache.get("a", () -> "A");
+        cache.get("b", () -> "B");
+        cache.get("a", () -> "A");
+        cache.get("c", () -> "C");
+
+        assertTrue(cache.peek("a").isPresent());
+        assertTrue(cache.peek("b").isEmpty());
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 1);
+
+        cache.get("a", () -> "old");
+        Thread.sleep(5);
+
+        assertEquals("new", cache.get("a", () -> "new"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void testInvalidate() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 60_000);
+        cache.get("a", () -> "A");
+        cache.get("b", () -> "B");
+
+        cache.invalidate("a");
+        cache.invalidateIf((key, value) -> value.equals("B"));
+
+        assertEquals(0, cache.stats().getSize());
+        assertEquals(2, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void testValueLoadedDuringInvalidationIsNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 60_000);
+
+        String loaded = cache.get("a", () -> {
+            cache.invalidate("a");
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertTrue(cache.peek("a").isEmpty());
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", () -> "A" + loads.incrementAndGet());
+        cache.get("a", () -> "A" + loads.incrementAndGet());
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().getSize());
+    }
+}
@@ -0,0 +1,198 @@
+package com.crud_app.cache;
+
+import com.crud_app.cache.ItemCache.PageKey;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.replica.ReplicaContext;
+import com.crud_app.service.ItemChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCacheTest {
+
+    private ItemCache itemCache;
+
+    private Item item1;
+    private Item item2;
+
+    @BeforeEach
+    void setUp() {
+        itemCache = new ItemCache(100, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), 3);
+
+        item1 = Item.builder().id(UUID.randomUUID()).name("Молоко")
+                .createdAt(LocalDateTime.of(2024, 5, 1, 10, 0)).build();
+        item2 = Item.builder().id(UUID.randomUUID()).name("Хлеб")
+                .createdAt(LocalDateTime.of(2024, 6, 1, 10, 0)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaContext.clear();
+    }
+
+    @Test
+    void testItemCachedUntilUpdated() {
+        itemCache.getItem(item1.getId(), () -> Optional.of(item1));
+        assertEquals("Молоко", itemCache.getItem(item1.getId(), Optional::empty).orElseThrow().getName());
+
+        itemCache.onItemChanged(ItemChangedEvent.saved(item1, false));
+
+        assertTrue(itemCache.getItem(item1.getId(), Optional::empty).isEmpty());
+    }
+
+    @Test
+    void testCallerChangesDoNotReachCachedItem() {
+        Item loaded = itemCache.getItem(item1.getId(), () -> Optional.of(item1)).orElseThrow();
+        loaded.setName("Изменено формой");
+        item1.setName("Изменено сущностью");
+
+        Item cached = itemCache.getItem(item1.getId(), Optional::empty).orElseThrow();
+        cached.setId(null);
+
+        Item again = itemCache.getItem(item1.getId(), Optional::empty).orElseThrow();
+        assertNotSame(loaded, again);
+        assertEquals("Молоко", again.getName());
+        assertNotNull(again.getId());
+    }
+
+    @Test
+    void testLaggingReplicaReadsAreNotCached() {
+        itemCache.getItem(item1.getId(), () -> {
+            ReplicaContext.laggingRead();
+            return Optional.of(item1);
+        });
+        PageKey key = PageKey.list(0, 10, "createdAt", "desc");
+        itemCache.getPage(key, () -> {
+            ReplicaContext.laggingRead();
+            return new PageImpl<>(List.of(new ItemRow(item1.getId(), item1.getName(), null,
+                    item1.getCreatedAt(), null)));
+        });
+
+        assertEquals(0, itemCache.itemStats().getSize());
+        assertEquals(0, itemCache.pageStats().getSize());
+    }
+
+    @Test
+    void testReadYourWritesBypassesCache() {
+        itemCache.getItem(item1.getId(), () -> Optional.of(item1));
+        ReplicaContext.requirePosition(42);
+
+        Item renamed = item1.toBuilder().name("Кефир").build();
+        assertEquals("Кефир", itemCache.getItem(item1.getId(), () -> Optional.of(renamed)).orElseThrow().getName());
+        assertEquals(1, itemCache.itemStats().getSize());
+        assertEquals(0, itemCache.pageStats().getSize());
+    }
+
+    @Test
+    void testDeepPagesAreNotCached() {
+        cachePage(PageKey.list(3, 10, "createdAt", "desc"), item1);
+
+        assertEquals(0, itemCache.pageStats().getSize());
+    }
+
+    @Test
+    void testCreateInvalidatesMatchingListsOnly() {
+        PageKey list = PageKey.list(0, 10, "createdAt", "desc");
+        PageKey milkSearch = PageKey.of(ItemFilter.keyword("молоко"), 0, 10, null, null);
+        PageKey breadSearch = PageKey.of(ItemFilter.keyword("хлеб"), 0, 10, null, null);
+        PageKey lateDate = PageKey.of(ItemFilter.parse(null, null, "2024-05-15", null), 0, 10, "createdAt", "desc");
+        cachePage(list, item2);
+        cachePage(milkSearch, item1);
+        cachePage(breadSearch, item2);
+        cachePage(lateDate, item2);
+
+        Item newMilk = Item.builder().id(UUID.randomUUID()).name("Молоко 2")
+                .createdAt(LocalDateTime.of(2024, 5, 2, 10, 0)).build();
+        itemCache.onItemChanged(ItemChangedEvent.saved(newMilk, true));
+
+        assertFalse(isCached(list));
+        assertFalse(isCached(milkSearch));
+        assertTrue(isCached(breadSearch));
+        assertTrue(isCached(lateDate));
+    }
+
+    @Test
+    void testUpdateKeepsCreatedAtPagesWithoutItem() {
+        PageKey withItem = PageKey.list(0, 10, "createdAt", "desc");
+        PageKey withoutItem = PageKey.list(1, 10, "createdAt", "desc");
+        PageKey byName = PageKey.list(0, 10, "name", "asc");
+        cachePage(withItem, item1);
+        cachePage(withoutItem, item2);
+        cachePage(byName, item2);
+
+        itemCache.onItemChanged(ItemChangedEvent.saved(item1, false));
+
+        assertFalse(isCached(withItem));
+        assertTrue(isCached(withoutItem));
+        assertFalse(isCached(byName));
+    }
+
+    @Test
+    void testUpdateInvalidatesUpdatedAtRanges() {
+        PageKey createdRange = PageKey.of(new ItemFilter(null, "createdAt", LocalDate.of(2024, 6, 1), null),
+                0, 10, "createdAt", "desc");
+        PageKey updatedRange = PageKey.of(new ItemFilter(null, "updatedAt", LocalDate.of(2024, 6, 1), null),
+                0, 10, "createdAt", "desc");
+        cachePage(createdRange, item2);
+        cachePage(updatedRange, item2);
+
+        itemCache.onItemChanged(ItemChangedEvent.saved(item1, false));
+
+        assertTrue(isCached(createdRange));
+        assertFalse(isCached(updatedRange));
+    }
+
+    @Test
+    void testSearchKeyIgnoresKeywordCase() {
+        cachePage(PageKey.of(ItemFilter.keyword("Хлеб"), 0, 10, null, "asc"), item2);
+
+        assertTrue(isCached(PageKey.of(ItemFilter.keyword("хлеб"), 0, 10, null, "desc")));
+    }
+
+    @Test
+    void testDeleteOfUnknownItemInvalidatesAllPages() {
+        PageKey search = PageKey.of(ItemFilter.keyword("хлеб"), 0, 10, null, null);
+        cachePage(search, item2);
+
+        itemCache.onItemChanged(ItemChangedEvent.deleted(item1.getId()));
+
+        assertFalse(isCached(search));
+    }
+
+    @Test
+    void testDeleteOfCachedItemInvalidatesMatchingListsOnly() {
+        itemCache.getItem(item1.getId(), () -> Optional.of(item1));
+        PageKey search = PageKey.of(ItemFilter.keyword("хлеб"), 0, 10, null, null);
+        cachePage(search, item2);
+
+        itemCache.onItemChanged(ItemChangedEvent.deleted(item1.getId()));
+
+        assertTrue(isCached(search));
+    }
+
+    private void cachePage(PageKey key, Item... content) {
+        itemCache.getPage(key, () -> new PageImpl<>(Arrays.stream(content)
+                .map(item -> new ItemRow(item.getId(), item.getName(), item.getDescription(),
+                        item.getCreatedAt(), item.getUpdatedAt()))
+                .toList()));
+    }
+
+    private boolean isCached(PageKey key) {
+        Page<ItemRow> marker = new PageImpl<>(List.of());
+        return itemCache.getPage(key, () -> marker) != marker;
+    }
+}
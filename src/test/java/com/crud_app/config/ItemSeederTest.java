@@ -0,0 +1,138 @@
+package com.crud_app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Потоки генератора пишут в своих транзакциях, поэтому тестовая транзакция отключена
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM items");
+    }
+
+    @Test
+    void testSeedsExactRowCountInParallelBatches() {
+        ItemSeeder seeder = seeder("uniform:5-50", "short:0-255", 0.5);
+
+        seeder.seed(2_500);
+
+        Map<String, Object> stats = jdbcTemplate.queryForMap("SELECT COUNT(*) AS total, " +
+                "COUNT(DISTINCT id) AS ids, " +
+                "MIN(LENGTH(name)) AS min_name, MAX(LENGTH(name)) AS max_name, " +
+                "MAX(LENGTH(description)) AS max_description, " +
+                "MIN(created_at) AS min_created, MAX(created_at) AS max_created, " +
+                "SUM(CASE WHEN updated_at > created_at THEN 1 ELSE 0 END) AS updated, " +
+                "SUM(CASE WHEN updated_at < created_at THEN 1 ELSE 0 END) AS broken " +
+                "FROM items");
+
+        assertEquals(2_500L, ((Number) stats.get("TOTAL")).longValue());
+        assertEquals(2_500L, ((Number) stats.get("IDS")).longValue());
+        assertTrue(((Number) stats.get("MIN_NAME")).intValue() >= 5);
+        assertTrue(((Number) stats.get("MAX_NAME")).intValue() <= 50);
+        assertTrue(((Number) stats.get("MAX_DESCRIPTION")).intValue() <= 255);
+        assertFalse(((Timestamp) stats.get("MIN_CREATED")).toLocalDateTime().isBefore(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        assertTrue(((Timestamp) stats.get("MAX_CREATED")).toLocalDateTime().isBefore(LocalDateTime.of(2024, 7, 1, 0, 0)));
+        long updated = ((Number) stats.get("UPDATED")).longValue();
+        assertTrue(updated > 1_000 && updated < 1_500, "обновлённых строк: " + updated);
+        assertEquals(0L, ((Number) stats.get("BROKEN")).longValue());
+    }
+
+    @Test
+    void testNamesAndDescriptionsDoNotStartOrEndWithSpace() {
+        seeder("fixed:10", "uniform:0-40", 0).seed(500);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items " +
+                "WHERE name <> TRIM(name) OR description <> TRIM(description) OR LENGTH(name) <> 10", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE updated_at <> created_at", Integer.class));
+    }
+
+    @Test
+    void testSecondaryIndexesAreRebuilt() {
+        seeder("uniform:5-50", "uniform:0-50", 0).seed(1_500);
+
+        List<String> indexes = jdbcTemplate.queryForList("SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE LOWER(TABLE_NAME) = 'items'", String.class);
+        assertTrue(indexes.containsAll(List.of("idx_items_name_id", "idx_items_description_id",
+                "idx_items_created_at_id", "idx_items_updated_at_id")), indexes.toString());
+    }
+
+    @Test
+    void testOrderedIdsGrowWithRowNumber() {
+        SplittableRandom random = new SplittableRandom(1);
+        long epoch = System.currentTimeMillis();
+        UUID previous = ItemSeeder.orderedId(epoch, 0, random);
+        for (long row = 1; row < 20_000; row++) {
+            UUID id = ItemSeeder.orderedId(epoch, row, random);
+            assertTrue(Long.compareUnsigned(id.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            previous = id;
+        }
+    }
+
+    @Test
+    void testLengthDistributionsStayWithinBounds() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (String spec : new String[]{"uniform:3-7", "normal:0-255", "short:1-50", "fixed:12"}) {
+            ItemSeeder.LengthDistribution distribution = ItemSeeder.LengthDistribution.parse(spec);
+            for (int i = 0; i < 10_000; i++) {
+                int length = distribution.sample(random);
+                assertTrue(length >= distribution.min() && length <= distribution.max(), spec + ": " + length);
+            }
+        }
+    }
+
+    @Test
+    void testShortDistributionIsSkewedToMinimum() {
+        SplittableRandom random = new SplittableRandom(1);
+        ItemSeeder.LengthDistribution distribution = ItemSeeder.LengthDistribution.parse("short:0-100");
+        long sum = 0;
+        for (int i = 0; i < 10_000; i++) {
+            sum += distribution.sample(random);
+        }
+        assertTrue(sum / 10_000 < 35);
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ItemSeeder.LengthDistribution.parse("uniform"));
+        assertThrows(IllegalArgumentException.class, () -> ItemSeeder.LengthDistribution.parse("zipf:1-5"));
+        assertThrows(IllegalArgumentException.class, () -> ItemSeeder.LengthDistribution.parse("uniform:9-3"));
+        assertThrows(IllegalArgumentException.class, () -> seeder("uniform:1-51", "fixed:0", 0));
+        assertThrows(IllegalArgumentException.class, () -> seeder("uniform:0-50", "fixed:0", 0));
+        assertThrows(IllegalArgumentException.class, () -> seeder("uniform:1-50", "fixed:256", 0));
+    }
+
+    private ItemSeeder seeder(String nameLength, String descriptionLength, double updatedRatio) {
+        return new ItemSeeder(jdbcTemplate, transactionTemplate, 1_000, 3, nameLength, descriptionLength,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 7, 1), updatedRatio, 1_000, true);
+    }
+}
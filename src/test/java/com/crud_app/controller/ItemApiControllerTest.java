@@ -0,0 +1,258 @@
+package com.crud_app.controller;
+
+import com.crud_app.dto.BulkResult;
+import com.crud_app.dto.ImportReport;
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemStats;
+import com.crud_app.dto.ItemStatsPoint;
+import com.crud_app.dto.PurgeReport;
+import com.crud_app.dto.StatsRebuildReport;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import com.crud_app.service.ItemBulkService;
+import com.crud_app.service.ItemFileFormat;
+import com.crud_app.service.ItemImportService;
+import com.crud_app.service.ItemPurgeService;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemStatsService;
+import com.crud_app.service.ItemVersionConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ItemApiController.class)
+@ActiveProfiles("test")
+class ItemApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemService itemService;
+
+    @MockBean
+    private ItemBulkService bulkService;
+
+    @MockBean
+    private ItemImportService importService;
+
+    @MockBean
+    private ItemPurgeService purgeService;
+
+    @MockBean
+    private ItemStatsService statsService;
+
+    @Test
+    void createItems_ShouldReturnBulkResult() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(bulkService.createItems(anyList())).thenReturn(new BulkResult("create", 1, 1, List.of(id),
+                List.of(), List.of(new BulkResult.ChunkTiming(0, 1, 3)), 3));
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"Item\",\"description\":\"Description\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(1))
+                .andExpect(jsonPath("$.ids[0]").value(id.toString()))
+                .andExpect(jsonPath("$.chunks[0].millis").value(3));
+    }
+
+    @Test
+    void createItems_ShouldReturnBadRequest_WhenValidationFails() throws Exception {
+        when(bulkService.createItems(anyList())).thenThrow(new IllegalArgumentException("[0] name: обязательно"));
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"description\":\"Description\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("[0] name: обязательно"));
+    }
+
+    @Test
+    void deleteItems_ShouldAcceptIdList() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(bulkService.deleteItems(List.of(id))).thenReturn(new BulkResult("delete", 1, 0, List.of(),
+                List.of(id), List.of(), 1));
+
+        mockMvc.perform(delete("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"" + id + "\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notFound[0]").value(id.toString()));
+    }
+
+    @Test
+    void importItems_ShouldPassBodyToImportService() throws Exception {
+        ImportReport report = ImportReport.builder()
+                .id(UUID.randomUUID())
+                .format("csv")
+                .status(ImportReport.Status.COMPLETED)
+                .rowsWritten(2)
+                .rowsRejected(1)
+                .rejected(List.of(new ImportReport.RejectedRow(3, "name: обязательно")))
+                .elapsedMillis(10)
+                .build();
+        when(importService.importItems(eq(ItemFileFormat.CSV), any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/api/items/import")
+                        .param("format", "csv")
+                        .contentType("text/csv")
+                        .content("name\nItem 1\n\nItem 2\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsPerSecond").value(200))
+                .andExpect(jsonPath("$.rejected[0].line").value(3));
+    }
+
+    @Test
+    void getImport_ShouldReturnNotFound_ForUnknownId() throws Exception {
+        when(importService.getImport(any(UUID.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/items/import/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void startPurge_ShouldReturnAcceptedWithLocation() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(purgeService.startPurge(LocalDate.of(2024, 1, 1), null)).thenReturn(PurgeReport.builder()
+                .id(id)
+                .status(PurgeReport.Status.QUEUED)
+                .createdBefore(LocalDate.of(2024, 1, 1))
+                .build());
+
+        mockMvc.perform(post("/api/items/purge").param("createdBefore", "2024-01-01"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/items/purge/" + id))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.createdBefore").value("2024-01-01"));
+    }
+
+    @Test
+    void startPurge_ShouldReturnBadRequest_WithoutCriteria() throws Exception {
+        when(purgeService.startPurge(isNull(), isNull()))
+                .thenThrow(new IllegalArgumentException("Укажите createdBefore и/или keyword"));
+
+        mockMvc.perform(post("/api/items/purge"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Укажите createdBefore и/или keyword"));
+    }
+
+    @Test
+    void cancelPurge_ShouldReturnNotFound_ForUnknownId() throws Exception {
+        when(purgeService.cancelPurge(any(UUID.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/api/items/purge/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchItem_ShouldReturnUpdatedItem() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(itemService.patchItem(eq(id), any(ItemPatch.class)))
+                .thenReturn(Optional.of(Item.builder().id(id).name("Patched").version(2).build()));
+
+        mockMvc.perform(patch("/api/items/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Patched\",\"version\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Patched"))
+                .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @Test
+    void patchItem_ShouldReturnConflict_WhenVersionIsStale() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(itemService.patchItem(eq(id), any(ItemPatch.class)))
+                .thenThrow(new ItemVersionConflictException(id, 1, 3));
+
+        mockMvc.perform(patch("/api/items/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":null,\"version\":1}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.currentVersion").value(3));
+    }
+
+    @Test
+    void patchItem_ShouldReturnNotFound_ForUnknownId() throws Exception {
+        when(itemService.patchItem(any(UUID.class), any(ItemPatch.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(patch("/api/items/" + UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getStats_ShouldReturnHistogramForInclusiveDays() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 3, 0, 0);
+        when(statsService.histogram(Granularity.DAY, from, to)).thenReturn(ItemStats.builder()
+                .granularity(Granularity.DAY).from(from).to(to)
+                .buckets(List.of(new ItemStatsPoint(from, 5, 2, 1), ItemStatsPoint.empty(from.plusDays(1))))
+                .created(5).updated(2).deleted(1)
+                .build());
+
+        mockMvc.perform(get("/api/items/stats")
+                        .param("granularity", "day")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(2))
+                .andExpect(jsonPath("$.buckets[0].created").value(5))
+                .andExpect(jsonPath("$.buckets[1].created").value(0))
+                .andExpect(jsonPath("$.deleted").value(1));
+    }
+
+    @Test
+    void getStats_ShouldReturnBadRequest_ForUnknownGranularity() throws Exception {
+        mockMvc.perform(get("/api/items/stats").param("granularity", "minute"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Неизвестный интервал: minute (hour, day, week)"));
+    }
+
+    @Test
+    void getStats_ShouldReturnBadRequest_WhenFromIsAfterTo() throws Exception {
+        mockMvc.perform(get("/api/items/stats")
+                        .param("from", "2024-02-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void startStatsRebuild_ShouldReturnAcceptedWithLocation() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(statsService.startRebuild(LocalDate.of(2024, 1, 1), null)).thenReturn(StatsRebuildReport.builder()
+                .id(id)
+                .status(StatsRebuildReport.Status.QUEUED)
+                .from(LocalDate.of(2024, 1, 1))
+                .build());
+
+        mockMvc.perform(post("/api/items/stats/rebuild").param("from", "2024-01-01"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/items/stats/rebuild/" + id))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.crud_app.controller;
+
+import com.crud_app.dto.ItemFeedEvent;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.service.ItemChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ItemChangesController.class)
+@ActiveProfiles("test")
+class ItemChangesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemChangeFeed feed;
+
+    @Test
+    void changes_ShouldStreamEventsWithIds() throws Exception {
+        UUID id = UUID.randomUUID();
+        ItemRow row = new ItemRow(id, "Streamed", null, LocalDateTime.of(2024, 1, 1, 12, 0), null);
+        when(feed.subscribe(null)).thenReturn(Flux.just(
+                new ItemFeedEvent("3f9a1c2e", 7, "created", id, row),
+                new ItemFeedEvent("3f9a1c2e", 8, "deleted", id, null)));
+
+        MvcResult result = mockMvc.perform(get("/items/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:3f9a1c2e-7\nevent:created\ndata:")))
+                .andExpect(content().string(containsString("\"name\":\"Streamed\"")))
+                .andExpect(content().string(containsString("id:3f9a1c2e-8\nevent:deleted\ndata:")));
+    }
+
+    @Test
+    void changes_ShouldResumeFromLastEventIdHeader() throws Exception {
+        when(feed.subscribe("3f9a1c2e-42")).thenReturn(Flux.just(ItemFeedEvent.reset("3f9a1c2e", 50)));
+
+        MvcResult result = mockMvc.perform(get("/items/changes").header("Last-Event-ID", "3f9a1c2e-42"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().string(containsString("id:3f9a1c2e-50\nevent:reset\ndata:")));
+        verify(feed).subscribe("3f9a1c2e-42");
+    }
+
+    @Test
+    void changes_ShouldAcceptLastEventIdParameter() throws Exception {
+        when(feed.subscribe("3f9a1c2e-3")).thenReturn(Flux.empty());
+
+        MvcResult result = mockMvc.perform(get("/items/changes").param("lastEventId", "3f9a1c2e-3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        verify(feed).subscribe("3f9a1c2e-3");
+    }
+}
@@ -1,29 +1,47 @@
 package com.crud_app.controller;
 
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
 import com.crud_app.model.Item;
+import com.crud_app.service.CountedPage;
+import com.crud_app.service.ItemCountService;
 import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemVersionConflictException;
+import com.crud_app.service.ItemVersionService;
+import com.crud_app.service.KeysetPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,7 +50,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ItemController.class)
+@Import(ItemListFragments.class)
 @ActiveProfiles("test")
+@TestPropertySource(properties = "app.cache.fragments.max-size=0")
 class ItemControllerTest {
 
     @Autowired
@@ -41,8 +61,16 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemVersionService versionService;
+
+    private static final String ETAG = "\"abc-7\"";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
     private Item item1;
     private Item item2;
+    private ItemRow row1;
+    private ItemRow row2;
     private UUID itemId;
 
     @BeforeEach
@@ -60,12 +88,17 @@ class ItemControllerTest {
         item2.setName("Test Item 2");
         item2.setDescription("Description 2");
         item2.setCreatedAt(LocalDateTime.now().minusDays(1));
+
+        row1 = new ItemRow(item1.getId(), item1.getName(), item1.getDescription(), item1.getCreatedAt(), null);
+        row2 = new ItemRow(item2.getId(), item2.getName(), item2.getDescription(), item2.getCreatedAt(), null);
+
+        when(versionService.current()).thenReturn(new ItemVersionService.Stamp(7, LAST_MODIFIED, ETAG));
     }
 
     @Test
     void testShowAllItems() throws Exception {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1, item2));
-        when(itemService.getAllItemsPaginated(anyInt(), anyInt(), anyString(), anyString()))
+        Page<ItemRow> page = new PageImpl<>(Arrays.asList(row1, row2));
+        when(itemService.findItems(any(), anyInt(), anyInt(), any(), any()))
                 .thenReturn(page);
 
         mockMvc.perform(get("/items"))
@@ -77,13 +110,13 @@ class ItemControllerTest {
                 .andExpect(model().attribute("totalItems", 2L));
 
         verify(itemService, times(1))
-                .getAllItemsPaginated(0, 10, "createdAt", "desc");
+                .findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
     }
 
     @Test
     void testShowAllItemsWithSearch() throws Exception {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1));
-        when(itemService.searchItems(eq("test"), anyInt(), anyInt()))
+        Page<ItemRow> page = new PageImpl<>(Arrays.asList(row1));
+        when(itemService.findItems(eq(ItemFilter.keyword("test")), anyInt(), anyInt(), any(), any()))
                 .thenReturn(page);
 
         mockMvc.perform(get("/items")
@@ -92,13 +125,13 @@ class ItemControllerTest {
                 .andExpect(model().attributeExists("itemsPage"))
                 .andExpect(model().attribute("keyword", "test"));
 
-        verify(itemService, times(1)).searchItems("test", 0, 10);
+        verify(itemService, times(1)).findItems(ItemFilter.keyword("test"), 0, 10, null, "desc");
     }
 
     @Test
     void testShowAllItemsWithDateFilter() throws Exception {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item2));
-        when(itemService.findByCreatedAtAfter(eq("2024-12-10"), anyInt(), anyInt()))
+        Page<ItemRow> page = new PageImpl<>(Arrays.asList(row2));
+        when(itemService.findItems(eq(ItemFilter.parse(null, null, "2024-12-10", null)), anyInt(), anyInt(), any(), any()))
                 .thenReturn(page);
 
         mockMvc.perform(get("/items")
@@ -107,13 +140,53 @@ class ItemControllerTest {
                 .andExpect(model().attributeExists("itemsPage"))
                 .andExpect(model().attribute("dateFrom", "2024-12-10"));
 
-        verify(itemService, times(1)).findByCreatedAtAfter("2024-12-10", 0, 10);
+        verify(itemService, times(1)).findItems(ItemFilter.parse(null, null, "2024-12-10", null), 0, 10, "createdAt", "desc");
+    }
+
+    @Test
+    void testShowAllItemsCombinesKeywordDateRangeAndSort() throws Exception {
+        ItemFilter filter = new ItemFilter("test", "updatedAt", LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 10));
+        when(itemService.findItems(eq(filter), anyInt(), anyInt(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(row1)));
+
+        mockMvc.perform(get("/items")
+                        .param("keyword", "test")
+                        .param("dateField", "updatedAt")
+                        .param("dateFrom", "2024-12-01")
+                        .param("dateTo", "2024-12-10")
+                        .param("sort", "name")
+                        .param("dir", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("dateField", "updatedAt"))
+                .andExpect(model().attribute("dateTo", "2024-12-10"))
+                .andExpect(content().string(containsString("dateTo=2024-12-10")));
+
+        verify(itemService, times(1)).findItems(filter, 0, 10, "name", "asc");
+    }
+
+    @Test
+    void testShowAllItemsRejectsInvalidDate() throws Exception {
+        when(itemService.findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc"))
+                .thenReturn(new PageImpl<>(List.of(row1)));
+
+        mockMvc.perform(get("/items")
+                        .param("keyword", "test")
+                        .param("dateFrom", "10.12.2024"))
+                .andExpect(status().isBadRequest())
+                .andExpect(view().name("items/list"))
+                .andExpect(model().attribute("error", containsString("10.12.2024")))
+                .andExpect(model().attribute("keyword", "test"))
+                .andExpect(model().attribute("dateFrom", "10.12.2024"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(content().string(containsString("alert-warning")));
+
+        verify(itemService, never()).findItems(argThat(filter -> !filter.isEmpty()), anyInt(), anyInt(), any(), any());
     }
 
     @Test
     void testShowAllItemsWithSorting() throws Exception {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1, item2));
-        when(itemService.getAllItemsPaginated(0, 10, "name", "asc"))
+        Page<ItemRow> page = new PageImpl<>(Arrays.asList(row1, row2));
+        when(itemService.findItems(ItemFilter.NONE, 0, 10, "name", "asc"))
                 .thenReturn(page);
 
         mockMvc.perform(get("/items")
@@ -121,7 +194,7 @@ class ItemControllerTest {
                         .param("dir", "asc"))
                 .andExpect(status().isOk());
 
-        verify(itemService, times(1)).getAllItemsPaginated(0, 10, "name", "asc");
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 0, 10, "name", "asc");
     }
 
     @Test
@@ -183,8 +256,8 @@ class ItemControllerTest {
 
     @Test
     void testShowAllItemsWithPagination() throws Exception {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1));
-        when(itemService.getAllItemsPaginated(2, 5, "createdAt", "desc"))
+        Page<ItemRow> page = new PageImpl<>(Arrays.asList(row1));
+        when(itemService.findItems(ItemFilter.NONE, 2, 5, "createdAt", "desc"))
                 .thenReturn(page);
 
         mockMvc.perform(get("/items")
@@ -194,19 +267,246 @@ class ItemControllerTest {
                 .andExpect(model().attribute("currentPage", 2))
                 .andExpect(model().attribute("pageSize", 5));
 
-        verify(itemService, times(1)).getAllItemsPaginated(2, 5, "createdAt", "desc");
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 2, 5, "createdAt", "desc");
     }
 
     @Test
     void testInvalidSortParameter() throws Exception {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1, item2));
-        when(itemService.getAllItemsPaginated(0, 10, "createdAt", "desc"))
+        Page<ItemRow> page = new PageImpl<>(Arrays.asList(row1, row2));
+        when(itemService.findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc"))
                 .thenReturn(page);
 
         mockMvc.perform(get("/items")
                         .param("sort", "invalidField"))
                 .andExpect(status().isOk());
 
-        verify(itemService, times(1)).getAllItemsPaginated(0, 10, "createdAt", "desc");
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
+    }
+
+    @Test
+    void testShowAllItemsKeysetMode() throws Exception {
+        KeysetPage<ItemRow> keysetPage = new KeysetPage<>(List.of(row1, row2), 10, "next", null);
+        when(itemService.getItemsKeyset(null, null, 10, "name", "asc"))
+                .thenReturn(keysetPage);
+
+        mockMvc.perform(get("/items")
+                        .param("mode", "keyset")
+                        .param("sort", "name")
+                        .param("dir", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("items/list"))
+                .andExpect(model().attribute("mode", "keyset"))
+                .andExpect(model().attribute("itemsPage", keysetPage))
+                .andExpect(model().attributeDoesNotExist("totalItems"));
+
+        verify(itemService, never()).findItems(any(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testShowAllItemsAfterCursor() throws Exception {
+        KeysetPage<ItemRow> keysetPage = new KeysetPage<>(List.of(row2), 10, null, "prev");
+        when(itemService.getItemsKeyset("token", null, 10, "createdAt", "desc"))
+                .thenReturn(keysetPage);
+
+        mockMvc.perform(get("/items")
+                        .param("after", "token"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mode", "keyset"));
+
+        verify(itemService, times(1)).getItemsKeyset("token", null, 10, "createdAt", "desc");
+    }
+
+    @Test
+    void testShowAllItemsApproximateTotal() throws Exception {
+        Page<ItemRow> page = new CountedPage<>(List.of(row1), PageRequest.of(0, 10), 1_234_567, true);
+        when(itemService.findItems(eq(ItemFilter.keyword("item")), anyInt(), anyInt(), any(), any()))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/items")
+                        .param("keyword", "item"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("totalItems", 1_234_567L))
+                .andExpect(model().attribute("totalItemsLabel", "~1.2M"));
+    }
+
+    // Число по фильтру ещё считается: страницы до следующей, без общего числа и без последней
+    @Test
+    void testShowAllItemsWithoutTotalWhileCounting() throws Exception {
+        ItemFilter filter = ItemFilter.parse(null, null, "2024-12-01", null);
+        Page<ItemRow> page = new CountedPage<>(new SliceImpl<>(List.of(row1, row2), PageRequest.of(3, 2), true),
+                ItemCountService.Count.UNKNOWN);
+        when(itemService.findItems(eq(filter), anyInt(), anyInt(), any(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/items")
+                        .param("dateFrom", "2024-12-01")
+                        .param("page", "3")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("totalPages", 5))
+                .andExpect(model().attribute("totalItemsLabel", nullValue()))
+                .andExpect(content().string(not(containsString("записей)"))))
+                .andExpect(content().string(not(containsString("bi-chevron-double-right"))));
+    }
+
+    @Test
+    void testShowAllItemsSetsValidators() throws Exception {
+        when(itemService.findItems(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(row1)));
+
+        mockMvc.perform(get("/items"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().dateValue("Last-Modified", LAST_MODIFIED / 1000 * 1000))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void testShowAllItemsNotModified() throws Exception {
+        mockMvc.perform(get("/items")
+                        .param("keyword", "item")
+                        .header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void testShowAllItemsModifiedAfterVersionChange() throws Exception {
+        when(itemService.findItems(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(row1)));
+
+        mockMvc.perform(get("/items")
+                        .header("If-None-Match", "\"abc-6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG));
+    }
+
+    @Test
+    void testShowAllItemsNotModifiedSince() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header("If-Modified-Since", LAST_MODIFIED + 1000))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void testShowAllItemsWithFlashMessageIsNotConditional() throws Exception {
+        when(itemService.findItems(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(row1)));
+
+        mockMvc.perform(get("/items")
+                        .flashAttr("error", "Запись не найдена")
+                        .header("If-None-Match", ETAG))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void testShowEditFormNotModified() throws Exception {
+        mockMvc.perform(get("/items/edit/{id}", itemId)
+                        .header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void testShowAllItemsRendersRows() throws Exception {
+        when(itemService.findItems(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(row1, row2)));
+
+        mockMvc.perform(get("/items"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<strong>Test Item 1</strong>")))
+                .andExpect(content().string(containsString("/items/edit/" + itemId)));
+    }
+
+    @Test
+    void testShowAllItemsWindowedPager() throws Exception {
+        Page<ItemRow> page = new PageImpl<>(List.of(row1), PageRequest.of(50, 10), 100_000);
+        when(itemService.findItems(ItemFilter.NONE, 50, 10, "createdAt", "desc")).thenReturn(page);
+
+        mockMvc.perform(get("/items").param("page", "50"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("pagerStart", 47))
+                .andExpect(model().attribute("pagerEnd", 53))
+                .andExpect(content().string(containsString(">10000</a>")))
+                .andExpect(content().string(containsString("page=53&amp;")))
+                .andExpect(content().string(not(containsString("page=46&amp;"))))
+                .andExpect(content().string(not(containsString("page=54&amp;"))))
+                .andExpect(content().string(not(containsString("page=5000&amp;"))));
+    }
+
+    @Test
+    void testShowAllItemsPagerWindowClampedToLastPage() throws Exception {
+        Page<ItemRow> page = new PageImpl<>(List.of(), PageRequest.of(500, 10), 45);
+        when(itemService.findItems(ItemFilter.NONE, 500, 10, "createdAt", "desc")).thenReturn(page);
+
+        mockMvc.perform(get("/items").param("page", "500"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("pagerStart", 1))
+                .andExpect(model().attribute("pagerEnd", 4));
+    }
+
+    @Test
+    void testUpdateItemPatchesFormFields() throws Exception {
+        when(itemService.patchItem(eq(itemId), any(ItemPatch.class))).thenReturn(Optional.of(item1));
+
+        mockMvc.perform(post("/items/update/{id}", itemId)
+                        .param("id", itemId.toString())
+                        .param("version", "2")
+                        .param("name", "Renamed")
+                        .param("description", "New Description"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/items"));
+
+        verify(itemService).patchItem(eq(itemId), argThat(patch -> "Renamed".equals(patch.getName())
+                && "New Description".equals(patch.getDescription())
+                && patch.getVersion() == 2L));
+        verify(itemService, never()).saveItem(any(Item.class));
+    }
+
+    @Test
+    void testUpdateItemConflictShowsCurrentData() throws Exception {
+        when(itemService.patchItem(eq(itemId), any(ItemPatch.class)))
+                .thenThrow(new ItemVersionConflictException(itemId, 2, 3));
+        when(itemService.getItemById(itemId)).thenReturn(Optional.of(item1));
+
+        mockMvc.perform(post("/items/update/{id}", itemId)
+                        .param("version", "2")
+                        .param("name", "Renamed"))
+                .andExpect(status().isConflict())
+                .andExpect(view().name("items/form"))
+                .andExpect(model().attributeExists("error"))
+                .andExpect(model().attribute("item", hasProperty("name", is("Test Item 1"))));
+    }
+
+    @Test
+    void testUpdateItemInvalidFieldsShowsForm() throws Exception {
+        when(itemService.patchItem(eq(itemId), any(ItemPatch.class)))
+                .thenThrow(new IllegalArgumentException("name: обязательно"));
+
+        mockMvc.perform(post("/items/update/{id}", itemId)
+                        .param("version", "2")
+                        .param("name", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(view().name("items/form"))
+                .andExpect(model().attribute("error", "name: обязательно"))
+                .andExpect(model().attribute("item", hasProperty("id", is(itemId))))
+                .andExpect(content().string(containsString("action=\"/items/update/" + itemId + "\"")));
+    }
+
+    @Test
+    void testEditFormPostsToUpdateWithVersion() throws Exception {
+        item1.setVersion(7);
+        when(itemService.getItemById(itemId)).thenReturn(Optional.of(item1));
+
+        mockMvc.perform(get("/items/edit/{id}", itemId))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("action=\"/items/update/" + itemId + "\"")))
+                .andExpect(content().string(containsString("name=\"version\" value=\"7\"")));
     }
-}
\ No newline at end of file
+}
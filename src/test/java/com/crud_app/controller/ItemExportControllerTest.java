@@ -0,0 +1,99 @@
+package com.crud_app.controller;
+
+import com.crud_app.bulkhead.DbBulkhead;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.service.ItemExportService;
+import com.crud_app.service.ItemFileFormat;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ItemExportController.class)
+@ActiveProfiles("test")
+class ItemExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static final ItemFilter FILTER = new ItemFilter("item", ItemFilter.UPDATED_AT,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+    @MockBean
+    private ItemExportService exportService;
+
+    @MockBean
+    private DbBulkhead bulkhead;
+
+    @Test
+    void export_ShouldStreamServiceOutput() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"name\":\"Item\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportService).export(eq(ItemFileFormat.NDJSON), eq(FILTER), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/items/export")
+                        .param("format", "ndjson")
+                        .param("keyword", "item")
+                        .param("dateField", "updatedAt")
+                        .param("dateFrom", "2024-01-01")
+                        .param("dateTo", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"items.ndjson\""))
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string("{\"name\":\"Item\"}\n"));
+
+        InOrder order = inOrder(bulkhead, exportService);
+        order.verify(bulkhead).enterStreaming();
+        order.verify(exportService).export(eq(ItemFileFormat.NDJSON), eq(FILTER), any(OutputStream.class));
+        order.verify(bulkhead).exitStreaming();
+    }
+
+    @Test
+    void export_ShouldReturnBadRequest_ForUnknownFormat() throws Exception {
+        mockMvc.perform(get("/items/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void export_ShouldReturnBadRequest_ForInvalidDate() throws Exception {
+        mockMvc.perform(get("/items/export").param("dateFrom", "01.01.2024"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void export_ShouldReturnBadRequest_ForReversedDateRange() throws Exception {
+        mockMvc.perform(get("/items/export").param("dateFrom", "2024-02-01").param("dateTo", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+}
@@ -0,0 +1,118 @@
+package com.crud_app.controller;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.service.ItemChangedEvent;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ItemController.class)
+@Import(ItemListFragments.class)
+@ActiveProfiles("test")
+class ItemListFragmentsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemListFragments listFragments;
+
+    @MockBean
+    private ItemService itemService;
+
+    @MockBean
+    private ItemVersionService versionService;
+
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        listFragments.onItemChanged(ItemChangedEvent.deleted(UUID.randomUUID()));
+        when(versionService.current()).thenReturn(new ItemVersionService.Stamp(1, 0, "\"v1\""));
+
+        item = Item.builder()
+                .id(UUID.randomUUID())
+                .name("Cached Item")
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+        when(itemService.findItems(any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(new ItemRow(item.getId(), item.getName(), null,
+                        item.getCreatedAt(), null))));
+    }
+
+    @Test
+    void repeatedRequestIsServedFromCache() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/items"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeExists("itemsPage", "totalPages"))
+                    .andExpect(content().string(containsString("<strong>Cached Item</strong>")));
+        }
+
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
+        assertHitsAndMisses(2, 1);
+    }
+
+    @Test
+    void differentParametersAreCachedSeparately() throws Exception {
+        mockMvc.perform(get("/items").param("sort", "name")).andExpect(status().isOk());
+        mockMvc.perform(get("/items").param("sort", "name").param("dir", "asc")).andExpect(status().isOk());
+        mockMvc.perform(get("/items").param("sort", "bogus")).andExpect(status().isOk());
+        mockMvc.perform(get("/items")).andExpect(status().isOk());
+
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 0, 10, "name", "desc");
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 0, 10, "name", "asc");
+        // Неизвестное поле сортировки нормализуется в createdAt и попадает в тот же ключ
+        verify(itemService, times(1)).findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
+    }
+
+    @Test
+    void writeInvalidatesCache() throws Exception {
+        mockMvc.perform(get("/items")).andExpect(status().isOk());
+        listFragments.onItemChanged(ItemChangedEvent.saved(item, false));
+        mockMvc.perform(get("/items")).andExpect(status().isOk());
+
+        verify(itemService, times(2)).findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
+    }
+
+    @Test
+    void cachedLinksDoNotCarrySessionId() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(get("/items").session(session))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items"))
+                .andExpect(content().string(not(containsString("jsessionid"))));
+    }
+
+    private void assertHitsAndMisses(long hits, long misses) {
+        assertEquals(hits, listFragments.stats().getHits());
+        assertEquals(misses, listFragments.stats().getMisses());
+    }
+}
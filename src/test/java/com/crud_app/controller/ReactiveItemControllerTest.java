@@ -0,0 +1,116 @@
+package com.crud_app.controller;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ReactiveItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveItemController.class)
+@ActiveProfiles("test")
+class ReactiveItemControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveItemRepository repository;
+
+    @Test
+    void items_ShouldStreamPageAsNdjson() throws Exception {
+        when(repository.findAll(PageRequest.of(2, 5, Sort.by("name").ascending())))
+                .thenReturn(Flux.just(item("First"), item("Second")));
+
+        MvcResult result = mockMvc.perform(get("/reactive/items")
+                        .param("page", "2")
+                        .param("size", "5")
+                        .param("sort", "name")
+                        .param("dir", "asc"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"name\":\"First\"")))
+                .andExpect(content().string(containsString("}\n{")));
+    }
+
+    @Test
+    void items_ShouldSearchByKeyword() throws Exception {
+        when(repository.searchByKeyword("item", PageRequest.of(0, 10))).thenReturn(Flux.just(item("Item")));
+
+        MvcResult result = mockMvc.perform(get("/reactive/items").param("keyword", " item "))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"name\":\"Item\"")));
+    }
+
+    @Test
+    void items_ShouldFilterByCreatedAt() throws Exception {
+        when(repository.findByCreatedAtAfter(LocalDateTime.of(2024, 1, 1, 0, 0), PageRequest.of(0, 10)))
+                .thenReturn(Flux.empty());
+
+        MvcResult result = mockMvc.perform(get("/reactive/items").param("dateFrom", "2024-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(repository).findByCreatedAtAfter(LocalDateTime.of(2024, 1, 1, 0, 0), PageRequest.of(0, 10));
+    }
+
+    @Test
+    void items_ShouldReturnBadRequest_ForInvalidDate() throws Exception {
+        mockMvc.perform(get("/reactive/items").param("dateFrom", "01.01.2024"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void items_ShouldFallBackToCreatedAt_ForUnknownSortField() throws Exception {
+        PageRequest expected = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+        when(repository.findAll(expected)).thenReturn(Flux.empty());
+
+        MvcResult result = mockMvc.perform(get("/reactive/items").param("sort", "id"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(repository).findAll(expected);
+    }
+
+    private static Item item(String name) {
+        return Item.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+}
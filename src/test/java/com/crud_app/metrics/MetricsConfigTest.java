@@ -0,0 +1,78 @@
+package com.crud_app.metrics;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        itemRepository.save(Item.builder().name("Metrics 1").build());
+        itemRepository.save(Item.builder().name("Metrics 2").build());
+    }
+
+    @Test
+    void repositoryRows_ShouldBeRecordedPerMethod() {
+        itemRepository.findRows(ItemFilter.NONE, PageRequest.of(0, 10));
+
+        DistributionSummary rows = meterRegistry.get(RepositoryRowsInterceptor.METRIC)
+                .tag("repository", "ItemRepository")
+                .tag("method", "findRows")
+                .summary();
+        assertTrue(rows.count() >= 1);
+        assertEquals(2, rows.max());
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeHandlerRepositoryHibernateAndPoolMetrics() throws Exception {
+        mockMvc.perform(get("/items")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/items\"")))
+                .andExpect(content().string(containsString("quantile=\"0.999\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(content().string(containsString("spring_data_repository_rows")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("hibernate_flushes_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                .andExpect(content().string(containsString("items_cache_requests_total")))
+                .andExpect(content().string(containsString("cache=\"fragments\"")))
+                .andExpect(content().string(containsString("db_bulkhead_wait_seconds_count")))
+                .andExpect(content().string(containsString("db_bulkhead_rejected_total")));
+    }
+}
@@ -0,0 +1,154 @@
+package com.crud_app.offheap;
+
+import com.crud_app.dto.BulkResult;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemRequest;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemBulkService;
+import com.crud_app.service.ItemService;
+import com.crud_app.service.ItemVersionConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Профиль offheap: сервисы получают репозиторий поверх хранилища, таблица items не трогается
+@SpringBootTest
+@ActiveProfiles({"test", "offheap"})
+class OffHeapConfigTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void offHeapDir(DynamicPropertyRegistry registry) {
+        registry.add("app.offheap.dir", () -> dir.toString());
+    }
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OffHeapItemStore store;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemBulkService bulkService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void itemRepository_ShouldBeOffHeap() {
+        assertInstanceOf(OffHeapItemRepository.class, AopTestUtils.getUltimateTargetObject(itemRepository));
+    }
+
+    @Test
+    void crud_ShouldGoThroughStore() {
+        Item created = itemService.saveItem(Item.builder().name("Off-heap").description("first").build());
+        assertTrue(store.get(created.getId()).isPresent());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class));
+
+        created.setDescription("second");
+        Item updated = itemService.saveItem(created);
+        assertEquals(1, updated.getVersion());
+        assertEquals("second", itemService.getItemById(created.getId()).orElseThrow().getDescription());
+
+        itemService.deleteItem(created.getId());
+        assertTrue(itemService.getItemById(created.getId()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void patchItem_ShouldCheckVersion() {
+        Item item = itemService.saveItem(Item.builder().name("Patched").build());
+
+        Item patched = itemService.patchItem(item.getId(), ItemPatch.of("Renamed", null, 0L)).orElseThrow();
+        assertEquals("Renamed", patched.getName());
+        assertThrows(ItemVersionConflictException.class,
+                () -> itemService.patchItem(item.getId(), ItemPatch.of("Stale", null, 0L)));
+        assertTrue(itemService.patchItem(UUID.randomUUID(), ItemPatch.of("Ghost", null, null)).isEmpty());
+    }
+
+    @Test
+    void findItems_ShouldFilterAndCount() {
+        itemService.saveItem(Item.builder().name("Apple").description("fruit").build());
+        itemService.saveItem(Item.builder().name("Carrot").description("vegetable").build());
+        itemService.saveItem(Item.builder().name("Banana").description("fruit").build());
+
+        Page<ItemRow> page = itemService.findItems(ItemFilter.keyword("fruit"), 0, 10, "name", "asc");
+
+        assertEquals(List.of("Apple", "Banana"), page.getContent().stream().map(ItemRow::name).toList());
+        assertEquals(2, page.getTotalElements());
+    }
+
+    @Test
+    void bulkOperations_ShouldWorkWithoutEntityManager() {
+        BulkResult created = bulkService.createItems(List.of(
+                new ItemRequest(null, "One", null), new ItemRequest(null, "Two", null)));
+        assertEquals(2, store.size());
+
+        UUID id = created.getIds().get(0);
+        bulkService.updateItems(List.of(new ItemRequest(id, "One updated", "now with description")));
+        assertEquals("now with description", store.get(id).orElseThrow().getDescription());
+
+        BulkResult deleted = bulkService.deleteItems(List.of(id, UUID.randomUUID()));
+        assertEquals(List.of(id), deleted.getIds());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void rollback_ShouldUndoGroupThatFailedMidway() {
+        Item kept = itemRepository.save(Item.builder().name("Kept").description("before").build());
+        Item removed = itemRepository.save(Item.builder().name("Removed").build());
+        Item created = Item.builder().name("Created").build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.save(created);
+            kept.setDescription("after");
+            itemRepository.save(kept);
+            itemRepository.deleteItemById(removed.getId());
+            itemRepository.save(Item.builder().name("x".repeat(51)).build());
+        }));
+
+        assertEquals(2, store.size());
+        assertTrue(store.get(created.getId()).isEmpty());
+        Item restored = store.get(kept.getId()).orElseThrow();
+        assertEquals("before", restored.getDescription());
+        assertEquals(0, restored.getVersion());
+        assertTrue(store.get(removed.getId()).isPresent());
+
+        // Как повтор групповой записи по одной: новая запись снова без id - без дубликата
+        created.setId(null);
+        transactionTemplate.executeWithoutResult(status -> itemRepository.save(created));
+        assertEquals(3, store.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.crud_app.offheap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapHashIndexTest {
+
+    @Test
+    void putGetRemove_ShouldReturnPreviousOffsets() {
+        OffHeapHashIndex index = new OffHeapHashIndex(16);
+        UUID id = UUID.randomUUID();
+
+        assertEquals(-1, index.get(id));
+        assertEquals(-1, index.put(id, 0));
+        assertEquals(0, index.get(id));
+        assertEquals(0, index.put(id, 100));
+        assertEquals(100, index.get(id));
+        assertEquals(1, index.size());
+
+        assertEquals(100, index.remove(id));
+        assertEquals(-1, index.get(id));
+        assertEquals(-1, index.remove(id));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void growth_ShouldKeepAllEntries() {
+        OffHeapHashIndex index = new OffHeapHashIndex(16);
+        Map<UUID, Long> expected = new HashMap<>();
+        for (long i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            index.put(id, i * 24);
+            expected.put(id, i * 24);
+        }
+
+        assertEquals(expected.size(), index.size());
+        expected.forEach((id, offset) -> assertEquals(offset, index.get(id)));
+
+        Map<UUID, Long> visited = new HashMap<>();
+        index.forEach((msb, lsb, offset) -> visited.put(new UUID(msb, lsb), offset));
+        assertEquals(expected, visited);
+    }
+
+    // Удалённые ячейки не должны ни терять записи за ними, ни копиться без конца
+    @Test
+    void churn_ShouldReuseRemovedSlots() {
+        OffHeapHashIndex index = new OffHeapHashIndex(64);
+        List<UUID> live = new ArrayList<>();
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 40; i++) {
+                UUID id = UUID.randomUUID();
+                index.put(id, round);
+                live.add(id);
+            }
+            // Удаляются записи предыдущего круга
+            if (round > 0) {
+                for (int i = 0; i < 40; i++) {
+                    assertEquals(round - 1, index.remove(live.remove(0)));
+                }
+            }
+        }
+
+        assertEquals(40, index.size());
+        live.forEach(id -> assertEquals(99, index.get(id)));
+    }
+}
@@ -0,0 +1,195 @@
+package com.crud_app.offheap;
+
+import com.crud_app.model.Item;
+import com.crud_app.offheap.OffHeapItemStore.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapItemStoreTest {
+
+    private static final int SEGMENT = 64 * 1024;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void reopen_ShouldRestoreItemsAndIndexes() {
+        UUID first;
+        UUID second;
+        try (OffHeapItemStore store = open()) {
+            first = put(store, "Bravo", LocalDateTime.of(2024, 1, 1, 10, 0)).getId();
+            second = put(store, "Alpha", LocalDateTime.of(2024, 1, 2, 10, 0)).getId();
+            UUID deleted = put(store, "Charlie", LocalDateTime.of(2024, 1, 3, 10, 0)).getId();
+            store.upsert(first, item -> {
+                item.setDescription("changed");
+                return item;
+            });
+            assertTrue(store.delete(deleted));
+        }
+
+        try (OffHeapItemStore store = open()) {
+            assertEquals(2, store.size());
+            assertEquals("changed", store.get(first).orElseThrow().getDescription());
+            assertEquals(List.of(second, first), ids(store.scan(Order.NAME, true, null, null, null, 0, 10)));
+            assertEquals(List.of(second, first), ids(store.scan(Order.CREATED_AT, false, null, null, null, 0, 10)));
+        }
+    }
+
+    // Запись, оборванная на середине (сбой процесса или системы), после открытия не видна,
+    // а следующая запись ложится на её место и переживает следующее открытие
+    @Test
+    void tornTail_ShouldBeDroppedOnRecovery() throws IOException {
+        UUID kept;
+        try (OffHeapItemStore store = open()) {
+            kept = put(store, "Kept", LocalDateTime.now()).getId();
+            put(store, "Torn", LocalDateTime.now());
+        }
+        corruptLastRecord(dir.resolve("items-000001.log"));
+
+        UUID written;
+        try (OffHeapItemStore store = open()) {
+            assertEquals(1, store.size());
+            assertTrue(store.get(kept).isPresent());
+            written = put(store, "After recovery", LocalDateTime.now()).getId();
+        }
+
+        try (OffHeapItemStore store = open()) {
+            assertEquals(2, store.size());
+            assertEquals("After recovery", store.get(written).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void records_ShouldNotCrossSegmentBoundaries() {
+        try (OffHeapItemStore store = open()) {
+            for (int i = 0; i < 500; i++) {
+                put(store, "Item " + i, LocalDateTime.now());
+            }
+            for (Item item : store.filter(null)) {
+                store.upsert(item.getId(), current -> {
+                    current.setDescription("y".repeat(255));
+                    return current;
+                });
+            }
+        }
+
+        try (OffHeapItemStore store = open()) {
+            assertEquals(500, store.size());
+            assertTrue(store.filter(null).stream().allMatch(item -> "y".repeat(255).equals(item.getDescription())));
+        }
+    }
+
+    @Test
+    void compact_ShouldKeepOnlyLiveRecordsInNextGeneration() {
+        UUID id;
+        try (OffHeapItemStore store = open()) {
+            id = put(store, "Counter", LocalDateTime.now()).getId();
+            UUID removed = put(store, "Removed", LocalDateTime.now()).getId();
+            for (int i = 0; i < 100; i++) {
+                long version = i + 1;
+                store.upsert(id, item -> {
+                    item.setVersion(version);
+                    return item;
+                });
+            }
+            store.delete(removed);
+            assertTrue(store.deadBytes() > 0);
+
+            store.compact();
+
+            assertEquals(0, store.deadBytes());
+            assertEquals(dir.resolve("items-000002.log"), store.logPath());
+            assertFalse(Files.exists(dir.resolve("items-000001.log")));
+            assertEquals(100, store.get(id).orElseThrow().getVersion());
+            assertEquals(1, store.size());
+        }
+
+        try (OffHeapItemStore store = open()) {
+            assertEquals(1, store.size());
+            assertEquals(100, store.get(id).orElseThrow().getVersion());
+        }
+    }
+
+    // Сбой во время сжатия: недописанное поколение без признака готовности отбрасывается
+    @Test
+    void incompleteGeneration_ShouldBeIgnored() {
+        UUID id;
+        try (OffHeapItemStore store = open()) {
+            id = put(store, "Survivor", LocalDateTime.now()).getId();
+        }
+        try (ItemLog partial = ItemLog.create(dir.resolve("items-000002.log"), SEGMENT, 2)) {
+            partial.append(ItemLog.DELETE, ItemCodec.delete(id), false);
+        }
+
+        try (OffHeapItemStore store = open()) {
+            assertTrue(store.get(id).isPresent());
+            assertEquals(dir.resolve("items-000001.log"), store.logPath());
+        }
+        assertFalse(Files.exists(dir.resolve("items-000002.log")));
+    }
+
+    @Test
+    void scan_ShouldPutNullsFirstAscendingAndLastDescending() {
+        try (OffHeapItemStore store = open()) {
+            Item withDescription = put(store, "With", LocalDateTime.now());
+            store.upsert(withDescription.getId(), item -> {
+                item.setDescription("text");
+                return item;
+            });
+            Item without = put(store, "Without", LocalDateTime.now());
+
+            assertEquals(List.of(without.getId(), withDescription.getId()),
+                    ids(store.scan(Order.DESCRIPTION, true, null, null, null, 0, 10)));
+            assertEquals(List.of(withDescription.getId(), without.getId()),
+                    ids(store.scan(Order.DESCRIPTION, false, null, null, null, 0, 10)));
+        }
+    }
+
+    private OffHeapItemStore open() {
+        return new OffHeapItemStore(dir, SEGMENT, false, 0.5);
+    }
+
+    private static Item put(OffHeapItemStore store, String name, LocalDateTime createdAt) {
+        LocalDateTime time = createdAt.truncatedTo(ChronoUnit.MICROS);
+        Item item = Item.builder().id(UUID.randomUUID()).name(name).createdAt(time).updatedAt(time).build();
+        return store.upsert(item.getId(), current -> item);
+    }
+
+    // Порча одного байта данных последней записи: её CRC больше не сходится
+    private static void corruptLastRecord(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN);
+            long position = 16;
+            long last = -1;
+            while (true) {
+                header.clear();
+                channel.read(header, position);
+                int length = header.getInt(0);
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                position += ItemLog.RECORD_HEADER + length;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), last + ItemLog.RECORD_HEADER + 20);
+        }
+    }
+
+    private static List<UUID> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+}
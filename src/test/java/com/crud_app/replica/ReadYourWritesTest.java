@@ -0,0 +1,93 @@
+package com.crud_app.replica;
+
+import com.crud_app.service.ItemChangedEvent;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReadYourWritesTest {
+
+    private final ReplicaSet replicaSet = new ReplicaSet(List.of(new Replica("replica-1", mock(DataSource.class))));
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(replicaSet, Duration.ofSeconds(10));
+
+    @AfterEach
+    void tearDown() {
+        ReplicaContext.clear();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void positionCookie_ShouldBeRequiredForTheRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, "42"));
+
+        readYourWrites.preHandle(request, response, null);
+        assertEquals(42, ReplicaContext.requiredPosition());
+
+        readYourWrites.afterCompletion(request, response, null, null);
+        assertEquals(0, ReplicaContext.requiredPosition());
+    }
+
+    @Test
+    void malformedCookie_ShouldBeIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, "abc"));
+
+        assertTrue(readYourWrites.preHandle(request, new MockHttpServletResponse(), null));
+        assertEquals(0, ReplicaContext.requiredPosition());
+    }
+
+    @Test
+    void ownWrite_ShouldRequireItsPositionAndSetCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        replicaSet.advance();
+        replicaSet.advance();
+
+        readYourWrites.onItemChanged(ItemChangedEvent.deleted(UUID.randomUUID()));
+        readYourWrites.postHandle(request, response, null, null);
+
+        assertEquals(2, ReplicaContext.requiredPosition());
+        Cookie cookie = response.getCookie(ReadYourWrites.COOKIE);
+        assertNotNull(cookie);
+        assertEquals("2", cookie.getValue());
+        assertEquals(10, cookie.getMaxAge());
+    }
+
+    @Test
+    void writeOutsideRequest_ShouldNotTouchThreadContext() {
+        replicaSet.advance();
+
+        readYourWrites.onItemChanged(ItemChangedEvent.deleted(UUID.randomUUID()));
+
+        assertEquals(0, ReplicaContext.requiredPosition());
+    }
+
+    @Test
+    void positionPassedByWriter_ShouldBeRequiredAndSetInCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        readYourWrites.written(5);
+        readYourWrites.written(3);
+        readYourWrites.postHandle(request, response, null, null);
+
+        assertEquals(5, ReplicaContext.requiredPosition());
+        assertEquals("5", response.getCookie(ReadYourWrites.COOKIE).getValue());
+    }
+}
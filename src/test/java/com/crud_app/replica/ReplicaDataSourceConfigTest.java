@@ -0,0 +1,136 @@
+package com.crud_app.replica;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.replica.enabled=true",
+        "app.replica.urls=jdbc:h2:mem:replica-test-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:replica-test-2;DB_CLOSE_DELAY=-1",
+        "app.replica.stand-in.delay=0ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaDataSourceConfigTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void awaitReplicas() throws InterruptedException {
+        await(() -> replicaSet.getReplicas().stream().allMatch(Replica::isReady));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaContext.clear();
+    }
+
+    @Test
+    void savedItem_ShouldBeWrittenToPrimaryAndReplicated() throws InterruptedException {
+        Item saved = itemService.saveItem(Item.builder().name("Replicated").build());
+        long position = replicaSet.position();
+
+        assertEquals(1, count(new JdbcTemplate(primaryDataSource), saved.getId()));
+        for (Replica replica : replicaSet.getReplicas()) {
+            await(() -> replica.getAppliedPosition() >= position);
+            assertEquals(1, count(new JdbcTemplate(replica.getDataSource()), saved.getId()));
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldBeServedByReplicas() {
+        // Строка есть только на репликах: найти её может лишь чтение с реплики
+        UUID id = UUID.randomUUID();
+        replicaSet.getReplicas().forEach(replica -> insert(new JdbcTemplate(replica.getDataSource()), id));
+        double before = replicaReads();
+
+        assertTrue(itemRepository.findById(id).isPresent());
+        assertTrue(replicaReads() > before);
+        assertEquals(0, count(new JdbcTemplate(primaryDataSource), id));
+    }
+
+    @Test
+    void requiredPositionAheadOfReplicas_ShouldReadFromPrimary() {
+        UUID id = UUID.randomUUID();
+        replicaSet.getReplicas().forEach(replica -> insert(new JdbcTemplate(replica.getDataSource()), id));
+
+        ReplicaContext.requirePosition(replicaSet.position() + 1_000);
+
+        assertTrue(itemRepository.findById(id).isEmpty());
+        assertTrue(registry.get("db.routing.fallbacks").tag("reason", "read_your_writes").counter().count() > 0);
+    }
+
+    @Test
+    void formSave_ShouldSetPositionCookie() throws Exception {
+        Cookie position = mockMvc.perform(post("/items").param("name", "From form"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(cookie().exists(ReadYourWrites.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWrites.COOKIE);
+
+        assertNotNull(position);
+        assertTrue(Long.parseLong(position.getValue()) > 0);
+        assertEquals(10, position.getMaxAge());
+    }
+
+    private double replicaReads() {
+        return replicaSet.getReplicas().stream()
+                .mapToDouble(replica -> registry.get("db.routing.reads").tag("target", replica.getName()).counter().count())
+                .sum();
+    }
+
+    private static void insert(JdbcTemplate target, UUID id) {
+        target.update("INSERT INTO items (id, name, created_at, updated_at, version) " +
+                "VALUES (?, 'Only on replica', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)", id);
+    }
+
+    private static int count(JdbcTemplate target, UUID id) {
+        Integer count = target.queryForObject("SELECT COUNT(*) FROM items WHERE id = ?", Integer.class, id);
+        return count != null ? count : 0;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,106 @@
+package com.crud_app.replica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Replica first = new Replica("replica-1", mock(DataSource.class));
+    private final Replica second = new Replica("replica-2", mock(DataSource.class));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), new ReplicaSet(List.of(first, second)),
+                Duration.ofSeconds(1), registry);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaContext.clear();
+    }
+
+    @Test
+    void writeTransactions_ShouldGoToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldAlternateReplicas() {
+        Set<Object> targets = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            targets.add(routing.determineCurrentLookupKey());
+        }
+
+        assertEquals(Set.of("replica-1", "replica-2"), targets);
+        assertEquals(2, registry.get("db.routing.reads").tag("target", "replica-1").counter().count());
+    }
+
+    @Test
+    void laggingReplica_ShouldBeSkipped() {
+        long committed = System.nanoTime() - Duration.ofSeconds(5).toNanos();
+        first.trackLag(() -> committed);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", routing.determineCurrentLookupKey());
+        }
+        assertTrue(first.getLag().compareTo(Duration.ofSeconds(5)) >= 0);
+    }
+
+    @Test
+    void noReplicaWithinLag_ShouldFallBackToPrimary() {
+        long committed = System.nanoTime() - Duration.ofSeconds(5).toNanos();
+        first.trackLag(() -> committed);
+        second.setReady(false);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertEquals(1, registry.get("db.routing.fallbacks").tag("reason", "lag").counter().count());
+    }
+
+    @Test
+    void requiredPosition_ShouldSkipReplicasThatHaveNotReachedIt() {
+        first.applied(10);
+        second.applied(5);
+        ReplicaContext.requirePosition(8);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+
+        ReplicaContext.requirePosition(11);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertEquals(1, registry.get("db.routing.fallbacks").tag("reason", "read_your_writes").counter().count());
+    }
+
+    @Test
+    void readFromReplicaWithinLag_ShouldBeMarkedAsLagging() {
+        long committed = System.nanoTime() - Duration.ofMillis(100).toNanos();
+        first.trackLag(() -> committed);
+        second.trackLag(() -> committed);
+
+        routing.determineCurrentLookupKey();
+        assertEquals(1, ReplicaContext.laggingReads());
+
+        second.trackLag(() -> 0);
+        first.setReady(false);
+        routing.determineCurrentLookupKey();
+        assertEquals(1, ReplicaContext.laggingReads());
+    }
+}
@@ -0,0 +1,123 @@
+package com.crud_app.replica;
+
+import com.crud_app.model.Item;
+import com.crud_app.service.ItemChangedEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationStandInTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate target;
+    private Replica replica;
+    private ReplicationStandIn standIn;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        JdbcDataSource primaryDataSource = dataSource("primary-" + suffix);
+        JdbcDataSource replicaDataSource = dataSource("replica-" + suffix);
+        primary = new JdbcTemplate(primaryDataSource);
+        target = new JdbcTemplate(replicaDataSource);
+        primary.execute("CREATE TABLE items (id UUID PRIMARY KEY, name VARCHAR(50) NOT NULL, description VARCHAR(255), " +
+                "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP, version BIGINT DEFAULT 0 NOT NULL)");
+        primary.execute("CREATE TABLE item_stats (granularity VARCHAR(8) NOT NULL, bucket_start TIMESTAMP NOT NULL, " +
+                "slot INT NOT NULL, created BIGINT NOT NULL, updated BIGINT NOT NULL, deleted BIGINT NOT NULL, " +
+                "PRIMARY KEY (granularity, bucket_start, slot))");
+        // Строка до старта - как демо-данные: без события, только в полной копии
+        primary.update("INSERT INTO items (id, name, created_at) VALUES (?, 'Before start', CURRENT_TIMESTAMP)", UUID.randomUUID());
+
+        replica = new Replica("replica-1", replicaDataSource);
+        standIn = new ReplicationStandIn(new ReplicaSet(List.of(replica)), primaryDataSource, Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.close();
+    }
+
+    @Test
+    void start_ShouldCopyWholeDatabase() throws InterruptedException {
+        assertFalse(replica.isReady());
+
+        standIn.start();
+
+        await(replica::isReady);
+        assertEquals(1, count("SELECT COUNT(*) FROM items"));
+    }
+
+    @Test
+    void changes_ShouldBeAppliedAfterDelayInOrder() throws InterruptedException {
+        standIn.start();
+        await(replica::isReady);
+
+        Item item = insert("Created");
+        standIn.onItemChanged(ItemChangedEvent.saved(item, true));
+        primary.update("UPDATE items SET name = 'Updated', version = 1 WHERE id = ?", item.getId());
+        standIn.onItemChanged(ItemChangedEvent.saved(item, false));
+
+        // Пока задержка не прошла, изменение не применено и реплика отстаёт
+        assertEquals(0, count("SELECT COUNT(*) FROM items WHERE id = '" + item.getId() + "'"));
+        assertTrue(replica.getLag().compareTo(Duration.ZERO) > 0);
+
+        await(() -> replica.getAppliedPosition() == 2);
+        assertEquals("Updated", target.queryForObject("SELECT name FROM items WHERE id = ?", String.class, item.getId()));
+        assertEquals(Duration.ZERO, replica.getLag());
+
+        primary.update("DELETE FROM items WHERE id = ?", item.getId());
+        standIn.onItemChanged(ItemChangedEvent.deleted(item.getId()));
+        await(() -> replica.getAppliedPosition() == 3);
+        assertEquals(0, count("SELECT COUNT(*) FROM items WHERE id = '" + item.getId() + "'"));
+    }
+
+    @Test
+    void changes_ShouldCopyTouchedStatsBuckets() throws InterruptedException {
+        standIn.start();
+        await(replica::isReady);
+
+        Item item = insert("Counted");
+        LocalDateTime day = item.getCreatedAt().toLocalDate().atStartOfDay();
+        primary.update("INSERT INTO item_stats VALUES ('DAY', ?, 0, 2, 0, 0), ('DAY', ?, 3, 1, 0, 0)", day, day);
+        standIn.onItemChanged(ItemChangedEvent.saved(item, true));
+
+        await(() -> replica.getAppliedPosition() == 1);
+        assertEquals(3, count("SELECT SUM(created) FROM item_stats WHERE granularity = 'DAY'"));
+    }
+
+    private Item insert(String name) {
+        Item item = Item.builder().id(UUID.randomUUID()).name(name).createdAt(LocalDateTime.now().withNano(0)).build();
+        primary.update("INSERT INTO items (id, name, created_at) VALUES (?, ?, ?)", item.getId(), name, item.getCreatedAt());
+        return item;
+    }
+
+    private int count(String sql) {
+        Integer count = target.queryForObject(sql, Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private static JdbcDataSource dataSource(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
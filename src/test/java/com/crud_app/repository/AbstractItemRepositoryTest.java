@@ -0,0 +1,432 @@
+package com.crud_app.repository;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemRow;
+import com.crud_app.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// ОБЩИЕ ПРОВЕРКИ ItemRepository: одни и те же для JPA над H2 (ItemRepositoryTest)
+// и для хранилища вне кучи (OffHeapItemRepositoryTest). @Transactional - здесь, а не только
+// на @DataJpaTest: Spring ищет транзакцию на классе, где объявлен тестовый метод
+@Transactional
+abstract class AbstractItemRepositoryTest {
+
+    private ItemRepository itemRepository;
+
+    private Item testItem1;
+    private Item testItem2;
+    private Item testItem3;
+    private LocalDateTime now;
+
+    protected abstract ItemRepository repository();
+
+    // @CreationTimestamp и @UpdateTimestamp ставят текущее время - нужные даты только в обход репозитория
+    protected abstract void setDates(Item item, String createdAt, String updatedAt);
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = repository();
+        itemRepository.deleteAll();
+
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        testItem1 = new Item();
+        testItem1.setName("Test Item 1");
+        testItem1.setDescription("Description for item 1");
+        testItem1.setCreatedAt(now.minusDays(2));
+
+        testItem2 = new Item();
+        testItem2.setName("Test Item 2");
+        testItem2.setDescription("Another description");
+        testItem2.setCreatedAt(now.minusDays(1).minusHours(6)); // 1.5 дня назад
+
+        testItem3 = new Item();
+        testItem3.setName("Different Item");
+        testItem3.setDescription("Third description");
+        testItem3.setCreatedAt(now.minusHours(1)); // 1 час назад
+
+        itemRepository.saveAll(List.of(testItem1, testItem2, testItem3));
+
+        // Очищаем контекст, чтобы получить свежие данные из базы
+        itemRepository.flush();
+    }
+
+    @Test
+    void testFindAll() {
+        List<Item> items = itemRepository.findAll();
+
+        assertEquals(3, items.size());
+    }
+
+    @Test
+    void testFindById() {
+        Optional<Item> foundItem = itemRepository.findById(testItem1.getId());
+
+        assertTrue(foundItem.isPresent());
+        assertEquals(testItem1.getName(), foundItem.get().getName());
+    }
+
+    @Test
+    void testSaveItem() {
+        Item newItem = new Item();
+        newItem.setName("New Test Item");
+        newItem.setDescription("New Description");
+
+        Item savedItem = itemRepository.save(newItem);
+
+        assertNotNull(savedItem.getId());
+        assertEquals("New Test Item", savedItem.getName());
+        assertEquals(4, itemRepository.count());
+    }
+
+    @Test
+    void testDeleteById() {
+        itemRepository.deleteById(testItem1.getId());
+
+        assertEquals(2, itemRepository.count());
+        assertFalse(itemRepository.existsById(testItem1.getId()));
+    }
+
+    @Test
+    void testFindByNameContainingIgnoreCase() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Page<Item> result = itemRepository.findByNameContainingIgnoreCase("test", pageable);
+
+        assertEquals(2, result.getTotalElements());
+        assertTrue(result.getContent().stream()
+                .allMatch(item -> item.getName().toLowerCase().contains("test")));
+    }
+
+    @Test
+    void testSearchByKeyword() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Page<Item> resultByName = itemRepository.searchByKeyword("item", pageable);
+
+        Page<Item> resultByDescription = itemRepository.searchByKeyword("description", pageable);
+
+        assertEquals(3, resultByName.getTotalElements());
+        assertEquals(3, resultByDescription.getTotalElements());
+    }
+
+    @Test
+    void testFindByCreatedAtGreaterThanEqual() {
+        LocalDateTime filterDate = now.minusDays(2);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Page<Item> result = itemRepository.findByCreatedAtGreaterThanEqual(filterDate, pageable);
+
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    void testPagination() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name").ascending());
+
+        Page<Item> page = itemRepository.findAll(pageable);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+
+        List<Item> items = page.getContent();
+        assertTrue(items.get(0).getName().compareTo(items.get(1).getName()) < 0);
+    }
+
+    @Test
+    void testUpdateItem() {
+        String newName = "Updated Name";
+        testItem1.setName(newName);
+
+        Item updatedItem = itemRepository.save(testItem1);
+
+        assertEquals(newName, updatedItem.getName());
+        assertNotNull(updatedItem.getUpdatedAt());
+    }
+
+    @Test
+    void testSeekByNameAscending() {
+        List<Item> firstPage = itemRepository.seek("name", true, null, null, 2);
+
+        assertEquals(2, firstPage.size());
+        assertEquals("Different Item", firstPage.get(0).getName());
+        assertEquals("Test Item 1", firstPage.get(1).getName());
+
+        Item last = firstPage.get(1);
+        List<Item> nextPage = itemRepository.seek("name", true, last.getName(), last.getId(), 2);
+
+        assertEquals(1, nextPage.size());
+        assertEquals("Test Item 2", nextPage.get(0).getName());
+    }
+
+    @Test
+    void testSeekByNameDescending() {
+        List<Item> firstPage = itemRepository.seek("name", false, null, null, 1);
+
+        assertEquals("Test Item 2", firstPage.get(0).getName());
+
+        Item last = firstPage.get(0);
+        List<Item> nextPage = itemRepository.seek("name", false, last.getName(), last.getId(), 10);
+
+        assertEquals(2, nextPage.size());
+        assertEquals("Test Item 1", nextPage.get(0).getName());
+        assertEquals("Different Item", nextPage.get(1).getName());
+    }
+
+    @Test
+    void testSeekWithNullValues() {
+        Item noDescription = new Item();
+        noDescription.setName("No Description");
+        itemRepository.saveAndFlush(noDescription);
+
+        // NULL идёт первым при ASC и последним при DESC
+        List<Item> ascending = itemRepository.seek("description", true, null, null, 10);
+        assertEquals(4, ascending.size());
+        assertNull(ascending.get(0).getDescription());
+
+        Item first = ascending.get(0);
+        List<Item> afterNull = itemRepository.seek("description", true, null, first.getId(), 10);
+        assertEquals(3, afterNull.size());
+
+        Item lastNonNull = itemRepository.seek("description", false, null, null, 3).get(2);
+        List<Item> descendingTail = itemRepository.seek("description", false,
+                lastNonNull.getDescription(), lastNonNull.getId(), 10);
+        assertEquals(1, descendingTail.size());
+        assertNull(descendingTail.get(0).getDescription());
+    }
+
+    @Test
+    void testSeekWithDuplicateSortValues() {
+        for (int i = 0; i < 5; i++) {
+            Item duplicate = new Item();
+            duplicate.setName("Same Name");
+            itemRepository.save(duplicate);
+        }
+        itemRepository.flush();
+
+        List<Item> seen = new java.util.ArrayList<>();
+        List<Item> page = itemRepository.seek("name", true, null, null, 2);
+        while (!page.isEmpty()) {
+            seen.addAll(page);
+            Item last = page.get(page.size() - 1);
+            page = itemRepository.seek("name", true, last.getName(), last.getId(), 2);
+        }
+
+        assertEquals(8, seen.size());
+        assertEquals(8, seen.stream().map(Item::getId).distinct().count());
+    }
+
+    @Test
+    void testFindRowsSlicesDoNotCount() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name").ascending());
+
+        Slice<ItemRow> all = itemRepository.findRows(ItemFilter.NONE, pageable);
+        Slice<ItemRow> byKeyword = itemRepository.findRows(ItemFilter.keyword("TEST"), pageable);
+        Slice<ItemRow> byDate = itemRepository.findRows(
+                new ItemFilter(null, "createdAt", now.toLocalDate().minusYears(1), null), pageable);
+
+        assertEquals(List.of("Different Item", "Test Item 1"), all.map(ItemRow::name).getContent());
+        assertTrue(all.hasNext());
+        assertEquals(List.of("Test Item 1", "Test Item 2"), byKeyword.map(ItemRow::name).getContent());
+        assertFalse(byKeyword.hasNext());
+        assertTrue(byDate.hasNext());
+        assertTrue(itemRepository.findRows(
+                new ItemFilter(null, "createdAt", now.toLocalDate().plusDays(1), null), pageable).isEmpty());
+    }
+
+    @Test
+    void testRowQueriesMatchEntityQueries() {
+        Slice<ItemRow> rows = itemRepository.findRows(ItemFilter.NONE, PageRequest.of(0, 2, Sort.by("name").ascending()));
+
+        assertEquals(itemRepository.seek("name", true, null, null, 2).stream().map(Item::getId).toList(), ids(rows));
+
+        ItemRow row = rows.getContent().get(1);
+        assertEquals(testItem1.getId(), row.id());
+        assertEquals("Description for item 1", row.description());
+        assertNotNull(row.createdAt());
+        assertEquals(Set.of(testItem2.getId(), testItem3.getId()),
+                Set.copyOf(itemRepository.findRowsByIdIn(List.of(testItem2.getId(), testItem3.getId()))
+                        .stream().map(ItemRow::id).toList()));
+    }
+
+    @Test
+    void testFindRowsCombinesKeywordDateRangeAndSort() {
+        setDates(testItem1, "2024-03-01 10:00:00", "2024-06-10 12:00:00");
+        setDates(testItem2, "2024-03-02 23:59:59", "2024-03-02 23:59:59");
+        setDates(testItem3, "2024-03-03 00:00:00", "2024-06-10 08:00:00");
+
+        ItemFilter march = new ItemFilter(null, "createdAt", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2));
+        ItemFilter june = new ItemFilter("description", "updatedAt", LocalDate.of(2024, 6, 10), null);
+        ItemFilter marchTest = new ItemFilter("test", "createdAt", LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3));
+
+        // Границы - по дням включительно: 2024-03-02 23:59:59 входит, 2024-03-03 00:00 - нет
+        assertEquals(List.of(testItem2.getId(), testItem1.getId()),
+                ids(itemRepository.findRows(march, PageRequest.of(0, 10))));
+        assertEquals(List.of(testItem3.getId(), testItem1.getId()),
+                ids(itemRepository.findRows(june, PageRequest.of(0, 10, Sort.by("name").ascending()))));
+        assertEquals(List.of(testItem1.getId(), testItem3.getId()),
+                ids(itemRepository.findRows(june, PageRequest.of(0, 10, Sort.by("updatedAt").descending()))));
+        assertEquals(List.of(testItem2.getId()), ids(itemRepository.findRows(marchTest, PageRequest.of(0, 10))));
+
+        assertEquals(2, itemRepository.countRows(march));
+        assertEquals(2, itemRepository.countRows(june));
+        assertEquals(1, itemRepository.countRows(marchTest));
+        assertEquals(3, itemRepository.countRows(ItemFilter.NONE));
+    }
+
+    @Test
+    void testStreamAppliesListFilterNewestFirst() {
+        setDates(testItem1, "2024-03-01 10:00:00", "2024-06-10 12:00:00");
+        setDates(testItem2, "2024-03-02 23:59:59", "2024-03-02 23:59:59");
+        setDates(testItem3, "2024-03-03 00:00:00", "2024-06-10 08:00:00");
+
+        ItemFilter march = new ItemFilter(null, "createdAt", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2));
+        ItemFilter june = new ItemFilter("description", "updatedAt", LocalDate.of(2024, 6, 10), null);
+
+        assertEquals(List.of(testItem3.getId(), testItem2.getId(), testItem1.getId()), streamIds(ItemFilter.NONE));
+        assertEquals(List.of(testItem2.getId(), testItem1.getId()), streamIds(march));
+        assertEquals(List.of(testItem3.getId(), testItem1.getId()), streamIds(june));
+        assertEquals(List.of(testItem2.getId()),
+                streamIds(new ItemFilter("test", "createdAt", LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3))));
+    }
+
+    @Test
+    void testFindRowsPagesWithoutCount() {
+        Pageable firstPage = PageRequest.of(0, 2, Sort.by("name").descending());
+
+        Slice<ItemRow> first = itemRepository.findRows(ItemFilter.NONE, firstPage);
+        Slice<ItemRow> second = itemRepository.findRows(ItemFilter.NONE, first.nextPageable());
+
+        assertEquals(List.of("Test Item 2", "Test Item 1"), first.map(ItemRow::name).getContent());
+        assertTrue(first.hasNext());
+        assertEquals(List.of("Different Item"), second.map(ItemRow::name).getContent());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testFindRowsIgnoresUnknownSortField() {
+        Slice<ItemRow> rows = itemRepository.findRows(ItemFilter.NONE,
+                PageRequest.of(0, 10, Sort.by("version; DROP TABLE items").ascending()));
+
+        assertEquals(3, rows.getNumberOfElements());
+    }
+
+    @Test
+    void testSeekRowsFollowsSeek() {
+        List<ItemRow> firstPage = itemRepository.seekRows("name", true, null, null, 2);
+        ItemRow last = firstPage.get(1);
+        List<ItemRow> nextPage = itemRepository.seekRows("name", true, last.name(), last.id(), 2);
+
+        assertEquals(itemRepository.seek("name", true, null, null, 2).stream().map(Item::getId).toList(),
+                firstPage.stream().map(ItemRow::id).toList());
+        assertEquals(List.of(testItem2.getId()), nextPage.stream().map(ItemRow::id).toList());
+    }
+
+    @Test
+    void testFilterCounts() {
+        assertEquals(2, itemRepository.countRows(ItemFilter.keyword("TEST")));
+        assertEquals(3, itemRepository.countRows(ItemFilter.keyword("description")));
+        assertEquals(3, itemRepository.countRows(
+                new ItemFilter(null, "createdAt", now.toLocalDate().minusYears(1), null)));
+        assertEquals(0, itemRepository.countRows(
+                new ItemFilter(null, "createdAt", now.toLocalDate().plusYears(1), null)));
+    }
+
+    @Test
+    void testFindMaxUpdatedAt() {
+        LocalDateTime expected = itemRepository.findAll().stream()
+                .map(Item::getUpdatedAt)
+                .max(LocalDateTime::compareTo)
+                .orElseThrow();
+
+        assertEquals(expected, itemRepository.findMaxUpdatedAt());
+
+        itemRepository.deleteAll();
+        assertNull(itemRepository.findMaxUpdatedAt());
+    }
+
+    @Test
+    void testDeleteItemByIdDeletesWithoutLoading() {
+        assertEquals(1, itemRepository.deleteItemById(testItem1.getId()));
+        assertEquals(0, itemRepository.deleteItemById(testItem1.getId()));
+
+        assertEquals(2, itemRepository.count());
+    }
+
+    @Test
+    void testFindIdsToPurgeByDate() {
+        assertEquals(0, itemRepository.findIdsToPurge(now.minusYears(1), null, null, 10).size());
+        assertEquals(3, itemRepository.findIdsToPurge(now.plusYears(1), null, null, 10).size());
+        assertEquals(2, itemRepository.findIdsToPurge(now.plusYears(1), null, null, 2).size());
+    }
+
+    @Test
+    void testFindIdsToPurgeByKeywordWalksById() {
+        List<UUID> first = itemRepository.findIdsToPurge(null, "TEST", null, 1);
+        List<UUID> second = itemRepository.findIdsToPurge(null, "TEST", first.get(0), 1);
+        List<UUID> third = itemRepository.findIdsToPurge(null, "TEST", second.get(0), 1);
+
+        assertEquals(Set.of(testItem1.getId(), testItem2.getId()), Set.of(first.get(0), second.get(0)));
+        assertTrue(third.isEmpty());
+        assertTrue(itemRepository.findIdsToPurge(now.minusYears(1), "TEST", null, 10).isEmpty());
+    }
+
+    @Test
+    void testPatchUpdatesOnlyGivenFieldsAndBumpsVersion() {
+        LocalDateTime updatedAt = now.plusMinutes(5);
+
+        Item patched = itemRepository.patch(testItem1.getId(), "Patched", false, null, 0L, updatedAt).orElseThrow();
+
+        assertEquals("Patched", patched.getName());
+        assertEquals("Description for item 1", patched.getDescription());
+        assertEquals(updatedAt, patched.getUpdatedAt());
+        assertEquals(1, patched.getVersion());
+        assertEquals(Optional.of(1L), itemRepository.findVersionById(testItem1.getId()));
+    }
+
+    @Test
+    void testPatchClearsDescriptionWithoutVersionCheck() {
+        Item patched = itemRepository.patch(testItem2.getId(), null, true, null, null, now).orElseThrow();
+
+        assertEquals("Test Item 2", patched.getName());
+        assertNull(patched.getDescription());
+    }
+
+    @Test
+    void testPatchWithStaleVersionChangesNothing() {
+        itemRepository.patch(testItem3.getId(), "First", false, null, 0L, now);
+
+        assertTrue(itemRepository.patch(testItem3.getId(), "Second", false, null, 0L, now).isEmpty());
+        assertTrue(itemRepository.patch(UUID.randomUUID(), "Ghost", false, null, null, now).isEmpty());
+        assertEquals(Optional.of(1L), itemRepository.findVersionById(testItem3.getId()));
+    }
+
+    private static List<UUID> ids(Slice<ItemRow> rows) {
+        return rows.map(ItemRow::id).getContent();
+    }
+
+    private List<UUID> streamIds(ItemFilter filter) {
+        try (Stream<Item> items = itemRepository.stream(filter)) {
+            return items.map(Item::getId).toList();
+        }
+    }
+}
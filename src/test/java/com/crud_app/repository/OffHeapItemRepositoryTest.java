@@ -0,0 +1,42 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.Item;
+import com.crud_app.offheap.OffHeapItemRepository;
+import com.crud_app.offheap.OffHeapItemStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Те же проверки, что у JPA, над хранилищем вне кучи в отдельном каталоге на каждый тест
+class OffHeapItemRepositoryTest extends AbstractItemRepositoryTest {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @TempDir
+    private Path dir;
+
+    private OffHeapItemStore store;
+
+    @Override
+    protected ItemRepository repository() {
+        store = new OffHeapItemStore(dir, 1 << 20, false, 0.5);
+        return new OffHeapItemRepository(store);
+    }
+
+    @Override
+    protected void setDates(Item item, String createdAt, String updatedAt) {
+        store.upsert(item.getId(), current -> {
+            current.setCreatedAt(LocalDateTime.parse(createdAt, TIMESTAMP));
+            current.setUpdatedAt(LocalDateTime.parse(updatedAt, TIMESTAMP));
+            return current;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+}
@@ -0,0 +1,125 @@
+package com.crud_app.repository;
+
+import com.crud_app.model.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReactiveItemRepositoryTest {
+
+    @Autowired
+    private ReactiveItemRepository reactiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM items");
+        ReflectionTestUtils.setField(reactiveRepository, "windowSize", 2);
+        for (int i = 1; i <= 7; i++) {
+            jdbcTemplate.update("INSERT INTO items (id, name, description, created_at, updated_at) " +
+                            "VALUES (RANDOM_UUID(), ?, ?, ?, ?)",
+                    "Item " + i, i % 2 == 0 ? "Even" : "Odd",
+                    LocalDateTime.of(2024, 1, i, 0, 0), LocalDateTime.of(2024, 1, i, 0, 0));
+        }
+    }
+
+    @Test
+    void findAll_ShouldReturnRequestedPageAcrossWindows() {
+        List<Item> items = reactiveRepository.findAll(PageRequest.of(1, 3, Sort.by("name").ascending()))
+                .collectList().block();
+
+        assertEquals(List.of("Item 4", "Item 5", "Item 6"), items.stream().map(Item::getName).toList());
+        assertNotNull(items.get(0).getId());
+        assertEquals(LocalDateTime.of(2024, 1, 4, 0, 0), items.get(0).getCreatedAt());
+    }
+
+    @Test
+    void findAll_ShouldStopAtEndOfTable() {
+        List<Item> items = reactiveRepository.findAll(PageRequest.of(1, 5, Sort.by("createdAt").descending()))
+                .collectList().block();
+
+        assertEquals(List.of("Item 2", "Item 1"), items.stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void findAll_ShouldRejectUnknownSortField() {
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> reactiveRepository.findAll(PageRequest.of(0, 5, Sort.by("id; DROP TABLE items"))));
+    }
+
+    @Test
+    void searchByKeyword_ShouldMatchNameOrDescriptionIgnoringCase() {
+        List<Item> items = reactiveRepository.searchByKeyword("EVEN", PageRequest.of(0, 10))
+                .collectList().block();
+
+        assertEquals(List.of("Item 6", "Item 4", "Item 2"), items.stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void findByCreatedAtAfter_ShouldReturnNewerItems() {
+        List<Item> items = reactiveRepository.findByCreatedAtAfter(LocalDateTime.of(2024, 1, 5, 0, 0),
+                PageRequest.of(0, 10)).collectList().block();
+
+        assertEquals(List.of("Item 7", "Item 6"), items.stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void findAll_ShouldNotHoldConnection_WhileSubscriberIsSlow() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<Item> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(Item item) {
+                received.add(item.getName());
+            }
+        };
+        reactiveRepository.findAll(PageRequest.of(0, 6, Sort.by("name").ascending())).subscribe(subscriber);
+        waitFor(() -> received.size() == 1);
+
+        // Подписчик больше не просит: окна уже прочитаны, соединение вернулось в пул
+        Thread.sleep(100);
+        assertEquals(List.of("Item 1"), received);
+        assertFalse(subscriber.isDisposed());
+        assertEquals(0, meterRegistry.get("r2dbc.pool.acquired").tag("name", "reactive").gauge().value());
+
+        subscriber.request(10);
+        waitFor(subscriber::isDisposed);
+        assertEquals(List.of("Item 1", "Item 2", "Item 3", "Item 4", "Item 5", "Item 6"), received);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "не дождались");
+            Thread.sleep(10);
+        }
+    }
+}
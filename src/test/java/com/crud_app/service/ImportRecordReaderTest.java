@@ -0,0 +1,76 @@
+package com.crud_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRecordReaderTest {
+
+    @Test
+    void csv_ShouldMapColumnsByHeaderAndKeepLineNumbers() throws IOException {
+        List<ImportRecordReader.Row> rows = readAll(ItemFileFormat.CSV,
+                "\uFEFFid,Name,description,createdAt\n" +
+                "1,Молоко,2 литра,2024-01-01\r\n" +
+                "\n" +
+                "2,\"Хлеб, белый\",\"Строка 1\nстрока 2 с \"\"кавычками\"\"\",2024-01-02\n" +
+                "3,Сыр,,2024-01-03");
+
+        assertEquals(3, rows.size());
+        assertEquals(new ImportRecordReader.Row(2, "Молоко", "2 литра", null), rows.get(0));
+        assertEquals(new ImportRecordReader.Row(4, "Хлеб, белый",
+                "Строка 1\nстрока 2 с \"кавычками\"", null), rows.get(1));
+        assertEquals(new ImportRecordReader.Row(6, "Сыр", null, null), rows.get(2));
+    }
+
+    @Test
+    void csv_ShouldRejectRowWithMissingColumns() throws IOException {
+        List<ImportRecordReader.Row> rows = readAll(ItemFileFormat.CSV, "description,name\nonly description\n");
+
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertNotNull(rows.get(0).error());
+    }
+
+    @Test
+    void csv_ShouldFail_WhenHeaderHasNoNameColumn() {
+        assertThrows(IllegalArgumentException.class, () -> readAll(ItemFileFormat.CSV, "title,description\nx,y\n"));
+    }
+
+    @Test
+    void csv_ShouldFail_OnUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> readAll(ItemFileFormat.CSV, "name\n\"open quote\n"));
+    }
+
+    @Test
+    void ndjson_ShouldParseObjectsAndRejectBrokenLines() throws IOException {
+        List<ImportRecordReader.Row> rows = readAll(ItemFileFormat.NDJSON,
+                "{\"name\":\"Молоко\",\"description\":\"2 литра\"}\n" +
+                "\n" +
+                "{\"name\":\"Хлеб\"\n" +
+                "[1,2]\n" +
+                "{\"name\":\"Сыр\",\"description\":null,\"extra\":1}\n");
+
+        assertEquals(4, rows.size());
+        assertEquals(new ImportRecordReader.Row(1, "Молоко", "2 литра", null), rows.get(0));
+        assertEquals(3, rows.get(1).line());
+        assertNotNull(rows.get(1).error());
+        assertEquals(4, rows.get(2).line());
+        assertNotNull(rows.get(2).error());
+        assertEquals(new ImportRecordReader.Row(5, "Сыр", null, null), rows.get(3));
+    }
+
+    private List<ImportRecordReader.Row> readAll(ItemFileFormat format, String content) throws IOException {
+        ImportRecordReader reader = ImportRecordReader.of(format, new StringReader(content));
+        List<ImportRecordReader.Row> rows = new ArrayList<>();
+        ImportRecordReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,112 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.BulkResult;
+import com.crud_app.dto.ItemRequest;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemBulkServiceTest {
+
+    @Autowired
+    private ItemBulkService bulkService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        ReflectionTestUtils.setField(bulkService, "chunkSize", 2);
+    }
+
+    @Test
+    void createItems_ShouldInsertAllRowsInChunks() {
+        BulkResult result = bulkService.createItems(requests(5));
+
+        assertEquals("create", result.getOperation());
+        assertEquals(5, result.getProcessed());
+        assertEquals(5, result.getIds().size());
+        assertEquals(3, result.getChunks().size());
+        assertEquals(List.of(2, 2, 1), result.getChunks().stream().map(BulkResult.ChunkTiming::getSize).toList());
+        assertEquals(5, itemRepository.count());
+        assertTrue(itemRepository.findById(result.getIds().get(0)).isPresent());
+    }
+
+    @Test
+    void createItems_ShouldRejectWholeRequest_WhenAnyRowIsInvalid() {
+        List<ItemRequest> requests = requests(3);
+        requests.get(1).setName("x".repeat(51));
+        requests.get(2).setDescription("x".repeat(256));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> bulkService.createItems(requests));
+
+        assertTrue(e.getMessage().contains("[1] name"));
+        assertTrue(e.getMessage().contains("[2] description"));
+        assertEquals(0, itemRepository.count());
+    }
+
+    @Test
+    void updateItems_ShouldUpdateExistingAndReportMissing() {
+        List<UUID> ids = bulkService.createItems(requests(3)).getIds();
+        UUID missing = UUID.randomUUID();
+
+        BulkResult result = bulkService.updateItems(List.of(
+                new ItemRequest(ids.get(0), "Renamed 0", "New description"),
+                new ItemRequest(missing, "Ghost", null),
+                new ItemRequest(ids.get(2), "Renamed 2", null)));
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(List.of(missing), result.getNotFound());
+        Item renamed = itemRepository.findById(ids.get(0)).orElseThrow();
+        assertEquals("Renamed 0", renamed.getName());
+        assertEquals("New description", renamed.getDescription());
+        assertEquals("Item 1", itemRepository.findById(ids.get(1)).orElseThrow().getName());
+    }
+
+    @Test
+    void updateItems_ShouldRequireId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkService.updateItems(List.of(new ItemRequest(null, "Name", null))));
+    }
+
+    @Test
+    void deleteItems_ShouldDeleteExistingAndReportMissing() {
+        List<UUID> ids = bulkService.createItems(requests(4)).getIds();
+        UUID missing = UUID.randomUUID();
+
+        BulkResult result = bulkService.deleteItems(List.of(ids.get(0), missing, ids.get(3)));
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(List.of(missing), result.getNotFound());
+        assertEquals(2, itemRepository.count());
+        assertFalse(itemRepository.existsById(ids.get(0)));
+        assertTrue(itemRepository.existsById(ids.get(1)));
+    }
+
+    @Test
+    void deleteItems_ShouldRejectEmptyList() {
+        assertThrows(IllegalArgumentException.class, () -> bulkService.deleteItems(List.of()));
+    }
+
+    private List<ItemRequest> requests(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ItemRequest(null, "Item " + i, "Description " + i))
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+}
@@ -0,0 +1,124 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFeedEvent;
+import com.crud_app.model.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemChangeFeedTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ItemChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("registry", registry));
+        feed = new ItemChangeFeed(4, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldDeliverEventsAfterSubscriptionInOrder() throws Exception {
+        Item item = item("Live");
+        CompletableFuture<List<ItemFeedEvent>> received = feed.subscribe(null).take(3).collectList().toFuture();
+
+        feed.onItemChanged(ItemChangedEvent.saved(item, true));
+        feed.onItemChanged(ItemChangedEvent.saved(item, false));
+        feed.onItemChanged(ItemChangedEvent.deleted(item.getId()));
+
+        List<ItemFeedEvent> events = received.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(ItemFeedEvent::seq).toList());
+        assertEquals(List.of("created", "updated", "deleted"), events.stream().map(ItemFeedEvent::type).toList());
+        assertEquals("Live", events.get(0).item().name());
+        assertNull(events.get(2).item());
+        assertEquals(item.getId(), events.get(2).id());
+        assertEquals(feed.getEpoch() + "-1", events.get(0).eventId());
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldResumeFromBuffer() {
+        IntStream.range(0, 3).forEach(i -> feed.onItemChanged(ItemChangedEvent.saved(item("Item " + i), true)));
+
+        List<ItemFeedEvent> events = feed.subscribe(feed.getEpoch() + "-1").take(2).collectList().block(TIMEOUT);
+
+        assertNotNull(events);
+        assertEquals(List.of(2L, 3L), events.stream().map(ItemFeedEvent::seq).toList());
+    }
+
+    @Test
+    void subscribe_BehindBuffer_ShouldGetReset() {
+        IntStream.range(0, 10).forEach(i -> feed.onItemChanged(ItemChangedEvent.saved(item("Item " + i), true)));
+
+        ItemFeedEvent first = feed.subscribe(feed.getEpoch() + "-2").blockFirst(TIMEOUT);
+
+        assertNotNull(first);
+        assertEquals(ItemFeedEvent.RESET, first.type());
+        assertEquals(10, first.seq());
+        assertEquals(1, registry.get("items.feed.resets").counter().count());
+    }
+
+    @Test
+    void subscribe_WithIdFromPreviousRun_ShouldGetReset() {
+        feed.onItemChanged(ItemChangedEvent.saved(item("Only"), true));
+
+        ItemFeedEvent first = feed.subscribe(feed.getEpoch() + "-500").blockFirst(TIMEOUT);
+
+        assertNotNull(first);
+        assertEquals(ItemFeedEvent.RESET, first.type());
+        assertEquals(1, first.seq());
+    }
+
+    // Номера после перезапуска снова с 1: id прошлого запуска с меньшим номером
+    // попал бы в буфер и молча пропустил бы события - его отличает только epoch
+    @Test
+    void subscribe_WithIdFromOtherEpoch_ShouldGetReset() {
+        IntStream.range(0, 3).forEach(i -> feed.onItemChanged(ItemChangedEvent.saved(item("Item " + i), true)));
+
+        for (String lastEventId : List.of("0badf00d-1", "1", "garbage")) {
+            ItemFeedEvent first = feed.subscribe(lastEventId).blockFirst(TIMEOUT);
+
+            assertNotNull(first, lastEventId);
+            assertEquals(ItemFeedEvent.RESET, first.type(), lastEventId);
+            assertEquals(feed.getEpoch() + "-3", first.eventId());
+        }
+    }
+
+    @Test
+    void manySubscribers_ShouldShareOneFanOut() throws Exception {
+        List<CompletableFuture<List<ItemFeedEvent>>> subscribers = IntStream.range(0, 1000)
+                .mapToObj(i -> feed.subscribe(null).take(2).collectList().toFuture())
+                .toList();
+
+        feed.onItemChanged(ItemChangedEvent.saved(item("A"), true));
+        feed.onItemChanged(ItemChangedEvent.saved(item("B"), true));
+
+        for (CompletableFuture<List<ItemFeedEvent>> subscriber : subscribers) {
+            assertEquals(List.of(1L, 2L), subscriber.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).stream()
+                    .map(ItemFeedEvent::seq).toList());
+        }
+    }
+
+    private static Item item(String name) {
+        return Item.builder().id(UUID.randomUUID()).name(name).build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemChange;
+import com.crud_app.repository.ItemChangeRepository;
+import com.crud_app.repository.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Поток чтения стартует, но до следующего чтения ждёт час: порции читаются из теста через poll()
+@SpringBootTest(properties = {"app.changelog.enabled=true", "app.changelog.poll-interval=1h"})
+@ActiveProfiles("test")
+class ItemChangeLogTest {
+
+    private static final String INSERT_ITEM = "INSERT INTO items (id, name, description, created_at, updated_at, version) " +
+            "VALUES (?, ?, NULL, LOCALTIMESTAMP, LOCALTIMESTAMP, 0)";
+    private static final String INSERT_CHANGE = "INSERT INTO item_changes (item_id, type, origin, changed_at) " +
+            "VALUES (?, ?, 'other-instance', LOCALTIMESTAMP)";
+
+    @Autowired
+    private ItemChangeLog changeLog;
+
+    @Autowired
+    private ItemChangeRepository changeRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemCountService countService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private long lastSeq;
+
+    @BeforeEach
+    void setUp() {
+        changeLog.poll();
+        Long max = changeRepository.findMaxSeq();
+        lastSeq = max != null ? max : 0;
+    }
+
+    @Test
+    void writes_ShouldAppendOwnChanges() {
+        Item item = itemService.saveItem(Item.builder().name("Logged").build());
+        item.setDescription("changed");
+        itemService.saveItem(item);
+        itemService.deleteItem(item.getId());
+
+        List<ItemChange> changes = changeRepository.readAfter(lastSeq, 10);
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), changes.stream().map(ItemChange::getType).toList());
+        assertTrue(changes.stream().allMatch(change -> item.getId().equals(change.getItemId())));
+        assertTrue(changes.stream().allMatch(change -> changeLog.getInstanceId().equals(change.getOrigin())));
+    }
+
+    @Test
+    void rolledBackWrite_ShouldNotAppend() {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.saveItem(Item.builder().name("Rolled back").build());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(changeRepository.readAfter(lastSeq, 10).isEmpty());
+    }
+
+    @Test
+    void ownChanges_ShouldNotBeApplied() {
+        double applied = applied();
+        itemService.saveItem(Item.builder().name("Own").build());
+
+        assertEquals(1, changeLog.poll());
+        assertEquals(applied, applied());
+    }
+
+    @Test
+    void remoteUpdate_ShouldRefreshCachedItem() {
+        Item item = itemService.saveItem(Item.builder().name("Before").build());
+        changeLog.poll();
+        assertEquals("Before", itemService.getItemById(item.getId()).orElseThrow().getName());
+
+        // Другой экземпляр: строка и журнал в обход этого приложения
+        jdbcTemplate.update("UPDATE items SET name = 'After', version = version + 1 WHERE id = ?", item.getId());
+        jdbcTemplate.update(INSERT_CHANGE, item.getId(), "UPDATED");
+        assertEquals("Before", itemService.getItemById(item.getId()).orElseThrow().getName());
+
+        double applied = applied();
+        assertEquals(1, changeLog.poll());
+        assertEquals("After", itemService.getItemById(item.getId()).orElseThrow().getName());
+        assertEquals(applied + 1, applied());
+        assertTrue(meterRegistry.get("items.changelog.lag").timer().count() > 0);
+    }
+
+    @Test
+    void remoteCreateAndDelete_ShouldResyncTotalCount() {
+        long before = countService.totalCount();
+        UUID id = UUID.randomUUID();
+
+        jdbcTemplate.update(INSERT_ITEM, id, "Remote");
+        jdbcTemplate.update(INSERT_CHANGE, id, "CREATED");
+        changeLog.poll();
+        assertEquals(before + 1, countService.totalCount());
+        assertTrue(itemService.getItemById(id).isPresent());
+
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", id);
+        jdbcTemplate.update(INSERT_CHANGE, id, "DELETED");
+        changeLog.poll();
+        assertEquals(before, countService.totalCount());
+        assertTrue(itemService.getItemById(id).isEmpty());
+    }
+
+    @Test
+    void lateCommit_ShouldBeReadAfterHigherSeq() throws Exception {
+        Item late = itemService.saveItem(Item.builder().name("Late before").build());
+        changeLog.poll();
+        assertEquals("Late before", itemService.getItemById(late.getId()).orElseThrow().getName());
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            // Меньший номер выдан этой транзакции, но виден станет после коммита
+            try (PreparedStatement update = connection.prepareStatement("UPDATE items SET name = 'Late after' WHERE id = ?");
+                 PreparedStatement change = connection.prepareStatement(INSERT_CHANGE)) {
+                update.setObject(1, late.getId());
+                update.executeUpdate();
+                change.setObject(1, late.getId());
+                change.setString(2, "UPDATED");
+                change.executeUpdate();
+            }
+
+            UUID early = UUID.randomUUID();
+            jdbcTemplate.update(INSERT_ITEM, early, "Early");
+            jdbcTemplate.update(INSERT_CHANGE, early, "CREATED");
+            assertEquals(1, changeLog.poll());
+            assertEquals("Late before", itemService.getItemById(late.getId()).orElseThrow().getName());
+
+            connection.commit();
+        }
+
+        assertEquals(1, changeLog.poll());
+        assertEquals("Late after", itemService.getItemById(late.getId()).orElseThrow().getName());
+        itemRepository.deleteById(late.getId());
+    }
+
+    private double applied() {
+        return meterRegistry.get("items.changelog.applied").counter().count();
+    }
+}
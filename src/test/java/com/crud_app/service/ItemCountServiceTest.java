@@ -0,0 +1,288 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCountServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Фоновые пересчёты копятся здесь и выполняются тестом явно
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private ItemCountService countService;
+
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        countService = new ItemCountService(itemRepository, searchIndex, eventPublisher, refreshes::add);
+        ReflectionTestUtils.setField(countService, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(countService, "approximateThreshold", 1000L);
+        ReflectionTestUtils.setField(countService, "approximateTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(countService, "reconcileInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(countService, "maxFilters", 100);
+
+        item = Item.builder().id(UUID.randomUUID()).name("Item").createdAt(LocalDateTime.now()).build();
+    }
+
+    @Test
+    void testTotalCountMaintainedOnWrite() {
+        when(itemRepository.count()).thenReturn(10L);
+
+        assertEquals(10, countService.totalCount());
+        countService.onItemChanged(ItemChangedEvent.saved(item, true));
+        countService.onItemChanged(ItemChangedEvent.saved(item, true));
+        countService.onItemChanged(ItemChangedEvent.saved(item, false));
+        countService.onItemChanged(ItemChangedEvent.deleted(item.getId()));
+
+        assertEquals(11, countService.totalCount());
+        verify(itemRepository, times(1)).count();
+    }
+
+    @Test
+    void testTotalCountReconciledInBackground() {
+        ReflectionTestUtils.setField(countService, "reconcileInterval", Duration.ZERO);
+        when(itemRepository.count()).thenReturn(10L, 12L);
+
+        countService.totalCount();
+        sleepMillis(2);
+
+        assertEquals(10, countService.totalCount());
+        verify(itemRepository, times(1)).count();
+
+        runRefreshes();
+        assertEquals(12, countService.totalCount());
+        verify(eventPublisher).publishEvent(new ItemCountChangedEvent(ItemFilter.NONE));
+    }
+
+    @Test
+    void testReconcileDoesNotOverwriteWritesDuringCount() {
+        ReflectionTestUtils.setField(countService, "reconcileInterval", Duration.ZERO);
+        when(itemRepository.count()).thenReturn(10L).thenAnswer(invocation -> {
+            // Запись закоммичена, пока шёл count(*), и в его результат не попала
+            countService.onItemChanged(ItemChangedEvent.saved(item, true));
+            return 10L;
+        });
+
+        countService.totalCount();
+        sleepMillis(2);
+        countService.totalCount();
+        runRefreshes();
+
+        assertEquals(11, countService.totalCount());
+    }
+
+    @Test
+    void testRemoteChangeKeepsTotalUntilReconciled() {
+        when(itemRepository.count()).thenReturn(10L, 11L);
+
+        countService.totalCount();
+        countService.onItemChanged(ItemChangedEvent.saved(item, true).withRemote(true));
+
+        assertEquals(10, countService.totalCount());
+        verify(itemRepository, times(1)).count();
+
+        runRefreshes();
+        assertEquals(11, countService.totalCount());
+    }
+
+    @Test
+    void testFilterCountAdjustedOnMatchingCreate() {
+        when(itemRepository.countRows(any(ItemFilter.class))).thenReturn(5L);
+
+        assertEquals(5, countService.count(ItemFilter.keyword("item")).getValue());
+        assertEquals(5, countService.count(ItemFilter.keyword("ITEM")).getValue());
+
+        countService.onItemChanged(ItemChangedEvent.saved(item, true));
+        countService.onItemChanged(ItemChangedEvent.saved(Item.builder().id(UUID.randomUUID()).name("Other")
+                .createdAt(LocalDateTime.now()).build(), true));
+
+        assertEquals(6, countService.count(ItemFilter.keyword("item")).getValue());
+        assertTrue(refreshes.isEmpty());
+        verify(itemRepository, times(1)).countRows(any(ItemFilter.class));
+    }
+
+    @Test
+    void testFilterCountServedUntilBackgroundRefresh_AfterDelete() {
+        when(itemRepository.countRows(any(ItemFilter.class))).thenReturn(5L, 4L);
+
+        countService.count(ItemFilter.keyword("item"));
+        countService.onItemChanged(ItemChangedEvent.deleted(item.getId()));
+
+        assertEquals(5, countService.count(ItemFilter.keyword("item")).getValue());
+        assertEquals(5, countService.count(ItemFilter.keyword("item")).getValue());
+        assertEquals(1, refreshes.size());
+
+        runRefreshes();
+        assertEquals(4, countService.count(ItemFilter.keyword("item")).getValue());
+        verify(itemRepository, times(2)).countRows(any(ItemFilter.class));
+        verify(eventPublisher).publishEvent(new ItemCountChangedEvent(ItemFilter.keyword("item")));
+    }
+
+    @Test
+    void testUpdateKeepsFilterCount() {
+        when(itemRepository.countRows(any(ItemFilter.class))).thenReturn(5L);
+
+        countService.count(ItemFilter.keyword("item"));
+        countService.onItemChanged(ItemChangedEvent.saved(item, false));
+        countService.onItemChanged(ItemChangedEvent.saved(item, false).withRemote(true));
+
+        assertEquals(5, countService.count(ItemFilter.keyword("item")).getValue());
+        assertTrue(refreshes.isEmpty());
+        verify(itemRepository, times(1)).countRows(any(ItemFilter.class));
+    }
+
+    @Test
+    void testRefreshDuringWriteStaysStale() {
+        ItemFilter filter = ItemFilter.keyword("item");
+        when(itemRepository.countRows(filter)).thenReturn(5L).thenAnswer(invocation -> {
+            countService.onItemChanged(ItemChangedEvent.deleted(UUID.randomUUID()));
+            return 6L;
+        }).thenReturn(7L);
+
+        countService.count(filter);
+        countService.onItemChanged(ItemChangedEvent.deleted(UUID.randomUUID()));
+        countService.count(filter);
+        runRefreshes();
+
+        assertEquals(6, countService.count(filter).getValue());
+        runRefreshes();
+        assertEquals(7, countService.count(filter).getValue());
+    }
+
+    // Доли строк под диапазон дат не знаем: до фонового подсчёта - без общего числа,
+    // а не размер всей таблицы
+    @Test
+    void testLargeTableShowsNoTotalUntilCountedInBackground() {
+        ItemFilter filter = new ItemFilter(null, "createdAt", LocalDate.of(2024, 1, 1), null);
+        when(itemRepository.count()).thenReturn(1_234_567L);
+        when(itemRepository.countRows(filter)).thenReturn(500L);
+
+        ItemCountService.Count estimate = countService.count(filter);
+
+        assertFalse(estimate.isKnown());
+        verify(itemRepository, never()).countRows(any());
+
+        runRefreshes();
+        ItemCountService.Count exact = countService.count(filter);
+        assertTrue(exact.isKnown());
+        assertFalse(exact.isApproximate());
+        assertEquals(500, exact.getValue());
+        verify(eventPublisher).publishEvent(new ItemCountChangedEvent(filter));
+    }
+
+    // От approximate-threshold число живёт approximate-ttl и записями не поправляется
+    @Test
+    void testLargeFilterCountStaysApproximate() {
+        when(itemRepository.count()).thenReturn(10L);
+        when(itemRepository.countRows(ItemFilter.keyword("item"))).thenReturn(5_000L);
+
+        ItemCountService.Count count = countService.count(ItemFilter.keyword("item"));
+        countService.onItemChanged(ItemChangedEvent.saved(item, true));
+
+        assertTrue(count.isApproximate());
+        assertEquals(5_000, countService.count(ItemFilter.keyword("item")).getValue());
+        assertTrue(countService.count(ItemFilter.keyword("item")).isApproximate());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void testUnchangedRefreshPublishesNothing() {
+        ReflectionTestUtils.setField(countService, "ttl", Duration.ZERO);
+        when(itemRepository.countRows(ItemFilter.keyword("item"))).thenReturn(5L);
+
+        countService.count(ItemFilter.keyword("item"));
+        sleepMillis(2);
+        countService.count(ItemFilter.keyword("item"));
+        runRefreshes();
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testKeywordEstimateComesFromSearchIndex() {
+        when(itemRepository.count()).thenReturn(1_234_567L);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.supports("молоко")).thenReturn(true);
+        when(searchIndex.search("молоко", 0, 0)).thenReturn(new ItemSearchIndex.Hits(List.of(), 420));
+
+        ItemCountService.Count count = countService.count(ItemFilter.keyword("молоко"));
+
+        assertTrue(count.isApproximate());
+        assertEquals(420, count.getValue());
+        verify(itemRepository, never()).countRows(any());
+        assertEquals(1, refreshes.size());
+    }
+
+    @Test
+    void testFilterCountExpiresAfterTtl() {
+        ReflectionTestUtils.setField(countService, "ttl", Duration.ZERO);
+        when(itemRepository.countRows(ItemFilter.keyword("item"))).thenReturn(5L, 7L);
+
+        countService.count(ItemFilter.keyword("item"));
+        sleepMillis(2);
+
+        assertEquals(5, countService.count(ItemFilter.keyword("item")).getValue());
+        runRefreshes();
+        assertEquals(7, countService.count(ItemFilter.keyword("item")).getValue());
+    }
+
+    @Test
+    void testEmptyFilterUsesTotalCounter() {
+        when(itemRepository.count()).thenReturn(10L);
+
+        assertEquals(10, countService.count(ItemFilter.NONE).getValue());
+        assertEquals(10, countService.count(ItemFilter.keyword("  ")).getValue());
+        verify(itemRepository, never()).countRows(any());
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("42", ItemCountService.format(42, false));
+        assertEquals("~1.2M", ItemCountService.format(1_234_567, true));
+        assertEquals("~350K", ItemCountService.format(350_100, true));
+        assertEquals("~999", ItemCountService.format(999, true));
+    }
+
+    private void runRefreshes() {
+        List<Runnable> queued = new ArrayList<>(refreshes);
+        refreshes.clear();
+        queued.forEach(Runnable::run);
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ItemExportService.class)
+class ItemExportServiceTest {
+
+    @Autowired
+    private ItemExportService exportService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID oldId = UUID.randomUUID();
+    private final UUID newId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        insert(oldId, "Old, \"quoted\" item", "Line one\nline two", LocalDateTime.of(2024, 1, 1, 10, 0));
+        insert(newId, "Молоко", null, LocalDateTime.of(2024, 3, 1, 10, 0));
+    }
+
+    @Test
+    void export_Csv_ShouldWriteHeaderAndEscapeFields() throws Exception {
+        String csv = export(ItemFileFormat.CSV, ItemFilter.NONE);
+
+        String[] lines = csv.split("\n", 2);
+        assertEquals("id,name,description,createdAt,updatedAt", lines[0]);
+        // Новые сначала, как в списке по умолчанию
+        assertTrue(lines[1].startsWith(newId + ",Молоко,,2024-03-01T10:00,"));
+        assertTrue(csv.contains(oldId + ",\"Old, \"\"quoted\"\" item\",\"Line one\nline two\",2024-01-01T10:00"));
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneObjectPerLine() throws Exception {
+        String ndjson = export(ItemFileFormat.NDJSON, ItemFilter.NONE);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(ndjson.endsWith("\n"));
+        assertTrue(lines[0].startsWith("{\"id\":\"" + newId + "\",\"name\":\"Молоко\",\"description\":null"));
+        assertTrue(lines[1].contains("\"description\":\"Line one\\nline two\""));
+    }
+
+    @Test
+    void export_ShouldApplyKeywordFilter() throws Exception {
+        String csv = export(ItemFileFormat.CSV, ItemFilter.keyword("молоко"));
+
+        assertTrue(csv.contains(newId.toString()));
+        assertFalse(csv.contains(oldId.toString()));
+    }
+
+    @Test
+    void export_ShouldApplyDateFromFilter() throws Exception {
+        String csv = export(ItemFileFormat.CSV, ItemFilter.parse(null, null, "2024-02-01", null));
+
+        assertTrue(csv.contains(newId.toString()));
+        assertFalse(csv.contains(oldId.toString()));
+    }
+
+    // Как в списке: условия через AND, границы по дням включительно
+    @Test
+    void export_ShouldCombineKeywordAndInclusiveDateRange() throws Exception {
+        String csv = export(ItemFileFormat.CSV, ItemFilter.parse("item", null, "2024-01-01", "2024-01-01"));
+        assertTrue(csv.contains(oldId.toString()));
+        assertFalse(csv.contains(newId.toString()));
+
+        csv = export(ItemFileFormat.CSV, ItemFilter.parse("молоко", null, "2024-01-01", "2024-01-01"));
+        assertFalse(csv.contains(oldId.toString()));
+        assertFalse(csv.contains(newId.toString()));
+
+        csv = export(ItemFileFormat.CSV, ItemFilter.parse(null, null, "2024-03-01", "2024-03-01"));
+        assertTrue(csv.contains(newId.toString()));
+        assertFalse(csv.contains(oldId.toString()));
+    }
+
+    @Test
+    void export_ShouldFilterByUpdatedAt_WhenDateFieldIsUpdatedAt() throws Exception {
+        jdbcTemplate.update("UPDATE items SET updated_at = ? WHERE id = ?", LocalDateTime.of(2024, 5, 1, 10, 0), oldId);
+
+        String csv = export(ItemFileFormat.CSV, ItemFilter.parse(null, "updatedAt", "2024-04-01", null));
+
+        assertTrue(csv.contains(oldId.toString()));
+        assertFalse(csv.contains(newId.toString()));
+    }
+
+    @Test
+    void export_Ndjson_ShouldBeEmpty_WhenNothingMatches() throws Exception {
+        String ndjson = export(ItemFileFormat.NDJSON, ItemFilter.keyword("нет такого"));
+
+        assertEquals("", ndjson);
+    }
+
+    @Test
+    void formatOf_ShouldRejectUnknownFormat() {
+        assertEquals(ItemFileFormat.NDJSON, ItemFileFormat.of("NdJson"));
+        assertThrows(IllegalArgumentException.class, () -> ItemFileFormat.of("xml"));
+    }
+
+    private String export(ItemFileFormat format, ItemFilter filter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, filter, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void insert(UUID id, String name, String description, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO items (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                id, name, description, createdAt, createdAt);
+    }
+}
@@ -0,0 +1,88 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ImportReport;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemImportServiceTest {
+
+    @Autowired
+    private ItemImportService importService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        // Маленькие порции и очередь на одну порцию, чтобы разбор упирался в запись
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "queueCapacity", 1);
+    }
+
+    @Test
+    void importItems_Csv_ShouldWriteValidRowsAndReportRejected() throws Exception {
+        String csv = "name,description\n" +
+                "Item 1,Description 1\n" +
+                "," + "no name\n" +
+                "Item 2,\n" +
+                "Item 3," + "x".repeat(256) + "\n" +
+                "Item 4,Description 4\n" +
+                "Item 5,Description 5\n";
+
+        ImportReport report = importService.importItems(ItemFileFormat.CSV, body(csv));
+
+        assertEquals(ImportReport.Status.COMPLETED, report.getStatus());
+        assertEquals(7, report.getLinesRead());
+        assertEquals(4, report.getRowsWritten());
+        assertEquals(2, report.getRowsRejected());
+        assertEquals(2, report.getBatches());
+        assertEquals(3, report.getRejected().get(0).getLine());
+        assertTrue(report.getRejected().get(0).getReason().contains("name"));
+        assertEquals(5, report.getRejected().get(1).getLine());
+        assertTrue(report.getRejected().get(1).getReason().contains("description"));
+        assertEquals(4, itemRepository.count());
+    }
+
+    @Test
+    void importItems_Ndjson_ShouldWriteRows() throws Exception {
+        String ndjson = "{\"name\":\"Молоко\",\"description\":\"2 литра\"}\n" +
+                "{\"name\":\"Хлеб\"}\n" +
+                "{\"name\":\"Сыр\"}\n";
+
+        ImportReport report = importService.importItems(ItemFileFormat.NDJSON, body(ndjson));
+
+        assertEquals(3, report.getRowsWritten());
+        assertEquals(0, report.getRowsRejected());
+        assertEquals(3, itemRepository.count());
+        assertEquals(ImportReport.Status.COMPLETED,
+                importService.getImport(report.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void importItems_ShouldMarkJobFailed_WhenHeaderIsInvalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importItems(ItemFileFormat.CSV, body("title\nItem\n")));
+
+        assertTrue(importService.getImports().stream()
+                .anyMatch(report -> report.getStatus() == ImportReport.Status.FAILED));
+        assertEquals(0, itemRepository.count());
+    }
+
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
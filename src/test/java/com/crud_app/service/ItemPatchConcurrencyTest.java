@@ -0,0 +1,60 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemPatchConcurrencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int PATCHES = 50;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void racingPatches_ShouldEitherApplyOrConflictButNeverBeLost() throws Exception {
+        UUID id = itemRepository.save(Item.builder().name("Contended").build()).getId();
+        long initialVersion = itemRepository.findVersionById(id).orElseThrow();
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // Все потоки читают одну запись и правят её по прочитанной версии
+        try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                executor.submit(() -> {
+                    for (int i = 0; i < PATCHES; i++) {
+                        Item current = itemRepository.findById(id).orElseThrow();
+                        try {
+                            itemService.patchItem(id, ItemPatch.of("Writer " + writer + " #" + i, null, current.getVersion()));
+                            applied.incrementAndGet();
+                        } catch (ItemVersionConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        // Каждая применённая правка поднимает версию ровно на 1 - иначе какая-то затёрта
+        assertEquals(WRITERS * PATCHES, applied.get() + conflicts.get());
+        assertEquals(applied.get(), itemRepository.findVersionById(id).orElseThrow() - initialVersion);
+    }
+}
@@ -0,0 +1,138 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.PurgeReport;
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemPurgeServiceTest {
+
+    @Autowired
+    private ItemPurgeService purgeService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemCountService countService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        ReflectionTestUtils.setField(purgeService, "chunkSize", 2);
+        ReflectionTestUtils.setField(purgeService, "pause", Duration.ZERO);
+        // Счётчик общий для контекста, а deleteAll событий не публикует
+        ((AtomicLong) ReflectionTestUtils.getField(countService, "total")).set(-1);
+    }
+
+    @Test
+    void purgeByDate_ShouldDeleteOnlyOlderRowsInChunks() throws Exception {
+        List<UUID> old = save(5, "Old");
+        List<UUID> recent = save(3, "Recent");
+        makeOld(old);
+        assertEquals(8, countService.totalCount());
+
+        PurgeReport report = await(purgeService.startPurge(LocalDate.of(2021, 1, 1), null).getId());
+
+        assertEquals(PurgeReport.Status.COMPLETED, report.getStatus());
+        assertEquals(5, report.getRowsDeleted());
+        assertEquals(3, report.getChunks());
+        assertEquals(3, itemRepository.count());
+        assertEquals(3, itemRepository.findAllById(recent).size());
+        assertEquals(3, countService.totalCount());
+    }
+
+    @Test
+    void purgeByKeyword_ShouldDeleteMatchingRows() throws Exception {
+        save(5, "Temp");
+        save(2, "Keep");
+
+        PurgeReport report = await(purgeService.startPurge(null, "temp").getId());
+
+        assertEquals(PurgeReport.Status.COMPLETED, report.getStatus());
+        assertEquals(5, report.getRowsDeleted());
+        assertEquals(2, itemRepository.count());
+    }
+
+    @Test
+    void purgeByDateAndKeyword_ShouldRequireBoth() throws Exception {
+        List<UUID> oldTemp = save(3, "Temp");
+        List<UUID> oldKeep = save(2, "Keep");
+        save(2, "Temp new");
+        makeOld(oldTemp);
+        makeOld(oldKeep);
+
+        PurgeReport report = await(purgeService.startPurge(LocalDate.of(2021, 1, 1), "temp").getId());
+
+        assertEquals(3, report.getRowsDeleted());
+        assertEquals(4, itemRepository.count());
+    }
+
+    @Test
+    void cancelPurge_ShouldStopAfterCurrentChunk() throws Exception {
+        save(6, "Temp");
+        ReflectionTestUtils.setField(purgeService, "pause", Duration.ofMillis(500));
+
+        UUID id = purgeService.startPurge(null, "temp").getId();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (purgeService.getPurge(id).orElseThrow().getRowsDeleted() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        purgeService.cancelPurge(id);
+        PurgeReport report = await(id);
+
+        assertEquals(PurgeReport.Status.CANCELLED, report.getStatus());
+        assertEquals(2, report.getRowsDeleted());
+        assertEquals(4, itemRepository.count());
+    }
+
+    @Test
+    void startPurge_ShouldRejectMissingCriteria() {
+        assertThrows(IllegalArgumentException.class, () -> purgeService.startPurge(null, " "));
+    }
+
+    private List<UUID> save(int count, String prefix) {
+        return itemRepository.saveAll(IntStream.range(0, count)
+                        .mapToObj(i -> Item.builder().name(prefix + " " + i).build())
+                        .toList())
+                .stream()
+                .map(Item::getId)
+                .toList();
+    }
+
+    // created_at не меняется через JPA (updatable = false)
+    private void makeOld(List<UUID> ids) {
+        ids.forEach(id -> jdbcTemplate.update("UPDATE items SET created_at = TIMESTAMP '2020-06-01 00:00:00' WHERE id = ?", id));
+    }
+
+    private PurgeReport await(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        PurgeReport report = purgeService.getPurge(id).orElseThrow();
+        while ((report.getStatus() == PurgeReport.Status.QUEUED || report.getStatus() == PurgeReport.Status.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            report = purgeService.getPurge(id).orElseThrow();
+        }
+        return report;
+    }
+}
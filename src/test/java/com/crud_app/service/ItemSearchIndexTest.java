@@ -0,0 +1,155 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex searchIndex;
+
+    private Item milk;
+    private Item report;
+    private Item reportDraft;
+
+    @BeforeEach
+    void setUp() {
+        milk = item("Купить молоко", "Продукты на неделю", 3);
+        report = item("Отчёт", "Квартальный отчёт для руководства", 2);
+        reportDraft = item("Черновик отчёта", null, 1);
+
+        when(itemRepository.seek(eq("createdAt"), eq(true), isNull(), isNull(), anyInt()))
+                .thenReturn(List.of(reportDraft, report, milk));
+        when(itemRepository.seek(eq("createdAt"), eq(true), any(LocalDateTime.class), any(UUID.class), anyInt()))
+                .thenReturn(List.of());
+
+        searchIndex = new ItemSearchIndex(itemRepository);
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void testRebuildMakesIndexReady() {
+        assertTrue(searchIndex.isReady());
+    }
+
+    @Test
+    void testSubstringSearchIgnoresCase() {
+        ItemSearchIndex.Hits hits = searchIndex.search("МОЛОК", 0, 10);
+
+        assertEquals(1, hits.getTotal());
+        assertEquals(List.of(milk.getId()), hits.getIds());
+    }
+
+    @Test
+    void testRankingPrefersExactNameMatch() {
+        ItemSearchIndex.Hits hits = searchIndex.search("отчёт", 0, 10);
+
+        assertEquals(2, hits.getTotal());
+        assertEquals(List.of(report.getId(), reportDraft.getId()), hits.getIds());
+    }
+
+    @Test
+    void testPagination() {
+        ItemSearchIndex.Hits hits = searchIndex.search("отч", 1, 1);
+
+        assertEquals(2, hits.getTotal());
+        assertEquals(List.of(reportDraft.getId()), hits.getIds());
+    }
+
+    @Test
+    void testNoMatch() {
+        ItemSearchIndex.Hits hits = searchIndex.search("спортзал", 0, 10);
+
+        assertEquals(0, hits.getTotal());
+        assertTrue(hits.getIds().isEmpty());
+    }
+
+    @Test
+    void testIncrementalUpdateAndDelete() {
+        Item added = item("Сходить в спортзал", null, 4);
+        searchIndex.onItemChanged(ItemChangedEvent.saved(added, true));
+        assertEquals(1, searchIndex.search("спорт", 0, 10).getTotal());
+
+        milk.setName("Купить хлеб");
+        searchIndex.onItemChanged(ItemChangedEvent.saved(milk, false));
+        assertEquals(0, searchIndex.search("молоко", 0, 10).getTotal());
+        assertEquals(1, searchIndex.search("хлеб", 0, 10).getTotal());
+
+        searchIndex.onItemChanged(ItemChangedEvent.deleted(report.getId()));
+        assertEquals(List.of(reportDraft.getId()), searchIndex.search("отчёт", 0, 10).getIds());
+    }
+
+    // Число совпадений - как у LIKE '%kw%' по name и description без учёта регистра
+    @Test
+    void testTotalMatchesSubstringCount() {
+        for (String keyword : List.of("отч", "продукты", "для рук", "купить молоко")) {
+            long expected = Stream.of(milk, report, reportDraft)
+                    .filter(item -> contains(item.getName(), keyword) || contains(item.getDescription(), keyword))
+                    .count();
+            assertEquals(expected, searchIndex.search(keyword, 0, 10).getTotal(), keyword);
+        }
+    }
+
+    // Повторное построение: пока идёт чтение из БД, поиск отвечает по прежнему индексу,
+    // а изменения за это время попадают и в прежний, и в новый индекс
+    @Test
+    void testRebuildServesOldIndexAndKeepsConcurrentChanges() {
+        Item added = item("Сходить в спортзал", null, 4);
+        when(itemRepository.seek(eq("createdAt"), eq(true), isNull(), isNull(), anyInt()))
+                .thenAnswer(invocation -> {
+                    assertTrue(searchIndex.isReady());
+                    assertEquals(List.of(milk.getId()), searchIndex.search("молоко", 0, 10).getIds());
+                    searchIndex.onItemChanged(ItemChangedEvent.deleted(milk.getId()));
+                    searchIndex.onItemChanged(ItemChangedEvent.saved(added, true));
+                    assertEquals(1, searchIndex.search("спорт", 0, 10).getTotal());
+                    return List.of(reportDraft, report, milk);
+                });
+
+        searchIndex.rebuild();
+
+        assertEquals(0, searchIndex.search("молоко", 0, 10).getTotal());
+        assertEquals(List.of(added.getId()), searchIndex.search("спорт", 0, 10).getIds());
+        assertEquals(2, searchIndex.search("отчёт", 0, 10).getTotal());
+    }
+
+    @Test
+    void testShortKeywordNotSupported() {
+        assertFalse(searchIndex.supports("от"));
+        assertTrue(searchIndex.supports("отч"));
+    }
+
+    private Item item(String name, String description, int daysAgo) {
+        return Item.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .description(description)
+                .createdAt(LocalDateTime.now().minusDays(daysAgo))
+                .build();
+    }
+
+    private static boolean contains(String text, String keyword) {
+        return text != null && text.toLowerCase().contains(keyword.toLowerCase());
+    }
+}
@@ -1,5 +1,9 @@
 package com.crud_app.service;
 
+import com.crud_app.cache.ItemCache;
+import com.crud_app.dto.ItemFilter;
+import com.crud_app.dto.ItemPatch;
+import com.crud_app.dto.ItemRow;
 import com.crud_app.model.Item;
 import com.crud_app.repository.ItemRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,11 +11,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -28,12 +40,35 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ItemCountService countService;
+
+    @Mock
+    private ItemWriteBehind writeBehind;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Выключенный кэш (размер 0) - запросы идут прямо в репозиторий
+    @Spy
+    private ItemCache itemCache = new ItemCache(0, Duration.ZERO, 0, Duration.ZERO, 0);
+
+    // Транзакция без базы: менеджер-заглушка, колбэк выполняется как есть
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private ItemService itemService;
 
     private Item item1;
     private Item item2;
     private Item item3;
+    private ItemRow row1;
+    private ItemRow row2;
+    private ItemRow row3;
     private UUID itemId;
 
     @BeforeEach
@@ -57,6 +92,10 @@ class ItemServiceTest {
         item3.setName("Different Item");
         item3.setDescription("Another description");
         item3.setCreatedAt(LocalDateTime.now());
+
+        row1 = row(item1);
+        row2 = row(item2);
+        row3 = row(item3);
     }
 
     @Test
@@ -71,58 +110,83 @@ class ItemServiceTest {
     }
 
     @Test
-    void testGetAllItemsPaginated() {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1, item2));
-        when(itemRepository.findAll(any(Pageable.class))).thenReturn(page);
+    void testFindItemsWithoutFilter() {
+        when(itemRepository.findRows(eq(ItemFilter.NONE), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(row1, row2)));
+        when(countService.count(ItemFilter.NONE)).thenReturn(new ItemCountService.Count(2, false));
 
-        Page<Item> result = itemService.getAllItemsPaginated(0, 10, "name", "asc");
+        Page<ItemRow> result = itemService.findItems(ItemFilter.NONE, 0, 10, "name", "asc");
 
         assertEquals(2, result.getContent().size());
-        verify(itemRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals(2, result.getTotalElements());
+        verify(itemRepository).findRows(ItemFilter.NONE, PageRequest.of(0, 10, Sort.by("name").ascending()));
+        verify(itemRepository, never()).count();
     }
 
     @Test
-    void testGetAllItemsPaginatedDescending() {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item3, item2));
-        when(itemRepository.findAll(any(Pageable.class))).thenReturn(page);
+    void testFindItemsDescending() {
+        when(itemRepository.findRows(eq(ItemFilter.NONE), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(row3, row2)));
+        when(countService.count(ItemFilter.NONE)).thenReturn(new ItemCountService.Count(2, false));
 
-        Page<Item> result = itemService.getAllItemsPaginated(0, 10, "createdAt", "desc");
+        Page<ItemRow> result = itemService.findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
 
         assertEquals(2, result.getContent().size());
-        verify(itemRepository, times(1)).findAll(any(Pageable.class));
+        verify(itemRepository).findRows(ItemFilter.NONE, PageRequest.of(0, 10, Sort.by("createdAt").descending()));
     }
 
     @Test
-    void testSearchItems() {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1, item2));
-        when(itemRepository.searchByKeyword(eq("item"), any(Pageable.class))).thenReturn(page);
+    void testFindItemsByKeywordWithoutIndex() {
+        ItemFilter filter = ItemFilter.keyword("item");
+        when(itemRepository.findRows(eq(filter), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(row1, row2)));
+        when(countService.count(filter)).thenReturn(new ItemCountService.Count(2, false));
 
-        Page<Item> result = itemService.searchItems("item", 0, 10);
+        Page<ItemRow> result = itemService.findItems(filter, 0, 10, null, "desc");
 
         assertEquals(2, result.getContent().size());
-        verify(itemRepository, times(1)).searchByKeyword(eq("item"), any(Pageable.class));
+        verify(itemRepository).findRows(filter, PageRequest.of(0, 10));
+        verify(itemRepository, never()).countRows(any(ItemFilter.class));
     }
 
     @Test
-    void testFindByCreatedAtAfter() {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item2, item3));
-        when(itemRepository.findByCreatedAtAfter(any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
+    void testFindItemsCombinesKeywordDateRangeAndSort() {
+        ItemFilter filter = new ItemFilter("item", "updatedAt", LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 10));
+        when(itemRepository.findRows(eq(filter), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(row2, row3)));
+        when(countService.count(filter)).thenReturn(new ItemCountService.Count(250_000, true));
 
-        Page<Item> result = itemService.findByCreatedAtAfter("2024-12-10", 0, 10);
+        Page<ItemRow> result = itemService.findItems(filter, 0, 10, "name", "asc");
 
         assertEquals(2, result.getContent().size());
-        verify(itemRepository, times(1)).findByCreatedAtAfter(any(LocalDateTime.class), any(Pageable.class));
+        assertEquals(250_000, result.getTotalElements());
+        assertTrue(((CountedPage<ItemRow>) result).isApproximateTotal());
+        // С диапазоном дат триграммный индекс не используется, даже без сортировки
+        verify(itemRepository).findRows(filter, PageRequest.of(0, 10, Sort.by("name").ascending()));
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void testInvalidDateIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ItemFilter.parse(null, null, "invalid-date", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ItemFilter.parse(null, "version", "2024-12-10", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ItemFilter.parse(null, null, "2024-12-10", "2024-12-01"));
     }
 
     @Test
-    void testFindByCreatedAtAfterInvalidDate() {
-        Page<Item> page = new PageImpl<>(Arrays.asList(item1, item2, item3));
-        when(itemRepository.findAll(any(Pageable.class))).thenReturn(page);
+    void testStaleCountDoesNotHideNextPage() {
+        Pageable pageable = PageRequest.of(1, 2);
+        when(itemRepository.findRows(eq(ItemFilter.NONE), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(row1, row2), pageable, true));
+        when(countService.count(ItemFilter.NONE)).thenReturn(new ItemCountService.Count(3, false));
 
-        Page<Item> result = itemService.findByCreatedAtAfter("invalid-date", 0, 10);
+        Page<ItemRow> result = itemService.findItems(ItemFilter.NONE, 1, 2, "name", "asc");
 
-        assertEquals(3, result.getContent().size());
-        verify(itemRepository, times(1)).findAll(any(Pageable.class));
+        assertTrue(result.hasNext());
+        assertEquals(5, result.getTotalElements());
     }
 
     @Test
@@ -158,11 +222,13 @@ class ItemServiceTest {
 
     @Test
     void testDeleteItem() {
-        doNothing().when(itemRepository).deleteById(itemId);
+        when(itemRepository.deleteItemById(itemId)).thenReturn(1);
 
         itemService.deleteItem(itemId);
 
-        verify(itemRepository, times(1)).deleteById(itemId);
+        verify(itemRepository, times(1)).deleteItemById(itemId);
+        verify(itemRepository, never()).findById(any());
+        verify(itemRepository, never()).deleteById(any());
     }
 
     @Test
@@ -184,4 +250,218 @@ class ItemServiceTest {
         assertNotNull(result.getCreatedAt());
         verify(itemRepository, times(1)).save(newItem);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetItemsKeysetFirstPage() {
+        when(itemRepository.seekRows("name", true, null, null, 3))
+                .thenReturn(Arrays.asList(row3, row1, row2));
+
+        KeysetPage<ItemRow> result = itemService.getItemsKeyset(null, null, 2, "name", "asc");
+
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.hasNext());
+        assertFalse(result.hasPrevious());
+        verify(itemRepository, never()).count();
+    }
+
+    @Test
+    void testGetItemsKeysetAfterCursor() {
+        String after = ItemCursor.of(row1, "name", "asc").encode();
+        when(itemRepository.seekRows("name", true, "Item 1", itemId, 11))
+                .thenReturn(List.of(row2));
+
+        KeysetPage<ItemRow> result = itemService.getItemsKeyset(after, null, 10, "name", "asc");
+
+        assertEquals(List.of(row2), result.getContent());
+        assertFalse(result.hasNext());
+        assertTrue(result.hasPrevious());
+    }
+
+    @Test
+    void testGetItemsKeysetBeforeCursorReversesRows() {
+        String before = ItemCursor.of(row3, "name", "asc").encode();
+        when(itemRepository.seekRows("name", false, "Different Item", row3.id(), 3))
+                .thenReturn(Arrays.asList(row2, row1));
+
+        KeysetPage<ItemRow> result = itemService.getItemsKeyset(null, before, 2, "name", "asc");
+
+        assertEquals(List.of(row1, row2), result.getContent());
+        assertTrue(result.hasNext());
+        assertFalse(result.hasPrevious());
+    }
+
+    @Test
+    void testGetItemsKeysetIgnoresCursorForOtherSort() {
+        String after = ItemCursor.of(row1, "createdAt", "desc").encode();
+        when(itemRepository.seekRows("name", true, null, null, 11))
+                .thenReturn(List.of(row1));
+
+        KeysetPage<ItemRow> result = itemService.getItemsKeyset(after, null, 10, "name", "asc");
+
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.hasPrevious());
+    }
+
+    @Test
+    void testItemCursorRoundTrip() {
+        ItemCursor cursor = ItemCursor.of(row1, "createdAt", "desc");
+
+        ItemCursor decoded = ItemCursor.decode(cursor.encode()).orElseThrow();
+
+        assertEquals(cursor, decoded);
+        assertTrue(ItemCursor.decode("not-a-cursor").isEmpty());
+    }
+
+    @Test
+    void testSearchItemsUsesIndexWhenReady() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.supports("item")).thenReturn(true);
+        when(searchIndex.search("item", 10, 10))
+                .thenReturn(new ItemSearchIndex.Hits(List.of(row2.id(), row1.id()), 12));
+        when(itemRepository.findRowsByIdIn(List.of(row2.id(), row1.id())))
+                .thenReturn(Arrays.asList(row1, row2));
+
+        Page<ItemRow> result = itemService.findItems(ItemFilter.keyword("item"), 1, 10, null, "desc");
+
+        assertEquals(List.of(row2, row1), result.getContent());
+        assertEquals(12, result.getTotalElements());
+        verify(itemRepository, never()).findRows(any(), any());
+    }
+
+    @Test
+    void testSaveItemPublishesEvent() {
+        Item newItem = new Item();
+        newItem.setName("New Item");
+        when(itemRepository.save(newItem)).thenReturn(item1);
+
+        itemService.saveItem(newItem);
+
+        verify(eventPublisher).publishEvent(ItemChangedEvent.saved(item1, true));
+    }
+
+    @Test
+    void testSaveItemGoesThroughWriteBehindWhenEnabled() {
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(writeBehind.save(item1)).thenReturn(item1);
+
+        assertSame(item1, itemService.saveItem(item1));
+
+        verify(itemRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testDeleteItemPublishesEvent() {
+        when(itemRepository.deleteItemById(itemId)).thenReturn(1);
+
+        itemService.deleteItem(itemId);
+
+        verify(eventPublisher).publishEvent(ItemChangedEvent.deleted(itemId));
+    }
+
+    @Test
+    void testDeleteMissingItemPublishesNothing() {
+        when(itemRepository.deleteItemById(itemId)).thenReturn(0);
+
+        itemService.deleteItem(itemId);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testGetItemByIdServedFromCache() {
+        ItemService cachedService = serviceWithCache();
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item1));
+
+        cachedService.getItemById(itemId);
+        Optional<Item> result = cachedService.getItemById(itemId);
+
+        assertEquals("Item 1", result.orElseThrow().getName());
+        verify(itemRepository, times(1)).findById(itemId);
+    }
+
+    @Test
+    void testFirstPageServedFromCache() {
+        ItemService cachedService = serviceWithCache();
+        when(itemRepository.findRows(eq(ItemFilter.NONE), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(row1, row2)));
+        when(countService.count(ItemFilter.NONE)).thenReturn(new ItemCountService.Count(2, false));
+
+        cachedService.findItems(ItemFilter.NONE, 0, 10, "createdAt", "desc");
+        cachedService.findItems(ItemFilter.NONE, 0, 10, "createdAt", "DESC");
+
+        verify(itemRepository, times(1)).findRows(any(), any());
+    }
+
+    private static ItemRow row(Item item) {
+        return new ItemRow(item.getId(), item.getName(), item.getDescription(), item.getCreatedAt(), item.getUpdatedAt());
+    }
+
+    private ItemService serviceWithCache() {
+        return new ItemService(itemRepository, searchIndex, countService,
+                new ItemCache(10, Duration.ofMinutes(1), 10, Duration.ofMinutes(1), 3), writeBehind, eventPublisher,
+                transactionTemplate);
+    }
+
+    @Test
+    void testPatchItemPublishesUpdatedRow() {
+        Item patched = Item.builder().id(itemId).name("Patched").version(4).build();
+        when(itemRepository.patch(eq(itemId), eq("Patched"), eq(false), isNull(), eq(3L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(patched));
+
+        ItemPatch patch = new ItemPatch();
+        patch.setName("Patched");
+        patch.setVersion(3L);
+
+        assertEquals(Optional.of(patched), itemService.patchItem(itemId, patch));
+        verify(eventPublisher).publishEvent(ItemChangedEvent.saved(patched, false));
+        verify(itemRepository, never()).findById(any());
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void testPatchItemWithStaleVersionThrowsConflict() {
+        when(itemRepository.patch(eq(itemId), any(), anyBoolean(), any(), eq(3L), any())).thenReturn(Optional.empty());
+        when(itemRepository.findVersionById(itemId)).thenReturn(Optional.of(5L));
+
+        ItemVersionConflictException e = assertThrows(ItemVersionConflictException.class,
+                () -> itemService.patchItem(itemId, ItemPatch.of("Patched", null, 3L)));
+
+        assertEquals(5L, e.getCurrentVersion());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testPatchMissingItemReturnsEmpty() {
+        when(itemRepository.patch(eq(itemId), any(), anyBoolean(), any(), eq(3L), any())).thenReturn(Optional.empty());
+        when(itemRepository.findVersionById(itemId)).thenReturn(Optional.empty());
+
+        assertTrue(itemService.patchItem(itemId, ItemPatch.of("Patched", null, 3L)).isEmpty());
+    }
+
+    @Test
+    void testPatchItemValidatesFields() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.patchItem(itemId, new ItemPatch()));
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.patchItem(itemId, ItemPatch.of(" ", null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.patchItem(itemId, ItemPatch.of("x".repeat(51), null, null)));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testPatchItemChecksOnlyPresentFields() {
+        ItemPatch longDescription = new ItemPatch();
+        longDescription.setDescription("x".repeat(256));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> itemService.patchItem(itemId, longDescription));
+        assertFalse(e.getMessage().contains("name"));
+
+        ItemPatch descriptionOnly = new ItemPatch();
+        descriptionOnly.setDescription("Only description");
+        when(itemRepository.patch(eq(itemId), isNull(), eq(true), eq("Only description"), isNull(), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), itemService.patchItem(itemId, descriptionOnly));
+    }
+}
@@ -0,0 +1,174 @@
+package com.crud_app.service;
+
+import com.crud_app.dto.ItemStats;
+import com.crud_app.dto.ItemStatsPoint;
+import com.crud_app.dto.StatsRebuildReport;
+import com.crud_app.model.Item;
+import com.crud_app.model.ItemStatsBucket;
+import com.crud_app.model.ItemStatsBucket.Granularity;
+import com.crud_app.repository.ItemRepository;
+import com.crud_app.repository.ItemStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemStatsServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private ItemStatsService statsService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemStatsRepository statsRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        statsRepository.deleteAll();
+    }
+
+    @Test
+    void saveAndDelete_ShouldCountInCurrentBuckets() {
+        Item item = itemService.saveItem(Item.builder().name("Stats").build());
+        item.setDescription("changed");
+        itemService.saveItem(item);
+        itemService.deleteItem(item.getId());
+
+        LocalDate today = LocalDate.now();
+        for (Granularity granularity : Granularity.values()) {
+            ItemStats stats = statsService.histogram(granularity, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+            assertEquals(1, stats.getCreated(), granularity.name());
+            assertEquals(1, stats.getUpdated(), granularity.name());
+            assertEquals(1, stats.getDeleted(), granularity.name());
+        }
+    }
+
+    @Test
+    void eventsOfOneTransaction_ShouldBeWrittenOncePerBucket() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                Item item = Item.builder().id(UUID.randomUUID()).name("Item " + i).createdAt(MONDAY.plusMinutes(i)).build();
+                eventPublisher.publishEvent(ItemChangedEvent.saved(item, true));
+            }
+        });
+
+        // Все пять - в одном часе, одном дне и одной неделе одного потока: по строке на интервал
+        assertEquals(3, statsRepository.count());
+        assertEquals(5, statsService.histogram(Granularity.HOUR, MONDAY, MONDAY.plusHours(1)).getCreated());
+        assertEquals(5, statsService.histogram(Granularity.WEEK, MONDAY, MONDAY.plusWeeks(1)).getCreated());
+    }
+
+    @Test
+    void rolledBackTransaction_ShouldNotChangeCounters() {
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(ItemChangedEvent.deleted(UUID.randomUUID()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, statsRepository.count());
+    }
+
+    @Test
+    void histogram_ShouldSumSlotsAndFillEmptyBuckets() {
+        statsRepository.increment(List.of(
+                bucket(Granularity.DAY, MONDAY, 0, 2, 1, 0),
+                bucket(Granularity.DAY, MONDAY, 3, 4, 0, 1),
+                bucket(Granularity.DAY, MONDAY.plusDays(2), 1, 1, 0, 0)));
+        statsRepository.increment(List.of(bucket(Granularity.DAY, MONDAY, 3, 1, 0, 0)));
+
+        ItemStats stats = statsService.histogram(Granularity.DAY, MONDAY.plusHours(5), MONDAY.plusDays(3));
+
+        assertEquals(MONDAY, stats.getFrom());
+        assertEquals(List.of(
+                new ItemStatsPoint(MONDAY, 7, 1, 1),
+                ItemStatsPoint.empty(MONDAY.plusDays(1)),
+                new ItemStatsPoint(MONDAY.plusDays(2), 1, 0, 0)), stats.getBuckets());
+        assertEquals(8, stats.getCreated());
+    }
+
+    @Test
+    void histogram_ShouldRejectTooManyBuckets() {
+        assertThrows(IllegalArgumentException.class,
+                () -> statsService.histogram(Granularity.HOUR, MONDAY, MONDAY.plusYears(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> statsService.histogram(Granularity.DAY, MONDAY, MONDAY));
+    }
+
+    @Test
+    void rebuild_ShouldRecountWindowFromItemsAndKeepDeleted() throws Exception {
+        // Строки в обход ItemService, как у ItemSeeder: вторник и среда первой недели, одна изменена в следующую
+        insert("2024-01-02 10:15:00", null);
+        insert("2024-01-02 10:45:00", null);
+        insert("2024-01-03 08:00:00", "2024-01-09 12:00:00");
+        // Устаревшие счётчики окна заменяются, удаления остаются
+        statsRepository.increment(List.of(bucket(Granularity.WEEK, MONDAY, 5, 100, 100, 4)));
+
+        StatsRebuildReport report = await(statsService.startRebuild(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 10)).getId());
+
+        assertEquals(StatsRebuildReport.Status.COMPLETED, report.getStatus());
+        assertEquals(LocalDate.of(2024, 1, 1), report.getFrom());
+        assertEquals(LocalDate.of(2024, 1, 14), report.getTo());
+        assertEquals(2, report.getWeeksDone());
+        assertEquals(3, report.getRowsCounted());
+
+        assertEquals(List.of(new ItemStatsPoint(MONDAY, 3, 0, 4), new ItemStatsPoint(MONDAY.plusWeeks(1), 0, 1, 0)),
+                statsService.histogram(Granularity.WEEK, MONDAY, MONDAY.plusWeeks(2)).getBuckets());
+        ItemStats hours = statsService.histogram(Granularity.HOUR, MONDAY.plusDays(1), MONDAY.plusDays(2));
+        assertEquals(2, hours.getBuckets().get(10).created());
+        assertEquals(2, hours.getCreated());
+        assertEquals(1, statsService.histogram(Granularity.DAY, MONDAY.plusDays(8), MONDAY.plusDays(9)).getUpdated());
+    }
+
+    private void insert(String createdAt, String updatedAt) {
+        jdbcTemplate.update("INSERT INTO items (id, name, created_at, updated_at, version) " +
+                        "VALUES (RANDOM_UUID(), 'Seeded', CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), 0)",
+                createdAt, updatedAt != null ? updatedAt : createdAt);
+    }
+
+    private static ItemStatsBucket bucket(Granularity granularity, LocalDateTime start, int slot,
+                                          long created, long updated, long deleted) {
+        return new ItemStatsBucket(granularity, start, slot, created, updated, deleted);
+    }
+
+    private StatsRebuildReport await(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        StatsRebuildReport report = statsService.getRebuild(id).orElseThrow();
+        while ((report.getStatus() == StatsRebuildReport.Status.QUEUED
+                || report.getStatus() == StatsRebuildReport.Status.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            report = statsService.getRebuild(id).orElseThrow();
+        }
+        return report;
+    }
+}
@@ -0,0 +1,83 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemVersionServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemVersionService versionService;
+
+    @Test
+    void testInitialStampFromMaxUpdatedAt() {
+        LocalDateTime maxUpdatedAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(itemRepository.findMaxUpdatedAt()).thenReturn(maxUpdatedAt);
+
+        ItemVersionService.Stamp first = versionService.current();
+        ItemVersionService.Stamp second = versionService.current();
+
+        assertEquals(0, first.getVersion());
+        assertEquals(maxUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), first.getLastModified());
+        assertTrue(first.getEtag().startsWith("\"") && first.getEtag().endsWith("-0\""));
+        assertSame(first, second);
+        verify(itemRepository, times(1)).findMaxUpdatedAt();
+    }
+
+    @Test
+    void testEmptyTableUsesCurrentTime() {
+        long before = System.currentTimeMillis();
+
+        ItemVersionService.Stamp stamp = versionService.current();
+
+        assertTrue(stamp.getLastModified() >= before);
+    }
+
+    @Test
+    void testWriteBumpsVersionWithoutQuery() {
+        when(itemRepository.findMaxUpdatedAt()).thenReturn(LocalDateTime.of(2024, 3, 1, 12, 0));
+        ItemVersionService.Stamp initial = versionService.current();
+        Item item = Item.builder().id(UUID.randomUUID()).name("Item").build();
+
+        versionService.onItemChanged(ItemChangedEvent.saved(item, true));
+        versionService.onItemChanged(ItemChangedEvent.deleted(item.getId()));
+        ItemVersionService.Stamp changed = versionService.current();
+
+        assertEquals(2, changed.getVersion());
+        assertNotEquals(initial.getEtag(), changed.getEtag());
+        assertTrue(changed.getLastModified() > initial.getLastModified());
+        verify(itemRepository, times(1)).findMaxUpdatedAt();
+    }
+
+    @Test
+    void testWriteBeforeFirstReadSkipsQuery() {
+        versionService.onItemChanged(ItemChangedEvent.deleted(UUID.randomUUID()));
+
+        assertEquals(1, versionService.current().getVersion());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testEtagDiffersBetweenRestarts() throws InterruptedException {
+        ItemVersionService other = new ItemVersionService(itemRepository);
+        Thread.sleep(2);
+        ItemVersionService restarted = new ItemVersionService(itemRepository);
+
+        assertNotEquals(other.current().getEtag(), restarted.current().getEtag());
+    }
+}
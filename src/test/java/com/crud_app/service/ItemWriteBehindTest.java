@@ -0,0 +1,231 @@
+package com.crud_app.service;
+
+import com.crud_app.model.Item;
+import com.crud_app.repository.ItemRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Писатель сохраняет группы в своих транзакциях, поэтому тестовая транзакция отключена
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemWriteBehindTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+    private final RecordingCommitPosition commitPosition = new RecordingCommitPosition();
+    private ItemWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.stop();
+        }
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentWritesShareCommits() throws Exception {
+        writeBehind = start("sync", 100, Duration.ofMillis(50), 1000);
+        int writers = 20;
+        CountDownLatch ready = new CountDownLatch(writers);
+
+        List<Future<Item>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+            for (int i = 0; i < writers; i++) {
+                Item item = Item.builder().name("Item " + i).build();
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return writeBehind.save(item);
+                }));
+            }
+        }
+
+        for (Future<Item> result : results) {
+            assertNotNull(result.get().getId());
+            assertNotNull(result.get().getCreatedAt());
+        }
+        assertEquals(writers, itemRepository.count());
+        assertEquals(writers, (long) groupSizes().totalAmount());
+        assertTrue(groupSizes().count() < writers, "групп: " + groupSizes().count());
+        assertEquals(writers, events.size());
+    }
+
+    @Test
+    void testGroupIsLimitedByMaxSize() throws Exception {
+        writeBehind = start("async", 5, Duration.ofMillis(50), 1000);
+
+        for (int i = 0; i < 12; i++) {
+            writeBehind.save(Item.builder().name("Item " + i).build());
+        }
+        awaitCount(12);
+
+        assertTrue(groupSizes().max() <= 5);
+        assertTrue(groupSizes().count() >= 3);
+    }
+
+    @Test
+    void testFailedWriteDoesNotFailItsGroup() throws Exception {
+        writeBehind = start("sync", 100, Duration.ofMillis(100), 1000);
+        CountDownLatch ready = new CountDownLatch(3);
+
+        List<Future<Item>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            for (String name : new String[]{"Good 1", null, "Good 2"}) {
+                Item item = Item.builder().name(name).build();
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return writeBehind.save(item);
+                }));
+            }
+        }
+
+        assertEquals("Good 1", results.get(0).get().getName());
+        assertEquals("Good 2", results.get(2).get().getName());
+        Exception error = assertThrows(Exception.class, () -> results.get(1).get());
+        assertInstanceOf(RuntimeException.class, error.getCause());
+        assertEquals(2, itemRepository.count());
+        assertEquals(1.0, registry.get("items.write.failed").counter().count());
+    }
+
+    @Test
+    void testUpdateGoesThroughQueue() {
+        writeBehind = start("sync", 100, Duration.ZERO, 1000);
+        Item saved = writeBehind.save(Item.builder().name("Before").build());
+
+        saved.setName("After");
+        Item updated = writeBehind.save(saved);
+
+        assertEquals(saved.getId(), updated.getId());
+        assertEquals("After", itemRepository.findById(saved.getId()).orElseThrow().getName());
+        assertEquals(ItemChangedEvent.Type.UPDATED, ((ItemChangedEvent) events.get(1)).getType());
+    }
+
+    @Test
+    void testSyncWritePassesCommitPositionToCaller() {
+        writeBehind = start("sync", 100, Duration.ZERO, 1000);
+        commitPosition.position = 7;
+
+        writeBehind.save(Item.builder().name("Item").build());
+
+        assertEquals(7, commitPosition.writtenPosition);
+        assertSame(Thread.currentThread(), commitPosition.writtenOn);
+    }
+
+    @Test
+    void testListenersRunOnWriterThreadBeforeCallerReturns() {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        writeBehind = create("sync", 100, Duration.ZERO, 1000,
+                event -> threads.add(Thread.currentThread().getName()));
+        writeBehind.start();
+
+        writeBehind.save(Item.builder().name("Item").build());
+
+        assertEquals(List.of("item-write-behind"), threads);
+        assertSame(Thread.currentThread(), commitPosition.writtenOn);
+    }
+
+    @Test
+    void testAsyncReturnsBeforeCommitAndStopDrainsQueue() throws Exception {
+        writeBehind = start("async", 100, Duration.ofMillis(200), 1000);
+
+        for (int i = 0; i < 10; i++) {
+            writeBehind.save(Item.builder().name("Item " + i).build());
+        }
+        writeBehind.stop();
+
+        assertEquals(10, itemRepository.count());
+    }
+
+    @Test
+    void testFullQueueRejectsWrite() {
+        // Писатель не запущен - очередь не разбирается
+        writeBehind = create("async", 100, Duration.ZERO, 1);
+        writeBehind.save(Item.builder().name("Queued").build());
+
+        assertThrows(WriteQueueFullException.class, () -> writeBehind.save(Item.builder().name("Rejected").build()));
+        assertEquals(1.0, registry.get("items.write.rejected").counter().count());
+        assertEquals(1.0, registry.get("items.write.queue").gauge().value());
+    }
+
+    private ItemWriteBehind start(String durability, int maxSize, Duration maxWait, int capacity) {
+        ItemWriteBehind pipeline = create(durability, maxSize, maxWait, capacity);
+        pipeline.start();
+        return pipeline;
+    }
+
+    private ItemWriteBehind create(String durability, int maxSize, Duration maxWait, int capacity) {
+        return create(durability, maxSize, maxWait, capacity, events::add);
+    }
+
+    private ItemWriteBehind create(String durability, int maxSize, Duration maxWait, int capacity,
+                                   ApplicationEventPublisher publisher) {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("meterRegistry", registry);
+        context.getBeanFactory().registerSingleton("commitPosition", commitPosition);
+        ObjectProvider<MeterRegistry> provider = context.getBeanProvider(MeterRegistry.class);
+        return new ItemWriteBehind(itemRepository, transactionTemplate, publisher, true, durability,
+                maxSize, maxWait, capacity, Duration.ofMillis(20), provider,
+                context.getBeanProvider(CommitPosition.class));
+    }
+
+    private DistributionSummary groupSizes() {
+        return registry.get("items.write.group.size").summary();
+    }
+
+    private void awaitCount(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (itemRepository.count() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, itemRepository.count());
+    }
+
+    private static class RecordingCommitPosition implements CommitPosition {
+        private volatile long position;
+        private long writtenPosition;
+        private Thread writtenOn;
+
+        @Override
+        public long current() {
+            return position;
+        }
+
+        @Override
+        public void written(long position) {
+            writtenPosition = position;
+            writtenOn = Thread.currentThread();
+        }
+    }
+}